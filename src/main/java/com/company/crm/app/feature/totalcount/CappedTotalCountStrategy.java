@@ -0,0 +1,55 @@
+package com.company.crm.app.feature.totalcount;
+
+import com.company.crm.model.base.UuidEntityRepository;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts rows up to {@link #CAP_PROPERTY}: first checks whether a row exists after the cap, which stops
+ * scanning there, and counts exactly only when there are fewer rows.
+ */
+@Component
+public class CappedTotalCountStrategy implements TotalCountStrategy {
+
+    public static final String NAME = "capped";
+    public static final String CAP_PROPERTY = "crm.pagination.total-count.cap";
+
+    private final Environment environment;
+
+    public CappedTotalCountStrategy(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public TotalCount count(UuidEntityRepository<?> repository, JmixDataRepositoryContext context) {
+        return count(repository, context, environment.getProperty(CAP_PROPERTY, Integer.class, 10_000));
+    }
+
+    public TotalCount count(UuidEntityRepository<?> repository, JmixDataRepositoryContext context, int cap) {
+        LogicalCondition condition = LogicalCondition.and();
+        if (context.condition() != null) {
+            condition.add(context.condition());
+        }
+
+        boolean exceedsCap = !repository.fluentLoader()
+                .condition(condition)
+                .fetchPlan(FetchPlan.LOCAL)
+                .hints(context.hints())
+                .firstResult(cap)
+                .maxResults(1)
+                .list()
+                .isEmpty();
+        if (exceedsCap) {
+            return TotalCount.capped(cap + 1L, cap);
+        }
+        return TotalCount.exact(repository.count(context));
+    }
+}
@@ -0,0 +1,160 @@
+package com.company.crm.app.feature.totalcount;
+
+import com.company.crm.app.config.SpringProfiles;
+import com.company.crm.app.util.context.SessionIds;
+import com.company.crm.model.base.ConditionKey;
+import com.company.crm.model.base.UuidEntityRepository;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+import io.jmix.core.security.SecurityContextHelper;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates counts without counting rows on every request.
+ * <p>
+ * The count of all rows of an entity is counted once and then maintained by committed creations and deletions.
+ * Counts of filtered lists are counted exactly and reused for the same filter during {@link #TTL_PROPERTY},
+ * so they can lag behind changes.
+ * <p>
+ * In online mode each HTTP session has its own database, so counts are kept per session.
+ */
+@Component
+public class EstimatedTotalCountStrategy implements TotalCountStrategy {
+
+    public static final String NAME = "estimated";
+    public static final String TTL_PROPERTY = "crm.pagination.total-count.estimate-ttl";
+
+    private static final int MAX_ENTITY_COUNTS = 500;
+    private static final int MAX_FILTERED_COUNTS = 500;
+
+    private final boolean sessionScoped;
+    private final long ttlNanos;
+
+    private final Map<EntityCountKey, AtomicLong> entityCounts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<EntityCountKey, AtomicLong> eldest) {
+            return size() > MAX_ENTITY_COUNTS;
+        }
+    };
+    private final Map<String, FilteredCount> filteredCounts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FilteredCount> eldest) {
+            return size() > MAX_FILTERED_COUNTS;
+        }
+    };
+
+    public EstimatedTotalCountStrategy(SpringProfiles springProfiles, Environment environment) {
+        this.sessionScoped = springProfiles.isOnlineProfile();
+        this.ttlNanos = environment.getProperty(TTL_PROPERTY, Duration.class, Duration.ofMinutes(5)).toNanos();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public TotalCount count(UuidEntityRepository<?> repository, JmixDataRepositoryContext context) {
+        String database = currentDatabase();
+        Class<?> entityClass = repository.getEntityClass();
+        if (ConditionKey.isEmpty(context.condition())) {
+            EntityCountKey entityKey = new EntityCountKey(database, entityClass);
+            AtomicLong count;
+            synchronized (entityCounts) {
+                count = entityCounts.get(entityKey);
+            }
+            if (count == null) {
+                AtomicLong counted = new AtomicLong(repository.count(context));
+                synchronized (entityCounts) {
+                    count = entityCounts.putIfAbsent(entityKey, counted);
+                }
+                if (count == null) {
+                    count = counted;
+                }
+            }
+            return TotalCount.estimated(Math.max(0, count.get()));
+        }
+
+        String key = database + ':' + entityClass.getName() + ':' + ConditionKey.of(context.condition());
+        long now = System.nanoTime();
+        synchronized (filteredCounts) {
+            FilteredCount cached = filteredCounts.get(key);
+            if (cached != null && now - cached.countedNanos() <= ttlNanos) {
+                return TotalCount.estimated(cached.count());
+            }
+        }
+
+        long count = repository.count(context);
+        synchronized (filteredCounts) {
+            filteredCounts.put(key, new FilteredCount(count, now));
+        }
+        return TotalCount.estimated(count);
+    }
+
+    /**
+     * Forgets all counts, e.g. after direct database changes.
+     */
+    public void reset() {
+        synchronized (entityCounts) {
+            entityCounts.clear();
+        }
+        synchronized (filteredCounts) {
+            filteredCounts.clear();
+        }
+    }
+
+    /**
+     * Forgets counts of the session database, e.g. after it is filled directly. Outside online mode forgets
+     * all counts.
+     */
+    public void resetSession(String sessionId) {
+        if (!sessionScoped) {
+            reset();
+            return;
+        }
+        synchronized (entityCounts) {
+            entityCounts.keySet().removeIf(key -> key.database().equals(sessionId));
+        }
+        String prefix = sessionId + ':';
+        synchronized (filteredCounts) {
+            filteredCounts.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent<?> event) {
+        EntityCountKey key = new EntityCountKey(currentDatabase(), event.getEntityId().getEntityClass());
+        AtomicLong count;
+        synchronized (entityCounts) {
+            count = entityCounts.get(key);
+        }
+        if (count == null) {
+            return;
+        }
+
+        switch (event.getType()) {
+            case CREATED -> count.incrementAndGet();
+            case DELETED -> count.decrementAndGet();
+            default -> {
+            }
+        }
+    }
+
+    private String currentDatabase() {
+        return sessionScoped ? SessionIds.of(SecurityContextHelper.getAuthentication()) : "";
+    }
+
+    private record EntityCountKey(String database, Class<?> entityClass) {
+    }
+
+    private record FilteredCount(long count, long countedNanos) {
+    }
+}
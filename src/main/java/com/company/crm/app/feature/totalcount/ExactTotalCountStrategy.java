@@ -0,0 +1,24 @@
+package com.company.crm.app.feature.totalcount;
+
+import com.company.crm.model.base.UuidEntityRepository;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts all rows with {@code count(*)}.
+ */
+@Component
+public class ExactTotalCountStrategy implements TotalCountStrategy {
+
+    public static final String NAME = "exact";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public TotalCount count(UuidEntityRepository<?> repository, JmixDataRepositoryContext context) {
+        return TotalCount.exact(repository.count(context));
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.crm.app.feature.totalcount;
+
+/**
+ * Total number of rows of a list.
+ *
+ * @param value    number of rows, the cap for {@link Accuracy#AT_LEAST}
+ * @param accuracy how precise the value is
+ */
+public record TotalCount(long value, Accuracy accuracy) {
+
+    public enum Accuracy {
+        EXACT,
+        /**
+         * There are more rows than {@link #value()}.
+         */
+        AT_LEAST,
+        /**
+         * The value may differ from the current number of rows.
+         */
+        ESTIMATED
+    }
+
+    public static TotalCount exact(long value) {
+        return new TotalCount(value, Accuracy.EXACT);
+    }
+
+    /**
+     * Returns an exact count if it doesn't exceed the cap, otherwise the cap as {@link Accuracy#AT_LEAST}.
+     */
+    public static TotalCount capped(long value, long cap) {
+        return value > cap ? new TotalCount(cap, Accuracy.AT_LEAST) : exact(value);
+    }
+
+    public static TotalCount estimated(long value) {
+        return new TotalCount(value, Accuracy.ESTIMATED);
+    }
+
+    /**
+     * Returns the count to report to a pagination showing rows from {@code firstResult}.
+     * <p>
+     * Paginations treat the count as exact and don't page past it. A count that isn't exact is extended to a row
+     * after the current page while the page is full, so the next page stays available. If the loaded page isn't
+     * full, it is the last one.
+     *
+     * @param loadedRows number of rows of the current page, {@code 0} if it isn't loaded yet
+     */
+    public long toPaginationCount(int firstResult, int maxResults, int loadedRows) {
+        if (accuracy == Accuracy.EXACT || maxResults <= 0) {
+            return value;
+        }
+        if (loadedRows > 0 && loadedRows < maxResults) {
+            return (long) firstResult + loadedRows;
+        }
+        long atLeast = accuracy == Accuracy.AT_LEAST ? value + 1 : value;
+        return Math.max(atLeast, (long) firstResult + maxResults + 1);
+    }
+
+    /**
+     * Formats the count for UI labels, e.g. {@code 120}, {@code 10000+} or {@code ~120}.
+     */
+    public String format() {
+        return switch (accuracy) {
+            case EXACT -> String.valueOf(value);
+            case AT_LEAST -> value + "+";
+            case ESTIMATED -> "~" + value;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.company.crm.app.feature.totalcount;
+
+import com.company.crm.model.base.UuidEntityRepository;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+
+/**
+ * Counts rows of a list for pagination components.
+ * <p>
+ * Strategies are Spring beans, a view uses the one named by {@link TotalCounts#MODE_PROPERTY}.
+ */
+public interface TotalCountStrategy {
+
+    /**
+     * Unique name the strategy is configured by, e.g. {@code exact}.
+     */
+    String getName();
+
+    TotalCount count(UuidEntityRepository<?> repository, JmixDataRepositoryContext context);
+}
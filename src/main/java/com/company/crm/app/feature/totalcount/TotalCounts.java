@@ -0,0 +1,79 @@
+package com.company.crm.app.feature.totalcount;
+
+import com.company.crm.model.base.UuidEntityRepository;
+import com.vaadin.flow.component.HasStyle;
+import com.vaadin.flow.component.html.Span;
+import io.jmix.core.Messages;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+import io.jmix.flowui.model.CollectionLoader;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Counts rows of list views with the {@link TotalCountStrategy} configured for the view.
+ * <p>
+ * The strategy is set by {@code crm.pagination.total-count.mode.<view id>}, falling back to
+ * {@link #MODE_PROPERTY} and then to {@link ExactTotalCountStrategy}.
+ */
+@Component
+public class TotalCounts {
+
+    public static final String MODE_PROPERTY = "crm.pagination.total-count.mode";
+
+    /**
+     * Class name of paginations whose total count isn't exact, the theme hides their status with the total.
+     */
+    public static final String INEXACT_PAGINATION_CLASS_NAME = "crm-inexact-total-count";
+
+    private final Messages messages;
+    private final Environment environment;
+    private final Map<String, TotalCountStrategy> strategies;
+
+    public TotalCounts(Messages messages, Environment environment, List<TotalCountStrategy> strategies) {
+        this.messages = messages;
+        this.environment = environment;
+        this.strategies = strategies.stream()
+                .collect(Collectors.toMap(TotalCountStrategy::getName, Function.identity()));
+    }
+
+    public TotalCount count(String viewId, UuidEntityRepository<?> repository, JmixDataRepositoryContext context) {
+        return getStrategy(viewId).count(repository, context);
+    }
+
+    /**
+     * Counts rows for the pagination of the loader, see {@link TotalCount#toPaginationCount(int, int, int)}.
+     * Counts that aren't exact are shown formatted in the label, e.g. {@code 10000+ rows}, as the pagination
+     * can display only exact counts. The pagination status is hidden then, so that the count reported to it
+     * to keep the next page available isn't shown as the total.
+     *
+     * @return count for the {@code totalCountByRepositoryDelegate} of the pagination
+     */
+    public Long countForPagination(String viewId, UuidEntityRepository<?> repository,
+                                   JmixDataRepositoryContext context, CollectionLoader<?> loader,
+                                   HasStyle pagination, Span label) {
+        TotalCount totalCount = count(viewId, repository, context);
+        boolean exact = totalCount.accuracy() == TotalCount.Accuracy.EXACT;
+        pagination.setClassName(INEXACT_PAGINATION_CLASS_NAME, !exact);
+        label.setVisible(!exact);
+        label.setText(exact ? "" : messages.formatMessage(getClass(), "rowsCount", totalCount.format()));
+        return totalCount.toPaginationCount(loader.getFirstResult(), loader.getMaxResults(),
+                loader.getContainer().getItems().size());
+    }
+
+    public TotalCountStrategy getStrategy(String viewId) {
+        String mode = environment.getProperty(MODE_PROPERTY + "." + viewId,
+                environment.getProperty(MODE_PROPERTY, ExactTotalCountStrategy.NAME));
+
+        TotalCountStrategy strategy = strategies.get(mode);
+        if (strategy == null) {
+            throw new IllegalStateException("Unknown total count mode '%s' of view %s, available modes: %s"
+                    .formatted(mode, viewId, strategies.keySet()));
+        }
+        return strategy;
+    }
+}
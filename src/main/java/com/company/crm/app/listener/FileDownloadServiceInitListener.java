@@ -0,0 +1,335 @@
+package com.company.crm.app.listener;
+
+import com.company.crm.app.service.storage.CrmFileStorage;
+import com.company.crm.app.service.storage.ThumbnailService;
+import com.company.crm.app.service.storage.ThumbnailService.ThumbnailSize;
+import com.company.crm.app.util.http.ByteRange;
+import com.company.crm.model.catalog.item.CategoryItem;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.WrappedSession;
+import io.jmix.core.DataManager;
+import io.jmix.core.FileRef;
+import io.jmix.core.FileStorageException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves files of {@link CrmFileStorage} and their thumbnails at {@value #PATH},
+ * see {@link #getUrl(FileRef)} and {@link #getThumbnailUrl(FileRef, ThumbnailSize)}.
+ * <p>
+ * A file is served only if a catalog item the user can read refers to it, or if it was uploaded in the
+ * same session, see {@link #grantSessionAccess(FileRef)}. Other files, including internal files of the
+ * storage, are answered as not found.
+ * <p>
+ * Responses support conditional and range requests and are streamed from the storage. URLs of content-addressed
+ * files and of thumbnails contain a version, so such responses are cached by browsers without revalidation.
+ */
+@Component
+public class FileDownloadServiceInitListener implements VaadinServiceInitListener {
+
+    private static final Logger log = LoggerFactory.getLogger(FileDownloadServiceInitListener.class);
+
+    public static final String PATH = "/files";
+
+    private static final String PATH_PARAMETER = "path";
+    private static final String NAME_PARAMETER = "name";
+    private static final String VERSION_PARAMETER = "v";
+    private static final String THUMBNAIL_PARAMETER = "thumbnail";
+    private static final String SESSION_FILES_ATTRIBUTE = FileDownloadServiceInitListener.class.getName() + ".files";
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "private, max-age=31536000, immutable";
+    private static final String REVALIDATE_CACHE_CONTROL = "private, no-cache";
+
+    private final CrmFileStorage fileStorage;
+    private final ThumbnailService thumbnailService;
+    private final DataManager dataManager;
+
+    public FileDownloadServiceInitListener(CrmFileStorage fileStorage, ThumbnailService thumbnailService,
+                                           DataManager dataManager) {
+        this.fileStorage = fileStorage;
+        this.thumbnailService = thumbnailService;
+        this.dataManager = dataManager;
+    }
+
+    @Override
+    public void serviceInit(ServiceInitEvent event) {
+        event.addRequestHandler(this::handleRequest);
+    }
+
+    /**
+     * Returns the URL of the file, relative to the application root.
+     */
+    public String getUrl(FileRef fileRef) {
+        StringBuilder url = getBaseUrl(fileRef);
+        String digest = fileStorage.getContentDigest(fileRef);
+        if (digest != null) {
+            url.append('&').append(VERSION_PARAMETER).append('=').append(digest);
+        }
+        return url.toString();
+    }
+
+    /**
+     * Returns the URL of the thumbnail of the image, relative to the application root. The URL changes only
+     * when the thumbnail changes.
+     */
+    public String getThumbnailUrl(FileRef imageRef, ThumbnailSize size) {
+        return getBaseUrl(imageRef)
+                .append('&').append(THUMBNAIL_PARAMETER).append('=').append(size.name().toLowerCase(Locale.ROOT))
+                .append('&').append(VERSION_PARAMETER).append('=')
+                .append(encode(thumbnailService.getVersionTag(imageRef, size)))
+                .toString();
+    }
+
+    /**
+     * Allows the current session to download the file before an entity refers to it, e.g. to preview an upload.
+     */
+    public void grantSessionAccess(FileRef fileRef) {
+        VaadinSession session = VaadinSession.getCurrent();
+        if (session == null) {
+            return;
+        }
+        session.getLockInstance().lock();
+        try {
+            WrappedSession wrappedSession = session.getSession();
+            @SuppressWarnings("unchecked")
+            Set<String> paths = (Set<String>) wrappedSession.getAttribute(SESSION_FILES_ATTRIBUTE);
+            if (paths == null) {
+                paths = ConcurrentHashMap.newKeySet();
+                wrappedSession.setAttribute(SESSION_FILES_ATTRIBUTE, paths);
+            }
+            paths.add(fileRef.getPath());
+        } finally {
+            session.getLockInstance().unlock();
+        }
+    }
+
+    private boolean handleRequest(VaadinSession session, VaadinRequest request, VaadinResponse response) {
+        if (!PATH.equals(request.getPathInfo())) {
+            return false;
+        }
+
+        try {
+            if (request.getUserPrincipal() == null) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return true;
+            }
+            String method = request.getMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                response.setHeader("Allow", "GET, HEAD");
+                response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+                return true;
+            }
+            String path = request.getParameter(PATH_PARAMETER);
+            if (path == null || path.isBlank()) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                return true;
+            }
+            String name = request.getParameter(NAME_PARAMETER);
+            FileRef fileRef = new FileRef(fileStorage.getStorageName(), path,
+                    name == null || name.isBlank() ? path.substring(path.lastIndexOf('/') + 1) : name);
+            // not revealing whether files the user can't read exist
+            if (!isReadable(session, fileRef) || !fileStorage.fileExists(fileRef)) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return true;
+            }
+
+            String thumbnail = request.getParameter(THUMBNAIL_PARAMETER);
+            if (thumbnail != null) {
+                serveThumbnail(fileRef, ThumbnailSize.valueOf(thumbnail.toUpperCase(Locale.ROOT)),
+                        "HEAD".equals(method), request, response);
+            } else {
+                serveFile(fileRef, "HEAD".equals(method), request, response);
+            }
+        } catch (FileStorageException e) {
+            log.warn("Cannot serve file {}", request.getParameter(PATH_PARAMETER), e);
+            response.setStatus(e.getType() == FileStorageException.Type.FILE_NOT_FOUND
+                    ? HttpServletResponse.SC_NOT_FOUND
+                    : HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        } catch (IOException e) {
+            // mostly clients closing connections
+            log.debug("Error writing file response", e);
+        }
+        return true;
+    }
+
+    /**
+     * Checks that a catalog item the current user can read refers to the file, or that the file was uploaded
+     * in the session.
+     */
+    private boolean isReadable(VaadinSession session, FileRef fileRef) {
+        if (fileStorage.isInternalPath(fileRef.getPath())) {
+            return false;
+        }
+        WrappedSession wrappedSession = session.getSession();
+        if (wrappedSession != null
+                && wrappedSession.getAttribute(SESSION_FILES_ATTRIBUTE) instanceof Set<?> paths
+                && paths.contains(fileRef.getPath())) {
+            return true;
+        }
+        return dataManager.load(CategoryItem.class)
+                .query("select e from CategoryItem e where e.image = :image")
+                .parameter("image", fileRef)
+                .maxResults(1)
+                .optional()
+                .isPresent();
+    }
+
+    private void serveThumbnail(FileRef imageRef, ThumbnailSize size, boolean headOnly,
+                                VaadinRequest request, VaadinResponse response) throws IOException {
+        String versionTag = thumbnailService.getVersionTag(imageRef, size);
+        String etag = '"' + versionTag + '"';
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", versionTag.equals(request.getParameter(VERSION_PARAMETER))
+                ? IMMUTABLE_CACHE_CONTROL
+                : REVALIDATE_CACHE_CONTROL);
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        Optional<Path> thumbnail = thumbnailService.getThumbnail(imageRef, size);
+        if (thumbnail.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("image/png");
+        response.setContentLengthLong(Files.size(thumbnail.get()));
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (!headOnly) {
+            try (OutputStream out = response.getOutputStream()) {
+                Files.copy(thumbnail.get(), out);
+            }
+        }
+    }
+
+    private void serveFile(FileRef fileRef, boolean headOnly,
+                           VaadinRequest request, VaadinResponse response) throws IOException {
+        long size = fileStorage.getSize(fileRef);
+        // HTTP dates have second precision
+        long lastModified = fileStorage.getLastModified(fileRef) / 1000 * 1000;
+        String digest = fileStorage.getContentDigest(fileRef);
+        String etag = digest != null
+                ? '"' + digest + '"'
+                : "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + '"';
+        boolean immutable = digest != null && digest.equals(request.getParameter(VERSION_PARAMETER));
+
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", immutable ? IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+        response.setHeader("Accept-Ranges", "bytes");
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        ByteRange range = isRangeApplicable(request, etag, lastModified)
+                ? ByteRange.parse(request.getHeader("Range"), size)
+                : null;
+        if (ByteRange.UNSATISFIABLE.equals(range)) {
+            response.setHeader("Content-Range", range.toContentRange(size));
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        long position = 0;
+        long length = size;
+        if (range != null) {
+            position = range.first();
+            length = range.length();
+            response.setHeader("Content-Range", range.toContentRange(size));
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+        response.setContentType(fileRef.getContentType());
+        response.setContentLengthLong(length);
+        response.setHeader("Content-Disposition",
+                "inline; filename*=UTF-8''" + encode(fileRef.getFileName()));
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (!headOnly) {
+            try (OutputStream out = response.getOutputStream()) {
+                fileStorage.transferTo(fileRef, position, length, Channels.newChannel(out));
+            }
+        }
+    }
+
+    private StringBuilder getBaseUrl(FileRef fileRef) {
+        return new StringBuilder(PATH.substring(1))
+                .append('?').append(PATH_PARAMETER).append('=').append(encode(fileRef.getPath()))
+                .append('&').append(NAME_PARAMETER).append('=').append(encode(fileRef.getFileName()));
+    }
+
+    private static boolean isNotModified(VaadinRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * Checks {@code If-Range}: a range is sent only if the client has the current version of the file.
+     */
+    private static boolean isRangeApplicable(VaadinRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        if (ifRange.startsWith("W/")) {
+            // weak validators can't be used with ranges
+            return false;
+        }
+        return getDateHeader(request, "If-Range") == lastModified;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(opaqueTag));
+    }
+
+    private static long getDateHeader(VaadinRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String encode(@Nullable String value) {
+        return value == null ? "" : UriUtils.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,291 @@
+package com.company.crm.app.online;
+
+import com.company.crm.app.annotation.OnlineProfile;
+import com.company.crm.app.feature.totalcount.EstimatedTotalCountStrategy;
+import com.company.crm.app.service.analytics.AnalyticsResultCache;
+import com.company.crm.app.service.user.UserActivityRecorder;
+import com.company.crm.app.util.context.SessionIds;
+import com.company.crm.app.util.init.DemoDataGenerator;
+import com.company.crm.model.user.activity.UserActivity;
+import io.jmix.core.security.ClientDetails;
+import io.jmix.core.security.SecurityContextHelper;
+import io.jmix.core.security.SystemAuthenticator;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In online demo mode, generates demo data once into a separate database and keeps its rows in memory,
+ * so that the database of a new session is filled with batched inserts instead of {@link DemoDataGenerator}.
+ * <p>
+ * Dates and timestamps are moved by the days passed since the capture, so the data stays relative to today.
+ * Rows are written with JDBC, so no entity events are published: caches of the session are reset after a restore.
+ * Until the snapshot is captured, {@link #restore()} returns {@code false} and sessions generate data themselves.
+ */
+@Component
+@OnlineProfile
+public class DemoDataSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(DemoDataSnapshot.class);
+
+    public static final String ENABLED_PROPERTY = "crm.demo-data.snapshot.enabled";
+
+    private static final String SNAPSHOT_SESSION_ID = "demo_data_snapshot";
+    private static final Duration ACTIVITIES_FLUSH_TIMEOUT = Duration.ofSeconds(30);
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private static final List<String> EXCLUDED_TABLES = List.of("DATABASECHANGELOG", "DATABASECHANGELOGLOCK");
+
+    private static final String TABLES = "select TABLE_NAME from INFORMATION_SCHEMA.TABLES " +
+            "where TABLE_SCHEMA = 'PUBLIC' and TABLE_TYPE = 'BASE TABLE' order by TABLE_NAME";
+    private static final String SEQUENCES = "select SEQUENCE_NAME, NEXT_VALUE from INFORMATION_SCHEMA.SEQUENCES " +
+            "where SEQUENCE_SCHEMA = 'PUBLIC'";
+
+    private final Environment environment;
+    private final DataSource dataSource;
+    private final DemoDataGenerator generator;
+    private final SystemAuthenticator systemAuthenticator;
+    private final UserActivityRecorder userActivityRecorder;
+    private final AnalyticsResultCache analyticsResultCache;
+    private final EstimatedTotalCountStrategy estimatedTotalCountStrategy;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Nullable
+    private volatile Snapshot snapshot;
+
+    public DemoDataSnapshot(Environment environment, DataSource dataSource, DemoDataGenerator generator,
+                            SystemAuthenticator systemAuthenticator, UserActivityRecorder userActivityRecorder,
+                            AnalyticsResultCache analyticsResultCache,
+                            EstimatedTotalCountStrategy estimatedTotalCountStrategy,
+                            PlatformTransactionManager transactionManager) {
+        this.environment = environment;
+        this.dataSource = dataSource;
+        this.generator = generator;
+        this.systemAuthenticator = systemAuthenticator;
+        this.userActivityRecorder = userActivityRecorder;
+        this.analyticsResultCache = analyticsResultCache;
+        this.estimatedTotalCountStrategy = estimatedTotalCountStrategy;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return environment.getProperty(ENABLED_PROPERTY, Boolean.class, true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (isEnabled()) {
+            Thread.ofPlatform().name("demo-data-snapshot").daemon().start(this::capture);
+        }
+    }
+
+    /**
+     * Generates demo data in a separate database and captures it.
+     */
+    public void capture() {
+        long start = System.nanoTime();
+        try {
+            systemAuthenticator.runWithSystem(() -> {
+                // the routing datasource selects the database by the session id of the authentication
+                if (SecurityContextHelper.getAuthentication() instanceof AbstractAuthenticationToken authentication) {
+                    authentication.setDetails(ClientDetails.builder().sessionId(SNAPSHOT_SESSION_ID).build());
+                }
+                generator.initDemoDataIfNeeded();
+                if (!userActivityRecorder.flush(ACTIVITIES_FLUSH_TIMEOUT)) {
+                    log.warn("User activities of demo data weren't written in {}", ACTIVITIES_FLUSH_TIMEOUT);
+                }
+                snapshot = read();
+            });
+            log.info("Demo data snapshot captured in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException e) {
+            log.warn("Cannot capture demo data snapshot, sessions will generate demo data", e);
+        } finally {
+            if (dataSource instanceof RoutingDataSource routingDataSource) {
+                routingDataSource.releaseSessionDataSource(SNAPSHOT_SESSION_ID);
+            }
+        }
+    }
+
+    /**
+     * Fills the database of the current session from the snapshot, if the database has no clients yet.
+     * Tables having rows in the snapshot are replaced, the others are left as is.
+     *
+     * @return {@code false} if the snapshot isn't captured or can't be restored
+     */
+    public boolean restore() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return false;
+        }
+        Integer clients = jdbcTemplate.queryForObject("select count(*) from CLIENT", Integer.class);
+        if (clients != null && clients > 0) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        long shiftDays = ChronoUnit.DAYS.between(current.capturedDate(), LocalDate.now());
+        try {
+            write(current, shiftDays);
+        } catch (RuntimeException e) {
+            log.warn("Cannot restore demo data snapshot, generating demo data", e);
+            return false;
+        } finally {
+            String sessionId = SessionIds.of(SecurityContextHelper.getAuthentication());
+            analyticsResultCache.invalidateSession(sessionId);
+            estimatedTotalCountStrategy.resetSession(sessionId);
+        }
+
+        log.info("Demo data restored from snapshot in {} ms, dates moved by {} days",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), shiftDays);
+        return true;
+    }
+
+    private void write(Snapshot snapshot, long shiftDays) {
+        // tables are filled in name order, so references aren't checked; enabling the checks again doesn't
+        // check the inserted rows, they are consistent as they were read from a consistent database
+        jdbcTemplate.execute("SET DATABASE REFERENTIAL INTEGRITY FALSE");
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (TableSnapshot table : snapshot.tables()) {
+                    jdbcTemplate.update("delete from " + quote(table.name()));
+                    jdbcTemplate.batchUpdate(table.insertSql(), table.rows(), INSERT_BATCH_SIZE,
+                            (ps, row) -> table.setParameters(ps, row, shiftDays));
+                }
+            });
+        } finally {
+            jdbcTemplate.execute("SET DATABASE REFERENTIAL INTEGRITY TRUE");
+        }
+        snapshot.sequences().forEach((name, nextValue) ->
+                jdbcTemplate.execute("alter sequence " + quote(name) + " restart with " + nextValue));
+    }
+
+    private Snapshot read() {
+        List<TableSnapshot> tables = new ArrayList<>();
+        for (String table : jdbcTemplate.queryForList(TABLES, String.class)) {
+            if (!EXCLUDED_TABLES.contains(table)) {
+                TableSnapshot tableSnapshot = readTable(table);
+                if (!tableSnapshot.rows().isEmpty()) {
+                    tables.add(tableSnapshot);
+                }
+            }
+        }
+        Map<String, Long> sequences = new LinkedHashMap<>();
+        jdbcTemplate.query(SEQUENCES, rs -> {
+            sequences.put(rs.getString(1), rs.getLong(2));
+        });
+        return new Snapshot(LocalDate.now(), tables, sequences);
+    }
+
+    private TableSnapshot readTable(String table) {
+        return jdbcTemplate.query("select * from " + quote(table), rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int count = metaData.getColumnCount();
+            List<String> columns = new ArrayList<>(count);
+            int[] types = new int[count];
+            for (int i = 0; i < count; i++) {
+                columns.add(metaData.getColumnName(i + 1));
+                types[i] = metaData.getColumnType(i + 1);
+            }
+            List<Object[]> rows = new ArrayList<>();
+            while (rs.next()) {
+                Object[] row = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    row[i] = readValue(rs, i + 1, types[i]);
+                }
+                rows.add(row);
+            }
+            return new TableSnapshot(table, columns, types, Collections.unmodifiableList(rows));
+        });
+    }
+
+    @Nullable
+    private static Object readValue(ResultSet rs, int column, int type) throws SQLException {
+        return switch (type) {
+            case Types.DATE -> rs.getObject(column, LocalDate.class);
+            case Types.TIMESTAMP -> rs.getObject(column, LocalDateTime.class);
+            case Types.TIMESTAMP_WITH_TIMEZONE -> rs.getObject(column, OffsetDateTime.class);
+            case Types.CLOB, Types.NCLOB -> rs.getString(column);
+            case Types.BLOB -> rs.getBytes(column);
+            default -> rs.getObject(column);
+        };
+    }
+
+    private static String quote(String name) {
+        return '"' + name + '"';
+    }
+
+    private record Snapshot(LocalDate capturedDate, List<TableSnapshot> tables, Map<String, Long> sequences) {
+    }
+
+    /**
+     * Rows of a table, in the order of {@link #columns()}, with their JDBC types.
+     */
+    public record TableSnapshot(String name, List<String> columns, int[] types, List<Object[]> rows) {
+
+        public String insertSql() {
+            return "insert into " + quote(name) + " (" +
+                    String.join(", ", columns.stream().map(DemoDataSnapshot::quote).toList()) +
+                    ") values (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        }
+
+        /**
+         * Sets the row as parameters of {@link #insertSql()}, moving dates by the given number of days.
+         */
+        public void setParameters(PreparedStatement ps, Object[] row, long shiftDays) throws SQLException {
+            for (int i = 0; i < row.length; i++) {
+                Object value = shift(row[i], shiftDays);
+                if (value == null) {
+                    ps.setNull(i + 1, types[i]);
+                } else {
+                    ps.setObject(i + 1, value);
+                }
+            }
+            int month = columns.indexOf("CREATED_MONTH");
+            int date = columns.indexOf("CREATED_DATE");
+            if (shiftDays != 0 && month >= 0 && date >= 0 && shift(row[date], shiftDays) instanceof OffsetDateTime createdDate) {
+                // activities are bucketed by the month of the moved date
+                ps.setInt(month + 1, UserActivity.monthOf(createdDate));
+            }
+        }
+
+        @Nullable
+        private static Object shift(@Nullable Object value, long days) {
+            if (days == 0) {
+                return value;
+            }
+            return switch (value) {
+                case LocalDate date -> date.plusDays(days);
+                case LocalDateTime dateTime -> dateTime.plusDays(days);
+                case OffsetDateTime dateTime -> dateTime.plusDays(days);
+                case null, default -> value;
+            };
+        }
+    }
+}
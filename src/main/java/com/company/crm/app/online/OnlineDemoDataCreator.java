@@ -22,7 +22,8 @@ import static com.company.crm.app.util.ui.CrmUiUtils.SUCCESS_BADGE;
 import static com.company.crm.app.util.ui.CrmUiUtils.reloadCurrentPage;
 
 /**
- * In online demo mode, generates demo data in a background task.
+ * In online demo mode, restores demo data from the {@link DemoDataSnapshot}, or generates it in a background task
+ * if the snapshot isn't captured yet.
  */
 @Component
 @OnlineProfile
@@ -34,16 +35,19 @@ public class OnlineDemoDataCreator {
     private final Messages messages;
     private final SessionData sessionData;
     private final DemoDataGenerator generator;
+    private final DemoDataSnapshot snapshot;
     private final BackgroundWorker backgroundWorker;
 
     private Dialog demoDataDialog;
     private CrmLoader demoDataLoader;
 
     public OnlineDemoDataCreator(Messages messages, SessionData sessionData,
-                                 DemoDataGenerator generator, BackgroundWorker backgroundWorker) {
+                                 DemoDataGenerator generator, DemoDataSnapshot snapshot,
+                                 BackgroundWorker backgroundWorker) {
         this.messages = messages;
         this.sessionData = sessionData;
         this.generator = generator;
+        this.snapshot = snapshot;
         this.backgroundWorker = backgroundWorker;
     }
 
@@ -56,6 +60,10 @@ public class OnlineDemoDataCreator {
 
     private void createDemoData() {
         sessionData.setAttribute(DEMO_DATA_CREATED_FLAG, true);
+        if (snapshot.restore()) {
+            reloadCurrentPage();
+            return;
+        }
         openDemoDataLoader();
         startDemoDataGeneratorInBackground();
     }
@@ -10,6 +10,7 @@ import org.apache.commons.dbcp2.BasicDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
@@ -20,7 +21,10 @@ import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.sql.DataSource;
 
@@ -31,18 +35,40 @@ import javax.sql.DataSource;
  * <pre>
  *     jmix.ui.use-session-fixation-protection = false
  * </pre>
+ * Session databases are taken from a {@link SessionDataSourcePool pool} of databases migrated in advance,
+ * so the first request of a session doesn't wait for Liquibase.
+ * <p>
+ * Once the database of a session is released, the session is closed: work still running for it, e.g. writing
+ * of queued user activities, fails instead of claiming a new database that would never be released.
  */
-public class RoutingDataSource extends AbstractDataSource implements ApplicationContextAware, VaadinServiceInitListener {
+public class RoutingDataSource extends AbstractDataSource
+        implements ApplicationContextAware, VaadinServiceInitListener, DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(RoutingDataSource.class);
 
+    /**
+     * Number of recently closed sessions to remember, work for a session ends soon after it is closed.
+     */
+    protected static final int MAX_CLOSED_SESSIONS = 10_000;
+
     protected Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
+    protected Set<String> closedSessionIds = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_CLOSED_SESSIONS;
+                }
+            }));
 
     protected ApplicationContext applicationContext;
 
     protected String urlPrefix;
     protected String defaultSessionId;
     protected String sessionDataSourceBeanName;
+    protected int poolMinSize = 2;
+    protected int poolMaxSize = 10;
+
+    protected volatile SessionDataSourcePool pool;
 
     public String getUrlPrefix() {
         return urlPrefix;
@@ -68,6 +94,22 @@ public class RoutingDataSource extends AbstractDataSource implements Application
         this.sessionDataSourceBeanName = sessionDataSourceBeanName;
     }
 
+    public int getPoolMinSize() {
+        return poolMinSize;
+    }
+
+    public void setPoolMinSize(int poolMinSize) {
+        this.poolMinSize = poolMinSize;
+    }
+
+    public int getPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    public void setPoolMaxSize(int poolMaxSize) {
+        this.poolMaxSize = poolMaxSize;
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
@@ -86,12 +128,42 @@ public class RoutingDataSource extends AbstractDataSource implements Application
     @Override
     public void serviceInit(ServiceInitEvent event) {
         event.getSource().addSessionDestroyListener(this::onSessionDestroyed);
+        getPool().start();
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdown();
+        }
     }
 
     protected DataSource determineSessionDataSource() {
         String sessionId = getSessionId();
         log.debug("Session datasource {} is used", sessionId);
-        return dataSources.computeIfAbsent(sessionId, this::createSessionDataSource);
+        return dataSources.computeIfAbsent(sessionId, this::claimSessionDataSource);
+    }
+
+    protected DataSource claimSessionDataSource(String sessionId) {
+        if (isSessionClosed(sessionId)) {
+            throw new IllegalStateException("Session " + sessionId + " is closed, its database is released");
+        }
+        DataSource sessionDataSource = getPool().claim();
+        log.info("Session {} uses datasource {}", sessionId, ((BasicDataSource) sessionDataSource).getUrl());
+        return sessionDataSource;
+    }
+
+    protected SessionDataSourcePool getPool() {
+        if (pool == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    pool = new SessionDataSourcePool(this::createSessionDataSource,
+                            dataSource -> shutdownSessionDataSource("pooled", dataSource),
+                            poolMinSize, poolMaxSize);
+                }
+            }
+        }
+        return pool;
     }
 
     protected String getSessionId() {
@@ -112,10 +184,10 @@ public class RoutingDataSource extends AbstractDataSource implements Application
         return sessionId != null ? sessionId : defaultSessionId;
     }
 
-    protected DataSource createSessionDataSource(String sessionId) {
-        log.info("Creating datasource for session {}", sessionId);
+    protected DataSource createSessionDataSource(String databaseName) {
+        log.info("Creating session datasource {}", databaseName);
         BasicDataSource sessionDataSource = (BasicDataSource) applicationContext.getBean(sessionDataSourceBeanName);
-        sessionDataSource.setUrl(urlPrefix + sessionId);
+        sessionDataSource.setUrl(urlPrefix + databaseName);
 
         LiquibaseProperties liquibaseProperties = applicationContext.getBean(LiquibaseProperties.class);
         liquibaseProperties.setEnabled(true);
@@ -125,15 +197,27 @@ public class RoutingDataSource extends AbstractDataSource implements Application
     }
 
     protected void onSessionDestroyed(SessionDestroyEvent event) {
-        String sessionId = event.getSession().getSession().getId();
+        releaseSessionDataSource(event.getSession().getSession().getId());
+    }
 
-        DataSource sessionDataSource = dataSources.get(sessionId);
+    /**
+     * Shuts down the database of the session, if it was created, and closes the session.
+     */
+    public void releaseSessionDataSource(String sessionId) {
+        closedSessionIds.add(sessionId);
+        DataSource sessionDataSource = dataSources.remove(sessionId);
         if (sessionDataSource != null) {
             shutdownSessionDataSource(sessionId, sessionDataSource);
-            dataSources.remove(sessionId);
         }
     }
 
+    /**
+     * Checks whether the database of the session is released, so the session can't use a database anymore.
+     */
+    public boolean isSessionClosed(String sessionId) {
+        return closedSessionIds.contains(sessionId);
+    }
+
     protected void shutdownSessionDataSource(String sessionId, DataSource sessionDataSource) {
         log.info("Removing datasource for session {}", sessionId);
         try (Statement statement = sessionDataSource.getConnection().createStatement()) {
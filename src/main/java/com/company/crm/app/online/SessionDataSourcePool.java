@@ -0,0 +1,163 @@
+package com.company.crm.app.online;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Pool of session databases created and migrated in advance, see {@link RoutingDataSource}.
+ * <p>
+ * A new session claims a ready database instead of waiting for the schema to be created. Claimed databases are
+ * replaced in the background. The number of ready databases follows the rate of new sessions: it covers the
+ * sessions expected to arrive while a database is being created, twice over, within {@code minSize..maxSize}.
+ * If the pool is empty, the database is created in the claiming thread.
+ */
+public class SessionDataSourcePool {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionDataSourcePool.class);
+
+    private static final Duration RATE_WINDOW = Duration.ofMinutes(5);
+    private static final Duration ADJUST_INTERVAL = Duration.ofSeconds(30);
+
+    private final Function<String, DataSource> factory;
+    private final Consumer<DataSource> destroyer;
+    private final int minSize;
+    private final int maxSize;
+
+    private final BlockingDeque<DataSource> ready = new LinkedBlockingDeque<>();
+    private final Deque<Long> claimTimes = new ArrayDeque<>();
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicBoolean fillScheduled = new AtomicBoolean();
+    private volatile long averageCreationNanos;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("session-db-pool").daemon().factory());
+
+    /**
+     * @param factory   creates and migrates a database with the given name
+     * @param destroyer releases a database that won't be used
+     */
+    public SessionDataSourcePool(Function<String, DataSource> factory, Consumer<DataSource> destroyer,
+                                 int minSize, int maxSize) {
+        this.factory = factory;
+        this.destroyer = destroyer;
+        this.minSize = Math.max(0, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+    }
+
+    /**
+     * Starts filling the pool in the background.
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(this::adjust, 0, ADJUST_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes a ready database, or creates one if there are none.
+     */
+    public DataSource claim() {
+        recordClaim();
+        DataSource dataSource = ready.pollFirst();
+        scheduleFill();
+        if (dataSource != null) {
+            return dataSource;
+        }
+        log.info("No ready session databases, creating one");
+        return create();
+    }
+
+    public int getReadyCount() {
+        return ready.size();
+    }
+
+    /**
+     * Returns the number of databases to keep ready for the current rate of new sessions.
+     */
+    public int getTargetSize() {
+        long claims;
+        synchronized (claimTimes) {
+            removeOutdatedClaims(System.nanoTime());
+            claims = claimTimes.size();
+        }
+        double expectedDuringCreation = (double) claims * averageCreationNanos / RATE_WINDOW.toNanos();
+        long target = minSize + Math.round(2 * expectedDuringCreation);
+        return (int) Math.min(maxSize, target);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        DataSource dataSource;
+        while ((dataSource = ready.pollFirst()) != null) {
+            destroyer.accept(dataSource);
+        }
+    }
+
+    private void recordClaim() {
+        long now = System.nanoTime();
+        synchronized (claimTimes) {
+            claimTimes.addLast(now);
+            removeOutdatedClaims(now);
+        }
+    }
+
+    private void removeOutdatedClaims(long now) {
+        while (!claimTimes.isEmpty() && now - claimTimes.peekFirst() > RATE_WINDOW.toNanos()) {
+            claimTimes.pollFirst();
+        }
+    }
+
+    private void scheduleFill() {
+        if (fillScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                fillScheduled.set(false);
+                fill();
+            });
+        }
+    }
+
+    /**
+     * Releases databases above the target size, e.g. after a burst of sessions, and fills the pool up to it.
+     */
+    private void adjust() {
+        int target = getTargetSize();
+        while (ready.size() > target) {
+            DataSource dataSource = ready.pollLast();
+            if (dataSource != null) {
+                destroyer.accept(dataSource);
+            }
+        }
+        fill();
+    }
+
+    private void fill() {
+        try {
+            while (ready.size() < getTargetSize() && !Thread.currentThread().isInterrupted()) {
+                ready.addLast(create());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cannot create a session database for the pool", e);
+        }
+    }
+
+    private DataSource create() {
+        long start = System.nanoTime();
+        DataSource dataSource = factory.apply("pool_" + counter.incrementAndGet());
+        long duration = System.nanoTime() - start;
+        long average = averageCreationNanos;
+        averageCreationNanos = average == 0 ? duration : (average * 4 + duration) / 5;
+        return dataSource;
+    }
+}
@@ -0,0 +1,18 @@
+package com.company.crm.app.service.analytics;
+
+/**
+ * Counters of {@link AnalyticsResultCache} since application start.
+ *
+ * @param size          number of currently cached results
+ * @param hits          requests served from the cache
+ * @param misses        requests that calculated the result
+ * @param evictions     results dropped because of the size limit or TTL
+ * @param invalidations results dropped because of entity changes
+ */
+public record AnalyticsCacheStatistics(int size, long hits, long misses, long evictions, long invalidations) {
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
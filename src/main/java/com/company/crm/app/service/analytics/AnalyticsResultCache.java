@@ -0,0 +1,273 @@
+package com.company.crm.app.service.analytics;
+
+import com.company.crm.app.config.SpringProfiles;
+import com.company.crm.app.util.context.SessionIds;
+import io.jmix.core.Entity;
+import io.jmix.core.entity.EntityValues;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.security.SecurityContextHelper;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Shares results of read-only analytics methods between users and views.
+ * <p>
+ * Results are keyed by method name and arguments and declare the entity types they are calculated from.
+ * A committed {@link EntityChangedEvent} of such a type drops all results depending on it, other results stay.
+ * Concurrent requests for the same missing key wait for a single calculation.
+ * The cache is bounded by {@link #MAX_SIZE_PROPERTY} (least recently used results are evicted first)
+ * and {@link #TTL_PROPERTY}, which also limits staleness after direct database changes.
+ * <p>
+ * In online mode each HTTP session has its own database, so results are shared only within a session
+ * and entity changes drop results of the changing session only.
+ * <p>
+ * Cached values are shared, callers must not modify them.
+ */
+@Component
+public class AnalyticsResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsResultCache.class);
+
+    public static final String ENABLED_PROPERTY = "crm.analytics.result-cache.enabled";
+    public static final String MAX_SIZE_PROPERTY = "crm.analytics.result-cache.max-size";
+    public static final String TTL_PROPERTY = "crm.analytics.result-cache.ttl";
+
+    private final Environment environment;
+    private final boolean sessionScoped;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final Map<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AnalyticsResultCache(SpringProfiles springProfiles, Environment environment) {
+        this.environment = environment;
+        this.sessionScoped = springProfiles.isOnlineProfile();
+        this.maxSize = environment.getProperty(MAX_SIZE_PROPERTY, Integer.class, 1000);
+        this.ttlNanos = environment.getProperty(TTL_PROPERTY, Duration.class, Duration.ofMinutes(10)).toNanos();
+    }
+
+    public boolean isEnabled() {
+        return Boolean.parseBoolean(environment.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Returns the cached result of a method or calculates it with the given loader.
+     *
+     * @param method       unique method name, e.g. {@code "OrderService.getOrdersStats"}
+     * @param dependencies entity types the result is calculated from
+     * @param loader       calculates the result on a cache miss
+     * @param arguments    method arguments; arrays and collections are compared by content, entities by id
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String method, Collection<Class<?>> dependencies, Supplier<T> loader,
+                     @Nullable Object... arguments) {
+        if (!isEnabled()) {
+            return loader.get();
+        }
+
+        CacheKey key = new CacheKey(currentDatabase(), method, toKeyValue(arguments));
+        CacheEntry entry;
+        boolean owner = false;
+
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime(), ttlNanos)) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+
+            if (entry == null) {
+                entry = new CacheEntry(dependencies, System.nanoTime());
+                entries.put(key, entry);
+                evictOverflow();
+                misses.incrementAndGet();
+                owner = true;
+            } else {
+                hits.incrementAndGet();
+            }
+        }
+
+        if (owner) {
+            load(key, entry, loader);
+        }
+
+        try {
+            return (T) entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops all results calculated from the given entity type, including results being calculated right now.
+     */
+    public void invalidate(Class<?> entityClass) {
+        invalidate(null, entityClass);
+    }
+
+    /**
+     * Drops all results calculated from the database of the given HTTP session, e.g. after direct changes
+     * of the session database in online mode. Drops all results if the cache isn't scoped by sessions.
+     */
+    public void invalidateSession(String sessionId) {
+        if (sessionScoped) {
+            invalidate(sessionId, null);
+        } else {
+            invalidateAll();
+        }
+    }
+
+    private synchronized void invalidate(@Nullable String database, @Nullable Class<?> entityClass) {
+        int removed = 0;
+        var iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if ((database == null || database.equals(entry.getKey().database()))
+                    && (entityClass == null || entry.getValue().dependsOn(entityClass))) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        if (removed > 0) {
+            invalidations.addAndGet(removed);
+            log.debug("{} analytics results invalidated by {} change", removed,
+                    entityClass == null ? "database" : entityClass.getSimpleName());
+        }
+    }
+
+    /**
+     * Drops all cached results, e.g. after direct database changes.
+     */
+    public synchronized void invalidateAll() {
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+    }
+
+    public synchronized AnalyticsCacheStatistics getStatistics() {
+        return new AnalyticsCacheStatistics(entries.size(),
+                hits.get(), misses.get(), evictions.get(), invalidations.get());
+    }
+
+    @Scheduled(fixedDelayString = "${crm.analytics.result-cache.statistics-log-interval:PT15M}")
+    public void logStatistics() {
+        AnalyticsCacheStatistics statistics = getStatistics();
+        if (statistics.hits() + statistics.misses() > 0) {
+            log.info("Analytics result cache: {}", statistics);
+        }
+    }
+
+    /**
+     * Invoked after commit or rollback, so that a result can't be re-cached from data
+     * the changing transaction hasn't committed yet. Runs before other listeners of the phase,
+     * e.g. before {@link com.company.crm.app.ui.live.LiveUpdateBus} tells dashboards to reload.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent<?> event) {
+        invalidate(sessionScoped ? currentDatabase() : null, event.getEntityId().getEntityClass());
+    }
+
+    /**
+     * Returns the session defining the database of the current authentication in online mode.
+     */
+    private String currentDatabase() {
+        return sessionScoped ? SessionIds.of(SecurityContextHelper.getAuthentication()) : "";
+    }
+
+    private void load(CacheKey key, CacheEntry entry, Supplier<?> loader) {
+        try {
+            entry.result.complete(loader.get());
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+            entry.result.completeExceptionally(e);
+        }
+    }
+
+    private void evictOverflow() {
+        var iterator = entries.values().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    @Nullable
+    private static Object toKeyValue(@Nullable Object value) {
+        if (value instanceof Object[] array) {
+            List<Object> result = new ArrayList<>(array.length);
+            for (Object element : array) {
+                result.add(toKeyValue(element));
+            }
+            return result;
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> result = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                result.add(toKeyValue(element));
+            }
+            return result;
+        }
+        if (value instanceof Entity entity) {
+            return EntityValues.getId(entity);
+        }
+        return value;
+    }
+
+    private record CacheKey(String database, String method, @Nullable Object arguments) {
+    }
+
+    private static class CacheEntry {
+
+        private final Collection<Class<?>> dependencies;
+        private final long createdNanos;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private CacheEntry(Collection<Class<?>> dependencies, long createdNanos) {
+            this.dependencies = dependencies;
+            this.createdNanos = createdNanos;
+        }
+
+        private boolean isExpired(long nowNanos, long ttlNanos) {
+            return result.isDone() && nowNanos - createdNanos > ttlNanos;
+        }
+
+        private boolean dependsOn(Class<?> entityClass) {
+            return dependencies.stream().anyMatch(dependency -> dependency.isAssignableFrom(entityClass));
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.company.crm.app.service.analytics;
+
+import com.company.crm.model.analytics.DailySalesRollup;
+import com.company.crm.model.analytics.DailySalesRollupKind;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.order.Order;
+import io.jmix.core.Id;
+import io.jmix.core.event.AttributeChanges;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.metamodel.datatype.EnumClass;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains {@link DailySalesRollup} rows.
+ * <p>
+ * When an {@link Order} or an {@link Invoice} is changed, only the affected (date, client, status) buckets
+ * are recalculated inside the same transaction: the bucket the entity belonged to before the change
+ * and the bucket it belongs to now. Rollup rows of a client are written under a lock of the client row,
+ * so concurrent transactions never create the same bucket twice.
+ * <p>
+ * {@link #rebuild()} recalculates the whole table, e.g. after direct database changes.
+ */
+@Component
+public class DailySalesRollupUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(DailySalesRollupUpdater.class);
+
+    private static final List<String> BUCKET_PROPERTIES = List.of("date", "client", "status", "total", "deletedDate");
+
+    private static final String LOCK_CLIENT = "select ID from CLIENT where ID = ?1 for update";
+
+    private static final String INSERT_ROLLUP =
+            "insert into DAILY_SALES_ROLLUP (ID, KIND, SALES_DATE, CLIENT_ID, STATUS, " +
+                    "ENTRIES_COUNT, TOTAL_COUNT, TOTAL_SUM, TOTAL_MIN, TOTAL_MAX) " +
+                    "values (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10)";
+
+    private static final String AGGREGATES =
+            "select DATE_, CLIENT_ID, STATUS, count(*), count(TOTAL), coalesce(sum(TOTAL), 0), min(TOTAL), max(TOTAL) ";
+
+    private final DailySalesRollupService dailySalesRollupService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public DailySalesRollupUpdater(DailySalesRollupService dailySalesRollupService) {
+        this.dailySalesRollupService = dailySalesRollupService;
+    }
+
+    @EventListener
+    public void onOrderChanged(EntityChangedEvent<Order> event) {
+        onSourceChanged(DailySalesRollupKind.ORDER, event);
+    }
+
+    @EventListener
+    public void onInvoiceChanged(EntityChangedEvent<Invoice> event) {
+        onSourceChanged(DailySalesRollupKind.INVOICE, event);
+    }
+
+    /**
+     * Fills the rollup for databases created before it was introduced.
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!dailySalesRollupService.isEnabled()) {
+            return;
+        }
+
+        Number rollupRows = (Number) entityManager
+                .createNativeQuery("select count(*) from DAILY_SALES_ROLLUP")
+                .getSingleResult();
+        if (rollupRows.longValue() == 0) {
+            doRebuild();
+        }
+    }
+
+    /**
+     * Recalculates the whole rollup from orders and invoices.
+     */
+    @Transactional
+    public void rebuild() {
+        doRebuild();
+    }
+
+    private void doRebuild() {
+        entityManager.createNativeQuery("delete from DAILY_SALES_ROLLUP").executeUpdate();
+
+        int buckets = 0;
+        for (DailySalesRollupKind kind : DailySalesRollupKind.values()) {
+            List<?> rows = entityManager.createNativeQuery(
+                            AGGREGATES + "from " + getTable(kind) + " where DELETED_DATE is null " +
+                                    "group by DATE_, CLIENT_ID, STATUS")
+                    .getResultList();
+            for (Object row : rows) {
+                insert(kind, (Object[]) row);
+                buckets++;
+            }
+        }
+
+        log.info("Daily sales rollup rebuilt: {} buckets", buckets);
+    }
+
+    private void onSourceChanged(DailySalesRollupKind kind, EntityChangedEvent<?> event) {
+        if (!dailySalesRollupService.isEnabled()) {
+            return;
+        }
+
+        AttributeChanges changes = event.getChanges();
+        if (event.getType() == EntityChangedEvent.Type.UPDATED
+                && BUCKET_PROPERTIES.stream().noneMatch(changes::isChanged)) {
+            return;
+        }
+
+        Set<Bucket> buckets = new LinkedHashSet<>();
+
+        Bucket current = loadCurrentBucket(kind, event.getEntityId().getValue());
+        if (current != null) {
+            buckets.add(current);
+        }
+
+        Bucket previous = getPreviousBucket(kind, current, changes);
+        if (previous != null) {
+            buckets.add(previous);
+        }
+
+        buckets.stream()
+                .map(Bucket::clientId)
+                .distinct()
+                .forEach(this::lockClient);
+
+        buckets.forEach(this::recalculate);
+    }
+
+    /**
+     * Soft-deleted rows are still present in the database, so the bucket of a deleted entity is resolved as well.
+     */
+    @Nullable
+    private Bucket loadCurrentBucket(DailySalesRollupKind kind, Object entityId) {
+        List<?> result = entityManager.createNativeQuery(
+                        "select DATE_, CLIENT_ID, STATUS from " + getTable(kind) + " where ID = ?1")
+                .setParameter(1, entityId)
+                .getResultList();
+        if (result.isEmpty()) {
+            return null;
+        }
+
+        Object[] row = (Object[]) result.getFirst();
+        UUID clientId = toUuid(row[1]);
+        return clientId == null ? null : new Bucket(kind, toLocalDate(row[0]), clientId, toInteger(row[2]));
+    }
+
+    @Nullable
+    private Bucket getPreviousBucket(DailySalesRollupKind kind, @Nullable Bucket current, AttributeChanges changes) {
+        boolean dateChanged = changes.isChanged("date");
+        boolean clientChanged = changes.isChanged("client");
+        boolean statusChanged = changes.isChanged("status");
+
+        if (current != null && !dateChanged && !clientChanged && !statusChanged) {
+            return null;
+        }
+
+        LocalDate date = dateChanged || current == null
+                ? toLocalDate(changes.getOldValue("date"))
+                : current.date();
+        UUID clientId = clientChanged || current == null
+                ? toUuid(changes.getOldReferenceId("client"))
+                : current.clientId();
+        Integer status = statusChanged || current == null
+                ? toInteger(changes.getOldValue("status"))
+                : current.status();
+
+        return clientId == null ? null : new Bucket(kind, date, clientId, status);
+    }
+
+    private void lockClient(UUID clientId) {
+        entityManager.createNativeQuery(LOCK_CLIENT)
+                .setParameter(1, clientId)
+                .getResultList();
+    }
+
+    private void recalculate(Bucket bucket) {
+        List<Object> parameters = new ArrayList<>();
+        String bucketCondition = getBucketCondition(bucket, parameters);
+
+        Query delete = entityManager.createNativeQuery(
+                "delete from DAILY_SALES_ROLLUP where KIND = ?" + (parameters.size() + 1) + " and " + bucketCondition);
+        setParameters(delete, parameters).setParameter(parameters.size() + 1, bucket.kind().getId()).executeUpdate();
+
+        Query aggregates = entityManager.createNativeQuery(
+                AGGREGATES + "from " + getTable(bucket.kind()) + " where DELETED_DATE is null and " + bucketCondition +
+                        " group by DATE_, CLIENT_ID, STATUS");
+        List<?> rows = setParameters(aggregates, parameters).getResultList();
+        for (Object row : rows) {
+            insert(bucket.kind(), (Object[]) row);
+        }
+    }
+
+    private static String getBucketCondition(Bucket bucket, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+
+        parameters.add(bucket.clientId());
+        conditions.add("CLIENT_ID = ?" + parameters.size());
+
+        if (bucket.date() == null) {
+            conditions.add("DATE_ is null");
+        } else {
+            parameters.add(bucket.date());
+            conditions.add("DATE_ = ?" + parameters.size());
+        }
+
+        if (bucket.status() == null) {
+            conditions.add("STATUS is null");
+        } else {
+            parameters.add(bucket.status());
+            conditions.add("STATUS = ?" + parameters.size());
+        }
+
+        return String.join(" and ", conditions);
+    }
+
+    private static Query setParameters(Query query, List<Object> parameters) {
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        return query;
+    }
+
+    private void insert(DailySalesRollupKind kind, Object[] aggregates) {
+        entityManager.createNativeQuery(INSERT_ROLLUP)
+                .setParameter(1, UUID.randomUUID())
+                .setParameter(2, kind.getId())
+                .setParameter(3, toLocalDate(aggregates[0]))
+                .setParameter(4, toUuid(aggregates[1]))
+                .setParameter(5, toInteger(aggregates[2]))
+                .setParameter(6, ((Number) aggregates[3]).longValue())
+                .setParameter(7, ((Number) aggregates[4]).longValue())
+                .setParameter(8, (BigDecimal) aggregates[5])
+                .setParameter(9, (BigDecimal) aggregates[6])
+                .setParameter(10, (BigDecimal) aggregates[7])
+                .executeUpdate();
+    }
+
+    private static String getTable(DailySalesRollupKind kind) {
+        return switch (kind) {
+            case ORDER -> "ORDER_";
+            case INVOICE -> "INVOICE";
+        };
+    }
+
+    @Nullable
+    private static LocalDate toLocalDate(@Nullable Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    @Nullable
+    private static Integer toInteger(@Nullable Object value) {
+        if (value instanceof EnumClass<?> enumValue) {
+            value = enumValue.getId();
+        }
+        return value == null ? null : ((Number) value).intValue();
+    }
+
+    @Nullable
+    private static UUID toUuid(@Nullable Object value) {
+        if (value instanceof Id<?> id) {
+            value = id.getValue();
+        }
+        if (value == null) {
+            return null;
+        }
+        return value instanceof UUID uuid ? uuid : UUID.fromString(value.toString());
+    }
+
+    private record Bucket(DailySalesRollupKind kind, @Nullable LocalDate date, UUID clientId, @Nullable Integer status) {
+    }
+}
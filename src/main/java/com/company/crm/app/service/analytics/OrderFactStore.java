@@ -0,0 +1,624 @@
+package com.company.crm.app.service.analytics;
+
+import com.company.crm.app.config.SpringProfiles;
+import com.company.crm.app.util.date.range.LocalDateRange;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.order.OrderItem;
+import com.company.crm.model.order.OrderStatus;
+import io.jmix.core.Id;
+import io.jmix.core.event.EntityChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps order facts in memory as primitive columns: date as epoch day, client as an index in a client dictionary,
+ * status as a byte, total in cents and the number of items, about 50 bytes per order.
+ * <p>
+ * The store is filled from {@code ORDER_} at startup and follows {@link Order} and {@link OrderItem} changes:
+ * a changed row is read inside the changing transaction and applied after commit, newer versions win.
+ * Orders changed while the store is rebuilt are read again once the rebuilt columns are in place.
+ * Queries scan the columns in parallel and return the same {@link SalesRollupTotals}
+ * as {@link DailySalesRollupService} for orders, so analytics services can use either source.
+ * <p>
+ * Rows of removed orders are compacted once they make up a quarter of the store.
+ * <p>
+ * The store is used only if {@link #isAvailable()}. It is never enabled in online mode, where each HTTP session
+ * has its own database and a single store would mix orders of all of them.
+ */
+@Component
+public class OrderFactStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderFactStore.class);
+
+    public static final String ENABLED_PROPERTY = "crm.analytics.order-facts.enabled";
+
+    private static final int LOAD_BATCH_SIZE = 8192;
+
+    private static final String ORDER_FACTS =
+            "select o.ID, o.DATE_, o.CLIENT_ID, o.STATUS, o.TOTAL, o.VERSION, o.DELETED_DATE, " +
+                    "(select count(*) from ORDER_ITEM i where i.ORDER_ID = o.ID and i.DELETED_DATE is null) " +
+                    "from ORDER_ o ";
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte NO_STATUS = -1;
+    private static final byte REMOVED = -2;
+    private static final long NO_TOTAL = Long.MIN_VALUE;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Environment environment;
+    private final SpringProfiles springProfiles;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile boolean loaded;
+    private volatile boolean rebuilding;
+    private Columns columns = new Columns(16);
+    // guarded by the write lock, ids of orders changed while the store is rebuilt
+    private final Set<UUID> changedDuringRebuild = new HashSet<>();
+
+    public OrderFactStore(Environment environment, SpringProfiles springProfiles) {
+        this.environment = environment;
+        this.springProfiles = springProfiles;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.parseBoolean(environment.getProperty(ENABLED_PROPERTY, "false"))
+                && !springProfiles.isOnlineProfile();
+    }
+
+    /**
+     * Returns the number of items of orders matching the specified criteria,
+     * see {@link #getTotals(LocalDateRange, Collection, Client...)}.
+     */
+    public long getItemsCount(@Nullable LocalDateRange dateRange,
+                              Collection<OrderStatus> statuses,
+                              Client... clients) {
+        lock.readLock().lock();
+        try {
+            Columns data = columns;
+            Filter filter = createFilter(data, dateRange, statuses, clients);
+            return IntStream.range(0, data.size)
+                    .parallel()
+                    .filter(row -> filter.matches(data, row))
+                    .mapToLong(row -> data.itemsCount[row])
+                    .sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of rows in the store, including rows of removed orders that aren't compacted yet.
+     */
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return columns.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of rows of removed orders that aren't compacted yet.
+     */
+    public int getRemovedRowCount() {
+        lock.readLock().lock();
+        try {
+            return columns.removed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isAvailable() {
+        return loaded && isEnabled();
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (isEnabled()) {
+            doRebuild();
+        }
+    }
+
+    /**
+     * Reloads all order facts from the database, e.g. after direct database changes.
+     */
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        doRebuild();
+    }
+
+    @EventListener
+    public void onOrderChanged(EntityChangedEvent<Order> event) {
+        if (isTracking()) {
+            refreshAfterCommit(toUuid(event.getEntityId().getValue()));
+        }
+    }
+
+    @EventListener
+    public void onOrderItemChanged(EntityChangedEvent<OrderItem> event) {
+        if (!isTracking()) {
+            return;
+        }
+
+        if (event.getType() != EntityChangedEvent.Type.DELETED) {
+            // the changed item is in the persistence context, so its order is known without a query
+            OrderItem item = entityManager.find(OrderItem.class, event.getEntityId().getValue());
+            if (item != null && item.getOrder() != null) {
+                refreshAfterCommit(item.getOrder().getId());
+            }
+        }
+        Object oldOrderId = event.getChanges().getOldReferenceId("order");
+        if (oldOrderId != null) {
+            refreshAfterCommit(toUuid(oldOrderId));
+        }
+    }
+
+    /**
+     * Calculates totals of orders matching the specified criteria.
+     *
+     * @param dateRange an optional date range; if {@code null}, no date range filtering is applied
+     * @param statuses  statuses to include; if empty, all statuses are included
+     * @param clients   clients to include; if empty, all clients are included
+     */
+    public SalesRollupTotals getTotals(@Nullable LocalDateRange dateRange,
+                                       Collection<OrderStatus> statuses,
+                                       Client... clients) {
+        List<SalesRollupTotals> totals = aggregate(dateRange, statuses, clients, false, false);
+        return totals.isEmpty() ? SalesRollupTotals.empty() : totals.getFirst();
+    }
+
+    /**
+     * Same as {@link #getTotals(LocalDateRange, Collection, Client...)}, but grouped by date and sorted by date.
+     */
+    public List<SalesRollupTotals> getTotalsByDate(@Nullable LocalDateRange dateRange,
+                                                   Collection<OrderStatus> statuses,
+                                                   Client... clients) {
+        return aggregate(dateRange, statuses, clients, true, false);
+    }
+
+    /**
+     * Same as {@link #getTotals(LocalDateRange, Collection, Client...)},
+     * but grouped by date and status and sorted by date.
+     */
+    public List<SalesRollupTotals> getTotalsByDateAndStatus(@Nullable LocalDateRange dateRange, Client... clients) {
+        return aggregate(dateRange, List.of(), clients, true, true);
+    }
+
+    /**
+     * Changes are followed once the store is loaded and while it is being rebuilt.
+     */
+    private boolean isTracking() {
+        return loaded || rebuilding;
+    }
+
+    private void doRebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Columns rebuilt = new Columns(LOAD_BATCH_SIZE);
+
+        // keyset pagination keeps memory flat while reading large tables
+        Object lastId = null;
+        while (true) {
+            Query query;
+            if (lastId == null) {
+                query = entityManager.createNativeQuery(ORDER_FACTS +
+                        "where o.DELETED_DATE is null order by o.ID");
+            } else {
+                query = entityManager.createNativeQuery(ORDER_FACTS +
+                                "where o.DELETED_DATE is null and o.ID > ?1 order by o.ID")
+                        .setParameter(1, lastId);
+            }
+
+            List<?> rows = query.setMaxResults(LOAD_BATCH_SIZE).getResultList();
+            for (Object row : rows) {
+                rebuilt.put(toFact((Object[]) row));
+            }
+            if (rows.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            lastId = ((Object[]) rows.getLast())[0];
+        }
+
+        Set<UUID> changed;
+        lock.writeLock().lock();
+        try {
+            columns = rebuilt;
+            loaded = true;
+            rebuilding = false;
+            changed = new HashSet<>(changedDuringRebuild);
+            changedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // the rebuilt columns can miss or have older versions of orders committed while they were read
+        for (UUID orderId : changed) {
+            apply(orderId, readFact(orderId));
+        }
+
+        log.info("Order facts loaded: {} orders, {} clients", rebuilt.size, rebuilt.clientIds.size());
+    }
+
+    private void refreshAfterCommit(UUID orderId) {
+        OrderFact fact = readFact(orderId);
+        Runnable apply = () -> apply(orderId, fact);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Reads the order, returns {@code null} if it's removed.
+     */
+    @Nullable
+    private OrderFact readFact(UUID orderId) {
+        List<?> rows = entityManager.createNativeQuery(ORDER_FACTS + "where o.ID = ?1")
+                .setParameter(1, orderId)
+                .getResultList();
+
+        Object[] row = rows.isEmpty() ? null : (Object[]) rows.getFirst();
+        // soft-deleted orders are still present in the database
+        return row == null || row[6] != null ? null : toFact(row);
+    }
+
+    private void apply(UUID orderId, @Nullable OrderFact fact) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                changedDuringRebuild.add(orderId);
+            }
+            if (fact == null) {
+                columns.remove(orderId);
+                if (columns.removed * 4 > columns.size) {
+                    columns = columns.compacted();
+                }
+            } else {
+                columns.put(fact);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<SalesRollupTotals> aggregate(@Nullable LocalDateRange dateRange,
+                                              Collection<OrderStatus> statuses,
+                                              Client[] clients,
+                                              boolean groupByDate, boolean groupByStatus) {
+        lock.readLock().lock();
+        try {
+            Columns data = columns;
+            Filter filter = createFilter(data, dateRange, statuses, clients);
+
+            Map<Long, Totals> groups = IntStream.range(0, data.size)
+                    .parallel()
+                    .filter(row -> filter.matches(data, row))
+                    .collect(HashMap::new,
+                            (result, row) -> result
+                                    .computeIfAbsent(groupKey(data, row, groupByDate, groupByStatus), key -> new Totals())
+                                    .add(data.totalCents[row]),
+                            (result, other) -> other.forEach((key, totals) ->
+                                    result.merge(key, totals, Totals::merge)));
+
+            return groups.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+                    .map(entry -> entry.getValue().toRollupTotals(
+                            groupByDate ? toLocalDate((int) (entry.getKey() >> 8)) : null,
+                            groupByStatus ? toStatusId((byte) (entry.getKey() & 0xFF)) : null))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Filter createFilter(Columns data, @Nullable LocalDateRange dateRange,
+                                       Collection<OrderStatus> statuses, Client[] clients) {
+        boolean[] statusMask = null;
+        if (!statuses.isEmpty()) {
+            statusMask = new boolean[STATUSES.length];
+            for (OrderStatus status : statuses) {
+                statusMask[status.ordinal()] = true;
+            }
+        }
+
+        boolean[] clientMask = null;
+        if (clients.length > 0) {
+            clientMask = new boolean[data.clientIds.size()];
+            for (Client client : clients) {
+                Integer index = data.clientIndexes.get(client.getId());
+                if (index != null) {
+                    clientMask[index] = true;
+                }
+            }
+        }
+
+        return dateRange == null
+                ? new Filter(false, 0, 0, statusMask, clientMask)
+                : new Filter(true, (int) dateRange.startDate().toEpochDay(), (int) dateRange.endDate().toEpochDay(),
+                statusMask, clientMask);
+    }
+
+    /**
+     * Epoch day in the upper bits, status in the lowest byte: natural order of keys is the order by date.
+     */
+    private static long groupKey(Columns data, int row, boolean groupByDate, boolean groupByStatus) {
+        long day = groupByDate ? data.epochDay[row] : 0;
+        long status = groupByStatus ? data.status[row] & 0xFF : 0;
+        return day << 8 | status;
+    }
+
+    @Nullable
+    private static LocalDate toLocalDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    @Nullable
+    private static Integer toStatusId(byte status) {
+        return status < 0 ? null : STATUSES[status].getId();
+    }
+
+    private static OrderFact toFact(Object[] row) {
+        LocalDate date = row[1] instanceof java.sql.Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) row[1];
+        OrderStatus status = row[3] == null ? null : OrderStatus.fromId(((Number) row[3]).intValue());
+        BigDecimal total = (BigDecimal) row[4];
+        return new OrderFact(
+                toUuid(row[0]),
+                date == null ? NO_DATE : (int) date.toEpochDay(),
+                toUuid(row[2]),
+                status == null ? NO_STATUS : (byte) status.ordinal(),
+                total == null ? NO_TOTAL : total.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                row[7] == null ? 0 : ((Number) row[7]).intValue(),
+                row[5] == null ? 0 : ((Number) row[5]).intValue());
+    }
+
+    private static UUID toUuid(Object value) {
+        if (value instanceof Id<?> id) {
+            value = id.getValue();
+        }
+        return value instanceof UUID uuid ? uuid : UUID.fromString(value.toString());
+    }
+
+    private record OrderFact(UUID id, int epochDay, UUID clientId, byte status,
+                             long totalCents, int itemsCount, int version) {
+    }
+
+    private record Filter(boolean byDate, int fromDay, int toDay,
+                          boolean @Nullable [] statuses, boolean @Nullable [] clients) {
+
+        private boolean matches(Columns data, int row) {
+            byte status = data.status[row];
+            if (status == REMOVED) {
+                return false;
+            }
+            if (byDate) {
+                int day = data.epochDay[row];
+                if (day == NO_DATE || day < fromDay || day > toDay) {
+                    return false;
+                }
+            }
+            if (statuses != null && (status < 0 || !statuses[status])) {
+                return false;
+            }
+            if (clients != null) {
+                int client = data.client[row];
+                return client < clients.length && clients[client];
+            }
+            return true;
+        }
+    }
+
+    private static class Totals {
+
+        private long entriesCount;
+        private long totalCount;
+        private long totalCents;
+
+        private Totals add(long cents) {
+            entriesCount++;
+            if (cents != NO_TOTAL) {
+                totalCount++;
+                totalCents += cents;
+            }
+            return this;
+        }
+
+        private Totals merge(Totals other) {
+            entriesCount += other.entriesCount;
+            totalCount += other.totalCount;
+            totalCents += other.totalCents;
+            return this;
+        }
+
+        private SalesRollupTotals toRollupTotals(@Nullable LocalDate date, @Nullable Integer status) {
+            return new SalesRollupTotals(date, status, entriesCount, totalCount, BigDecimal.valueOf(totalCents, 2));
+        }
+    }
+
+    /**
+     * Column arrays of order facts with an open addressing index from order id to row.
+     * Removed orders keep their rows, so that row numbers stay stable until the columns are {@link #compacted()}.
+     */
+    private static class Columns {
+
+        private int size;
+        private int removed;
+
+        private long[] idMostBits;
+        private long[] idLeastBits;
+        private int[] epochDay;
+        private int[] client;
+        private byte[] status;
+        private long[] totalCents;
+        private int[] itemsCount;
+        private int[] version;
+
+        private int[] index;
+
+        private final Map<UUID, Integer> clientIndexes = new HashMap<>();
+        private final List<UUID> clientIds = new ArrayList<>();
+
+        private Columns(int minCapacity) {
+            // power of two, so that the index size is a power of two as well
+            int capacity = Integer.highestOneBit(Math.max(minCapacity - 1, 1)) << 1;
+            idMostBits = new long[capacity];
+            idLeastBits = new long[capacity];
+            epochDay = new int[capacity];
+            client = new int[capacity];
+            status = new byte[capacity];
+            totalCents = new long[capacity];
+            itemsCount = new int[capacity];
+            version = new int[capacity];
+            index = new int[capacity * 2];
+        }
+
+        private void put(OrderFact fact) {
+            int row = findRow(fact.id());
+            if (row < 0) {
+                row = addRow(fact.id());
+            } else if (status[row] == REMOVED) {
+                removed--;
+            } else if (version[row] > fact.version()) {
+                return;
+            }
+
+            epochDay[row] = fact.epochDay();
+            client[row] = clientIndexes.computeIfAbsent(fact.clientId(), clientId -> {
+                clientIds.add(clientId);
+                return clientIds.size() - 1;
+            });
+            status[row] = fact.status();
+            totalCents[row] = fact.totalCents();
+            itemsCount[row] = fact.itemsCount();
+            version[row] = fact.version();
+        }
+
+        private void remove(UUID id) {
+            int row = findRow(id);
+            if (row >= 0 && status[row] != REMOVED) {
+                status[row] = REMOVED;
+                removed++;
+            }
+        }
+
+        /**
+         * Returns columns without rows of removed orders and without clients having no orders.
+         */
+        private Columns compacted() {
+            Columns result = new Columns(size - removed);
+            for (int row = 0; row < size; row++) {
+                if (status[row] != REMOVED) {
+                    result.put(new OrderFact(new UUID(idMostBits[row], idLeastBits[row]), epochDay[row],
+                            clientIds.get(client[row]), status[row], totalCents[row], itemsCount[row], version[row]));
+                }
+            }
+            return result;
+        }
+
+        private int addRow(UUID id) {
+            if (size == idMostBits.length) {
+                grow();
+            }
+            int row = size++;
+            idMostBits[row] = id.getMostSignificantBits();
+            idLeastBits[row] = id.getLeastSignificantBits();
+            indexRow(row);
+            return row;
+        }
+
+        private int findRow(UUID id) {
+            long most = id.getMostSignificantBits();
+            long least = id.getLeastSignificantBits();
+            int mask = index.length - 1;
+            for (int slot = slot(most, least, mask); ; slot = (slot + 1) & mask) {
+                int entry = index[slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                int row = entry - 1;
+                if (idMostBits[row] == most && idLeastBits[row] == least) {
+                    return row;
+                }
+            }
+        }
+
+        private void indexRow(int row) {
+            int mask = index.length - 1;
+            int slot = slot(idMostBits[row], idLeastBits[row], mask);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = row + 1;
+        }
+
+        private void grow() {
+            int capacity = idMostBits.length * 2;
+            idMostBits = Arrays.copyOf(idMostBits, capacity);
+            idLeastBits = Arrays.copyOf(idLeastBits, capacity);
+            epochDay = Arrays.copyOf(epochDay, capacity);
+            client = Arrays.copyOf(client, capacity);
+            status = Arrays.copyOf(status, capacity);
+            totalCents = Arrays.copyOf(totalCents, capacity);
+            itemsCount = Arrays.copyOf(itemsCount, capacity);
+            version = Arrays.copyOf(version, capacity);
+
+            index = new int[capacity * 2];
+            for (int row = 0; row < size; row++) {
+                indexRow(row);
+            }
+        }
+
+        private static int slot(long most, long least, int mask) {
+            long hash = most ^ least;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.company.crm.app.service.analytics;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Aggregated values of {@link com.company.crm.model.analytics.DailySalesRollup} rows.
+ *
+ * @param date         rollup date, {@code null} if the values are not grouped by date or for entries without a date
+ * @param status       status id, {@code null} if the values are not grouped by status or for entries without a status
+ * @param entriesCount number of orders or invoices
+ * @param totalCount   number of orders or invoices with a total
+ * @param totalSum     sum of totals
+ */
+public record SalesRollupTotals(@Nullable LocalDate date, @Nullable Integer status,
+                                long entriesCount, long totalCount, BigDecimal totalSum) {
+
+    public static SalesRollupTotals empty() {
+        return new SalesRollupTotals(null, null, 0, 0, BigDecimal.ZERO);
+    }
+
+    public BigDecimal getAverageTotal() {
+        if (totalCount == 0) {
+            return BigDecimal.ZERO;
+        }
+        return totalSum.divide(BigDecimal.valueOf(totalCount), 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,169 @@
+package com.company.crm.app.service.catalog;
+
+import com.company.crm.app.service.storage.CrmFileStorage;
+import io.jmix.core.FileRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+import static com.company.crm.app.service.storage.CrmFileStorage.IMAGES_FOLDER_PATH;
+
+/**
+ * Fetches images of imported catalog items into {@link CrmFileStorage}.
+ * <p>
+ * Images are fetched concurrently on virtual threads, at most {@link #PER_HOST_LIMIT_PROPERTY} at a time
+ * from the same host. Each image name is fetched once: names already in the storage are skipped, and a name
+ * that is being fetched is waited for instead of being fetched again. Data is streamed from the provider
+ * into the storage. Failed fetches are retried up to {@link #ATTEMPTS_PROPERTY} attempts in total.
+ */
+@Component
+public class CatalogImageFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImageFetcher.class);
+
+    public static final String PER_HOST_LIMIT_PROPERTY = "crm.catalog.import.image-fetch.per-host-limit";
+    public static final String ATTEMPTS_PROPERTY = "crm.catalog.import.image-fetch.attempts";
+
+    private static final Duration RETRY_DELAY = Duration.ofMillis(500);
+    private static final String LOCAL_HOST = "";
+
+    private final CrmFileStorage fileStorage;
+    private final Environment environment;
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    public CatalogImageFetcher(CrmFileStorage fileStorage, Environment environment) {
+        this.fileStorage = fileStorage;
+        this.environment = environment;
+    }
+
+    /**
+     * Fetches the given images and waits for them.
+     *
+     * @param imageNames        file names or URLs of images, can contain duplicates
+     * @param imageDataProvider returns the data of an image, or {@code null} if there is no such image
+     * @return references of the images that are in the storage by image names
+     */
+    public Map<String, FileRef> fetch(Collection<String> imageNames, Function<String, InputStream> imageDataProvider) {
+        Map<String, FileRef> result = new ConcurrentHashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String imageName : new LinkedHashSet<>(imageNames)) {
+                executor.submit(() -> {
+                    FileRef imageRef = createImageRef(imageName);
+                    if (fetchOnce(imageName, imageRef, imageDataProvider)) {
+                        result.put(imageName, imageRef);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    public FileRef createImageRef(String imageName) {
+        return new FileRef(fileStorage.getStorageName(), IMAGES_FOLDER_PATH + "/" + imageName, imageName);
+    }
+
+    private boolean fetchOnce(String imageName, FileRef imageRef, Function<String, InputStream> imageDataProvider) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(imageName, future);
+        if (running != null) {
+            return running.join();
+        }
+
+        boolean fetched = false;
+        try {
+            fetched = fetchWithRetries(imageName, imageRef, imageDataProvider);
+        } finally {
+            inFlight.remove(imageName, future);
+            future.complete(fetched);
+        }
+        return fetched;
+    }
+
+    private boolean fetchWithRetries(String imageName, FileRef imageRef,
+                                     Function<String, InputStream> imageDataProvider) {
+        int attempts = environment.getProperty(ATTEMPTS_PROPERTY, Integer.class, 3);
+        Semaphore permits = hostPermits.computeIfAbsent(getHost(imageName), host ->
+                new Semaphore(environment.getProperty(PER_HOST_LIMIT_PROPERTY, Integer.class, 4)));
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (fileStorage.fileExists(imageRef)) {
+                    return true;
+                }
+
+                permits.acquire();
+                try (InputStream imageStream = imageDataProvider.apply(imageName)) {
+                    if (imageStream == null) {
+                        return false;
+                    }
+                    fileStorage.save(imageRef, imageStream);
+                    return true;
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (IOException | RuntimeException e) {
+                removePartialFile(imageRef);
+                if (attempt >= attempts) {
+                    log.warn("Cannot load image {} after {} attempts", imageName, attempts, e);
+                    return false;
+                }
+                log.debug("Cannot load image {}, retrying", imageName, e);
+                if (!sleep(RETRY_DELAY.multipliedBy(attempt))) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void removePartialFile(FileRef imageRef) {
+        try {
+            if (fileStorage.fileExists(imageRef)) {
+                fileStorage.removeFile(imageRef);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cannot remove partially loaded image {}", imageRef, e);
+        }
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String getHost(String imageName) {
+        if (!imageName.startsWith("http://") && !imageName.startsWith("https://")) {
+            return LOCAL_HOST;
+        }
+        try {
+            String host = URI.create(imageName).getHost();
+            return host == null ? LOCAL_HOST : host;
+        } catch (IllegalArgumentException e) {
+            return LOCAL_HOST;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.company.crm.app.service.catalog;
+
+import java.util.List;
+
+/**
+ * Outcome of a catalog import.
+ *
+ * @param categoryChanges changes of categories
+ * @param itemChanges     changes of items
+ * @param errorCount      number of rows that weren't imported
+ * @param errors          errors of the rows that weren't imported, at most
+ *                        {@link CatalogImporter#MAX_REPORTED_ERRORS} first ones
+ */
+public record CatalogImportResult(CategoryChanges categoryChanges, ItemChanges itemChanges,
+                                  int errorCount, List<RowError> errors) {
+
+    public boolean hasErrors() {
+        return errorCount > 0;
+    }
+
+    /**
+     * Returns the number of items in the imported sheet, changed or not.
+     */
+    public int importedItems() {
+        return itemChanges.created() + itemChanges.updated() + itemChanges.unchanged();
+    }
+
+    /**
+     * @param created   number of new categories, including parents that are referenced but not in the sheet
+     * @param updated   number of categories changed by the import
+     * @param unchanged number of category rows skipped because they match the saved category
+     */
+    public record CategoryChanges(int created, int updated, int unchanged) {
+    }
+
+    /**
+     * @param created   number of new items
+     * @param updated   number of items changed by the import
+     * @param unchanged number of items skipped because their rows didn't change since the last import
+     * @param removed   number of removed items that were imported before but aren't in the sheet anymore
+     */
+    public record ItemChanges(int created, int updated, int unchanged, int removed) {
+    }
+
+    /**
+     * @param sheetName name of the sheet
+     * @param rowNumber one-based number of the row, as shown by spreadsheet applications
+     * @param message   description of the error
+     */
+    public record RowError(String sheetName, int rowNumber, String message) {
+
+        @Override
+        public String toString() {
+            return sheetName + "!" + rowNumber + ": " + message;
+        }
+    }
+}
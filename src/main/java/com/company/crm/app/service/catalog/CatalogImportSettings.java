@@ -11,16 +11,31 @@ import java.util.function.Function;
 
 import static com.company.crm.app.service.catalog.CatalogService.DEFAULT_IMAGE_DATA_PROVIDER;
 
+/**
+ * @param removeMissingItems whether items imported before that aren't in the items sheet should be removed
+ */
 public record CatalogImportSettings(
         InputStream xlsxInputStream,
         CategoryMappingInfo categoryMappingInfo,
-        CategoryItemMappingInfo categoryItemMappingInfo
+        CategoryItemMappingInfo categoryItemMappingInfo,
+        boolean removeMissingItems
 ) {
 
     public CatalogImportSettings(InputStream xlsxInputStream) {
         this(xlsxInputStream, CategoryMappingInfo.DEFAULT, CategoryItemMappingInfo.DEFAULT);
     }
 
+    public CatalogImportSettings(InputStream xlsxInputStream,
+                                 CategoryMappingInfo categoryMappingInfo,
+                                 CategoryItemMappingInfo categoryItemMappingInfo) {
+        this(xlsxInputStream, categoryMappingInfo, categoryItemMappingInfo, false);
+    }
+
+    public CatalogImportSettings withRemoveMissingItems(boolean removeMissingItems) {
+        return new CatalogImportSettings(xlsxInputStream, categoryMappingInfo, categoryItemMappingInfo,
+                removeMissingItems);
+    }
+
     public interface MappingInfo<T extends UuidEntity> {
         @Nullable
         String sheetName();
@@ -0,0 +1,686 @@
+package com.company.crm.app.service.catalog;
+
+import com.company.crm.app.service.catalog.CatalogImportResult.RowError;
+import com.company.crm.app.service.catalog.CatalogImportSettings.CategoryItemMappingInfo;
+import com.company.crm.app.service.catalog.CatalogImportSettings.CategoryMappingInfo;
+import com.company.crm.app.service.catalog.CatalogImportSettings.MappingInfo;
+import com.company.crm.model.catalog.category.Category;
+import com.company.crm.model.catalog.item.CategoryItem;
+import com.company.crm.model.catalog.item.UomType;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.FetchPlans;
+import io.jmix.core.FileRef;
+import io.jmix.core.Id;
+import io.jmix.core.SaveContext;
+import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.core.entity.KeyValueEntity;
+import io.jmix.core.event.EntityChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.apache.commons.lang3.StringUtils.isAnyBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Imports the catalog from XLSX without loading the whole workbook.
+ * <p>
+ * Sheets are read row by row with the POI event API. Rows are imported in chunks of {@link #CHUNK_SIZE_PROPERTY}:
+ * existing categories and items of a chunk are loaded with one {@code code in (...)} query per entity,
+ * and the chunk is saved in its own transaction. Invalid rows and rows of chunks that failed to save
+ * are reported in {@link CatalogImportResult} instead of failing the whole import.
+ * <p>
+ * Imported items keep a fingerprint of their row in {@link CategoryItem#getImportFingerprint()}. Rows with
+ * the same fingerprint are skipped without loading or saving the item, so re-importing a mostly unchanged
+ * catalog writes only the changed rows. The fingerprint is cleared when an item is changed otherwise,
+ * so the next import restores it from the row. Categories are few, so they are compared field by field
+ * and saved only when new or changed.
+ */
+@Component
+public class CatalogImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImporter.class);
+
+    public static final String CHUNK_SIZE_PROPERTY = "crm.catalog.import.chunk-size";
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final List<String> FINGERPRINT_ATTRIBUTES =
+            List.of("name", "category", "uom", "price", "description", "image");
+
+    private static final String CLEAR_ITEM_FINGERPRINT =
+            "update CATEGORY_ITEM set IMPORT_FINGERPRINT = null where ID = ?1";
+    private static final String CLEAR_CATEGORY_ITEMS_FINGERPRINTS =
+            "update CATEGORY_ITEM set IMPORT_FINGERPRINT = null where CATEGORY_ID = ?1";
+
+    private final CatalogImageFetcher imageFetcher;
+    private final UnconstrainedDataManager dataManager;
+    private final FetchPlans fetchPlans;
+    private final Environment environment;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CatalogImporter(CatalogImageFetcher imageFetcher, UnconstrainedDataManager dataManager,
+                           FetchPlans fetchPlans, Environment environment) {
+        this.imageFetcher = imageFetcher;
+        this.dataManager = dataManager;
+        this.fetchPlans = fetchPlans;
+        this.environment = environment;
+    }
+
+    @EventListener
+    public void onCategoryItemChanged(EntityChangedEvent<CategoryItem> event) {
+        if (event.getType() == EntityChangedEvent.Type.UPDATED
+                && !event.getChanges().isChanged("importFingerprint")
+                && FINGERPRINT_ATTRIBUTES.stream().anyMatch(event.getChanges()::isChanged)) {
+            entityManager.createNativeQuery(CLEAR_ITEM_FINGERPRINT)
+                    .setParameter(1, event.getEntityId().getValue())
+                    .executeUpdate();
+        }
+    }
+
+    @EventListener
+    public void onCategoryChanged(EntityChangedEvent<Category> event) {
+        if (event.getType() == EntityChangedEvent.Type.UPDATED && event.getChanges().isChanged("code")) {
+            entityManager.createNativeQuery(CLEAR_CATEGORY_ITEMS_FINGERPRINTS)
+                    .setParameter(1, event.getEntityId().getValue())
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * Imports categories and items, creating the ones with new codes and updating the changed ones.
+     *
+     * @param itemsListener receives created and updated items of every chunk, can be {@code null}
+     */
+    public CatalogImportResult importCatalog(CatalogImportSettings importSettings,
+                                             @Nullable Consumer<Collection<CategoryItem>> itemsListener) {
+        int chunkSize = environment.getProperty(CHUNK_SIZE_PROPERTY, Integer.class, 1000);
+        ImportReport report = new ImportReport();
+
+        Path file = null;
+        try {
+            // OPCPackage buffers a stream in memory, a file is read part by part
+            file = Files.createTempFile("catalog-import", ".xlsx");
+            Files.copy(importSettings.xlsxInputStream(), file, StandardCopyOption.REPLACE_EXISTING);
+
+            try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+
+                CategoryMappingInfo categoryMappingInfo = importSettings.categoryMappingInfo();
+                if (categoryMappingInfo != null) {
+                    readSheet(reader, strings, categoryMappingInfo, chunkSize,
+                            rows -> importCategories(rows, categoryMappingInfo, report));
+                }
+
+                CategoryItemMappingInfo itemMappingInfo = importSettings.categoryItemMappingInfo();
+                if (itemMappingInfo != null) {
+                    report.seenCodes = importSettings.removeMissingItems() ? new HashSet<>() : null;
+                    readSheet(reader, strings, itemMappingInfo, chunkSize,
+                            rows -> importItems(rows, itemMappingInfo, report, itemsListener));
+
+                    if (report.seenCodes != null) {
+                        if (report.failedChunks > 0) {
+                            log.warn("Missing catalog items are not removed: {} chunks failed to save",
+                                    report.failedChunks);
+                        } else {
+                            removeMissingItems(report.seenCodes, chunkSize, report);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new RuntimeException("Failed to import catalog from XLSX", e);
+        } finally {
+            deleteQuietly(file);
+        }
+
+        return report.toResult();
+    }
+
+    private void importCategories(List<SheetRow> rows, CategoryMappingInfo mappingInfo, ImportReport report) {
+        Set<String> codes = new HashSet<>();
+        for (SheetRow row : rows) {
+            addIfNotNull(codes, row.get(mappingInfo, "code"));
+            addIfNotNull(codes, row.get(mappingInfo, "parentCode"));
+        }
+        Map<String, Category> categoriesByCode = loadCategories(codes);
+
+        Set<Category> createdCategories = new LinkedHashSet<>();
+        Set<Category> updatedCategories = new LinkedHashSet<>();
+        int unchanged = 0;
+        List<SheetRow> importedRows = new ArrayList<>();
+        for (SheetRow row : rows) {
+            String name = row.get(mappingInfo, "name");
+            String code = row.get(mappingInfo, "code");
+            String parentCode = row.get(mappingInfo, "parentCode");
+            String description = row.get(mappingInfo, "description");
+
+            if (name == null || code == null) {
+                report.addError(row, "Name and code are required");
+                continue;
+            }
+            importedRows.add(row);
+
+            Category category = categoriesByCode.computeIfAbsent(code, c -> {
+                Category newCategory = createCategory(c);
+                createdCategories.add(newCategory);
+                return newCategory;
+            });
+            Category parent = parentCode == null ? null : categoriesByCode.computeIfAbsent(parentCode, c -> {
+                Category newCategory = createCategory(c);
+                createdCategories.add(newCategory);
+                return newCategory;
+            });
+
+            // an empty parent code keeps the current parent
+            boolean parentChanged = parent != null
+                    && (category.getParent() == null || !category.getParent().getId().equals(parent.getId()));
+            if (!createdCategories.contains(category)
+                    && name.equals(category.getName())
+                    && Objects.equals(description, category.getDescription())
+                    && !parentChanged) {
+                unchanged++;
+                continue;
+            }
+
+            category.setName(name);
+            category.setDescription(description);
+            if (parentChanged) {
+                category.setParent(parent);
+            }
+            if (!createdCategories.contains(category)) {
+                updatedCategories.add(category);
+            }
+        }
+
+        if (createdCategories.isEmpty() && updatedCategories.isEmpty()) {
+            report.unchangedCategories += unchanged;
+            return;
+        }
+
+        try {
+            dataManager.save(new SaveContext().saving(createdCategories).saving(updatedCategories));
+            report.createdCategories += createdCategories.size();
+            report.updatedCategories += updatedCategories.size();
+            report.unchangedCategories += unchanged;
+        } catch (RuntimeException e) {
+            report.addChunkError(importedRows, e);
+        }
+    }
+
+    private void importItems(List<SheetRow> rows, CategoryItemMappingInfo mappingInfo, ImportReport report,
+                             @Nullable Consumer<Collection<CategoryItem>> itemsListener) {
+        // the last row of a code wins, as if rows were applied one by one
+        Map<String, ItemRow> rowsByCode = new LinkedHashMap<>();
+        List<SheetRow> validRows = new ArrayList<>();
+        for (SheetRow row : rows) {
+            String code = row.get(mappingInfo, "code");
+            if (code != null) {
+                report.itemSeen(code);
+            }
+            ItemRow itemRow = parseItemRow(row, mappingInfo, report);
+            if (itemRow != null) {
+                rowsByCode.put(itemRow.code(), itemRow);
+                validRows.add(row);
+            }
+        }
+        if (rowsByCode.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> fingerprintsByCode = loadFingerprints(rowsByCode.keySet());
+        List<ItemRow> changedRows = new ArrayList<>();
+        for (ItemRow itemRow : rowsByCode.values()) {
+            String fingerprint = fingerprintsByCode.get(itemRow.code());
+            if (fingerprint != null && fingerprint.equals(itemRow.fingerprint())) {
+                report.unchangedItems++;
+            } else {
+                changedRows.add(itemRow);
+            }
+        }
+        if (changedRows.isEmpty()) {
+            return;
+        }
+
+        Set<String> codes = new HashSet<>();
+        Set<String> categoryCodes = new HashSet<>();
+        for (ItemRow itemRow : changedRows) {
+            codes.add(itemRow.code());
+            categoryCodes.add(itemRow.categoryCode());
+        }
+        Map<String, CategoryItem> itemsByCode = loadItems(codes);
+        Map<String, Category> categoriesByCode = loadCategories(categoryCodes);
+
+        var imageDataProvider = mappingInfo.imageDataProvider();
+        Map<String, FileRef> imagesByName = imageDataProvider == null
+                ? Map.of()
+                : imageFetcher.fetch(changedRows.stream().map(ItemRow::imageName).filter(Objects::nonNull).toList(),
+                imageDataProvider);
+        Set<Category> newCategories = new LinkedHashSet<>();
+        List<CategoryItem> items = new ArrayList<>();
+        int created = 0;
+        for (ItemRow itemRow : changedRows) {
+            Category category = categoriesByCode.computeIfAbsent(itemRow.categoryCode(), c -> {
+                Category newCategory = createCategory(c);
+                newCategories.add(newCategory);
+                return newCategory;
+            });
+
+            CategoryItem item = itemsByCode.get(itemRow.code());
+            if (item == null) {
+                item = createItem(itemRow.code());
+                created++;
+            }
+            item.setName(itemRow.name());
+            item.setCategory(category);
+            item.setDescription(itemRow.description());
+            if (itemRow.uom() != null) {
+                item.setUom(itemRow.uom());
+            }
+            if (itemRow.price() != null) {
+                item.setPrice(itemRow.price());
+            }
+
+            String fingerprint = itemRow.fingerprint();
+            String imageName = itemRow.imageName();
+            if (imageName != null && imageDataProvider != null) {
+                FileRef imageRef = imagesByName.get(imageName);
+                if (imageRef != null) {
+                    item.setImage(imageRef);
+                } else {
+                    // not loaded, the next import tries again
+                    fingerprint = null;
+                }
+            }
+
+            item.setImportFingerprint(fingerprint);
+            items.add(item);
+        }
+
+        try {
+            var saved = dataManager.save(new SaveContext().saving(newCategories).saving(items));
+            report.createdItems += created;
+            report.updatedItems += items.size() - created;
+            if (itemsListener != null) {
+                itemsListener.accept(saved.getAll(CategoryItem.class));
+            }
+        } catch (RuntimeException e) {
+            report.addChunkError(validRows, e);
+        }
+    }
+
+    @Nullable
+    private ItemRow parseItemRow(SheetRow row, CategoryItemMappingInfo mappingInfo, ImportReport report) {
+        String name = row.get(mappingInfo, "name");
+        String code = row.get(mappingInfo, "code");
+        String categoryCode = row.get(mappingInfo, "categoryCode");
+        String uomStr = row.get(mappingInfo, "uom");
+        String priceStr = row.get(mappingInfo, "price");
+        String description = row.get(mappingInfo, "description");
+        String imageName = row.get(mappingInfo, "imageName");
+
+        if (isAnyBlank(name, code, categoryCode)) {
+            report.addError(row, "Name, code and category code are required");
+            return null;
+        }
+
+        UomType uom = null;
+        if (isNotBlank(uomStr)) {
+            try {
+                uom = UomType.valueOf(uomStr.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                report.addError(row, "Invalid unit of measure: " + uomStr);
+                return null;
+            }
+        }
+
+        BigDecimal price = null;
+        if (isNotBlank(priceStr)) {
+            try {
+                price = new BigDecimal(priceStr.replace(",", "."));
+            } catch (NumberFormatException e) {
+                report.addError(row, "Invalid price: " + priceStr);
+                return null;
+            }
+        }
+
+        String fingerprint = fingerprint(name, categoryCode, uom, price, description, imageName);
+        return new ItemRow(name, code, categoryCode, uom, price, description, imageName, fingerprint);
+    }
+
+    /**
+     * Deletes items imported before that aren't in the imported sheet. Items created in the UI aren't touched.
+     */
+    private void removeMissingItems(Set<String> seenCodes, int chunkSize, ImportReport report) {
+        UUID lastId = null;
+        while (true) {
+            var loader = dataManager.loadValues("select e.id, e.code from CategoryItem e " +
+                            "where e.importFingerprint is not null" +
+                            (lastId == null ? "" : " and e.id > :lastId") +
+                            " order by e.id")
+                    .properties("id", "code")
+                    .maxResults(chunkSize);
+            if (lastId != null) {
+                loader.parameter("lastId", lastId);
+            }
+            List<KeyValueEntity> page = loader.list();
+
+            List<Id<CategoryItem>> missing = new ArrayList<>();
+            for (KeyValueEntity value : page) {
+                if (!seenCodes.contains(value.<String>getValue("code"))) {
+                    missing.add(Id.of(value.<UUID>getValue("id"), CategoryItem.class));
+                }
+            }
+            if (!missing.isEmpty()) {
+                dataManager.remove(missing.toArray(Id[]::new));
+                report.removedItems += missing.size();
+            }
+
+            if (page.size() < chunkSize) {
+                return;
+            }
+            lastId = page.getLast().getValue("id");
+        }
+    }
+
+    private Map<String, String> loadFingerprints(Set<String> codes) {
+        Map<String, String> fingerprintsByCode = new HashMap<>();
+        dataManager.loadValues("select e.code, e.importFingerprint from CategoryItem e where e.code in :codes")
+                .properties("code", "fingerprint")
+                .parameter("codes", codes)
+                .list()
+                .forEach(value -> fingerprintsByCode.put(value.getValue("code"), value.getValue("fingerprint")));
+        return fingerprintsByCode;
+    }
+
+    private Map<String, Category> loadCategories(Set<String> codes) {
+        Map<String, Category> categoriesByCode = new HashMap<>();
+        if (codes.isEmpty()) {
+            return categoriesByCode;
+        }
+
+        FetchPlan fetchPlan = fetchPlans.builder(Category.class)
+                .addFetchPlan(FetchPlan.BASE)
+                .add("parent", FetchPlan.INSTANCE_NAME)
+                .build();
+        dataManager.load(Category.class)
+                .query("e.code in :codes")
+                .parameter("codes", codes)
+                .fetchPlan(fetchPlan)
+                .list()
+                .forEach(category -> categoriesByCode.put(category.getCode(), category));
+        return categoriesByCode;
+    }
+
+    private Map<String, CategoryItem> loadItems(Set<String> codes) {
+        Map<String, CategoryItem> itemsByCode = new HashMap<>();
+        if (codes.isEmpty()) {
+            return itemsByCode;
+        }
+
+        FetchPlan fetchPlan = fetchPlans.builder(CategoryItem.class)
+                .addFetchPlan(FetchPlan.BASE)
+                .add("category", FetchPlan.INSTANCE_NAME)
+                .build();
+        dataManager.load(CategoryItem.class)
+                .query("e.code in :codes")
+                .parameter("codes", codes)
+                .fetchPlan(fetchPlan)
+                .list()
+                .forEach(item -> itemsByCode.put(item.getCode(), item));
+        return itemsByCode;
+    }
+
+    private Category createCategory(String code) {
+        var category = dataManager.create(Category.class);
+        category.setCode(code);
+        category.setName(code);
+        return category;
+    }
+
+    private CategoryItem createItem(String code) {
+        var item = dataManager.create(CategoryItem.class);
+        item.setCode(code);
+        return item;
+    }
+
+    private static void readSheet(XSSFReader reader, ReadOnlySharedStringsTable strings, MappingInfo<?> mappingInfo,
+                                  int chunkSize, Consumer<List<SheetRow>> chunkImporter)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+        // the sheet with the mapped name or the first one, as XSSFWorkbook-based import did
+        String targetName = mappingInfo.sheetName();
+        String sheetName = null;
+        InputStream sheet = null;
+        while (sheets.hasNext()) {
+            InputStream next = sheets.next();
+            String nextName = sheets.getSheetName();
+            if (sheet != null && !nextName.equals(targetName)) {
+                next.close();
+                continue;
+            }
+            if (sheet != null) {
+                sheet.close();
+            }
+            sheet = next;
+            sheetName = nextName;
+            if (StringUtils.isBlank(targetName) || nextName.equals(targetName)) {
+                break;
+            }
+        }
+        if (sheet == null) {
+            return;
+        }
+
+        try (InputStream sheetData = sheet) {
+            ChunkingRowHandler rowHandler = new ChunkingRowHandler(sheetName, chunkSize, chunkImporter);
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(
+                    reader.getStylesTable(), null, strings, rowHandler, new DataFormatter(), false));
+            parser.parse(new InputSource(sheetData));
+            rowHandler.flush();
+        }
+    }
+
+    /**
+     * SHA-256 of the imported values of an item row.
+     */
+    static String fingerprint(String name, String categoryCode, @Nullable UomType uom, @Nullable BigDecimal price,
+                              @Nullable String description, @Nullable String imageName) {
+        String content = String.join("\u001f",
+                name,
+                categoryCode,
+                uom == null ? "" : uom.name(),
+                // 10 and 10.00 are the same price
+                price == null ? "" : price.stripTrailingZeros().toPlainString(),
+                Objects.toString(description, ""),
+                Objects.toString(imageName, ""));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void addIfNotNull(Set<String> values, @Nullable String value) {
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    private static void deleteQuietly(@Nullable Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete temporary file {}", file, e);
+        }
+    }
+
+    private record ItemRow(String name, String code, String categoryCode, @Nullable UomType uom,
+                           @Nullable BigDecimal price, @Nullable String description, @Nullable String imageName,
+                           String fingerprint) {
+    }
+
+    /**
+     * Non-blank cell values of a row by column index.
+     */
+    private record SheetRow(String sheetName, int rowNumber, Map<Integer, String> cells) {
+
+        @Nullable
+        String get(MappingInfo<?> mappingInfo, String field) {
+            Integer column = mappingInfo.cell2FieldMappings().get(field);
+            return column == null ? null : cells.get(column);
+        }
+    }
+
+    /**
+     * Collects data rows, i.e. all rows except the header one, and passes them on in chunks.
+     */
+    private static class ChunkingRowHandler implements SheetContentsHandler {
+
+        private final String sheetName;
+        private final int chunkSize;
+        private final Consumer<List<SheetRow>> chunkImporter;
+
+        private final List<SheetRow> chunk = new ArrayList<>();
+        private Map<Integer, String> cells = new HashMap<>();
+        private int column;
+
+        ChunkingRowHandler(String sheetName, int chunkSize, Consumer<List<SheetRow>> chunkImporter) {
+            this.sheetName = sheetName;
+            this.chunkSize = chunkSize;
+            this.chunkImporter = chunkImporter;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new HashMap<>();
+            column = -1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0 || cells.isEmpty()) {
+                return;
+            }
+            chunk.add(new SheetRow(sheetName, rowNum + 1, cells));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void cell(@Nullable String cellReference, @Nullable String formattedValue,
+                         @Nullable XSSFComment comment) {
+            column = cellReference != null ? new CellReference(cellReference).getCol() : column + 1;
+            if (formattedValue != null && !formattedValue.isBlank()) {
+                cells.put(column, formattedValue);
+            }
+        }
+
+        void flush() {
+            if (!chunk.isEmpty()) {
+                chunkImporter.accept(List.copyOf(chunk));
+                chunk.clear();
+            }
+        }
+    }
+
+    private static class ImportReport {
+
+        private final List<RowError> errors = new ArrayList<>();
+        private int errorCount;
+        private int failedChunks;
+        private int createdCategories;
+        private int updatedCategories;
+        private int unchangedCategories;
+        private int createdItems;
+        private int updatedItems;
+        private int unchangedItems;
+        private int removedItems;
+        // codes of all item rows, valid or not, when missing items are removed
+        @Nullable
+        private Set<String> seenCodes;
+
+        void itemSeen(String code) {
+            if (seenCodes != null) {
+                seenCodes.add(code);
+            }
+        }
+
+        void addError(SheetRow row, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row.sheetName(), row.rowNumber(), message));
+            }
+        }
+
+        void addChunkError(List<SheetRow> rows, Exception e) {
+            log.warn("Failed to save {} catalog rows starting from row {}",
+                    rows.size(), rows.isEmpty() ? null : rows.getFirst().rowNumber(), e);
+            failedChunks++;
+            String message = "Not saved: " + ExceptionUtils.getRootCauseMessage(e);
+            rows.forEach(row -> addError(row, message));
+        }
+
+        CatalogImportResult toResult() {
+            return new CatalogImportResult(
+                    new CatalogImportResult.CategoryChanges(createdCategories, updatedCategories, unchangedCategories),
+                    new CatalogImportResult.ItemChanges(createdItems, updatedItems, unchangedItems, removedItems),
+                    errorCount, List.copyOf(errors));
+        }
+    }
+}
@@ -2,124 +2,157 @@ package com.company.crm.app.service.catalog;
 
 import com.company.crm.app.service.catalog.CatalogImportSettings.CategoryItemMappingInfo;
 import com.company.crm.app.service.catalog.CatalogImportSettings.CategoryMappingInfo;
-import com.company.crm.app.service.catalog.CatalogImportSettings.MappingInfo;
-import com.company.crm.app.service.storage.CrmFileStorage;
 import com.company.crm.app.util.date.range.LocalDateRange;
+import com.company.crm.model.base.KeysetCursor;
+import com.company.crm.model.base.KeysetPageRequest;
+import com.company.crm.model.base.UuidEntity;
+import com.company.crm.model.base.UuidEntityRepository;
 import com.company.crm.model.catalog.category.Category;
 import com.company.crm.model.catalog.category.CategoryRepository;
 import com.company.crm.model.catalog.item.CategoryItem;
 import com.company.crm.model.catalog.item.CategoryItemRepository;
-import com.company.crm.model.catalog.item.UomType;
-import io.jmix.core.FileRef;
+import io.jmix.core.FetchPlan;
+import io.jmix.core.FetchPlans;
 import io.jmix.core.FluentValuesLoader;
-import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.core.repository.JmixDataRepositoryContext;
 import io.jmix.flowui.UiComponents;
+import io.jmix.flowui.download.DownloadFormat;
 import io.jmix.flowui.download.Downloader;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static com.company.crm.app.service.storage.CrmFileStorage.IMAGES_FOLDER_PATH;
-import static org.apache.commons.lang3.StringUtils.isAnyBlank;
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
-
 @Service
 public class CatalogService {
 
     private static final Logger log = LoggerFactory.getLogger(CatalogService.class);
 
-    private final CrmFileStorage fileStorage;
-    private final UnconstrainedDataManager dataManager;
+    public static final String EXPORT_PAGE_SIZE_PROPERTY = "crm.catalog.export.page-size";
+
+    private static final int EXPORT_ROW_WINDOW = 100;
+
     private final CategoryRepository categoryRepository;
+    private final CatalogImporter catalogImporter;
     private final CategoryItemRepository categoryItemRepository;
     private final ObjectProvider<Downloader> downloaderProvider;
+    private final FetchPlans fetchPlans;
+    private final Environment environment;
 
-    public CatalogService(CategoryItemRepository categoryItemRepository, UnconstrainedDataManager dataManager,
-                          CrmFileStorage fileStorage, CategoryRepository categoryRepository, ObjectProvider<Downloader> downloaderProvider, UiComponents uiComponents) {
+    public CatalogService(CategoryItemRepository categoryItemRepository, CatalogImporter catalogImporter,
+                          CategoryRepository categoryRepository, ObjectProvider<Downloader> downloaderProvider, UiComponents uiComponents,
+                          FetchPlans fetchPlans, Environment environment) {
         this.categoryItemRepository = categoryItemRepository;
-        this.dataManager = dataManager;
-        this.fileStorage = fileStorage;
+        this.catalogImporter = catalogImporter;
         this.categoryRepository = categoryRepository;
         this.downloaderProvider = downloaderProvider;
+        this.fetchPlans = fetchPlans;
+        this.environment = environment;
     }
 
     public void downloadCatalogXls() {
         try {
-            byte[] content = generateCatalogXls();
-            downloaderProvider.getObject().download(content, "catalog.xlsx");
+            // the catalog is generated when the browser requests the download, so nothing is left behind
+            // if it never does
+            downloaderProvider.getObject().download(this::openCatalogXls, "catalog.xlsx", DownloadFormat.XLSX);
         } catch (Throwable e) {
             log.error("Error when downloading catalog in XLS format", e);
         }
     }
 
+    /**
+     * Generates the catalog in memory, see {@link #writeCatalogXls(OutputStream)} for large catalogs.
+     */
     public byte[] generateCatalogXls() {
-        try (XSSFWorkbook workbook = createWorkbook()) {
-            fillCategoriesSheet(workbook);
-            fillItemsSheet(workbook);
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            workbook.write(baos);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeCatalogXls(baos);
+        return baos.toByteArray();
+    }
 
-            return baos.toByteArray();
+    /**
+     * Writes the catalog in XLSX format to the given stream, which is left open.
+     * <p>
+     * Categories and items are loaded in pages of {@link #EXPORT_PAGE_SIZE_PROPERTY} rows with only the exported
+     * properties, and rows are written through a streaming workbook that keeps only the last rows in memory,
+     * so the heap used doesn't depend on the catalog size.
+     */
+    public void writeCatalogXls(OutputStream out) {
+        int pageSize = environment.getProperty(EXPORT_PAGE_SIZE_PROPERTY, Integer.class, 1000);
+        SXSSFWorkbook workbook = createWorkbook();
+        try (workbook) {
+            fillCategoriesSheet(workbook, pageSize);
+            fillItemsSheet(workbook, pageSize);
+            workbook.write(out);
         } catch (IOException e) {
             throw new RuntimeException("Error when generating catalog in XLS format", e);
+        } finally {
+            workbook.dispose();
         }
     }
 
-    private void fillCategoriesSheet(XSSFWorkbook workbook) {
+    private void fillCategoriesSheet(SXSSFWorkbook workbook, int pageSize) {
         var sheet = workbook.createSheet(CategoryMappingInfo.DEFAULT_SHEET_NAME);
         Row headerRow = sheet.createRow(0);
         CategoryMappingInfo.DEFAULT_CELL_MAPPINGS.forEach((field, index) ->
                 headerRow.createCell(index).setCellValue(field));
 
-        List<Category> categories = categoryRepository.findAll();
-        for (int i = 0; i < categories.size(); i++) {
-            Category category = categories.get(i);
-            Row row = sheet.createRow(i + 1);
+        FetchPlan fetchPlan = fetchPlans.builder(Category.class)
+                .addAll("name", "code", "description", "parent.code")
+                .build();
+        int[] rowIndex = {1};
+        forEachPage(categoryRepository, fetchPlan, pageSize, category -> {
+            Row row = sheet.createRow(rowIndex[0]++);
             row.createCell(CategoryMappingInfo.DEFAULT_CELL_MAPPINGS.get("name")).setCellValue(category.getName());
             row.createCell(CategoryMappingInfo.DEFAULT_CELL_MAPPINGS.get("code")).setCellValue(category.getCode());
             if (category.getParent() != null) {
                 row.createCell(CategoryMappingInfo.DEFAULT_CELL_MAPPINGS.get("parentCode")).setCellValue(category.getParent().getCode());
             }
             row.createCell(CategoryMappingInfo.DEFAULT_CELL_MAPPINGS.get("description")).setCellValue(category.getDescription());
-        }
+        });
     }
 
-    private void fillItemsSheet(XSSFWorkbook workbook) {
+    private void fillItemsSheet(SXSSFWorkbook workbook, int pageSize) {
         var sheet = workbook.createSheet(CategoryItemMappingInfo.DEFAULT_SHEET_NAME);
         Row headerRow = sheet.createRow(0);
         CategoryItemMappingInfo.DEFAULT_CELL_MAPPINGS.forEach((field, index) ->
                 headerRow.createCell(index).setCellValue(field));
 
-        List<CategoryItem> items = categoryItemRepository.findAll();
-        for (int i = 0; i < items.size(); i++) {
-            CategoryItem item = items.get(i);
-            Row row = sheet.createRow(i + 1);
+        FetchPlan fetchPlan = fetchPlans.builder(CategoryItem.class)
+                .addAll("name", "code", "uom", "price", "description", "image", "category.code")
+                .build();
+        int[] rowIndex = {1};
+        forEachPage(categoryItemRepository, fetchPlan, pageSize, item -> {
+            Row row = sheet.createRow(rowIndex[0]++);
             row.createCell(CategoryItemMappingInfo.DEFAULT_CELL_MAPPINGS.get("name")).setCellValue(item.getName());
             row.createCell(CategoryItemMappingInfo.DEFAULT_CELL_MAPPINGS.get("code")).setCellValue(item.getCode());
             if (item.getCategory() != null) {
@@ -135,23 +168,72 @@ public class CatalogService {
             if (item.getImage() != null) {
                 row.createCell(CategoryItemMappingInfo.DEFAULT_CELL_MAPPINGS.get("imageName")).setCellValue(item.getImage().getFileName());
             }
+        });
+    }
+
+    /**
+     * Passes all entities ordered by id to the action, loading them page by page from the last loaded row.
+     */
+    private static <T extends UuidEntity> void forEachPage(UuidEntityRepository<T> repository, FetchPlan fetchPlan,
+                                                           int pageSize, Consumer<T> action) {
+        var context = JmixDataRepositoryContext.builder().plan(fetchPlan).build();
+        var request = KeysetPageRequest.ofOffset(0, pageSize, Sort.unsorted());
+        while (true) {
+            List<T> page = repository.findAll(request, context);
+            page.forEach(action);
+            if (page.size() < pageSize) {
+                return;
+            }
+            KeysetCursor last = Objects.requireNonNull(KeysetCursor.of(page.getLast(), Sort.unsorted()));
+            request = new KeysetPageRequest(request.offset() + pageSize, pageSize, Sort.unsorted(),
+                    last, KeysetPageRequest.Seek.AFTER);
         }
     }
 
-    private XSSFWorkbook createWorkbook() {
-        var workbook = new XSSFWorkbook();
+    /**
+     * Writes the catalog to a temporary file, which is removed once the returned stream is closed.
+     */
+    private InputStream openCatalogXls() {
+        try {
+            Path file = Files.createTempFile("catalog", ".xlsx");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                writeCatalogXls(out);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            log.error("Error when generating catalog in XLS format", e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            log.error("Error when generating catalog in XLS format", e);
+            throw e;
+        }
+    }
+
+    private SXSSFWorkbook createWorkbook() {
+        var workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
         var headerCellStyle = workbook.createCellStyle();
         headerCellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
         return workbook;
     }
 
+    /**
+     * Imports the catalog and returns created and updated items by categories,
+     * use {@link #importCatalog} for large catalogs.
+     */
     public Map<Category, List<CategoryItem>> updateCatalog(CatalogImportSettings importSettings) {
-        try (Workbook workbook = new XSSFWorkbook(importSettings.xlsxInputStream())) {
-            Map<String, Category> categoriesByCode = importCategories(workbook, importSettings.categoryMappingInfo());
-            return importItems(workbook, categoriesByCode, importSettings.categoryItemMappingInfo());
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to import catalog from XLSX", e);
-        }
+        Map<Category, List<CategoryItem>> result = new HashMap<>();
+        CatalogImportResult importResult = catalogImporter.importCatalog(importSettings, items -> items.forEach(item ->
+                result.computeIfAbsent(item.getCategory(), k -> new ArrayList<>()).add(item)));
+        importResult.errors().forEach(error -> log.warn("Catalog row is not imported: {}", error));
+        return result;
+    }
+
+    public CatalogImportResult importCatalog(CatalogImportSettings importSettings) {
+        return catalogImporter.importCatalog(importSettings, null);
     }
 
     //@formatter:off
@@ -201,217 +283,51 @@ public class CatalogService {
         );
     }
 
-    private Map<String, Category> importCategories(Workbook workbook, CategoryMappingInfo mappingInfo) {
-        Map<String, Category> categoriesByCode = new HashMap<>();
-        if (mappingInfo == null) {
-            return categoriesByCode;
-        }
-
-        Sheet sheet = getSheet(workbook, mappingInfo);
-        if (sheet == null) {
-            return categoriesByCode;
-        }
-
-        DataFormatter dataFormatter = new DataFormatter();
-
-        Map<String, String> parentCodesByCode = new HashMap<>();
-
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            if (row == null) {
-                continue;
-            }
-
-            String name = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("name"), dataFormatter);
-            String code = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("code"), dataFormatter);
-            String parentCode = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("parentCode"), dataFormatter);
-            String description = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("description"), dataFormatter);
-
-            if (name == null || code == null) {
-                continue;
-            }
-
-            Category category = getOrCreateCategory(categoriesByCode, code);
-            category.setName(name);
-            category.setCode(code);
-            category.setDescription(description);
+    private static final HttpClient IMAGE_HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+    private static final Duration IMAGE_REQUEST_TIMEOUT = Duration.ofSeconds(30);
 
-            if (parentCode != null) {
-                parentCodesByCode.put(code, parentCode);
-            }
-
-            categoriesByCode.put(code, category);
-        }
-
-        for (Map.Entry<String, String> entry : parentCodesByCode.entrySet()) {
-            String code = entry.getKey();
-            String parentCode = entry.getValue();
-
-            Category category = categoriesByCode.get(code);
-            Category parent = getOrCreateCategory(categoriesByCode, parentCode);
-            category.setParent(parent);
-
-            categoriesByCode.put(parentCode, parent);
-        }
-
-        dataManager.save(categoriesByCode.values().toArray());
-
-        return categoriesByCode;
-    }
-
-    private Map<Category, List<CategoryItem>> importItems(Workbook workbook,
-                                                          Map<String, Category> categoriesByCode,
-                                                          CategoryItemMappingInfo mappingInfo) {
-        var itemsByCode = new HashMap<String, CategoryItem>();
-        var result = new HashMap<Category, List<CategoryItem>>();
-
-        Sheet sheet = getSheet(workbook, mappingInfo);
-        if (sheet == null) {
-            return result;
-        }
-
-        var dataFormatter = new DataFormatter();
-        var imageDataProvider = mappingInfo.imageDataProvider();
-
-        for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-            Row row = sheet.getRow(i);
-            if (row == null) {
-                continue;
-            }
-
-            String name = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("name"), dataFormatter);
-            String code = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("code"), dataFormatter);
-            String categoryCode = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("categoryCode"), dataFormatter);
-            String uomStr = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("uom"), dataFormatter);
-            String priceStr = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("price"), dataFormatter);
-            String description = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("description"), dataFormatter);
-            String imageName = getCellValueAsString(row, mappingInfo.cell2FieldMappings().get("imageName"), dataFormatter);
-
-            if (isAnyBlank(name, code, categoryCode)) {
-                continue;
-            }
-
-            Category category = getOrCreateCategory(categoriesByCode, categoryCode);
-            if (category == null) {
-                log.warn("Category with code {} not found for item {}", categoryCode, name);
-                continue;
-            }
-
-            CategoryItem item = getOrCreateItem(itemsByCode, code);
-            item.setName(name);
-            item.setCode(code);
-            item.setCategory(category);
-            item.setDescription(description);
-
-            if (isNotBlank(uomStr)) {
-                try {
-                    item.setUom(UomType.valueOf(uomStr.toUpperCase()));
-                } catch (IllegalArgumentException e) {
-                    log.warn("Invalid UOM {} for item {}", uomStr, name);
-                }
-            }
-
-            if (isNotBlank(priceStr)) {
-                try {
-                    item.setPrice(new BigDecimal(priceStr.replace(",", ".")));
-                } catch (NumberFormatException e) {
-                    log.warn("Invalid price {} for item {}", priceStr, name);
-                }
-            }
-
-            if (imageName != null && imageDataProvider != null) {
-                String imageFilePath = IMAGES_FOLDER_PATH + "/" + imageName;
-                FileRef imageRef = new FileRef(fileStorage.getStorageName(), imageFilePath, imageName);
-                if (!fileStorage.fileExists(imageRef)) {
-                    InputStream imageStream = imageDataProvider.apply(imageName);
-                    if (imageStream != null) {
-                        fileStorage.save(imageRef, imageStream);
-                    }
-                }
-                item.setImage(imageRef);
-            }
-
-            itemsByCode.put(code, item);
-            result.computeIfAbsent(category, k -> new ArrayList<>()).add(item);
-        }
-
-        dataManager.save(categoriesByCode.values().toArray());
-        dataManager.save(itemsByCode.values().toArray());
-
-        return result;
-    }
-
-    private static Sheet getSheet(Workbook workbook, MappingInfo<?> mappingInfo) {
-        Sheet sheet;
-        String sheetName = mappingInfo.sheetName();
-        if (StringUtils.isBlank(sheetName)) {
-            sheet = workbook.getSheetAt(0);
+    /**
+     * Opens an image by URL or from demo data. Returns {@code null} if there is no such image, throws an exception
+     * if the image may be available on retry.
+     */
+    static final Function<String, InputStream> DEFAULT_IMAGE_DATA_PROVIDER = fileName -> {
+        if (fileName.startsWith("http://") || fileName.startsWith("https://")) {
+            return openImageUrl(fileName);
         } else {
-            sheet = workbook.getSheet(sheetName);
-            if (sheet == null) {
-                sheet = workbook.getSheetAt(0);
-            }
-        }
-        return sheet;
-    }
-
-    private Category createCategory(String code) {
-        var category = dataManager.create(Category.class);
-        category.setCode(code);
-        category.setName(code);
-        return category;
-    }
-
-    private Category getOrCreateCategory(String code) {
-        return categoryRepository.findByCode(code)
-                .orElseGet(() -> createCategory(code));
-    }
-
-    private Category getOrCreateCategory(Map<String, Category> categoriesByCode, String code) {
-        Category category = categoriesByCode.get(code);
-        if (category == null) {
-            category = getOrCreateCategory(code);
-            categoriesByCode.put(code, category);
+            return CatalogService.class.getResourceAsStream("/demo-data/images/" + fileName);
         }
-        return category;
-    }
-
-    private CategoryItem createItem(String code) {
-        var item = dataManager.create(CategoryItem.class);
-        item.setCode(code);
-        return item;
-    }
-
-    private CategoryItem getOrCreateItem(String code) {
-        return categoryItemRepository.findByCode(code)
-                .orElseGet(() -> createItem(code));
-    }
-
-    private CategoryItem getOrCreateItem(Map<String, CategoryItem> itemsByCode, String code) {
-        return Optional.ofNullable(itemsByCode.get(code))
-                .orElseGet(() -> getOrCreateItem(code));
-    }
+    };
 
     @Nullable
-    private String getCellValueAsString(Row row, int cellIndex, DataFormatter dataFormatter) {
-        Cell cell = row.getCell(cellIndex);
-        if (cell == null) {
+    private static InputStream openImageUrl(String url) {
+        HttpResponse<InputStream> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(IMAGE_REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            response = IMAGE_HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IllegalArgumentException e) {
             return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + url, e);
         }
 
-        String value = dataFormatter.formatCellValue(cell);
-        return value.isBlank() ? null : value;
-    }
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return response.body();
+        }
 
-    static final Function<String, InputStream> DEFAULT_IMAGE_DATA_PROVIDER = fileName -> {
-        if (fileName.startsWith("http://") || fileName.startsWith("https://")) {
-            try {
-                return new ByteArrayInputStream(IOUtils.toByteArray(new URI(fileName).toURL().openConnection()));
-            } catch (Throwable ignored) {
-                return null;
-            }
-        } else {
-            return CatalogService.class.getResourceAsStream("/demo-data/images/" + fileName);
+        IOUtils.closeQuietly(response.body());
+        if (status == 429 || status >= 500) {
+            throw new UncheckedIOException(new IOException("HTTP " + status + " when loading " + url));
         }
-    };
+        return null;
+    }
 }
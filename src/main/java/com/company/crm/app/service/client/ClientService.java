@@ -1,18 +1,31 @@
 package com.company.crm.app.service.client;
 
+import com.company.crm.app.service.analytics.AnalyticsResultCache;
+import com.company.crm.app.service.analytics.DailySalesRollupService;
+import com.company.crm.app.service.analytics.OrderFactStore;
+import com.company.crm.app.service.analytics.SalesRollupTotals;
 import com.company.crm.app.util.date.range.LocalDateRange;
+import com.company.crm.model.analytics.DailySalesRollupKind;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.client.ClientRepository;
 import com.company.crm.model.client.ClientType;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.order.Order;
 import com.company.crm.model.order.OrderStatus;
+import com.company.crm.model.payment.Payment;
 import io.jmix.core.FetchPlan;
 import io.jmix.core.FetchPlanBuilder;
 import io.jmix.core.FetchPlans;
 import io.jmix.core.FluentValueLoader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -27,19 +40,99 @@ import static java.util.Arrays.asList;
 @Service
 public class ClientService {
 
+    private static final List<Class<?>> CLIENTS = List.of(Client.class);
+    private static final List<Class<?>> ORDERS = List.of(Order.class);
+    private static final List<Class<?>> INVOICES = List.of(Invoice.class);
+    private static final List<Class<?>> PAYMENTS = List.of(Invoice.class, Payment.class);
+    private static final List<Class<?>> FINANCE = List.of(Order.class, Invoice.class, Payment.class);
+
     private final FetchPlans fetchPlans;
     private final ClientRepository clientRepository;
+    private final DailySalesRollupService dailySalesRollupService;
+    private final OrderFactStore orderFactStore;
+    private final AnalyticsResultCache resultCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public ClientService(FetchPlans fetchPlans, ClientRepository clientRepository) {
+    public ClientService(FetchPlans fetchPlans, ClientRepository clientRepository,
+                         DailySalesRollupService dailySalesRollupService, OrderFactStore orderFactStore,
+                         AnalyticsResultCache resultCache) {
         this.fetchPlans = fetchPlans;
         this.clientRepository = clientRepository;
+        this.dailySalesRollupService = dailySalesRollupService;
+        this.orderFactStore = orderFactStore;
+        this.resultCache = resultCache;
     }
 
     public BigDecimal getOutstandingBalance(Client client) {
         return getInvoicesTotalSum(client).subtract(getPaymentsTotalSum(client));
     }
 
+    /**
+     * Calculates orders total, average bill, invoices total and payments total with a single statement.
+     * Payments are taken from the maintained {@link Invoice#getPaymentsSum()}.
+     * <p>
+     * The statement is native, so it differs from the {@code getXxxTotalSum} methods in two ways:
+     * <ul>
+     *     <li>row-level constraints of the current user are not applied, as with the other native analytics
+     *     queries; the project defines no row-level policies for orders and invoices, callers that add them
+     *     must filter the clients instead;</li>
+     *     <li>payments of soft-deleted invoices are not counted, so the payments total matches the invoices
+     *     total, which skips deleted invoices as well, and the outstanding balance stays consistent.</li>
+     * </ul>
+     *
+     * @param dateRange an optional date range applied to order and invoice dates; if {@code null}, all time is used
+     * @param clients   clients to include; if no clients are provided, all clients are considered
+     * @return the snapshot, zero values if nothing matches
+     */
+    @Transactional(readOnly = true)
+    public ClientStatsSnapshot getStatsSnapshot(@Nullable LocalDateRange dateRange, Client... clients) {
+        return resultCache.get("ClientService.getStatsSnapshot", FINANCE,
+                () -> loadStatsSnapshot(dateRange, clients), dateRange, clients);
+    }
+
+    private ClientStatsSnapshot loadStatsSnapshot(@Nullable LocalDateRange dateRange, Client... clients) {
+        List<Object> parameters = new ArrayList<>();
+        String ordersCondition = statsCondition("o", dateRange, clients, parameters);
+        String invoicesCondition = statsCondition("i", dateRange, clients, parameters);
+
+        Query query = entityManager.createNativeQuery(
+                "select " +
+                        "coalesce(sum(case when s.KIND = 'O' then s.TOTAL end), 0), " +
+                        "avg(case when s.KIND = 'O' then s.TOTAL end), " +
+                        "coalesce(sum(case when s.KIND = 'I' then s.TOTAL end), 0), " +
+                        "coalesce(sum(case when s.KIND = 'I' then s.PAID_AMOUNT end), 0) " +
+                        "from (" +
+                        "select 'O' as KIND, o.TOTAL as TOTAL, cast(null as decimal(19, 2)) as PAID_AMOUNT from ORDER_ o " +
+                        "where " + ordersCondition + " " +
+                        "union all " +
+                        "select 'I', i.TOTAL, i.PAID_AMOUNT from INVOICE i " +
+                        "where " + invoicesCondition +
+                        ") s");
+
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+
+        Object[] row = (Object[]) query.getSingleResult();
+        return new ClientStatsSnapshot(
+                toBigDecimal(row[0]),
+                toBigDecimal(row[1]).setScale(2, RoundingMode.HALF_UP),
+                toBigDecimal(row[2]),
+                toBigDecimal(row[3]));
+    }
+
     public List<CompletedOrdersByDateRangeInfo> getCompletedOrdersInfo(@Nullable LocalDateRange dateRange, Client... clients) {
+        return resultCache.get("ClientService.getCompletedOrdersInfo", FINANCE,
+                () -> loadCompletedOrdersInfo(dateRange, clients), dateRange, clients);
+    }
+
+    private List<CompletedOrdersByDateRangeInfo> loadCompletedOrdersInfo(@Nullable LocalDateRange dateRange, Client... clients) {
+        if (isOrderTotalsPrecalculated()) {
+            return getCompletedOrdersInfoFromTotals(dateRange, clients);
+        }
+
         boolean clientsSpecified = clients.length > 0;
 
         StringBuilder query = new StringBuilder(
@@ -89,6 +182,24 @@ public class ClientService {
         }).toList();
     }
 
+    private List<CompletedOrdersByDateRangeInfo> getCompletedOrdersInfoFromTotals(@Nullable LocalDateRange dateRange,
+                                                                                  Client... clients) {
+        var completedStatus = List.of(OrderStatus.DONE);
+
+        Long rangeTotalAmount = getCompletedOrdersAmount(dateRange, clients);
+        var rangeTotalSum = getOrderTotals(null, completedStatus, clients).totalSum();
+        var salesCycleLength = getSalesCycleLength(dateRange, clients);
+
+        var totalsByDate = orderFactStore.isAvailable()
+                ? orderFactStore.getTotalsByDate(dateRange, completedStatus, clients)
+                : dailySalesRollupService.getTotalsByDate(DailySalesRollupKind.ORDER, dateRange, completedStatus, clients);
+
+        return totalsByDate.stream()
+                .map(totals -> new CompletedOrdersByDateRangeInfo(totals.date(), dateRange, totals.entriesCount(),
+                        totals.totalSum(), rangeTotalAmount, rangeTotalSum, salesCycleLength))
+                .toList();
+    }
+
     /**
      * Calculates the total number of completed orders based on the provided date range and clients.
      *
@@ -98,6 +209,15 @@ public class ClientService {
      */
     public Long getCompletedOrdersAmount(@Nullable LocalDateRange dateRange,
                                                Client... clients) {
+        return resultCache.get("ClientService.getCompletedOrdersAmount", ORDERS,
+                () -> loadCompletedOrdersAmount(dateRange, clients), dateRange, clients);
+    }
+
+    private Long loadCompletedOrdersAmount(@Nullable LocalDateRange dateRange, Client... clients) {
+        if (isOrderTotalsPrecalculated()) {
+            return getOrderTotals(dateRange, List.of(OrderStatus.DONE), clients).entriesCount();
+        }
+
         boolean clientsSpecified = clients.length > 0;
 
         StringBuilder query = new StringBuilder("select count(e) from Order_ e");
@@ -143,6 +263,11 @@ public class ClientService {
      */
     public Integer getSalesCycleLength(@Nullable LocalDateRange dateRange,
                                        Client... clients) {
+        return resultCache.get("ClientService.getSalesCycleLength", FINANCE,
+                () -> loadSalesCycleLength(dateRange, clients), dateRange, clients);
+    }
+
+    private Integer loadSalesCycleLength(@Nullable LocalDateRange dateRange, Client... clients) {
         boolean clientsSpecified = clients.length > 0;
 
         StringBuilder query = new StringBuilder(
@@ -208,6 +333,10 @@ public class ClientService {
      * @return a map where the key is the {@link ClientType} and the value is the count of clients with that type.
      */
     public Map<ClientType, Long> getClientsCountByType() {
+        return resultCache.get("ClientService.getClientsCountByType", CLIENTS, this::loadClientsCountByType);
+    }
+
+    private Map<ClientType, Long> loadClientsCountByType() {
         Map<ClientType, Long> countsByType = new HashMap<>();
 
         clientRepository.fluentValuesLoader(
@@ -283,6 +412,14 @@ public class ClientService {
      * @return the total value of all orders associated with the specified client as a {@link BigDecimal}.
      */
     public BigDecimal getOrdersTotalSum(OrderStatus[] statuses, Client... client) {
+        return resultCache.get("ClientService.getOrdersTotalSum", ORDERS,
+                () -> loadOrdersTotalSum(statuses, client), statuses, client);
+    }
+
+    private BigDecimal loadOrdersTotalSum(OrderStatus[] statuses, Client... client) {
+        if (isOrderTotalsPrecalculated()) {
+            return getOrderTotals(null, statuses == null ? List.of() : asList(statuses), client).totalSum();
+        }
         return ordersTotalSumLoader(statuses, client).optional().orElse(BigDecimal.ZERO);
     }
 
@@ -293,6 +430,11 @@ public class ClientService {
      * @return the total value of all payments associated with the specified client as a {@link BigDecimal}.
      */
     public BigDecimal getPaymentsTotalSum(Client... client) {
+        return resultCache.get("ClientService.getPaymentsTotalSum", PAYMENTS,
+                () -> loadPaymentsTotalSum(client), client);
+    }
+
+    private BigDecimal loadPaymentsTotalSum(Client... client) {
         boolean clientSpecified = client.length > 0;
 
         var loader = clientRepository.fluentValueLoader(
@@ -316,6 +458,11 @@ public class ClientService {
      * @return the total value of all invoices associated with the specified client as a {@link BigDecimal}.
      */
     public BigDecimal getInvoicesTotalSum(Client... client) {
+        return resultCache.get("ClientService.getInvoicesTotalSum", INVOICES,
+                () -> loadInvoicesTotalSum(client), client);
+    }
+
+    private BigDecimal loadInvoicesTotalSum(Client... client) {
         boolean clientSpecified = client.length > 0;
 
         var loader = clientRepository.fluentValueLoader(
@@ -339,9 +486,31 @@ public class ClientService {
      * @return the average bill for the specified client as a {@link BigDecimal}.
      */
     public BigDecimal getAverageBill(Client... client) {
+        return resultCache.get("ClientService.getAverageBill", ORDERS, () -> loadAverageBill(client), client);
+    }
+
+    private BigDecimal loadAverageBill(Client... client) {
+        if (isOrderTotalsPrecalculated()) {
+            return getOrderTotals(null, List.of(), client).getAverageTotal();
+        }
         return averageBillLoader(client).optional().orElse(BigDecimal.ZERO);
     }
 
+    private boolean isOrderTotalsPrecalculated() {
+        return orderFactStore.isAvailable() || dailySalesRollupService.isEnabled();
+    }
+
+    /**
+     * Reads order totals from the in-memory {@link OrderFactStore} if it is loaded, otherwise from the rollup.
+     */
+    private SalesRollupTotals getOrderTotals(@Nullable LocalDateRange dateRange,
+                                             List<OrderStatus> statuses, Client... clients) {
+        if (orderFactStore.isAvailable()) {
+            return orderFactStore.getTotals(dateRange, statuses, clients);
+        }
+        return dailySalesRollupService.getTotals(DailySalesRollupKind.ORDER, dateRange, statuses, clients);
+    }
+
     private FluentValueLoader<BigDecimal> ordersTotalSumLoader(@Nullable OrderStatus[] statuses, Client[] client) {
         boolean clientsSpecified = client.length > 0;
         boolean statusesSpecified = statuses != null && statuses.length > 0;
@@ -389,6 +558,37 @@ public class ClientService {
         return loader;
     }
 
+    private static String statsCondition(String alias, @Nullable LocalDateRange dateRange,
+                                         Client[] clients, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        conditions.add(alias + ".DELETED_DATE is null");
+
+        if (clients.length > 0) {
+            List<String> placeholders = new ArrayList<>();
+            for (Client client : clients) {
+                parameters.add(client.getId());
+                placeholders.add("?" + parameters.size());
+            }
+            conditions.add(alias + ".CLIENT_ID in (" + String.join(", ", placeholders) + ")");
+        }
+
+        if (dateRange != null) {
+            parameters.add(dateRange.startDate());
+            conditions.add(alias + ".DATE_ >= ?" + parameters.size());
+            parameters.add(dateRange.endDate());
+            conditions.add(alias + ".DATE_ <= ?" + parameters.size());
+        }
+
+        return String.join(" and ", conditions);
+    }
+
+    private static BigDecimal toBigDecimal(@Nullable Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
     private FetchPlan clientWithOrdersFetchPlan() {
         return baseClientFetchPlanWith("orders", order -> order.addFetchPlan(FetchPlan.BASE));
     }
@@ -0,0 +1,25 @@
+package com.company.crm.app.service.client;
+
+import java.math.BigDecimal;
+
+/**
+ * Financial summary of one or several clients calculated by {@link ClientService#getStatsSnapshot}.
+ *
+ * @param ordersTotalSum   sum of order totals
+ * @param averageBill      average order total
+ * @param invoicesTotalSum sum of invoice totals
+ * @param paymentsTotalSum sum of payments of the invoices
+ */
+public record ClientStatsSnapshot(BigDecimal ordersTotalSum,
+                                  BigDecimal averageBill,
+                                  BigDecimal invoicesTotalSum,
+                                  BigDecimal paymentsTotalSum) {
+
+    public static ClientStatsSnapshot empty() {
+        return new ClientStatsSnapshot(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    public BigDecimal outstandingBalance() {
+        return invoicesTotalSum.subtract(paymentsTotalSum);
+    }
+}
@@ -0,0 +1,168 @@
+package com.company.crm.app.service.finance;
+
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.payment.Payment;
+import io.jmix.core.Id;
+import io.jmix.core.event.EntityChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains denormalized finance totals: {@link Order#getPaid()}, {@link Order#getInvoiced()}
+ * and {@link Invoice#getPaymentsSum()}.
+ * <p>
+ * Totals are recalculated inside the transaction that changes a {@link Payment} or an {@link Invoice}.
+ * Affected order and invoice rows are locked first, so concurrent postings to the same order
+ * are serialized and each recalculation sees all previously committed payments.
+ * <p>
+ * {@link #recalculateAll()} repairs totals of all orders and invoices, e.g. after direct database changes.
+ */
+@Component
+public class FinanceTotalsUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(FinanceTotalsUpdater.class);
+
+    private static final String PAYMENT_INVOICE_ID = "select INVOICE_ID from PAYMENT where ID = ?1";
+    private static final String INVOICE_ORDER_ID = "select ORDER_ID from INVOICE where ID = ?1";
+
+    private static final String LOCK_ORDER = "select ID from ORDER_ where ID = ?1 for update";
+    private static final String LOCK_INVOICE = "select ID from INVOICE where ID = ?1 for update";
+
+    private static final String INVOICE_PAID_AMOUNT =
+            "(select coalesce(sum(p.AMOUNT), 0) from PAYMENT p " +
+                    "where p.INVOICE_ID = INVOICE.ID and p.DELETED_DATE is null)";
+
+    private static final String ORDER_PAID_AMOUNT =
+            "(select coalesce(sum(p.AMOUNT), 0) from PAYMENT p " +
+                    "join INVOICE i on i.ID = p.INVOICE_ID " +
+                    "where i.ORDER_ID = ORDER_.ID and i.DELETED_DATE is null and p.DELETED_DATE is null)";
+
+    private static final String ORDER_INVOICED_AMOUNT =
+            "(select coalesce(sum(i.SUBTOTAL), 0) from INVOICE i " +
+                    "where i.ORDER_ID = ORDER_.ID and i.DELETED_DATE is null)";
+
+    private static final String UPDATE_INVOICE =
+            "update INVOICE set PAID_AMOUNT = " + INVOICE_PAID_AMOUNT + " where ID = ?1";
+
+    private static final String UPDATE_ORDER =
+            "update ORDER_ set PAID_AMOUNT = " + ORDER_PAID_AMOUNT + ", " +
+                    "INVOICED_AMOUNT = " + ORDER_INVOICED_AMOUNT + " where ID = ?1";
+
+    private static final String UPDATE_ALL_INVOICES =
+            "update INVOICE set PAID_AMOUNT = " + INVOICE_PAID_AMOUNT;
+
+    private static final String UPDATE_ALL_ORDERS =
+            "update ORDER_ set PAID_AMOUNT = " + ORDER_PAID_AMOUNT + ", " +
+                    "INVOICED_AMOUNT = " + ORDER_INVOICED_AMOUNT;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @EventListener
+    public void onPaymentChanged(EntityChangedEvent<Payment> event) {
+        Set<UUID> invoiceIds = new LinkedHashSet<>();
+        addIfNotNull(invoiceIds, loadReferenceId(PAYMENT_INVOICE_ID, event.getEntityId().getValue()));
+
+        if (event.getChanges().isChanged("invoice")) {
+            addIfNotNull(invoiceIds, toUuid(event.getChanges().getOldReferenceId("invoice")));
+        }
+
+        Set<UUID> orderIds = new LinkedHashSet<>();
+        for (UUID invoiceId : invoiceIds) {
+            addIfNotNull(orderIds, loadReferenceId(INVOICE_ORDER_ID, invoiceId));
+        }
+
+        recalculate(orderIds, invoiceIds);
+    }
+
+    @EventListener
+    public void onInvoiceChanged(EntityChangedEvent<Invoice> event) {
+        if (event.getType() == EntityChangedEvent.Type.UPDATED
+                && !event.getChanges().isChanged("order")
+                && !event.getChanges().isChanged("subtotal")) {
+            return;
+        }
+
+        Set<UUID> orderIds = new LinkedHashSet<>();
+        addIfNotNull(orderIds, loadReferenceId(INVOICE_ORDER_ID, event.getEntityId().getValue()));
+
+        if (event.getChanges().isChanged("order")) {
+            addIfNotNull(orderIds, toUuid(event.getChanges().getOldReferenceId("order")));
+        }
+
+        recalculate(orderIds, Set.of());
+    }
+
+    /**
+     * Recalculates totals of all orders and invoices from their payments and invoices.
+     */
+    @Transactional
+    @Scheduled(cron = "${crm.finance.totals-repair-cron:-}")
+    public void recalculateAll() {
+        int invoices = entityManager.createNativeQuery(UPDATE_ALL_INVOICES).executeUpdate();
+        int orders = entityManager.createNativeQuery(UPDATE_ALL_ORDERS).executeUpdate();
+        log.info("Finance totals recalculated for {} orders and {} invoices", orders, invoices);
+    }
+
+    private void recalculate(Set<UUID> orderIds, Set<UUID> invoiceIds) {
+        // always lock orders before invoices to keep the same locking order in all transactions
+        orderIds.forEach(orderId -> lock(LOCK_ORDER, orderId));
+        invoiceIds.forEach(invoiceId -> lock(LOCK_INVOICE, invoiceId));
+
+        invoiceIds.forEach(invoiceId -> update(UPDATE_INVOICE, invoiceId));
+        orderIds.forEach(orderId -> update(UPDATE_ORDER, orderId));
+    }
+
+    private void lock(String query, UUID id) {
+        entityManager.createNativeQuery(query)
+                .setParameter(1, id)
+                .getResultList();
+    }
+
+    private void update(String query, UUID id) {
+        entityManager.createNativeQuery(query)
+                .setParameter(1, id)
+                .executeUpdate();
+    }
+
+    /**
+     * Soft-deleted rows are still present in the database, so references of deleted entities are resolved as well.
+     */
+    @Nullable
+    private UUID loadReferenceId(String query, Object entityId) {
+        List<?> result = entityManager.createNativeQuery(query)
+                .setParameter(1, entityId)
+                .getResultList();
+        return result.isEmpty() ? null : toUuid(result.getFirst());
+    }
+
+    private static void addIfNotNull(Set<UUID> ids, @Nullable UUID id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    @Nullable
+    private static UUID toUuid(@Nullable Object value) {
+        if (value instanceof Id<?> id) {
+            value = id.getValue();
+        }
+        if (value == null) {
+            return null;
+        }
+        return value instanceof UUID uuid ? uuid : UUID.fromString(value.toString());
+    }
+}
@@ -1,6 +1,9 @@
 package com.company.crm.app.service.finance;
 
+import com.company.crm.app.service.analytics.AnalyticsResultCache;
+import com.company.crm.app.service.analytics.DailySalesRollupService;
 import com.company.crm.app.util.date.range.LocalDateRange;
+import com.company.crm.model.analytics.DailySalesRollupKind;
 import com.company.crm.model.invoice.Invoice;
 import com.company.crm.model.invoice.InvoiceRepository;
 import com.company.crm.model.invoice.InvoiceStatus;
@@ -18,10 +21,17 @@ import static java.util.Arrays.asList;
 @Service
 public class InvoiceService {
 
+    private static final List<Class<?>> INVOICES = List.of(Invoice.class);
+
     private final InvoiceRepository invoiceRepository;
+    private final DailySalesRollupService dailySalesRollupService;
+    private final AnalyticsResultCache resultCache;
 
-    public InvoiceService(InvoiceRepository invoiceRepository) {
+    public InvoiceService(InvoiceRepository invoiceRepository, DailySalesRollupService dailySalesRollupService,
+                          AnalyticsResultCache resultCache) {
         this.invoiceRepository = invoiceRepository;
+        this.dailySalesRollupService = dailySalesRollupService;
+        this.resultCache = resultCache;
     }
 
     /**
@@ -111,6 +121,11 @@ public class InvoiceService {
      * @return the count of invoices matching the criteria, or zero if no invoices are found
      */
     public long getInvoicesCount(@Nullable LocalDateRange dateRange, InvoiceStatus... status) {
+        return resultCache.get("InvoiceService.getInvoicesCount", INVOICES,
+                () -> loadInvoicesCount(dateRange, status), dateRange, status);
+    }
+
+    private long loadInvoicesCount(@Nullable LocalDateRange dateRange, InvoiceStatus... status) {
         StringBuilder query = new StringBuilder("select count(e) from Invoice e");
         List<String> conditions = new ArrayList<>();
 
@@ -168,6 +183,19 @@ public class InvoiceService {
     }
 
     public List<InvoicesByDateRangeInfo> getInvoicesByDateRangeInfos(@Nullable LocalDateRange dateRange) {
+        return resultCache.get("InvoiceService.getInvoicesByDateRangeInfos", INVOICES,
+                () -> loadInvoicesByDateRangeInfos(dateRange), dateRange);
+    }
+
+    private List<InvoicesByDateRangeInfo> loadInvoicesByDateRangeInfos(@Nullable LocalDateRange dateRange) {
+        if (dailySalesRollupService.isEnabled()) {
+            return dailySalesRollupService.getTotalsByDateAndStatus(DailySalesRollupKind.INVOICE, dateRange)
+                    .stream()
+                    .map(totals -> new InvoicesByDateRangeInfo(totals.date(), dateRange,
+                            InvoiceStatus.fromId(totals.status()), totals.entriesCount()))
+                    .toList();
+        }
+
         StringBuilder query = new StringBuilder(
                 "select e.date as invoiceDate, e.status as status, count(e) as amount " +
                         "from Invoice e ");
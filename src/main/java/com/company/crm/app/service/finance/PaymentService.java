@@ -1,14 +1,20 @@
 package com.company.crm.app.service.finance;
 
+import com.company.crm.app.service.analytics.AnalyticsResultCache;
 import com.company.crm.app.util.date.range.LocalDateRange;
 import com.company.crm.model.client.Client;
+import com.company.crm.model.invoice.Invoice;
 import com.company.crm.model.order.Order;
 import com.company.crm.model.payment.Payment;
 import com.company.crm.model.payment.PaymentRepository;
+import io.jmix.core.entity.KeyValueEntity;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -16,10 +22,14 @@ import java.util.stream.Collectors;
 @Service
 public class PaymentService {
 
+    private static final List<Class<?>> PAYMENTS = List.of(Invoice.class, Payment.class);
+
     private final PaymentRepository paymentRepository;
+    private final AnalyticsResultCache resultCache;
 
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository, AnalyticsResultCache resultCache) {
         this.paymentRepository = paymentRepository;
+        this.resultCache = resultCache;
     }
 
     public List<Payment> loadPayments(LocalDateRange dateRange) {
@@ -27,12 +37,66 @@ public class PaymentService {
                 dateRange.startDate(), dateRange.endDate());
     }
 
+    /**
+     * Aggregates payments of each given date range with a single grouped query, without loading payment entities.
+     *
+     * @param ranges date ranges to aggregate, e.g. the current and the previous period
+     * @return stats of each range in the order of the given ranges
+     */
+    public Map<LocalDateRange, PaymentsPeriodStats> getPaymentsStats(LocalDateRange... ranges) {
+        return resultCache.get("PaymentService.getPaymentsStats", PAYMENTS, () -> loadPaymentsStats(ranges), ranges);
+    }
+
+    private Map<LocalDateRange, PaymentsPeriodStats> loadPaymentsStats(LocalDateRange... ranges) {
+        Map<LocalDateRange, PaymentsPeriodStats> result = new LinkedHashMap<>();
+        if (ranges.length == 0) {
+            return result;
+        }
+
+        List<KeyValueEntity> dailyPayments = paymentRepository.fluentValuesLoader(
+                        "select e.date as paymentDate, count(e) as amount, sum(e.amount) as total " +
+                                "from Payment e " +
+                                "where e.date >= :startDate and e.date <= :endDate " +
+                                "group by e.date")
+                .properties("paymentDate", "amount", "total")
+                .parameter("startDate", Arrays.stream(ranges).map(LocalDateRange::startDate)
+                        .min(Comparator.naturalOrder()).orElseThrow())
+                .parameter("endDate", Arrays.stream(ranges).map(LocalDateRange::endDate)
+                        .max(Comparator.naturalOrder()).orElseThrow())
+                .list();
+
+        for (LocalDateRange range : ranges) {
+            long count = 0;
+            BigDecimal totalSum = BigDecimal.ZERO;
+
+            for (KeyValueEntity payments : dailyPayments) {
+                LocalDate date = payments.getValue("paymentDate");
+                if (!range.contains(date)) {
+                    continue;
+                }
+                Long amount = payments.getValue("amount");
+                BigDecimal total = payments.getValue("total");
+                count += amount;
+                totalSum = totalSum.add(total == null ? BigDecimal.ZERO : total);
+            }
+
+            result.put(range, new PaymentsPeriodStats(count, totalSum));
+        }
+
+        return result;
+    }
+
     /**
      * Retrieves the total sum of all payment amounts.
      *
      * @return the total sum of payment amounts as a {@code BigDecimal}.
      */
     public BigDecimal getPaymentsTotalSum(Order... order) {
+        return resultCache.get("PaymentService.getPaymentsTotalSum", PAYMENTS,
+                () -> loadPaymentsTotalSum(order), order);
+    }
+
+    private BigDecimal loadPaymentsTotalSum(Order... order) {
         var queryBuilder = new StringBuilder()
                 .append("select sum(e.amount) ")
                 .append("from Payment e ");
@@ -0,0 +1,12 @@
+package com.company.crm.app.service.finance;
+
+import java.math.BigDecimal;
+
+/**
+ * Payments aggregated for a date range by {@link PaymentService#getPaymentsStats}.
+ *
+ * @param count    number of payments
+ * @param totalSum sum of payment amounts
+ */
+public record PaymentsPeriodStats(long count, BigDecimal totalSum) {
+}
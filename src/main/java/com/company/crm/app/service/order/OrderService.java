@@ -1,7 +1,12 @@
 package com.company.crm.app.service.order;
 
+import com.company.crm.app.service.analytics.AnalyticsResultCache;
+import com.company.crm.app.service.analytics.DailySalesRollupService;
+import com.company.crm.app.service.analytics.OrderFactStore;
+import com.company.crm.app.service.analytics.SalesRollupTotals;
 import com.company.crm.app.service.finance.PaymentService;
 import com.company.crm.app.util.date.range.LocalDateRange;
+import com.company.crm.model.analytics.DailySalesRollupKind;
 import com.company.crm.model.order.Order;
 import com.company.crm.model.order.OrderRepository;
 import com.company.crm.model.order.OrderStatus;
@@ -9,20 +14,34 @@ import io.jmix.core.entity.KeyValueEntity;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class OrderService {
 
+    private static final List<Class<?>> ORDERS = List.of(Order.class);
+
     private final OrderRepository orderRepository;
     private final PaymentService paymentService;
+    private final DailySalesRollupService dailySalesRollupService;
+    private final OrderFactStore orderFactStore;
+    private final AnalyticsResultCache resultCache;
 
-    public OrderService(OrderRepository orderRepository, PaymentService paymentService) {
+    public OrderService(OrderRepository orderRepository, PaymentService paymentService,
+                        DailySalesRollupService dailySalesRollupService, OrderFactStore orderFactStore,
+                        AnalyticsResultCache resultCache) {
         this.orderRepository = orderRepository;
         this.paymentService = paymentService;
+        this.dailySalesRollupService = dailySalesRollupService;
+        this.orderFactStore = orderFactStore;
+        this.resultCache = resultCache;
     }
 
     public BigDecimal getPaid(Order order) {
@@ -38,6 +57,10 @@ public class OrderService {
     }
 
     public Map<OrderStatus, BigDecimal> getOrdersAmountByStatus() {
+        return resultCache.get("OrderService.getOrdersAmountByStatus", ORDERS, this::loadOrdersAmountByStatus);
+    }
+
+    private Map<OrderStatus, BigDecimal> loadOrdersAmountByStatus() {
         Map<OrderStatus, BigDecimal> result = new HashMap<>();
         List<KeyValueEntity> list = orderRepository.fluentValuesLoader(
                         "select e.status as status, count(e) as amount " +
@@ -66,12 +89,83 @@ public class OrderService {
                 dateRange.startDate(), dateRange.endDate());
     }
 
+    /**
+     * Aggregates orders of each given date range with a single grouped query, without loading order entities.
+     *
+     * @param ranges date ranges to aggregate, e.g. the current and the previous period
+     * @return stats of each range in the order of the given ranges
+     */
+    public Map<LocalDateRange, OrdersPeriodStats> getOrdersStats(LocalDateRange... ranges) {
+        return resultCache.get("OrderService.getOrdersStats", ORDERS, () -> loadOrdersStats(ranges), ranges);
+    }
+
+    private Map<LocalDateRange, OrdersPeriodStats> loadOrdersStats(LocalDateRange... ranges) {
+        Map<LocalDateRange, OrdersPeriodStats> result = new LinkedHashMap<>();
+        if (ranges.length == 0) {
+            return result;
+        }
+
+        List<DailyOrders> dailyOrders = loadDailyOrders(LocalDateRange.from(
+                Arrays.stream(ranges).map(LocalDateRange::startDate).min(Comparator.naturalOrder()).orElseThrow(),
+                Arrays.stream(ranges).map(LocalDateRange::endDate).max(Comparator.naturalOrder()).orElseThrow()));
+
+        for (LocalDateRange range : ranges) {
+            long count = 0;
+            BigDecimal totalSum = BigDecimal.ZERO;
+            Map<OrderStatus, Long> countByStatus = new HashMap<>();
+
+            for (DailyOrders orders : dailyOrders) {
+                if (orders.date() == null || !range.contains(orders.date())) {
+                    continue;
+                }
+                count += orders.count();
+                totalSum = totalSum.add(orders.totalSum());
+                countByStatus.merge(OrderStatus.fromId(orders.status()), orders.count(), Long::sum);
+            }
+
+            result.put(range, new OrdersPeriodStats(count, totalSum, countByStatus));
+        }
+
+        return result;
+    }
+
+    private List<DailyOrders> loadDailyOrders(LocalDateRange dateRange) {
+        if (orderFactStore.isAvailable()) {
+            return toDailyOrders(orderFactStore.getTotalsByDateAndStatus(dateRange));
+        }
+
+        if (dailySalesRollupService.isEnabled()) {
+            return toDailyOrders(dailySalesRollupService.getTotalsByDateAndStatus(DailySalesRollupKind.ORDER, dateRange));
+        }
+
+        return orderRepository.fluentValuesLoader(
+                        "select e.date as orderDate, e.status as status, count(e) as amount, sum(e.total) as total " +
+                                "from Order_ e " +
+                                "where e.date >= :startDate and e.date <= :endDate " +
+                                "group by e.date, e.status")
+                .properties("orderDate", "status", "amount", "total")
+                .parameter("startDate", dateRange.startDate())
+                .parameter("endDate", dateRange.endDate())
+                .list().stream()
+                .map(keyValue -> {
+                    BigDecimal total = keyValue.getValue("total");
+                    Long amount = keyValue.getValue("amount");
+                    return new DailyOrders(keyValue.getValue("orderDate"), keyValue.getValue("status"),
+                            amount, total == null ? BigDecimal.ZERO : total);
+                })
+                .toList();
+    }
+
     /**
      * Calculates and returns the total sum of all orders.
      *
      * @return the total value of all orders as a {@code BigDecimal}.
      */
     public BigDecimal getOrdersTotalSum() {
+        return resultCache.get("OrderService.getOrdersTotalSum", ORDERS, this::loadOrdersTotalSum);
+    }
+
+    private BigDecimal loadOrdersTotalSum() {
         return orderRepository.fluentValueLoader(
                         "select sum(e.total) " +
                                 "from Order_ e", BigDecimal.class)
@@ -84,9 +178,23 @@ public class OrderService {
      * @return the average bill value of all orders as a {@code BigDecimal}.
      */
     public BigDecimal getOrdersAverageBill() {
+        return resultCache.get("OrderService.getOrdersAverageBill", ORDERS, this::loadOrdersAverageBill);
+    }
+
+    private BigDecimal loadOrdersAverageBill() {
         return orderRepository.fluentValueLoader(
                         "select avg(e.total) as average " +
                                 "from Order_ e", BigDecimal.class)
                 .optional().orElse(BigDecimal.ZERO);
     }
+
+    private static List<DailyOrders> toDailyOrders(List<SalesRollupTotals> totals) {
+        return totals.stream()
+                .map(dateTotals -> new DailyOrders(dateTotals.date(), dateTotals.status(),
+                        dateTotals.entriesCount(), dateTotals.totalSum()))
+                .toList();
+    }
+
+    private record DailyOrders(LocalDate date, Integer status, long count, BigDecimal totalSum) {
+    }
 }
@@ -0,0 +1,16 @@
+package com.company.crm.app.service.order;
+
+import com.company.crm.model.order.OrderStatus;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Orders aggregated for a date range by {@link OrderService#getOrdersStats}.
+ *
+ * @param count         number of orders
+ * @param totalSum      sum of order totals
+ * @param countByStatus number of orders per status, statuses without orders are absent
+ */
+public record OrdersPeriodStats(long count, BigDecimal totalSum, Map<OrderStatus, Long> countByStatus) {
+}
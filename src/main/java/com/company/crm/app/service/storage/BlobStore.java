@@ -0,0 +1,292 @@
+package com.company.crm.app.service.storage;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed file store used by {@link CrmFileStorageImpl}.
+ * <p>
+ * Data of equal files is kept once, in {@code blobs/ab/cd/<sha-256>}, and {@code <sha-256>.refs} next to it
+ * holds the number of references. A reference is a file at {@code refs/<path>} containing the digest,
+ * so any path can point to a blob. Saves and removals of the same path are serialized, so each replaced
+ * or removed reference is released once. A blob is removed when its last reference is removed;
+ * {@link #collectGarbage(Duration)} removes blobs left without references, e.g. after a crash.
+ */
+class BlobStore {
+
+    /**
+     * Directories of the store under the storage root.
+     */
+    static final List<String> DIRECTORIES = List.of("blobs", "refs", "tmp");
+
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+    private static final String REF_COUNT_SUFFIX = ".refs";
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path blobsDir;
+    private final Path refsDir;
+    private final Path tmpDir;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final ReentrantLock[] pathLocks = new ReentrantLock[LOCK_STRIPES];
+
+    BlobStore(Path root) {
+        this.blobsDir = root.resolve(DIRECTORIES.get(0));
+        this.refsDir = root.resolve(DIRECTORIES.get(1));
+        this.tmpDir = root.resolve(DIRECTORIES.get(2));
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+            pathLocks[i] = new ReentrantLock();
+        }
+    }
+
+    boolean exists(String path) {
+        return Files.exists(refPath(path));
+    }
+
+    /**
+     * Returns the digest of the data the path refers to, or {@code null} if there is no such reference.
+     */
+    @Nullable
+    String getDigest(String path) throws IOException {
+        try {
+            String digest = Files.readString(refPath(path), StandardCharsets.US_ASCII).trim();
+            return DIGEST.matcher(digest).matches() ? digest : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the blob file the path refers to, or {@code null} if there is no such reference.
+     */
+    @Nullable
+    Path resolve(String path) throws IOException {
+        String digest = getDigest(path);
+        return digest == null ? null : blobPath(digest);
+    }
+
+    /**
+     * Stores the data and makes the path refer to it, replacing the previous reference of the path.
+     */
+    void save(String path, InputStream inputStream) throws IOException {
+        Path refPath = refPath(path);
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "blob", ".tmp");
+        try {
+            MessageDigest messageDigest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), messageDigest)) {
+                inputStream.transferTo(out);
+            }
+            String digest = HexFormat.of().formatHex(messageDigest.digest());
+
+            withLock(digest, () -> {
+                Path blob = blobPath(digest);
+                if (Files.exists(blob)) {
+                    Files.delete(tmp);
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+                }
+                writeRefCount(digest, readRefCount(digest) + 1);
+            });
+
+            withPathLock(path, () -> {
+                String previousDigest = getDigest(path);
+                Path refTmp = Files.createTempFile(tmpDir, "ref", ".tmp");
+                Files.writeString(refTmp, digest, StandardCharsets.US_ASCII);
+                Files.createDirectories(refPath.getParent());
+                Files.move(refTmp, refPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+                if (previousDigest != null) {
+                    release(previousDigest);
+                }
+            });
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Removes the reference and the blob if it was the last one.
+     *
+     * @return {@code false} if there was no such reference
+     */
+    boolean remove(String path) throws IOException {
+        boolean[] removed = {false};
+        withPathLock(path, () -> {
+            String digest = getDigest(path);
+            if (digest != null && Files.deleteIfExists(refPath(path))) {
+                release(digest);
+                removed[0] = true;
+            }
+        });
+        return removed[0];
+    }
+
+    /**
+     * Recounts references and removes blobs without references. Blobs and temporary files changed within
+     * the grace period are kept, as they can belong to saves in progress.
+     *
+     * @return number of removed blobs
+     */
+    int collectGarbage(Duration gracePeriod) throws IOException {
+        Instant threshold = Instant.now().minus(gracePeriod);
+
+        Map<String, Integer> refCounts = new HashMap<>();
+        for (Path ref : listFiles(refsDir)) {
+            try {
+                String digest = Files.readString(ref, StandardCharsets.US_ASCII).trim();
+                if (DIGEST.matcher(digest).matches()) {
+                    refCounts.merge(digest, 1, Integer::sum);
+                }
+            } catch (NoSuchFileException e) {
+                // removed concurrently
+            }
+        }
+
+        int removed = 0;
+        for (Path blob : listFiles(blobsDir)) {
+            String digest = blob.getFileName().toString();
+            if (!DIGEST.matcher(digest).matches()) {
+                continue;
+            }
+            int refCount = refCounts.getOrDefault(digest, 0);
+            boolean[] blobRemoved = {false};
+            withLock(digest, () -> {
+                Path refCountPath = refCountPath(digest);
+                if (isModifiedAfter(refCountPath, threshold) || isModifiedAfter(blob, threshold)) {
+                    return;
+                }
+                if (refCount == 0) {
+                    Files.deleteIfExists(blob);
+                    Files.deleteIfExists(refCountPath);
+                    blobRemoved[0] = true;
+                } else if (readRefCount(digest) != refCount) {
+                    writeRefCount(digest, refCount);
+                }
+            });
+            if (blobRemoved[0]) {
+                removed++;
+            }
+        }
+
+        for (Path tmp : listFiles(tmpDir)) {
+            if (!isModifiedAfter(tmp, threshold)) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        return removed;
+    }
+
+    private void release(String digest) throws IOException {
+        withLock(digest, () -> {
+            int refCount = readRefCount(digest) - 1;
+            if (refCount > 0) {
+                writeRefCount(digest, refCount);
+            } else {
+                Files.deleteIfExists(blobPath(digest));
+                Files.deleteIfExists(refCountPath(digest));
+            }
+        });
+    }
+
+    private int readRefCount(String digest) throws IOException {
+        try {
+            return Integer.parseInt(Files.readString(refCountPath(digest), StandardCharsets.US_ASCII).trim());
+        } catch (NoSuchFileException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeRefCount(String digest, int refCount) throws IOException {
+        Files.writeString(refCountPath(digest), Integer.toString(refCount), StandardCharsets.US_ASCII);
+    }
+
+    private Path blobPath(String digest) {
+        return blobsDir.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    private Path refCountPath(String digest) {
+        Path blob = blobPath(digest);
+        return blob.resolveSibling(digest + REF_COUNT_SUFFIX);
+    }
+
+    private Path refPath(String path) {
+        Path refPath = refsDir.resolve(path).normalize();
+        if (!refPath.startsWith(refsDir)) {
+            throw new IllegalArgumentException("Invalid file path: " + path);
+        }
+        return refPath;
+    }
+
+    private void withLock(String digest, IoAction action) throws IOException {
+        withLock(locks[Math.floorMod(digest.hashCode(), LOCK_STRIPES)], action);
+    }
+
+    /**
+     * Runs the action holding the lock of the path. Digest locks may be taken inside, never the other way round.
+     */
+    private void withPathLock(String path, IoAction action) throws IOException {
+        withLock(pathLocks[Math.floorMod(refPath(path).hashCode(), LOCK_STRIPES)], action);
+    }
+
+    private static void withLock(ReentrantLock lock, IoAction action) throws IOException {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isModifiedAfter(Path path, Instant threshold) throws IOException {
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            return modified.toInstant().isAfter(threshold);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
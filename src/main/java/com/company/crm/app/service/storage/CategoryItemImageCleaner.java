@@ -0,0 +1,68 @@
+package com.company.crm.app.service.storage;
+
+import com.company.crm.app.config.SpringProfiles;
+import com.company.crm.model.catalog.item.CategoryItem;
+import io.jmix.core.FileRef;
+import io.jmix.core.FileStorageException;
+import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.data.PersistenceHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Removes images of catalog items from {@link CrmFileStorage} when they are replaced, unless another item,
+ * including a soft-deleted one, refers to the same file. The data of a removed image is released at once
+ * if no other file has the same content.
+ * <p>
+ * Images of deleted items are kept, as items are soft-deleted and can be restored.
+ * <p>
+ * Not active in online mode, where the items of all session databases refer to the same demo images.
+ */
+@Component
+public class CategoryItemImageCleaner {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryItemImageCleaner.class);
+
+    private final CrmFileStorage fileStorage;
+    private final UnconstrainedDataManager dataManager;
+    private final boolean enabled;
+
+    public CategoryItemImageCleaner(CrmFileStorage fileStorage, UnconstrainedDataManager dataManager,
+                                    SpringProfiles springProfiles) {
+        this.fileStorage = fileStorage;
+        this.dataManager = dataManager;
+        this.enabled = !springProfiles.isOnlineProfile();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryItemChanged(EntityChangedEvent<CategoryItem> event) {
+        if (!enabled || event.getType() != EntityChangedEvent.Type.UPDATED || !event.getChanges().isChanged("image")) {
+            return;
+        }
+        FileRef image = event.getChanges().getOldValue("image");
+        if (image == null || !fileStorage.getStorageName().equals(image.getStorageName()) || isReferenced(image)) {
+            return;
+        }
+        try {
+            if (fileStorage.fileExists(image)) {
+                fileStorage.removeFile(image);
+            }
+        } catch (FileStorageException e) {
+            log.warn("Cannot remove image {} of catalog item {}", image, event.getEntityId().getValue(), e);
+        }
+    }
+
+    private boolean isReferenced(FileRef image) {
+        return dataManager.load(CategoryItem.class)
+                .query("select e from CategoryItem e where e.image = :image")
+                .parameter("image", image)
+                .hint(PersistenceHints.SOFT_DELETION, false)
+                .maxResults(1)
+                .optional()
+                .isPresent();
+    }
+}
@@ -2,8 +2,10 @@ package com.company.crm.app.service.storage;
 
 import io.jmix.core.FileRef;
 import io.jmix.core.FileStorage;
+import org.jspecify.annotations.Nullable;
 
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 
 public interface CrmFileStorage extends FileStorage {
 
@@ -11,4 +13,34 @@ public interface CrmFileStorage extends FileStorage {
     String IMAGES_FOLDER_PATH = "2026/01/01/";
 
     void save(FileRef fileRef, InputStream inputStream);
+
+    /**
+     * Returns the size of the file in bytes.
+     */
+    long getSize(FileRef fileRef);
+
+    /**
+     * Returns the time the file was last changed, in milliseconds since the epoch.
+     */
+    long getLastModified(FileRef fileRef);
+
+    /**
+     * Returns the SHA-256 digest of the file content, or {@code null} if the file isn't content-addressed.
+     */
+    @Nullable
+    String getContentDigest(FileRef fileRef);
+
+    /**
+     * Checks whether the path points to internal data of the storage rather than to a file saved in it.
+     */
+    boolean isInternalPath(String path);
+
+    /**
+     * Writes a range of the file to the channel without copying it through the Java heap where possible.
+     *
+     * @param position position of the first byte to write
+     * @param count    maximum number of bytes to write
+     * @return number of bytes written
+     */
+    long transferTo(FileRef fileRef, long position, long count, WritableByteChannel target);
 }
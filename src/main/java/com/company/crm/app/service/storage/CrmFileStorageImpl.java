@@ -1,23 +1,253 @@
 package com.company.crm.app.service.storage;
 
 import io.jmix.core.FileRef;
+import io.jmix.core.FileStorageException;
 import io.jmix.localfs.LocalFileStorage;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
 
+/**
+ * File storage of the application.
+ * <p>
+ * If {@link #CONTENT_ADDRESSED_PROPERTY} is enabled, files are stored by content digest, so equal files
+ * take space once whatever references point to them. Files saved before that are still read from
+ * their original locations.
+ * <p>
+ * Images no catalog item refers to anymore are removed by {@link CategoryItemImageCleaner}.
+ */
 @Service
 @Primary
 public class CrmFileStorageImpl extends LocalFileStorage implements CrmFileStorage {
 
+    private static final Logger log = LoggerFactory.getLogger(CrmFileStorageImpl.class);
+
+    public static final String CONTENT_ADDRESSED_PROPERTY = "crm.file-storage.content-addressed";
+    public static final String GC_GRACE_PERIOD_PROPERTY = "crm.file-storage.gc-grace-period";
+
+    private static final DateTimeFormatter DATE_DIR_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    @Autowired
+    private Environment environment;
+
+    private volatile @Nullable BlobStore blobStore;
+
     @Override
     public void save(FileRef fileRef, InputStream inputStream) {
-        saveStream(fileRef, inputStream);
+        if (!isContentAddressed()) {
+            saveStream(fileRef, inputStream);
+            return;
+        }
+        try {
+            getBlobStore().save(fileRef.getPath(), inputStream);
+        } catch (IOException e) {
+            throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, fileRef.toString(), e);
+        }
+    }
+
+    @Override
+    public FileRef saveStream(String fileName, InputStream inputStream, Map<String, Object> parameters) {
+        if (!isContentAddressed()) {
+            return super.saveStream(fileName, inputStream, parameters);
+        }
+        String path = LocalDate.now().format(DATE_DIR_FORMAT) + "/" + UUID.randomUUID() + getExtensionSuffix(fileName);
+        FileRef fileRef = new FileRef(getStorageName(), path, fileName);
+        save(fileRef, inputStream);
+        return fileRef;
+    }
+
+    @Override
+    public InputStream openStream(FileRef reference) {
+        Path blob = resolveBlob(reference);
+        if (blob == null) {
+            getLegacyPath(reference);
+            return super.openStream(reference);
+        }
+        try {
+            return Files.newInputStream(blob);
+        } catch (NoSuchFileException e) {
+            throw new FileStorageException(FileStorageException.Type.FILE_NOT_FOUND, reference.toString(), e);
+        } catch (IOException e) {
+            throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, reference.toString(), e);
+        }
+    }
+
+    @Override
+    public void removeFile(FileRef reference) {
+        try {
+            if (isContentAddressed() && getBlobStore().remove(reference.getPath())) {
+                return;
+            }
+        } catch (IOException e) {
+            throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, reference.toString(), e);
+        }
+        super.removeFile(reference);
+    }
+
+    @Override
+    public boolean fileExists(FileRef reference) {
+        if (isInternalPath(reference.getPath())) {
+            return false;
+        }
+        return (isContentAddressed() && getBlobStore().exists(reference.getPath()))
+                || (Files.exists(getLegacyPath(reference)) && super.fileExists(reference));
+    }
+
+    @Override
+    public boolean isInternalPath(String path) {
+        Path normalized = Path.of(path).normalize();
+        return normalized.isAbsolute()
+                || normalized.getNameCount() == 0
+                || normalized.startsWith("..")
+                || BlobStore.DIRECTORIES.contains(normalized.getName(0).toString());
+    }
+
+    @Override
+    public long getSize(FileRef fileRef) {
+        try {
+            return Files.size(getFilePath(fileRef));
+        } catch (NoSuchFileException e) {
+            throw new FileStorageException(FileStorageException.Type.FILE_NOT_FOUND, fileRef.toString(), e);
+        } catch (IOException e) {
+            throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, fileRef.toString(), e);
+        }
+    }
+
+    @Override
+    public long getLastModified(FileRef fileRef) {
+        try {
+            return Files.getLastModifiedTime(getFilePath(fileRef)).toMillis();
+        } catch (NoSuchFileException e) {
+            throw new FileStorageException(FileStorageException.Type.FILE_NOT_FOUND, fileRef.toString(), e);
+        } catch (IOException e) {
+            throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, fileRef.toString(), e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getContentDigest(FileRef fileRef) {
+        if (!isContentAddressed()) {
+            return null;
+        }
+        try {
+            return getBlobStore().getDigest(fileRef.getPath());
+        } catch (IOException e) {
+            throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, fileRef.toString(), e);
+        }
+    }
+
+    @Override
+    public long transferTo(FileRef fileRef, long position, long count, WritableByteChannel target) {
+        try (FileChannel channel = FileChannel.open(getFilePath(fileRef), StandardOpenOption.READ)) {
+            long end = Math.min(channel.size(), position + count);
+            long transferred = 0;
+            while (position + transferred < end) {
+                long written = channel.transferTo(position + transferred, end - position - transferred, target);
+                if (written <= 0) {
+                    break;
+                }
+                transferred += written;
+            }
+            return transferred;
+        } catch (NoSuchFileException e) {
+            throw new FileStorageException(FileStorageException.Type.FILE_NOT_FOUND, fileRef.toString(), e);
+        } catch (IOException e) {
+            throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, fileRef.toString(), e);
+        }
+    }
+
+    /**
+     * Removes stored data that no reference points to anymore.
+     *
+     * @return number of removed files
+     */
+    @Scheduled(cron = "${crm.file-storage.gc-cron:-}")
+    public int collectGarbage() {
+        if (!isContentAddressed()) {
+            return 0;
+        }
+        Duration gracePeriod = environment.getProperty(GC_GRACE_PERIOD_PROPERTY, Duration.class, Duration.ofHours(1));
+        try {
+            int removed = getBlobStore().collectGarbage(gracePeriod);
+            log.info("Removed {} unreferenced files from file storage", removed);
+            return removed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Override
     public String getStorageName() {
         return STORAGE_NAME;
     }
+
+    private boolean isContentAddressed() {
+        return environment.getProperty(CONTENT_ADDRESSED_PROPERTY, Boolean.class, false);
+    }
+
+    private Path getFilePath(FileRef fileRef) {
+        Path blob = resolveBlob(fileRef);
+        return blob != null ? blob : getLegacyPath(fileRef);
+    }
+
+    private Path getLegacyPath(FileRef fileRef) {
+        Path root = getStorageRoots()[0];
+        Path path = root.resolve(fileRef.getPath()).normalize();
+        if (!path.startsWith(root.normalize()) || isInternalPath(fileRef.getPath())) {
+            throw new IllegalArgumentException("Invalid file path: " + fileRef.getPath());
+        }
+        return path;
+    }
+
+    @Nullable
+    private Path resolveBlob(FileRef fileRef) {
+        if (!isContentAddressed()) {
+            return null;
+        }
+        try {
+            return getBlobStore().resolve(fileRef.getPath());
+        } catch (IOException e) {
+            throw new FileStorageException(FileStorageException.Type.IO_EXCEPTION, fileRef.toString(), e);
+        }
+    }
+
+    private BlobStore getBlobStore() {
+        BlobStore store = blobStore;
+        if (store == null) {
+            synchronized (this) {
+                store = blobStore;
+                if (store == null) {
+                    store = new BlobStore(getStorageRoots()[0]);
+                    blobStore = store;
+                }
+            }
+        }
+        return store;
+    }
+
+    private static String getExtensionSuffix(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 && dot < fileName.length() - 1 ? fileName.substring(dot) : "";
+    }
 }
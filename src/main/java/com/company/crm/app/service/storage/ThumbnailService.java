@@ -0,0 +1,324 @@
+package com.company.crm.app.service.storage;
+
+import com.company.crm.model.catalog.item.CategoryItem;
+import io.jmix.core.CoreProperties;
+import io.jmix.core.DataManager;
+import io.jmix.core.FileRef;
+import io.jmix.core.FileStorageException;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.security.SecurityContextHelper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Provides scaled down variants of stored images.
+ * <p>
+ * Thumbnails are generated in the background when the image of a catalog item changes, and on first request
+ * if missing. They are kept as PNG files in {@link #CACHE_DIR_PROPERTY}, next to the file storage by default.
+ * When the cache outgrows {@link #CACHE_MAX_SIZE_PROPERTY}, the least recently used thumbnails are removed.
+ * <p>
+ * Thumbnails of content-addressed files are keyed by content digest, so a thumbnail never changes once
+ * created and equal images share thumbnails. Thumbnails of other files are keyed by path, size and modification
+ * time, so a file overwritten in place gets a new thumbnail.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+
+    public static final String CACHE_DIR_PROPERTY = "crm.thumbnails.cache-dir";
+    public static final String CACHE_MAX_SIZE_PROPERTY = "crm.thumbnails.cache-max-size";
+
+    private static final int GENERATOR_THREADS = 2;
+    private static final String FORMAT = "png";
+
+    /**
+     * Bounding boxes of thumbnails, in pixels.
+     */
+    public enum ThumbnailSize {
+        /**
+         * For grid rows.
+         */
+        SMALL(64),
+        /**
+         * For detail views.
+         */
+        LARGE(320);
+
+        private final int pixels;
+
+        ThumbnailSize(int pixels) {
+            this.pixels = pixels;
+        }
+
+        public int getPixels() {
+            return pixels;
+        }
+    }
+
+    private final CrmFileStorage fileStorage;
+    private final DataManager dataManager;
+    private final Path cacheDir;
+    private final long maxCacheSize;
+
+    private final ExecutorService generator = Executors.newFixedThreadPool(GENERATOR_THREADS,
+            Thread.ofPlatform().name("thumbnails-", 0).daemon().factory());
+    private final AtomicLong cacheSize = new AtomicLong(-1);
+
+    public ThumbnailService(CrmFileStorage fileStorage, DataManager dataManager,
+                            CoreProperties coreProperties, Environment environment) {
+        this.fileStorage = fileStorage;
+        this.dataManager = dataManager;
+        this.cacheDir = Path.of(environment.getProperty(CACHE_DIR_PROPERTY,
+                Path.of(coreProperties.getWorkDir(), "thumbnails").toString()));
+        this.maxCacheSize = environment.getProperty(CACHE_MAX_SIZE_PROPERTY, DataSize.class,
+                DataSize.ofMegabytes(256)).toBytes();
+    }
+
+    /**
+     * Returns the thumbnail file, generating it if needed.
+     *
+     * @return the thumbnail, or empty if the file doesn't exist or isn't an image
+     */
+    public Optional<Path> getThumbnail(FileRef imageRef, ThumbnailSize size) {
+        Path thumbnail = getThumbnailPath(imageRef, size);
+        try {
+            Files.setLastModifiedTime(thumbnail, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(thumbnail);
+        } catch (NoSuchFileException e) {
+            return generate(imageRef, size, thumbnail) ? Optional.of(thumbnail) : Optional.empty();
+        } catch (IOException e) {
+            log.warn("Cannot read thumbnail {}", thumbnail, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns a string that changes when the thumbnail of the image changes, e.g. to use as an HTTP entity tag.
+     */
+    public String getVersionTag(FileRef imageRef, ThumbnailSize size) {
+        return getKey(imageRef) + "-" + size.getPixels();
+    }
+
+    /**
+     * Generates missing thumbnails of all sizes in the background.
+     */
+    public void generateAsync(FileRef imageRef) {
+        generator.execute(() -> {
+            for (ThumbnailSize size : ThumbnailSize.values()) {
+                Path thumbnail = getThumbnailPath(imageRef, size);
+                if (!Files.exists(thumbnail) && !generate(imageRef, size, thumbnail)) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryItemChanged(EntityChangedEvent<CategoryItem> event) {
+        if (event.getType() == EntityChangedEvent.Type.DELETED
+                || (event.getType() == EntityChangedEvent.Type.UPDATED && !event.getChanges().isChanged("image"))) {
+            return;
+        }
+        Object id = event.getEntityId().getValue();
+        // in online mode the authentication selects the database of the session, see RoutingDataSource
+        Authentication authentication = SecurityContextHelper.getAuthentication();
+        generator.execute(() -> {
+            Authentication previous = SecurityContextHelper.getAuthentication();
+            SecurityContextHelper.setAuthentication(authentication);
+            try {
+                dataManager.unconstrained().load(CategoryItem.class)
+                        .id(id)
+                        .fetchPlanProperties("image")
+                        .optional()
+                        .map(CategoryItem::getImage)
+                        .ifPresent(this::generateAsync);
+            } catch (RuntimeException e) {
+                log.debug("Cannot load image of catalog item {}", id, e);
+            } finally {
+                SecurityContextHelper.setAuthentication(previous);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        generator.shutdownNow();
+    }
+
+    private boolean generate(FileRef imageRef, ThumbnailSize size, Path thumbnail) {
+        BufferedImage image;
+        try (InputStream stream = fileStorage.openStream(imageRef)) {
+            image = ImageIO.read(stream);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Cannot read image {}", imageRef, e);
+            return false;
+        }
+        if (image == null) {
+            return false;
+        }
+
+        try {
+            Files.createDirectories(thumbnail.getParent());
+            Path tmp = Files.createTempFile(thumbnail.getParent(), "thumbnail", ".tmp");
+            try {
+                ImageIO.write(scale(image, size.getPixels()), FORMAT, tmp.toFile());
+                long tmpSize = Files.size(tmp);
+                Files.move(tmp, thumbnail, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                onThumbnailAdded(tmpSize);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Cannot write thumbnail {}", thumbnail, e);
+            return false;
+        }
+    }
+
+    /**
+     * Scales the image to fit the box, halving it step by step for larger factors to keep it smooth.
+     */
+    private static BufferedImage scale(BufferedImage image, int box) {
+        double factor = Math.min(1.0, (double) box / Math.max(image.getWidth(), image.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * factor));
+
+        BufferedImage result = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(result, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            result = step;
+        } while (width != targetWidth || height != targetHeight);
+        return result;
+    }
+
+    private void onThumbnailAdded(long size) {
+        if (cacheSize.get() < 0) {
+            cacheSize.compareAndSet(-1, measureCache());
+        } else if (cacheSize.addAndGet(size) <= maxCacheSize) {
+            return;
+        }
+        if (cacheSize.get() > maxCacheSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Removes the least recently used thumbnails until the cache takes 90% of its maximum size.
+     */
+    private synchronized void evict() {
+        List<CachedFile> files = listCache();
+        long size = files.stream().mapToLong(CachedFile::size).sum();
+        files.sort(Comparator.comparing(CachedFile::lastUsed));
+        for (CachedFile file : files) {
+            if (size <= maxCacheSize * 9 / 10) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(file.path());
+                size -= file.size();
+            } catch (IOException e) {
+                log.warn("Cannot remove thumbnail {}", file.path(), e);
+            }
+        }
+        cacheSize.set(size);
+    }
+
+    private long measureCache() {
+        return listCache().stream().mapToLong(CachedFile::size).sum();
+    }
+
+    private List<CachedFile> listCache() {
+        if (!Files.isDirectory(cacheDir)) {
+            return new ArrayList<>();
+        }
+        List<CachedFile> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(cacheDir)) {
+            paths.filter(path -> path.toString().endsWith("." + FORMAT)).forEach(path -> {
+                try {
+                    files.add(new CachedFile(path, Files.size(path), Files.getLastModifiedTime(path)));
+                } catch (IOException e) {
+                    // removed concurrently
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Cannot list thumbnails in {}", cacheDir, e);
+        }
+        return files;
+    }
+
+    private Path getThumbnailPath(FileRef imageRef, ThumbnailSize size) {
+        String key = getKey(imageRef);
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key + "-" + size.getPixels() + "." + FORMAT);
+    }
+
+    private String getKey(FileRef imageRef) {
+        String digest = fileStorage.getContentDigest(imageRef);
+        if (digest != null) {
+            return digest;
+        }
+        // files stored in place can be overwritten, so their version is part of the key
+        String key = imageRef.getStorageName() + ":" + imageRef.getPath();
+        try {
+            key += ":" + fileStorage.getSize(imageRef) + ":" + fileStorage.getLastModified(imageRef);
+        } catch (FileStorageException e) {
+            log.debug("Cannot read version of {}", imageRef, e);
+        }
+        return sha256(key);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedFile(Path path, long size, FileTime lastUsed) {
+    }
+}
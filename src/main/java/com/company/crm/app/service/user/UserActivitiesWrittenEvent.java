@@ -0,0 +1,14 @@
+package com.company.crm.app.service.user;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published by {@link UserActivityWriter} after activities are committed.
+ *
+ * @param sessionId HTTP session the activities were written for, which defines the database in online mode
+ * @param clientIds clients the activities refer to
+ * @param userIds   authors of the activities
+ */
+public record UserActivitiesWrittenEvent(String sessionId, Set<UUID> clientIds, Set<UUID> userIds) {
+}
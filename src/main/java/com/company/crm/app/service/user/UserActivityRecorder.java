@@ -1,189 +1,207 @@
 package com.company.crm.app.service.user;
 
-import com.company.crm.model.base.CreateAuditEntity;
-import com.company.crm.model.base.CreateUpdateAuditEntity;
-import com.company.crm.model.base.FullAuditEntity;
+import com.company.crm.app.online.RoutingDataSource;
+import com.company.crm.app.util.context.SessionIds;
 import com.company.crm.model.base.UuidEntity;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.order.Order;
 import com.company.crm.model.user.User;
-import com.company.crm.model.user.activity.client.ClientUserActivity;
-import com.company.crm.model.user.activity.userprofile.UserProfileUserActivity;
-import io.jmix.core.DataManager;
-import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.core.TimeSource;
 import io.jmix.core.event.EntityChangedEvent;
 import io.jmix.core.security.Authenticated;
+import io.jmix.core.security.SecurityContextHelper;
+import jakarta.annotation.PreDestroy;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionalEventListener;
 
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
-
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records activities of users on clients, orders and their own profiles.
+ * <p>
+ * Committed changes are put into a queue of {@link #QUEUE_CAPACITY_PROPERTY} events and written by
+ * a background thread in batches of up to {@link #BATCH_SIZE_PROPERTY}, see {@link UserActivityWriter}.
+ * When the queue is full, committing threads wait for the writer up to {@link #ENQUEUE_TIMEOUT_PROPERTY},
+ * after that events are dropped. Queued events are written on shutdown.
+ * <p>
+ * In online mode events of sessions closed before they are written are dropped, as the databases
+ * of such sessions are released, see {@link RoutingDataSource#isSessionClosed(String)}.
+ */
 @Service
 public class UserActivityRecorder {
 
-    private final UnconstrainedDataManager dataManager;
+    private static final Logger log = LoggerFactory.getLogger(UserActivityRecorder.class);
+
+    public static final String QUEUE_CAPACITY_PROPERTY = "crm.user-activity.queue-capacity";
+    public static final String BATCH_SIZE_PROPERTY = "crm.user-activity.batch-size";
+    public static final String ENQUEUE_TIMEOUT_PROPERTY = "crm.user-activity.enqueue-timeout";
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
 
-    public UserActivityRecorder(DataManager dataManager) {
-        this.dataManager = dataManager;
+    /**
+     * Committed change of an entity.
+     *
+     * @param authentication authentication of the change, activities are written with it
+     */
+    record ActivityEvent(Class<?> entityClass, UUID entityId, EntityChangedEvent.Type type,
+                         @Nullable String username, OffsetDateTime time, @Nullable Authentication authentication) {
+    }
+
+    private final UserActivityWriter writer;
+    private final TimeSource timeSource;
+    private final DataSource dataSource;
+
+    private final BlockingQueue<ActivityEvent> queue;
+    private final int batchSize;
+    private final Duration enqueueTimeout;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public UserActivityRecorder(UserActivityWriter writer, TimeSource timeSource, DataSource dataSource,
+                                Environment environment) {
+        this.writer = writer;
+        this.timeSource = timeSource;
+        this.dataSource = dataSource;
+        this.queue = new ArrayBlockingQueue<>(environment.getProperty(QUEUE_CAPACITY_PROPERTY, Integer.class, 10_000));
+        this.batchSize = environment.getProperty(BATCH_SIZE_PROPERTY, Integer.class, 500);
+        this.enqueueTimeout = environment.getProperty(ENQUEUE_TIMEOUT_PROPERTY, Duration.class, Duration.ofSeconds(5));
+        this.writerThread = Thread.ofPlatform().name("user-activity-writer").daemon().start(this::writeLoop);
     }
 
     @Authenticated
     @TransactionalEventListener
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void onEntityChanged(final EntityChangedEvent<? extends UuidEntity> event) {
-        Optional<? extends UuidEntity> entityOpt = getEntityFromEvent(event);
-
-        if (entityOpt.isEmpty()) {
+        Class<?> entityClass = event.getEntityId().getEntityClass();
+        if (User.class.isAssignableFrom(entityClass)) {
+            writer.invalidateUsers();
+        }
+        if (!isRecorded(entityClass, event.getType())) {
             return;
         }
 
-        switch (entityOpt.get()) {
-            case User user -> processUserChanges(event, user);
-            case Order order -> processOrderChanges(event, order);
-            case Client client -> processClientChanges(event, client);
-            default -> {}
+        Authentication authentication = SecurityContextHelper.getAuthentication();
+        ActivityEvent activityEvent = new ActivityEvent(entityClass, (UUID) event.getEntityId().getValue(),
+                event.getType(), authentication == null ? null : authentication.getName(),
+                timeSource.now().toOffsetDateTime(), authentication);
+        try {
+            if (queue.offer(activityEvent, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                enqueued.incrementAndGet();
+            } else {
+                log.warn("User activity queue is full, activity of {} is dropped", event.getEntityId());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    private void processUserChanges(EntityChangedEvent<?> event, User user) {
-        if (isEntityUpdatedEvent(event)) {
-            User updatedBy = getUpdatedBy(user).orElse(null);
-            if (Objects.equals(user, updatedBy)) {
-                UserProfileUserActivity userActivity = dataManager.create(UserProfileUserActivity.class);
-                userActivity.setUser(user);
-                userActivity.setActionDescription("Update profile info");
-                dataManager.save(userActivity);
+    /**
+     * Waits until the events enqueued before the call are written.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    public boolean flush(Duration timeout) {
+        long target = enqueued.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (processed.get() < target) {
+            if (System.nanoTime() > deadline || !writerThread.isAlive()) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             }
         }
+        return true;
     }
 
-    private void processClientChanges(EntityChangedEvent<?> event, Client client) {
-        ClientUserActivity userActivity = dataManager.create(ClientUserActivity.class);
-        userActivity.setClient(client);
-
-        String clientName = client.getName();
-        if (isEntityCreatedEvent(event)) {
-            getCreatedBy(client).ifPresent(createdBy -> {
-                userActivity.setUser(createdBy);
-                userActivity.setActionDescription(String.format("%s client added", clientName));
-            });
-        } else if (isEntityUpdatedEvent(event)) {
-            getUpdatedBy(client).ifPresent(updatedBy -> {
-                userActivity.setUser(updatedBy);
-                userActivity.setActionDescription(String.format("%s profile updated", clientName));
-            });
-        } else if (isEntityDeletedEvent(event)) {
-            getDeletedBy(client).ifPresent(deletedBy -> {
-                userActivity.setUser(deletedBy);
-                userActivity.setActionDescription(String.format("%s client removed", clientName));
-            });
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-
-        if (userActivity.getUser() != null) {
-            dataManager.save(userActivity);
+        if (!queue.isEmpty()) {
+            log.warn("{} user activities weren't written on shutdown", queue.size());
         }
     }
 
-    private void processOrderChanges(EntityChangedEvent<?> event, Order order) {
-        ClientUserActivity userActivity = dataManager.create(ClientUserActivity.class);
-        Client client = order.getClient();
-        userActivity.setClient(client);
-
-        String orderNumber = order.getNumber();
-
-        if (isEntityCreatedEvent(event)) {
-            getCreatedBy(order).ifPresent(createdBy -> {
-                userActivity.setUser(createdBy);
-                userActivity.setActionDescription("Create order %s".formatted(orderNumber));
-            });
-        } else if (isEntityUpdatedEvent(event)) {
-            getUpdatedBy(order).ifPresent(updatedBy -> {
-                userActivity.setUser(updatedBy);
-                userActivity.setActionDescription("Update order %s".formatted(orderNumber));
-            });
-        } else if (isEntityDeletedEvent(event)) {
-            getDeletedBy(order).ifPresent(deletedBy -> {
-                userActivity.setUser(deletedBy);
-                userActivity.setActionDescription("Delete order %s".formatted(orderNumber));
-            });
+    private static boolean isRecorded(Class<?> entityClass, EntityChangedEvent.Type type) {
+        if (type == EntityChangedEvent.Type.DELETED) {
+            return false;
         }
-
-        if (userActivity.getUser() != null) {
-            dataManager.save(userActivity);
+        if (User.class.isAssignableFrom(entityClass)) {
+            return type == EntityChangedEvent.Type.UPDATED;
+        }
+        return Client.class.isAssignableFrom(entityClass) || Order.class.isAssignableFrom(entityClass);
+    }
+
+    private void writeLoop() {
+        List<ActivityEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ActivityEvent first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            processed.addAndGet(batch.size());
+            batch.clear();
         }
     }
 
-    private Optional<User> getCreatedBy(UuidEntity entity) {
-        return getChangesAuthorByTrait(entity, Trait.CREATED_BY);
-    }
-
-    private Optional<User> getUpdatedBy(UuidEntity entity) {
-        return getChangesAuthorByTrait(entity, Trait.UPDATED_BY);
-    }
-
-    private Optional<User> getDeletedBy(UuidEntity entity) {
-        return getChangesAuthorByTrait(entity, Trait.DELETED_BY);
-    }
-
-    private Optional<User> getChangesAuthorByTrait(UuidEntity entity, Trait trait) {
-        Optional<String> username = switch (trait) {
-            case CREATED_BY -> entity instanceof CreateAuditEntity createUpdateAudit
-                    ? Optional.ofNullable(createUpdateAudit.getCreatedBy())
-                    : Optional.empty();
-
-            case UPDATED_BY -> entity instanceof CreateUpdateAuditEntity createUpdateAudit
-                    ? Optional.ofNullable(createUpdateAudit.getUpdatedBy())
-                    : Optional.empty();
-
-            case DELETED_BY -> entity instanceof FullAuditEntity fullAuditEntity
-                    ? Optional.ofNullable(fullAuditEntity.getDeletedBy())
-                    : Optional.empty();
-        };
-
-        return username.filter(u -> !List.of("admin", "system").contains(u))
-                .flatMap(this::findUser);
-    }
-
-    private Optional<User> findUser(String username) {
-        return dataManager.load(User.class)
-                .query("e.username = ?1", username)
-                .maxResults(1)
-                .optional();
-    }
-
-    private enum Trait {
-        CREATED_BY, UPDATED_BY, DELETED_BY
-    }
-
-    private boolean isEntityDeletedEvent(EntityChangedEvent<?> event) {
-        return hasChangeOfType(event, EntityChangedEvent.Type.DELETED);
-    }
-
-    private boolean isEntityCreatedEvent(EntityChangedEvent<?> event) {
-        return hasChangeOfType(event, EntityChangedEvent.Type.CREATED);
-    }
-
-    private boolean isEntityUpdatedEvent(EntityChangedEvent<?> event) {
-        return hasChangeOfType(event, EntityChangedEvent.Type.UPDATED);
-    }
-
-    private boolean hasChangeOfType(EntityChangedEvent<?> event, EntityChangedEvent.Type type) {
-        return event.getType().equals(type);
-    }
-
-    private boolean isEntityAttributeHasChanged(EntityChangedEvent<?> event, String attributeName) {
-        return event.getChanges().isChanged(attributeName);
+    /**
+     * Writes events of each HTTP session separately, as in online mode it defines the database,
+     * see {@link com.company.crm.app.online.RoutingDataSource}.
+     */
+    private void write(List<ActivityEvent> batch) {
+        Map<String, List<ActivityEvent>> eventsBySession = new HashMap<>();
+        for (ActivityEvent event : batch) {
+            eventsBySession.computeIfAbsent(SessionIds.of(event.authentication()), id -> new ArrayList<>()).add(event);
+        }
+        eventsBySession.forEach((sessionId, events) -> writeAs(events.getFirst().authentication(), sessionId, events));
     }
 
-    private <E extends UuidEntity> Optional<E> getEntityFromEvent(EntityChangedEvent<E> event) {
-        if (isEntityDeletedEvent(event)) {
-            return Optional.empty();
-        } else {
-            return dataManager.load(event.getEntityId()).optional();
+    private void writeAs(@Nullable Authentication authentication, String sessionId, List<ActivityEvent> events) {
+        if (dataSource instanceof RoutingDataSource routingDataSource && routingDataSource.isSessionClosed(sessionId)) {
+            log.debug("Session {} is closed, {} user activities are dropped", sessionId, events.size());
+            return;
+        }
+        Authentication previous = SecurityContextHelper.getAuthentication();
+        SecurityContextHelper.setAuthentication(authentication);
+        try {
+            writer.write(sessionId, events);
+        } catch (RuntimeException e) {
+            log.warn("Cannot write {} user activities", events.size(), e);
+        } finally {
+            SecurityContextHelper.setAuthentication(previous);
         }
     }
 }
@@ -0,0 +1,191 @@
+package com.company.crm.app.service.user;
+
+import com.company.crm.model.user.activity.UserActivity;
+import com.company.crm.model.user.activity.UserActivityAction;
+import io.jmix.core.TimeSource;
+import io.jmix.core.UuidProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps activity tables bounded, month by month, see {@link UserActivity#getCreatedMonth()}.
+ * <p>
+ * Months older than {@link #COMPACTION_AGE_PROPERTY} are compacted: activities of a user on a client (or on the own
+ * profile) within a month are replaced by a single {@link UserActivityAction#CLIENT_SUMMARY summary} activity.
+ * Months older than {@link #RETENTION_PROPERTY} are removed. Both steps work in transactions of
+ * {@link #BATCH_SIZE_PROPERTY} groups or rows, so they don't lock the tables for long.
+ */
+@Component
+public class UserActivityRetention {
+
+    private static final Logger log = LoggerFactory.getLogger(UserActivityRetention.class);
+
+    public static final String COMPACTION_AGE_PROPERTY = "crm.user-activity.compaction-age";
+    public static final String RETENTION_PROPERTY = "crm.user-activity.retention";
+    public static final String BATCH_SIZE_PROPERTY = "crm.user-activity.retention-batch-size";
+
+    private static final List<ActivityTable> TABLES = List.of(
+            new ActivityTable("CLIENT_USER_ACITIVTY", List.of("USER_ID", "CLIENT_ID"),
+                    UserActivityAction.CLIENT_SUMMARY),
+            new ActivityTable("USER_PROFILE_USER_ACITIVTY", List.of("USER_ID"),
+                    UserActivityAction.PROFILE_SUMMARY));
+
+    /**
+     * Table of an activity entity.
+     *
+     * @param groupColumns columns identifying activities summarized together within a month
+     * @param summary      action of summary activities, its parameter is the number of summarized activities
+     */
+    private record ActivityTable(String name, List<String> groupColumns, UserActivityAction summary) {
+
+        String selectGroups() {
+            String columns = String.join(", ", groupColumns);
+            return "select " + columns + ", CREATED_MONTH, " +
+                    "sum(case when ACTION_CODE = '" + summary.getId() + "' then cast(ACTION_PARAMS as int) else 1 end), " +
+                    "max(CREATED_DATE) " +
+                    "from " + name + " " +
+                    "where CREATED_MONTH < ? and " + groupColumns.getFirst() + " is not null " +
+                    "group by " + columns + ", CREATED_MONTH " +
+                    "having count(*) > 1";
+        }
+
+        String deleteGroup() {
+            return "delete from " + name + " where " + String.join(" = ? and ", groupColumns) + " = ? and CREATED_MONTH = ?";
+        }
+
+        String insertSummary() {
+            String columns = String.join(", ", groupColumns);
+            return "insert into " + name + " (ID, " + columns + ", ACTION_CODE, ACTION_PARAMS, CREATED_DATE, CREATED_MONTH) " +
+                    "values (?, " + "?, ".repeat(groupColumns.size()) + "?, ?, ?, ?)";
+        }
+
+        String selectIds() {
+            return "select ID from " + name + " where CREATED_MONTH < ?";
+        }
+
+        String deleteById() {
+            return "delete from " + name + " where ID = ?";
+        }
+    }
+
+    private final TimeSource timeSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration compactionAge;
+    private final Duration retention;
+    private final int batchSize;
+
+    public UserActivityRetention(TimeSource timeSource, DataSource dataSource,
+                                 PlatformTransactionManager transactionManager, Environment environment) {
+        this.timeSource = timeSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactionAge = environment.getProperty(COMPACTION_AGE_PROPERTY, Duration.class, Duration.ofDays(90));
+        this.retention = environment.getProperty(RETENTION_PROPERTY, Duration.class, Duration.ofDays(730));
+        this.batchSize = environment.getProperty(BATCH_SIZE_PROPERTY, Integer.class, 1000);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setMaxRows(batchSize);
+    }
+
+    /**
+     * Compacts and removes old activities according to the configured ages.
+     */
+    @Scheduled(cron = "${crm.user-activity.retention-cron:-}")
+    public void applyRetention() {
+        OffsetDateTime now = timeSource.now().toOffsetDateTime();
+        int removed = removeBefore(UserActivity.monthOf(now.minus(retention)));
+        int compacted = compactBefore(UserActivity.monthOf(now.minus(compactionAge)));
+        log.info("User activity retention: {} activities removed, {} compacted", removed, compacted);
+    }
+
+    /**
+     * Replaces activities of each user on each client within every month before the given one
+     * by a summary activity.
+     *
+     * @param month month in the {@code yyyyMM} form, see {@link UserActivity#monthOf(OffsetDateTime)}
+     * @return number of replaced activity groups
+     */
+    public int compactBefore(int month) {
+        int compacted = 0;
+        for (ActivityTable table : TABLES) {
+            while (true) {
+                List<Object[]> groups = jdbcTemplate.query(table.selectGroups(),
+                        (rs, rowNum) -> {
+                            int columns = rs.getMetaData().getColumnCount();
+                            Object[] row = new Object[columns];
+                            for (int i = 0; i < columns; i++) {
+                                row[i] = rs.getObject(i + 1);
+                            }
+                            return row;
+                        }, month);
+                if (groups.isEmpty()) {
+                    break;
+                }
+                transactionTemplate.executeWithoutResult(status -> compactGroups(table, groups));
+                compacted += groups.size();
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Removes activities of all months before the given one.
+     *
+     * @param month month in the {@code yyyyMM} form, see {@link UserActivity#monthOf(OffsetDateTime)}
+     * @return number of removed activities
+     */
+    public int removeBefore(int month) {
+        int removed = 0;
+        for (ActivityTable table : TABLES) {
+            while (true) {
+                List<Object[]> ids = jdbcTemplate.query(table.selectIds(),
+                        (rs, rowNum) -> new Object[]{rs.getObject(1)}, month);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(table.deleteById(), ids));
+                removed += ids.size();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @param groups rows of {@link ActivityTable#selectGroups()}: group columns, month, number of activities
+     *               and the date of the last one
+     */
+    private void compactGroups(ActivityTable table, List<Object[]> groups) {
+        int keySize = table.groupColumns().size();
+        List<Object[]> deletes = new ArrayList<>(groups.size());
+        List<Object[]> inserts = new ArrayList<>(groups.size());
+        for (Object[] group : groups) {
+            Object[] delete = new Object[keySize + 1];
+            System.arraycopy(group, 0, delete, 0, keySize + 1);
+            deletes.add(delete);
+
+            Object[] insert = new Object[keySize + 5];
+            insert[0] = UuidProvider.createUuid();
+            System.arraycopy(group, 0, insert, 1, keySize);
+            insert[keySize + 1] = table.summary().getId();
+            insert[keySize + 2] = UserActivity.joinParameters(
+                    Long.toString(((Number) Objects.requireNonNull(group[keySize + 1])).longValue()));
+            insert[keySize + 3] = group[keySize + 2];
+            insert[keySize + 4] = group[keySize];
+            inserts.add(insert);
+        }
+        jdbcTemplate.batchUpdate(table.deleteGroup(), deletes);
+        jdbcTemplate.batchUpdate(table.insertSummary(), inserts);
+    }
+}
@@ -2,6 +2,8 @@ package com.company.crm.app.service.user;
 
 import com.company.crm.app.util.date.range.LocalDateRange;
 import com.company.crm.app.util.date.range.OffsetDateTimeRange;
+import com.company.crm.model.base.KeysetCursor;
+import com.company.crm.model.base.KeysetPageRequest;
 import com.company.crm.model.base.OffsetLimitPageRequest;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.user.User;
@@ -9,17 +11,38 @@ import com.company.crm.model.user.activity.UserActivity;
 import com.company.crm.model.user.activity.UserActivityRepository;
 import com.company.crm.model.user.activity.client.ClientUserActivity;
 import com.company.crm.model.user.activity.client.ClientUserActivityRepository;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-
-import static org.springframework.data.domain.Pageable.unpaged;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.UUID;
 
 @Service
 public class UserActivityService {
 
+    private static final Sort FEED_SORT = Sort.by(Sort.Direction.DESC, "createdDate");
+
+    /**
+     * Order of {@link #FEED_SORT} and id as the database sorts them: NULL dates as the lowest values,
+     * ids as unsigned bytes.
+     */
+    private static final Comparator<UserActivity> FEED_ORDER = Comparator
+            .comparing(UserActivity::getCreatedDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(UserActivity::getId, Comparator
+                    .<UUID>comparingLong(id -> id.getMostSignificantBits() ^ Long.MIN_VALUE)
+                    .thenComparingLong(id -> id.getLeastSignificantBits() ^ Long.MIN_VALUE));
+
     private final List<UserActivityRepository<?>> userActivityRepositories;
     private final ClientUserActivityRepository clientUserActivityRepository;
 
@@ -28,14 +51,22 @@ public class UserActivityService {
         this.clientUserActivityRepository = clientUserActivityRepository;
     }
 
+    /**
+     * Loads activities of all types in the date range, newest first.
+     */
     public List<? extends UserActivity> loadActivities(OffsetDateTimeRange dateTimeRange, int offset, int limit) {
-        return userActivityRepositories.stream()
-                .flatMap(repository -> repository.findAllByCreatedDateGreaterThanEqualAndCreatedDateLessThanEqualOrderByCreatedDateDesc(
-                        dateTimeRange.startDate(), dateTimeRange.endDate(), unpaged()).stream())
-                .sorted(Comparator.comparing(UserActivity::getCreatedDate, Comparator.nullsLast(Comparator.reverseOrder())))
-                .skip(offset)
-                .limit(limit)
-                .toList();
+        return loadFeed(null, dateTimeRange, offset, null, limit);
+    }
+
+    /**
+     * Loads activities of all types in the date range following the given one, newest first.
+     *
+     * @param after cursor of the last loaded activity, see {@link #getCursor(UserActivity)},
+     *              or {@code null} to load from the newest one
+     */
+    public List<? extends UserActivity> loadActivities(OffsetDateTimeRange dateTimeRange,
+                                                       @Nullable KeysetCursor after, int limit) {
+        return loadFeed(null, dateTimeRange, 0, after, limit);
     }
 
     public List<? extends UserActivity> loadActivities(LocalDate date, int offset, int limit) {
@@ -47,15 +78,22 @@ public class UserActivityService {
         return loadActivities(date, 0, limit);
     }
 
+    /**
+     * Loads activities of all types of the user in the date range, newest first.
+     */
     public List<? extends UserActivity> loadActivities(User user, OffsetDateTimeRange dateRange, int offset, int limit) {
-        return userActivityRepositories.stream()
-                .flatMap(repository -> repository.findAllByUserAndCreatedDateGreaterThanEqualAndCreatedDateLessThanEqualOrderByCreatedDateDesc(
-                        user, dateRange.startDate(), dateRange.endDate(),
-                        unpaged()).stream())
-                .sorted(Comparator.comparing(UserActivity::getCreatedDate, Comparator.nullsLast(Comparator.reverseOrder())))
-                .skip(offset)
-                .limit(limit)
-                .toList();
+        return loadFeed(user, dateRange, offset, null, limit);
+    }
+
+    /**
+     * Loads activities of all types of the user in the date range following the given one, newest first.
+     *
+     * @param after cursor of the last loaded activity, see {@link #getCursor(UserActivity)},
+     *              or {@code null} to load from the newest one
+     */
+    public List<? extends UserActivity> loadActivities(User user, OffsetDateTimeRange dateRange,
+                                                       @Nullable KeysetCursor after, int limit) {
+        return loadFeed(user, dateRange, 0, after, limit);
     }
 
     public List<? extends UserActivity> loadActivities(User user, LocalDate date, int offset, int limit) {
@@ -67,9 +105,16 @@ public class UserActivityService {
         return loadActivities(user, date, 0, limit);
     }
 
+    /**
+     * Returns the position of the activity in the feed, to load the activities following it.
+     */
+    public KeysetCursor getCursor(UserActivity activity) {
+        return Objects.requireNonNull(KeysetCursor.of(activity, FEED_SORT), "createdDate isn't loaded");
+    }
+
     public List<ClientUserActivity> loadClientActivities(Client client, OffsetDateTimeRange dateRange, int offset, int limit) {
-        return clientUserActivityRepository.findAllByClientAndCreatedDateBetween(
-                client, dateRange.startDate(), dateRange.endDate(),
+        return clientUserActivityRepository.findAllByClientAndCreatedMonthBetweenAndCreatedDateBetween(
+                client, startMonthOf(dateRange), endMonthOf(dateRange), dateRange.startDate(), dateRange.endDate(),
                 OffsetLimitPageRequest.of(offset, limit));
     }
 
@@ -83,8 +128,8 @@ public class UserActivityService {
     }
 
     public List<ClientUserActivity> loadClientActivities(User user, Client client, OffsetDateTimeRange dateRange, int offset, int limit) {
-        return clientUserActivityRepository.findAllByClientAndUserAndCreatedDateBetween(
-                client, user, dateRange.startDate(), dateRange.endDate(),
+        return clientUserActivityRepository.findAllByClientAndUserAndCreatedMonthBetweenAndCreatedDateBetween(
+                client, user, startMonthOf(dateRange), endMonthOf(dateRange), dateRange.startDate(), dateRange.endDate(),
                 OffsetLimitPageRequest.of(offset, limit));
     }
 
@@ -96,4 +141,76 @@ public class UserActivityService {
     public List<ClientUserActivity> loadClientActivities(User user, Client client, LocalDate date, int limit) {
         return loadClientActivities(user, client, date, 0, limit);
     }
+
+    /**
+     * Loads at most {@code offset + limit} rows of each activity type, already sorted by the database,
+     * and merges them. Rows of all types are ordered by creation date and then by id, as in
+     * {@link KeysetPageRequest#getLoadSort()}, so a cursor seeks the same position in each of them.
+     */
+    private List<UserActivity> loadFeed(@Nullable User user, OffsetDateTimeRange dateRange,
+                                        int offset, @Nullable KeysetCursor after, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        LogicalCondition condition = LogicalCondition.and(
+                PropertyCondition.greaterOrEqual("createdMonth", startMonthOf(dateRange)),
+                PropertyCondition.lessOrEqual("createdMonth", endMonthOf(dateRange)),
+                PropertyCondition.greaterOrEqual("createdDate", dateRange.startDate()),
+                PropertyCondition.lessOrEqual("createdDate", dateRange.endDate()));
+        if (user != null) {
+            condition.add(PropertyCondition.equal("user", user));
+        }
+        var context = new JmixDataRepositoryContext(null, condition, Map.of());
+        var request = after == null
+                ? KeysetPageRequest.ofOffset(0, (long) offset + limit, FEED_SORT)
+                : new KeysetPageRequest(0, limit, FEED_SORT, after, KeysetPageRequest.Seek.AFTER);
+
+        List<List<? extends UserActivity>> sortedLists = new ArrayList<>(userActivityRepositories.size());
+        for (UserActivityRepository<?> repository : userActivityRepositories) {
+            sortedLists.add(repository.findAll(request, context));
+        }
+        return merge(sortedLists, offset, limit);
+    }
+
+    /**
+     * Merges lists sorted in the feed order, keeping a heap of their current heads.
+     */
+    private static List<UserActivity> merge(List<List<? extends UserActivity>> sortedLists, int offset, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(sortedLists.size() + 1,
+                Comparator.comparing(Head::activity, FEED_ORDER));
+        for (List<? extends UserActivity> list : sortedLists) {
+            Iterator<? extends UserActivity> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+
+        List<UserActivity> result = new ArrayList<>(limit);
+        int skipped = 0;
+        while (result.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(head.activity());
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+        }
+        return result;
+    }
+
+    // months of rows written before the month column can differ by the time zone of the database
+    private static int startMonthOf(OffsetDateTimeRange dateRange) {
+        return UserActivity.monthOf(dateRange.startDate().minusDays(1));
+    }
+
+    private static int endMonthOf(OffsetDateTimeRange dateRange) {
+        return UserActivity.monthOf(dateRange.endDate().plusDays(1));
+    }
+
+    private record Head(UserActivity activity, Iterator<? extends UserActivity> rest) {
+    }
 }
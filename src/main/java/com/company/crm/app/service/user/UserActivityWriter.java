@@ -0,0 +1,196 @@
+package com.company.crm.app.service.user;
+
+import com.company.crm.app.service.user.UserActivityRecorder.ActivityEvent;
+import com.company.crm.model.base.UuidEntity;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.user.User;
+import com.company.crm.model.user.activity.UserActivity;
+import com.company.crm.model.user.activity.UserActivityAction;
+import io.jmix.core.DataManager;
+import io.jmix.core.UnconstrainedDataManager;
+import io.jmix.core.UuidProvider;
+import io.jmix.core.event.EntityChangedEvent;
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes activities of {@link UserActivityRecorder} events.
+ * <p>
+ * Changed entities of a batch are loaded with one query per entity class, authors are resolved through
+ * a cache of user ids, and activities are inserted with JDBC batches in a single transaction.
+ */
+@Component
+public class UserActivityWriter {
+
+    private static final String INSERT_CLIENT_ACTIVITY =
+            "insert into CLIENT_USER_ACITIVTY " +
+                    "(ID, USER_ID, ACTION_CODE, ACTION_PARAMS, CREATED_BY, CREATED_DATE, CREATED_MONTH, CLIENT_ID) " +
+                    "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_PROFILE_ACTIVITY =
+            "insert into USER_PROFILE_USER_ACITIVTY " +
+                    "(ID, USER_ID, ACTION_CODE, ACTION_PARAMS, CREATED_BY, CREATED_DATE, CREATED_MONTH) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Set<String> IGNORED_AUTHORS = Set.of("admin", "system");
+    private static final int MAX_CACHED_USERS = 10_000;
+
+    private final UnconstrainedDataManager dataManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Optional<UUID>> userIds = new ConcurrentHashMap<>();
+
+    public UserActivityWriter(DataManager dataManager, DataSource dataSource,
+                              PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher) {
+        this.dataManager = dataManager.unconstrained();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Forgets cached user ids, e.g. after users are changed.
+     */
+    public void invalidateUsers() {
+        userIds.clear();
+    }
+
+    /**
+     * Writes activities of the events and publishes {@link UserActivitiesWrittenEvent}.
+     *
+     * @param sessionId HTTP session of the events, which defines the database in online mode
+     */
+    public void write(String sessionId, Collection<ActivityEvent> events) {
+        Map<Class<?>, List<ActivityEvent>> eventsByClass = events.stream()
+                .collect(Collectors.groupingBy(ActivityEvent::entityClass));
+
+        List<Object[]> clientActivities = new ArrayList<>();
+        List<Object[]> userProfileActivities = new ArrayList<>();
+
+        Map<UUID, Client> clients = load(Client.class, eventsByClass, "name", "createdBy", "updatedBy");
+        for (ActivityEvent event : eventsByClass.getOrDefault(Client.class, List.of())) {
+            Client client = clients.get(event.entityId());
+            if (client == null) {
+                continue;
+            }
+            String clientName = client.getName();
+            if (event.type() == EntityChangedEvent.Type.CREATED) {
+                findAuthor(sessionId, client.getCreatedBy()).ifPresent(userId -> clientActivities.add(
+                        clientActivity(event, userId, UserActivityAction.CLIENT_ADDED, clientName, client.getId())));
+            } else {
+                findAuthor(sessionId, client.getUpdatedBy()).ifPresent(userId -> clientActivities.add(
+                        clientActivity(event, userId, UserActivityAction.CLIENT_UPDATED, clientName, client.getId())));
+            }
+        }
+
+        Map<UUID, Order> orders = load(Order.class, eventsByClass, "number", "client", "createdBy", "updatedBy");
+        for (ActivityEvent event : eventsByClass.getOrDefault(Order.class, List.of())) {
+            Order order = orders.get(event.entityId());
+            if (order == null || order.getClient() == null) {
+                continue;
+            }
+            String orderNumber = order.getNumber();
+            UUID clientId = order.getClient().getId();
+            if (event.type() == EntityChangedEvent.Type.CREATED) {
+                findAuthor(sessionId, order.getCreatedBy()).ifPresent(userId -> clientActivities.add(
+                        clientActivity(event, userId, UserActivityAction.ORDER_CREATED, orderNumber, clientId)));
+            } else {
+                findAuthor(sessionId, order.getUpdatedBy()).ifPresent(userId -> clientActivities.add(
+                        clientActivity(event, userId, UserActivityAction.ORDER_UPDATED, orderNumber, clientId)));
+            }
+        }
+
+        Map<UUID, User> users = load(User.class, eventsByClass, "updatedBy");
+        for (ActivityEvent event : eventsByClass.getOrDefault(User.class, List.of())) {
+            User user = users.get(event.entityId());
+            // only changes of users' own profiles are recorded
+            if (user != null && findAuthor(sessionId, user.getUpdatedBy()).filter(user.getId()::equals).isPresent()) {
+                userProfileActivities.add(new Object[]{
+                        UuidProvider.createUuid(), user.getId(), UserActivityAction.PROFILE_UPDATED.getId(), null,
+                        event.username(), event.time(), UserActivity.monthOf(event.time())
+                });
+            }
+        }
+
+        if (clientActivities.isEmpty() && userProfileActivities.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!clientActivities.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_CLIENT_ACTIVITY, clientActivities);
+            }
+            if (!userProfileActivities.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_USER_PROFILE_ACTIVITY, userProfileActivities);
+            }
+        });
+
+        Set<UUID> clientIds = new HashSet<>();
+        Set<UUID> userIds = new HashSet<>();
+        for (Object[] activity : clientActivities) {
+            userIds.add((UUID) activity[1]);
+            clientIds.add((UUID) activity[activity.length - 1]);
+        }
+        for (Object[] activity : userProfileActivities) {
+            userIds.add((UUID) activity[1]);
+        }
+        eventPublisher.publishEvent(new UserActivitiesWrittenEvent(sessionId, clientIds, userIds));
+    }
+
+    private static Object[] clientActivity(ActivityEvent event, UUID userId, UserActivityAction action,
+                                           String parameter, UUID clientId) {
+        return new Object[]{
+                UuidProvider.createUuid(), userId, action.getId(), UserActivity.joinParameters(parameter),
+                event.username(), event.time(), UserActivity.monthOf(event.time()), clientId
+        };
+    }
+
+    private <E extends UuidEntity> Map<UUID, E> load(Class<E> entityClass,
+                                                        Map<Class<?>, List<ActivityEvent>> eventsByClass,
+                                                        String... properties) {
+        List<ActivityEvent> events = eventsByClass.get(entityClass);
+        if (events == null) {
+            return Map.of();
+        }
+        Set<UUID> ids = events.stream().map(ActivityEvent::entityId).collect(Collectors.toSet());
+        return dataManager.load(entityClass)
+                .query("e.id in :ids")
+                .parameter("ids", ids)
+                .fetchPlan(fetchPlan -> fetchPlan.addAll(properties))
+                .list()
+                .stream()
+                .collect(Collectors.toMap(UuidEntity::getId, Function.identity()));
+    }
+
+    private Optional<UUID> findAuthor(String sessionId, @Nullable String username) {
+        if (username == null || IGNORED_AUTHORS.contains(username)) {
+            return Optional.empty();
+        }
+        if (userIds.size() > MAX_CACHED_USERS) {
+            userIds.clear();
+        }
+        return userIds.computeIfAbsent(sessionId + ':' + username, key -> dataManager.load(User.class)
+                .query("e.username = ?1", username)
+                .maxResults(1)
+                .optional()
+                .map(User::getId));
+    }
+}
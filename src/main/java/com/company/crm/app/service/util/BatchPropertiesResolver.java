@@ -0,0 +1,119 @@
+package com.company.crm.app.service.util;
+
+import com.company.crm.model.base.UuidEntity;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.payment.Payment;
+import io.jmix.core.DataManager;
+import io.jmix.core.FetchPlan;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves computed properties for a whole collection of loaded entities at once,
+ * so that per-row getter calls in data grids and report bands are served from memory
+ * instead of triggering a lazy load per entity.
+ * <p>
+ * Typical usage is a {@code CollectionLoader.PostLoadEvent} listener of a list view or a report band
+ * {@code ReportDataLoader} that passes its rows to {@link #resolve(Collection)} before reading computed properties.
+ */
+@Service
+public class BatchPropertiesResolver {
+
+    private final DataManager dataManager;
+
+    public BatchPropertiesResolver(DataManager dataManager) {
+        this.dataManager = dataManager;
+    }
+
+    /**
+     * Resolves computed properties of all supported entities in the given collection.
+     * Entities of other types are ignored, so report bands can pass their rows as is.
+     */
+    public void resolve(Collection<?> entities) {
+        List<Client> clients = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        for (Object entity : entities) {
+            if (entity instanceof Client client) {
+                clients.add(client);
+            } else if (entity instanceof Payment payment) {
+                payments.add(payment);
+            }
+        }
+        resolveClientPayments(clients);
+        resolvePaymentInvoices(payments);
+    }
+
+    /**
+     * Loads payments of all given clients with a single query and assigns them to {@link Client#getPayments()}.
+     */
+    public void resolveClientPayments(Collection<Client> clients) {
+        if (clients.isEmpty()) {
+            return;
+        }
+
+        List<Payment> payments = dataManager.load(Payment.class)
+                .query("select e from Payment e where e.invoice.client.id in :clientIds")
+                .parameter("clientIds", idsOf(clients, Function.identity()))
+                .fetchPlan(payment -> payment
+                        .addFetchPlan(FetchPlan.BASE)
+                        .add("invoice", invoice -> invoice
+                                .addFetchPlan(FetchPlan.BASE)
+                                .add("client", FetchPlan.INSTANCE_NAME)))
+                .list();
+
+        Map<UUID, List<Payment>> paymentsByClient = payments.stream()
+                .collect(Collectors.groupingBy(p -> p.getInvoice().getClient().getId()));
+
+        for (Client client : clients) {
+            client.setResolvedPayments(paymentsByClient.getOrDefault(client.getId(), List.of()));
+        }
+    }
+
+    /**
+     * Loads invoices of all given payments together with their orders and clients with a single query,
+     * so that {@link Payment#getOrder()} and {@link Payment#getClient()} don't load them one by one.
+     */
+    public void resolvePaymentInvoices(Collection<Payment> payments) {
+        List<UUID> invoiceIds = idsOf(payments, Payment::getInvoice);
+        if (invoiceIds.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Invoice> invoicesById = dataManager.load(Invoice.class)
+                .ids(invoiceIds)
+                .fetchPlan(invoice -> invoice
+                        .addFetchPlan(FetchPlan.BASE)
+                        .add("client", FetchPlan.INSTANCE_NAME)
+                        .add("order", order -> order
+                                .addFetchPlan(FetchPlan.BASE)
+                                .add("client", FetchPlan.INSTANCE_NAME)))
+                .list().stream()
+                .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+
+        for (Payment payment : payments) {
+            Invoice invoice = payment.getInvoice();
+            if (invoice != null) {
+                payment.setResolvedInvoice(invoicesById.get(invoice.getId()));
+            }
+        }
+    }
+
+    private static <E, R extends UuidEntity> List<UUID> idsOf(
+            Collection<E> entities, Function<E, R> reference) {
+        return entities.stream()
+                .map(reference)
+                .filter(Objects::nonNull)
+                .map(UuidEntity::getId)
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.crm.app.service.util;
+
+import io.jmix.data.Sequence;
+import io.jmix.data.Sequences;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reserves blocks of consecutive sequence values in the database.
+ * <p>
+ * The next free value of each sequence is kept in a {@code CRM_NUMBER_BLOCK} row. A block is reserved by
+ * moving that value forward in a short transaction of its own, so blocks don't overlap across nodes and
+ * restarts, and the block size can be changed at any time. The first block of a sequence starts after
+ * the current value of the database sequence with the same name, which was used before blocks.
+ */
+@Component
+public class NumberBlockAllocator {
+
+    private static final String RESERVE =
+            "update CRM_NUMBER_BLOCK set NEXT_VALUE = NEXT_VALUE + ?2 where NAME = ?1";
+    private static final String NEXT_VALUE =
+            "select NEXT_VALUE from CRM_NUMBER_BLOCK where NAME = ?1";
+    private static final String INSERT =
+            "insert into CRM_NUMBER_BLOCK (NAME, NEXT_VALUE) values (?1, ?2)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Sequences sequences;
+
+    public NumberBlockAllocator(Sequences sequences) {
+        this.sequences = sequences;
+    }
+
+    /**
+     * Reserves the next values of the sequence.
+     * <p>
+     * Fails if another node reserves the first block of the sequence at the same time,
+     * a repeated call reserves a block then.
+     *
+     * @param size number of values to reserve
+     * @return the first reserved value
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long allocate(Sequence sequence, int size) {
+        String name = sequence.getName();
+        int updated = entityManager.createNativeQuery(RESERVE)
+                .setParameter(1, name)
+                .setParameter(2, size)
+                .executeUpdate();
+        if (updated > 0) {
+            Number nextValue = (Number) entityManager.createNativeQuery(NEXT_VALUE)
+                    .setParameter(1, name)
+                    .getSingleResult();
+            return nextValue.longValue() - size;
+        }
+
+        long first = Math.max(sequence.getStartValue(), sequences.getCurrentValue(sequence) + 1);
+        entityManager.createNativeQuery(INSERT)
+                .setParameter(1, name)
+                .setParameter(2, first + size)
+                .executeUpdate();
+        return first;
+    }
+}
@@ -5,17 +5,34 @@ import com.company.crm.model.invoice.Invoice;
 import com.company.crm.model.order.Order;
 import com.company.crm.model.payment.Payment;
 import io.jmix.data.Sequence;
-import io.jmix.data.Sequences;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique numbers of documents.
+ * <p>
+ * Values of each sequence are reserved in blocks of {@link #BLOCK_SIZE_PROPERTY} by {@link NumberBlockAllocator}
+ * and handed out from memory without locking, so only every N-th number costs a database round-trip.
+ * Numbers are unique across nodes and restarts; values left in a block on shutdown are skipped.
+ */
 @Service
 public class UniqueNumbersService {
 
+    private static final Logger log = LoggerFactory.getLogger(UniqueNumbersService.class);
+
     public static final String PURCHASE_ORDER_NUMBER_PREFIX = "PO-";
     public static final String ORDER_NUMBER_PREFIX = "ORD-";
     public static final String INVOICE_NUMBER_PREFIX = "INV-";
     public static final String PAYMENT_NUMBER_PREFIX = "PAY-";
 
+    public static final String BLOCK_SIZE_PROPERTY = "crm.unique-numbers.block-size";
+
     private static final Sequence PAYMENT_NUMBER_SEQUENCE =
             defaultNumberSequence("CRM_PAYMENT_NUMBER");
 
@@ -28,10 +45,14 @@ public class UniqueNumbersService {
     private static final Sequence PURCHASE_ORDER_NUMBER_SEQUENCE =
             defaultNumberSequence("CRM_PURCHASE_ORDER_NUMBER");
 
-    private final Sequences sequences;
+    private final NumberBlockAllocator blockAllocator;
+    private final int blockSize;
 
-    public UniqueNumbersService(Sequences sequences) {
-        this.sequences = sequences;
+    private final Map<String, NumberPool> pools = new ConcurrentHashMap<>();
+
+    public UniqueNumbersService(NumberBlockAllocator blockAllocator, Environment environment) {
+        this.blockAllocator = blockAllocator;
+        this.blockSize = Math.max(1, environment.getProperty(BLOCK_SIZE_PROPERTY, Integer.class, 100));
     }
 
     public String getNextNumber(Class<? extends HasUniqueNumber> clazz) {
@@ -46,22 +67,72 @@ public class UniqueNumbersService {
     }
 
     public String getNextOrderNumber() {
-        return ORDER_NUMBER_PREFIX + sequences.createNextValue(ORDER_NUMBER_SEQUENCE);
+        return ORDER_NUMBER_PREFIX + nextValue(ORDER_NUMBER_SEQUENCE);
     }
 
     private String getNextPaymentNumber() {
-        return PAYMENT_NUMBER_PREFIX + sequences.createNextValue(PAYMENT_NUMBER_SEQUENCE);
+        return PAYMENT_NUMBER_PREFIX + nextValue(PAYMENT_NUMBER_SEQUENCE);
     }
 
     public String getNextInvoiceNumber() {
-        return INVOICE_NUMBER_PREFIX + sequences.createNextValue(INVOICE_NUMBER_SEQUENCE);
+        return INVOICE_NUMBER_PREFIX + nextValue(INVOICE_NUMBER_SEQUENCE);
     }
 
     public String getNextPurchaseOrderNumber() {
-        return PURCHASE_ORDER_NUMBER_PREFIX + sequences.createNextValue(PURCHASE_ORDER_NUMBER_SEQUENCE);
+        return PURCHASE_ORDER_NUMBER_PREFIX + nextValue(PURCHASE_ORDER_NUMBER_SEQUENCE);
+    }
+
+    private long nextValue(Sequence sequence) {
+        if (blockSize == 1) {
+            return allocate(sequence, 1);
+        }
+        return pools.computeIfAbsent(sequence.getName(), name -> new NumberPool(sequence)).next();
+    }
+
+    private long allocate(Sequence sequence, int size) {
+        try {
+            return blockAllocator.allocate(sequence, size);
+        } catch (RuntimeException e) {
+            // another node has created the row of the sequence concurrently
+            log.debug("Retrying allocation of {} values of {}", size, sequence.getName(), e);
+            return blockAllocator.allocate(sequence, size);
+        }
     }
 
     private static Sequence defaultNumberSequence(String sequenceName) {
         return Sequence.withName(sequenceName).setStartValue(1000);
     }
+
+    private final class NumberPool {
+
+        private final Sequence sequence;
+        private volatile Block block = new Block(0, 0);
+
+        private NumberPool(Sequence sequence) {
+            this.sequence = sequence;
+        }
+
+        private long next() {
+            while (true) {
+                Block current = block;
+                long value = current.next().getAndIncrement();
+                if (value < current.end()) {
+                    return value;
+                }
+                synchronized (this) {
+                    if (block == current) {
+                        long first = allocate(sequence, blockSize);
+                        block = new Block(first, first + blockSize);
+                    }
+                }
+            }
+        }
+    }
+
+    private record Block(AtomicLong next, long end) {
+
+        private Block(long first, long end) {
+            this(new AtomicLong(first), end);
+        }
+    }
 }
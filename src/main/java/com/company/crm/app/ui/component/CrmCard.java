@@ -169,6 +169,13 @@ public class CrmCard extends JmixCard implements ApplicationContextAware {
         return this;
     }
 
+    /**
+     * Recreates the content for the current period, e.g. after the shown data is changed.
+     */
+    public void refresh() {
+        updateContentIfNeeded();
+    }
+
     public CrmCard withPeriodFilter(boolean hasPeriodFilter) {
         this.hasPeriodFilter = hasPeriodFilter;
         refreshContent();
@@ -2,6 +2,8 @@ package com.company.crm.app.ui.component;
 
 import com.company.crm.app.service.datetime.DateTimeService;
 import com.company.crm.app.service.user.UserActivityService;
+import com.company.crm.app.ui.live.LiveTopic;
+import com.company.crm.app.ui.live.LiveUpdateBus;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.user.User;
 import com.company.crm.model.user.activity.UserActivity;
@@ -17,6 +19,7 @@ import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.Scroller;
+import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 import io.jmix.core.Messages;
 import io.jmix.flowui.asynctask.UiAsyncTasks;
@@ -56,6 +59,9 @@ public class RecentActivitiesBlock extends Div implements ApplicationContextAwar
     private UiAsyncTasks uiAsyncTasks;
     private DateTimeService dateTimeService;
     private UserActivityService userActivityService;
+    private LiveUpdateBus liveUpdateBus;
+
+    private Registration liveUpdatesRegistration;
 
     private User user = null;
     private Client client = null;
@@ -82,11 +88,20 @@ public class RecentActivitiesBlock extends Div implements ApplicationContextAwar
 
     public void setClient(Client client) {
         this.client = client;
+        subscribeToLiveUpdates();
         reloadContent();
     }
 
     public void showForUser(User user) {
         this.user = user;
+        subscribeToLiveUpdates();
+        reloadContent();
+    }
+
+    /**
+     * Reloads the shown activities.
+     */
+    public void refresh() {
         reloadContent();
     }
 
@@ -105,6 +120,21 @@ public class RecentActivitiesBlock extends Div implements ApplicationContextAwar
         initComponent();
     }
 
+    private void subscribeToLiveUpdates() {
+        if (liveUpdatesRegistration != null) {
+            liveUpdatesRegistration.remove();
+        }
+        LiveTopic topic;
+        if (client != null) {
+            topic = LiveTopic.client(client.getId());
+        } else if (user != null) {
+            topic = LiveTopic.user(user.getId());
+        } else {
+            topic = LiveTopic.activities();
+        }
+        liveUpdatesRegistration = liveUpdateBus.subscribe(this, List.of(topic), topics -> reloadContent());
+    }
+
     private void initComponent() {
         addTitle();
         if (loadedActivities.isEmpty()) {
@@ -222,6 +252,7 @@ public class RecentActivitiesBlock extends Div implements ApplicationContextAwar
     @Override
     public void afterPropertiesSet() {
         initComponent();
+        subscribeToLiveUpdates();
     }
 
     @Override
@@ -234,5 +265,6 @@ public class RecentActivitiesBlock extends Div implements ApplicationContextAwar
         uiAsyncTasks = applicationContext.getBean(UiAsyncTasks.class);
         dateTimeService = applicationContext.getBean(DateTimeService.class);
         userActivityService = applicationContext.getBean(UserActivityService.class);
+        liveUpdateBus = applicationContext.getBean(LiveUpdateBus.class);
     }
 }
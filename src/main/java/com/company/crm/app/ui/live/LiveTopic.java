@@ -0,0 +1,48 @@
+package com.company.crm.app.ui.live;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Subject of live updates, see {@link LiveUpdateBus}.
+ *
+ * @param id id of the client or the user, {@code null} for topics of the whole application
+ */
+public record LiveTopic(Kind kind, @Nullable UUID id) {
+
+    public enum Kind {
+        /**
+         * Orders, invoices, payments and tasks shown by dashboard cards.
+         */
+        DASHBOARD,
+        /**
+         * Activities of all users.
+         */
+        ACTIVITIES,
+        /**
+         * Activities on a client.
+         */
+        CLIENT,
+        /**
+         * Activities of a user.
+         */
+        USER
+    }
+
+    public static LiveTopic dashboard() {
+        return new LiveTopic(Kind.DASHBOARD, null);
+    }
+
+    public static LiveTopic activities() {
+        return new LiveTopic(Kind.ACTIVITIES, null);
+    }
+
+    public static LiveTopic client(UUID clientId) {
+        return new LiveTopic(Kind.CLIENT, clientId);
+    }
+
+    public static LiveTopic user(UUID userId) {
+        return new LiveTopic(Kind.USER, userId);
+    }
+}
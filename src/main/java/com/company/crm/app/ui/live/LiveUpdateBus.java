@@ -0,0 +1,289 @@
+package com.company.crm.app.ui.live;
+
+import com.company.crm.app.config.SpringProfiles;
+import com.company.crm.app.service.user.UserActivitiesWrittenEvent;
+import com.company.crm.app.util.context.SessionIds;
+import com.company.crm.model.base.UuidEntity;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.payment.Payment;
+import com.company.crm.model.user.task.UserTask;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.shared.Registration;
+import io.jmix.core.event.EntityChangedEvent;
+import io.jmix.core.security.SecurityContextHelper;
+import jakarta.annotation.PreDestroy;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process publish/subscribe of {@link LiveTopic live topics}, delivered to attached UIs through server push.
+ * <p>
+ * Topics are published after commits of orders, invoices, payments, tasks and clients, and after user activities
+ * are written. Changed topics are collected per UI and delivered at most once per {@link #THROTTLE_PROPERTY},
+ * to all subscriptions of the UI in a single UI access, so a burst of commits results in a single refresh
+ * of a UI. In online mode UIs receive only changes of their own HTTP session, as each session has its own
+ * database.
+ */
+@org.springframework.stereotype.Component
+public class LiveUpdateBus {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveUpdateBus.class);
+
+    public static final String THROTTLE_PROPERTY = "crm.live-updates.throttle";
+
+    private static final List<Class<?>> DASHBOARD_ENTITIES =
+            List.of(Order.class, Invoice.class, Payment.class, UserTask.class, Client.class);
+
+    private final boolean sessionScoped;
+    private final long throttleNanos;
+
+    private final Map<LiveTopic, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<UI, UiDelivery> uiDeliveries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("live-updates").daemon().factory());
+
+    public LiveUpdateBus(SpringProfiles springProfiles, Environment environment) {
+        this.sessionScoped = springProfiles.isOnlineProfile();
+        this.throttleNanos = environment.getProperty(THROTTLE_PROPERTY, Duration.class, Duration.ofSeconds(2)).toNanos();
+    }
+
+    /**
+     * Delivers changes of the topics to the listener while the component is attached.
+     * The listener is called in the UI thread with the set of topics changed since the previous call.
+     *
+     * @return registration removing the subscription
+     */
+    public Registration subscribe(Component component, Collection<LiveTopic> topics,
+                                  SerializableConsumer<Set<LiveTopic>> listener) {
+        ComponentSubscription componentSubscription = new ComponentSubscription(Set.copyOf(topics), listener);
+        component.getUI().ifPresent(componentSubscription::attach);
+        Registration attachRegistration = component.addAttachListener(event ->
+                componentSubscription.attach(event.getUI()));
+        Registration detachRegistration = component.addDetachListener(event ->
+                componentSubscription.detach());
+        return () -> {
+            attachRegistration.remove();
+            detachRegistration.remove();
+            componentSubscription.detach();
+        };
+    }
+
+    /**
+     * Publishes changes of the topics made in the HTTP session of the current authentication.
+     */
+    public void publish(Collection<LiveTopic> topics) {
+        publish(SessionIds.of(SecurityContextHelper.getAuthentication()), topics);
+    }
+
+    /**
+     * Publishes changes of the topics made in the given HTTP session.
+     */
+    public void publish(String sessionId, Collection<LiveTopic> topics) {
+        Map<Subscription, Set<LiveTopic>> changes = new HashMap<>();
+        for (LiveTopic topic : topics) {
+            for (Subscription subscription : subscriptions.getOrDefault(topic, Set.of())) {
+                if (!sessionScoped || subscription.sessionId().equals(sessionId)) {
+                    changes.computeIfAbsent(subscription, s -> new HashSet<>()).add(topic);
+                }
+            }
+        }
+        changes.forEach((subscription, changed) -> {
+            UiDelivery uiDelivery = uiDeliveries.get(subscription.ui());
+            if (uiDelivery != null) {
+                uiDelivery.offer(subscription, changed);
+            }
+        });
+    }
+
+    /**
+     * Invoked after the {@link com.company.crm.app.service.analytics.AnalyticsResultCache} is invalidated,
+     * so that dashboards reload fresh values.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent<? extends UuidEntity> event) {
+        Class<?> entityClass = event.getEntityId().getEntityClass();
+        if (DASHBOARD_ENTITIES.stream().anyMatch(dashboardClass -> dashboardClass.isAssignableFrom(entityClass))) {
+            publish(List.of(LiveTopic.dashboard()));
+        }
+    }
+
+    @EventListener
+    public void onUserActivitiesWritten(UserActivitiesWrittenEvent event) {
+        Set<LiveTopic> topics = new HashSet<>();
+        topics.add(LiveTopic.activities());
+        event.clientIds().forEach(clientId -> topics.add(LiveTopic.client(clientId)));
+        event.userIds().forEach(userId -> topics.add(LiveTopic.user(userId)));
+        publish(event.sessionId(), topics);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void register(Subscription subscription) {
+        uiDeliveries.compute(subscription.ui(), (ui, uiDelivery) -> {
+            UiDelivery result = uiDelivery == null ? new UiDelivery(ui) : uiDelivery;
+            result.subscriptions.add(subscription);
+            return result;
+        });
+        for (LiveTopic topic : subscription.topics()) {
+            subscriptions.compute(topic, (t, topicSubscriptions) -> {
+                Set<Subscription> result = topicSubscriptions == null ? ConcurrentHashMap.newKeySet() : topicSubscriptions;
+                result.add(subscription);
+                return result;
+            });
+        }
+    }
+
+    private void unregister(Subscription subscription) {
+        for (LiveTopic topic : subscription.topics()) {
+            subscriptions.computeIfPresent(topic, (t, topicSubscriptions) -> {
+                topicSubscriptions.remove(subscription);
+                return topicSubscriptions.isEmpty() ? null : topicSubscriptions;
+            });
+        }
+        uiDeliveries.computeIfPresent(subscription.ui(), (ui, uiDelivery) -> {
+            uiDelivery.subscriptions.remove(subscription);
+            return uiDelivery.subscriptions.isEmpty() ? null : uiDelivery;
+        });
+    }
+
+    /**
+     * Subscription of a component, registered while the component is attached to a UI.
+     */
+    private final class ComponentSubscription {
+
+        private final Set<LiveTopic> topics;
+        private final SerializableConsumer<Set<LiveTopic>> listener;
+        @Nullable
+        private Subscription current;
+
+        ComponentSubscription(Set<LiveTopic> topics, SerializableConsumer<Set<LiveTopic>> listener) {
+            this.topics = topics;
+            this.listener = listener;
+        }
+
+        synchronized void attach(UI ui) {
+            detach();
+            String sessionId = ui.getSession() == null ? "" : ui.getSession().getSession().getId();
+            current = new Subscription(ui, sessionId, topics, listener);
+            register(current);
+        }
+
+        synchronized void detach() {
+            if (current != null) {
+                unregister(current);
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * Registered subscription of a component attached to a UI.
+     */
+    private static final class Subscription {
+
+        private final UI ui;
+        private final String sessionId;
+        private final Set<LiveTopic> topics;
+        private final SerializableConsumer<Set<LiveTopic>> listener;
+
+        Subscription(UI ui, String sessionId, Set<LiveTopic> topics, SerializableConsumer<Set<LiveTopic>> listener) {
+            this.ui = ui;
+            this.sessionId = sessionId;
+            this.topics = topics;
+            this.listener = listener;
+        }
+
+        UI ui() {
+            return ui;
+        }
+
+        String sessionId() {
+            return sessionId;
+        }
+
+        Set<LiveTopic> topics() {
+            return topics;
+        }
+    }
+
+    /**
+     * Collects changed topics of all subscriptions of a UI until they are delivered.
+     */
+    private final class UiDelivery {
+
+        private final UI ui;
+        // changed only within uiDeliveries.compute
+        private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+        private Map<Subscription, Set<LiveTopic>> pending = new HashMap<>();
+        private boolean scheduled;
+        private long lastDelivery = System.nanoTime() - throttleNanos;
+
+        UiDelivery(UI ui) {
+            this.ui = ui;
+        }
+
+        synchronized void offer(Subscription subscription, Set<LiveTopic> changed) {
+            pending.computeIfAbsent(subscription, s -> new HashSet<>()).addAll(changed);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+            long delay = Math.max(0, lastDelivery + throttleNanos - System.nanoTime());
+            scheduler.schedule(this::deliver, delay, TimeUnit.NANOSECONDS);
+        }
+
+        private void deliver() {
+            Map<Subscription, Set<LiveTopic>> changes;
+            synchronized (this) {
+                changes = pending;
+                pending = new HashMap<>();
+                scheduled = false;
+                lastDelivery = System.nanoTime();
+            }
+            try {
+                ui.access(() -> changes.forEach((subscription, changed) -> {
+                    // the component could be detached after the changes were collected
+                    if (!subscriptions.contains(subscription)) {
+                        return;
+                    }
+                    try {
+                        subscription.listener.accept(changed);
+                    } catch (RuntimeException e) {
+                        log.warn("Cannot deliver live updates of {}", changed, e);
+                    }
+                }));
+            } catch (UIDetachedException e) {
+                List.copyOf(subscriptions).forEach(LiveUpdateBus.this::unregister);
+            }
+        }
+    }
+}
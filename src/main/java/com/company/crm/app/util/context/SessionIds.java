@@ -0,0 +1,29 @@
+package com.company.crm.app.util.context;
+
+import io.jmix.core.security.ClientDetails;
+import org.jspecify.annotations.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * HTTP sessions of authentications. In online mode the session defines the database,
+ * see {@link com.company.crm.app.online.RoutingDataSource}.
+ */
+public final class SessionIds {
+
+    /**
+     * Returns the HTTP session id of the authentication, or an empty string if it isn't bound to a session.
+     */
+    public static String of(@Nullable Authentication authentication) {
+        Object details = authentication == null ? null : authentication.getDetails();
+        String sessionId = switch (details) {
+            case WebAuthenticationDetails webDetails -> webDetails.getSessionId();
+            case ClientDetails clientDetails -> clientDetails.getSessionId();
+            case null, default -> null;
+        };
+        return sessionId == null ? "" : sessionId;
+    }
+
+    private SessionIds() {
+    }
+}
@@ -14,6 +14,10 @@ public record LocalDateRange(LocalDate startDate, LocalDate endDate) implements
         this(dayRange, dayRange);
     }
 
+    public boolean contains(LocalDate date) {
+        return !date.isBefore(startDate) && !date.isAfter(endDate);
+    }
+
     public OffsetDateTimeRange asOffsetDateTimeRange() {
         var offsetStartDate = startDate.atStartOfDay().atOffset(ZoneOffset.UTC);
         var offsetEndDate = endDate.atStartOfDay().atOffset(ZoneOffset.UTC);
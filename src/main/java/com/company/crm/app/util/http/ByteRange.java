@@ -0,0 +1,73 @@
+package com.company.crm.app.util.http;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Byte range of an HTTP {@code Range} request.
+ *
+ * @param first index of the first byte
+ * @param last  index of the last byte, inclusive
+ */
+public record ByteRange(long first, long last) {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    /**
+     * Result of {@link #parse(String, long)} if the header asks for a range that the content doesn't have.
+     */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    /**
+     * Parses a {@code Range} header with a single range.
+     *
+     * @param header value of the header
+     * @param size   size of the content
+     * @return the range within the content, {@code null} if the whole content should be sent,
+     * or {@link #UNSATISFIABLE}
+     */
+    @Nullable
+    public static ByteRange parse(@Nullable String header, long size) {
+        if (header == null || !header.startsWith(BYTES_UNIT) || header.indexOf(',') >= 0) {
+            // no range, other units or several ranges, which are rarely used and may be ignored
+            return null;
+        }
+        String spec = header.substring(BYTES_UNIT.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String start = spec.substring(0, dash).trim();
+            String end = spec.substring(dash + 1).trim();
+            if (start.isEmpty()) {
+                // suffix range: the last bytes
+                long length = Long.parseLong(end);
+                if (length <= 0 || size == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - length), size - 1);
+            }
+            long first = Long.parseLong(start);
+            long last = end.isEmpty() ? size - 1 : Math.min(Long.parseLong(end), size - 1);
+            if (first < 0 || first > last) {
+                return first >= size ? UNSATISFIABLE : null;
+            }
+            return new ByteRange(first, last);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long length() {
+        return last - first + 1;
+    }
+
+    /**
+     * Returns the value of the {@code Content-Range} header.
+     */
+    public String toContentRange(long size) {
+        return UNSATISFIABLE.equals(this)
+                ? "bytes */" + size
+                : "bytes " + first + "-" + last + "/" + size;
+    }
+}
@@ -18,6 +18,7 @@ import com.company.crm.model.order.OrderItem;
 import com.company.crm.model.order.OrderStatus;
 import com.company.crm.model.payment.Payment;
 import com.company.crm.model.user.User;
+import com.company.crm.model.user.activity.UserActivityAction;
 import com.company.crm.model.user.activity.client.ClientUserActivity;
 import com.company.crm.model.user.task.UserTask;
 import com.company.crm.security.role.AdministratorRole;
@@ -433,7 +434,7 @@ public class DemoDataGenerator implements Ordered {
             ClientUserActivity userActivity = dataManager.create(ClientUserActivity.class);
             userActivity.setClient(client);
             userActivity.setUser(users.get(random.nextInt(users.size())));
-            userActivity.setActionDescription("%s profile updated".formatted(client.getName()));
+            userActivity.describe(UserActivityAction.CLIENT_UPDATED, client.getName());
             userActivity.setCreatedDate(random.nextBoolean() ? now.minusDays(1) : now);
             dataManager.saveWithoutReload(userActivity);
         });
@@ -442,7 +443,7 @@ public class DemoDataGenerator implements Ordered {
             ClientUserActivity userActivity = dataManager.create(ClientUserActivity.class);
             userActivity.setClient(order.getClient());
             userActivity.setUser(users.get(random.nextInt(users.size())));
-            userActivity.setActionDescription("Update order " + order.getNumber());
+            userActivity.describe(UserActivityAction.ORDER_UPDATED, order.getNumber());
             userActivity.setCreatedDate(random.nextBoolean() ? now.minusDays(1) : now);
             dataManager.saveWithoutReload(userActivity);
         });
@@ -0,0 +1,68 @@
+package com.company.crm.app.util.price;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic on {@code long} values scaled by 100, so that money and quantities
+ * with two decimal places are calculated without {@link BigDecimal} allocations.
+ * <p>
+ * Rounding is {@link java.math.RoundingMode#HALF_UP} and gives exactly the same results as {@link BigDecimal}.
+ * Conversions and operations throw {@link ArithmeticException} if a value can't be represented exactly
+ * or overflows, callers fall back to {@link BigDecimal} in that case.
+ */
+public final class Cents {
+
+    public static final int SCALE = 2;
+
+    private static final long ONE = 100;
+
+    /**
+     * @throws ArithmeticException if the value has more than two significant decimal places or doesn't fit
+     */
+    public static long of(@Nullable BigDecimal value) {
+        return value == null ? 0 : value.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long add(long cents, long otherCents) {
+        return Math.addExact(cents, otherCents);
+    }
+
+    public static long subtract(long cents, long otherCents) {
+        return Math.subtractExact(cents, otherCents);
+    }
+
+    /**
+     * Multiplies two values with two decimal places and rounds the product back to two decimal places.
+     */
+    public static long multiply(long cents, long hundredths) {
+        return divideHalfUp(Math.multiplyExact(cents, hundredths), ONE);
+    }
+
+    /**
+     * Multiplies a value by a percent with two decimal places and rounds the result to two decimal places.
+     */
+    public static long percent(long cents, long percentHundredths) {
+        return divideHalfUp(Math.multiplyExact(cents, percentHundredths), ONE * 100);
+    }
+
+    /**
+     * Divides with {@link java.math.RoundingMode#HALF_UP}: ties are rounded away from zero.
+     */
+    public static long divideHalfUp(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(value) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+
+    private Cents() {
+    }
+}
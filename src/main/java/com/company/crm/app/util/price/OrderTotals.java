@@ -0,0 +1,130 @@
+package com.company.crm.app.util.price;
+
+import com.company.crm.model.order.OrderItem;
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running items total, subtotal and VAT of an order.
+ * <p>
+ * Every item contribution is remembered, so that adding, changing or removing an item adjusts the sums
+ * by the difference instead of walking all items again. The sums are exactly the same as calculated by
+ * {@link PriceCalculator#calculateItemsTotal}, {@link PriceCalculator#calculateSubtotal} and
+ * {@link PriceCalculator#calculateVat}, as long as {@link #isExact()} is {@code true}.
+ * <p>
+ * Not thread-safe, an instance belongs to an order being edited.
+ */
+public final class OrderTotals {
+
+    private final Map<Object, Contribution> contributions = new HashMap<>();
+
+    private long itemsTotalCents;
+    private long subtotalCents;
+    private long vatUnrounded;
+    private int inexactItems;
+
+    public static OrderTotals of(@Nullable Collection<OrderItem> items) {
+        OrderTotals totals = new OrderTotals();
+        if (items != null) {
+            items.forEach(totals::put);
+        }
+        return totals;
+    }
+
+    /**
+     * Adds a new item or replaces the previous contribution of an already added one.
+     */
+    public void put(OrderItem item) {
+        Contribution contribution = Contribution.of(item);
+        Contribution previous = contributions.put(keyOf(item), contribution);
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(contribution, 1);
+    }
+
+    public void remove(OrderItem item) {
+        Contribution previous = contributions.remove(keyOf(item));
+        if (previous != null) {
+            apply(previous, -1);
+        }
+    }
+
+    public int size() {
+        return contributions.size();
+    }
+
+    /**
+     * Returns {@code false} if some item prices can't be represented in cents,
+     * the sums must be calculated with {@link PriceCalculator} then.
+     */
+    public boolean isExact() {
+        return inexactItems == 0;
+    }
+
+    public BigDecimal getItemsTotal() {
+        return Cents.toDecimal(itemsTotalCents);
+    }
+
+    public BigDecimal getSubtotal() {
+        return Cents.toDecimal(subtotalCents);
+    }
+
+    public BigDecimal getVat() {
+        return Cents.toDecimal(Cents.divideHalfUp(vatUnrounded, 100));
+    }
+
+    public boolean matches(@Nullable OrderTotals other) {
+        return other != null
+                && isExact() && other.isExact()
+                && contributions.keySet().equals(other.contributions.keySet())
+                && itemsTotalCents == other.itemsTotalCents
+                && subtotalCents == other.subtotalCents
+                && vatUnrounded == other.vatUnrounded;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderTotals{items=" + size()
+                + ", itemsTotal=" + getItemsTotal()
+                + ", subtotal=" + getSubtotal()
+                + ", vat=" + getVat()
+                + ", exact=" + isExact() + "}";
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        if (!contribution.exact()) {
+            inexactItems += sign;
+            return;
+        }
+        itemsTotalCents = Math.addExact(itemsTotalCents, sign * contribution.totalCents());
+        subtotalCents = Math.addExact(subtotalCents, sign * contribution.netTotalCents());
+        vatUnrounded = Math.addExact(vatUnrounded, sign * contribution.vatUnrounded());
+    }
+
+    private static Object keyOf(OrderItem item) {
+        // items are compared by id, so that a merged copy of an item replaces the original
+        return item.getId() != null ? item.getId() : item;
+    }
+
+    private record Contribution(long totalCents, long netTotalCents, long vatUnrounded, boolean exact) {
+
+        private static final Contribution INEXACT = new Contribution(0, 0, 0, false);
+
+        static Contribution of(OrderItem item) {
+            try {
+                return new Contribution(
+                        PriceCalculator.calculateTotalCents(item),
+                        PriceCalculator.calculateNetTotalCents(item),
+                        PriceCalculator.calculateVatTotalUnrounded(item),
+                        true);
+            } catch (ArithmeticException e) {
+                return INEXACT;
+            }
+        }
+    }
+}
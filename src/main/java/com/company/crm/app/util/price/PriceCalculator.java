@@ -30,7 +30,11 @@ public final class PriceCalculator {
             return BigDecimal.ZERO;
         }
 
-        return unitPrice.multiply(quantity).setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        try {
+            return Cents.toDecimal(calculateNetPrice(Cents.of(unitPrice), Cents.of(quantity)));
+        } catch (ArithmeticException e) {
+            return unitPrice.multiply(quantity).setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        }
     }
 
     public static BigDecimal calculateGrossPrice(OrderItem item) {
@@ -41,21 +45,57 @@ public final class PriceCalculator {
             return netPrice;
         }
 
-        return netPrice.add(vat).setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        try {
+            return Cents.toDecimal(Cents.add(Cents.of(netPrice), Cents.of(vat)));
+        } catch (ArithmeticException e) {
+            return netPrice.add(vat).setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        }
     }
 
     public static BigDecimal calculateTotal(OrderItem item) {
-        return zeroIfNull(item.getGrossPrice())
-                .multiply(zeroIfNull(item.getQuantity()))
-                .subtract(zeroIfNull(item.getDiscount()))
-                .setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        try {
+            return Cents.toDecimal(calculateTotal(
+                    Cents.of(item.getGrossPrice()), Cents.of(item.getQuantity()), Cents.of(item.getDiscount())));
+        } catch (ArithmeticException e) {
+            return zeroIfNull(item.getGrossPrice())
+                    .multiply(zeroIfNull(item.getQuantity()))
+                    .subtract(zeroIfNull(item.getDiscount()))
+                    .setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        }
     }
 
     public static BigDecimal calculateNetTotal(OrderItem item) {
-        return zeroIfNull(item.getNetPrice())
-                .multiply(zeroIfNull(item.getQuantity()))
-                .subtract(zeroIfNull(item.getDiscount()))
-                .setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        try {
+            return Cents.toDecimal(calculateTotal(
+                    Cents.of(item.getNetPrice()), Cents.of(item.getQuantity()), Cents.of(item.getDiscount())));
+        } catch (ArithmeticException e) {
+            return zeroIfNull(item.getNetPrice())
+                    .multiply(zeroIfNull(item.getQuantity()))
+                    .subtract(zeroIfNull(item.getDiscount()))
+                    .setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        }
+    }
+
+    /**
+     * Items total = sum of gross totals of all items.
+     */
+    public static BigDecimal calculateItemsTotal(Order order) {
+        List<OrderItem> orderItems = order.getOrderItems();
+        if (orderItems == null || orderItems.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        try {
+            long total = 0;
+            for (OrderItem item : orderItems) {
+                total = Cents.add(total, calculateTotalCents(item));
+            }
+            return Cents.toDecimal(total);
+        } catch (ArithmeticException e) {
+            return orderItems.stream()
+                    .map(PriceCalculator::calculateTotal)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
     }
 
     /**
@@ -67,10 +107,18 @@ public final class PriceCalculator {
             return BigDecimal.ZERO;
         }
 
-        return orderItems.stream()
-                .map(PriceCalculator::calculateNetTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        try {
+            long subtotal = 0;
+            for (OrderItem item : orderItems) {
+                subtotal = Cents.add(subtotal, calculateNetTotalCents(item));
+            }
+            return Cents.toDecimal(subtotal);
+        } catch (ArithmeticException e) {
+            return orderItems.stream()
+                    .map(PriceCalculator::calculateNetTotal)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        }
     }
 
     /**
@@ -82,14 +130,19 @@ public final class PriceCalculator {
         BigDecimal discountValue = order.getDiscountValue();
         BigDecimal discountPercent = order.getDiscountPercent();
 
-        if (discountPercent.compareTo(BigDecimal.ZERO) > 0) {
-            total = total.subtract(total.multiply(discountPercent)
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
-        } else if (discountValue.compareTo(BigDecimal.ZERO) > 0) {
-            total = total.subtract(discountValue);
+        try {
+            return Cents.toDecimal(calculateDiscountedTotal(
+                    Cents.of(total), Cents.of(discountValue), Cents.of(discountPercent)));
+        } catch (ArithmeticException e) {
+            if (discountPercent.compareTo(BigDecimal.ZERO) > 0) {
+                total = total.subtract(total.multiply(discountPercent)
+                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
+            } else if (discountValue.compareTo(BigDecimal.ZERO) > 0) {
+                total = total.subtract(discountValue);
+            }
+
+            return total.setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
         }
-
-        return total.setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
     }
 
     /**
@@ -101,10 +154,19 @@ public final class PriceCalculator {
             return BigDecimal.ZERO;
         }
 
-        return orderItems.stream()
-                .map(PriceCalculator::calculateVatTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        try {
+            // per-item VAT totals are summed unrounded, with four decimal places
+            long vat = 0;
+            for (OrderItem item : orderItems) {
+                vat = Math.addExact(vat, calculateVatTotalUnrounded(item));
+            }
+            return Cents.toDecimal(Cents.divideHalfUp(vat, 100));
+        } catch (ArithmeticException e) {
+            return orderItems.stream()
+                    .map(PriceCalculator::calculateVatTotal)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .setScale(DEFAULT_SCALE, DEFAULT_ROUNDING);
+        }
     }
 
     public static BigDecimal calculateVat(OrderItem item) {
@@ -159,6 +221,63 @@ public final class PriceCalculator {
         return zeroIfNull(invoice.getSubtotal()).add(zeroIfNull(invoice.getVat()));
     }
 
+    /**
+     * Net price in cents = unit price × quantity, the quantity is scaled by 100.
+     */
+    public static long calculateNetPrice(long unitPriceCents, long quantityHundredths) {
+        if (unitPriceCents <= 0 || quantityHundredths <= 0) {
+            return 0;
+        }
+        return Cents.multiply(unitPriceCents, quantityHundredths);
+    }
+
+    /**
+     * Item total in cents = price × quantity - discount, the quantity is scaled by 100.
+     */
+    public static long calculateTotal(long priceCents, long quantityHundredths, long discountCents) {
+        // the discount is subtracted before rounding, as ties are rounded away from zero
+        long total = Math.subtractExact(Math.multiplyExact(priceCents, quantityHundredths),
+                Math.multiplyExact(discountCents, 100));
+        return Cents.divideHalfUp(total, 100);
+    }
+
+    /**
+     * Order total in cents after the order discount: the percent discount has priority over the value discount.
+     */
+    public static long calculateDiscountedTotal(long itemsTotalCents, long discountValueCents,
+                                                long discountPercentHundredths) {
+        if (discountPercentHundredths > 0) {
+            return Cents.subtract(itemsTotalCents, Cents.percent(itemsTotalCents, discountPercentHundredths));
+        } else if (discountValueCents > 0) {
+            return Cents.subtract(itemsTotalCents, discountValueCents);
+        }
+        return itemsTotalCents;
+    }
+
+    /**
+     * @throws ArithmeticException if a price or quantity can't be represented in cents
+     */
+    static long calculateTotalCents(OrderItem item) {
+        return calculateTotal(Cents.of(item.getGrossPrice()), Cents.of(item.getQuantity()), Cents.of(item.getDiscount()));
+    }
+
+    /**
+     * @throws ArithmeticException if a price or quantity can't be represented in cents
+     */
+    static long calculateNetTotalCents(OrderItem item) {
+        return calculateTotal(Cents.of(item.getNetPrice()), Cents.of(item.getQuantity()), Cents.of(item.getDiscount()));
+    }
+
+    /**
+     * Item VAT total with four decimal places, it is rounded to cents only after summing up all items.
+     *
+     * @throws ArithmeticException if a price or quantity can't be represented in cents
+     */
+    static long calculateVatTotalUnrounded(OrderItem item) {
+        long itemVat = Cents.subtract(Cents.of(item.getGrossPrice()), Cents.of(item.getNetPrice()));
+        return Math.multiplyExact(itemVat, Cents.of(item.getQuantity()));
+    }
+
     private static BigDecimal zeroIfNull(BigDecimal value) {
         return Objects.requireNonNullElse(value, BigDecimal.ZERO);
     }
@@ -1,6 +1,8 @@
 package com.company.crm.app.util.ui.renderer;
 
+import com.company.crm.app.listener.FileDownloadServiceInitListener;
 import com.company.crm.app.service.datetime.DateTimeService;
+import com.company.crm.app.service.storage.ThumbnailService.ThumbnailSize;
 import com.company.crm.app.util.common.ThreadUtils;
 import com.company.crm.app.util.ui.CrmUiUtils;
 import com.company.crm.model.base.UuidEntity;
@@ -27,6 +29,7 @@ import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.grid.GridVariant;
 import com.vaadin.flow.component.html.H3;
+import com.vaadin.flow.component.html.Image;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.Icon;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
@@ -36,6 +39,7 @@ import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.data.renderer.Renderer;
 import com.vaadin.flow.spring.annotation.SpringComponent;
 import com.vaadin.flow.theme.lumo.LumoUtility.IconSize;
+import io.jmix.core.FileRef;
 import io.jmix.core.Messages;
 import io.jmix.core.MetadataTools;
 import io.jmix.core.metamodel.datatype.DatatypeFormatter;
@@ -71,10 +75,12 @@ public class CrmRenderers {
     private final DialogWindows dialogWindows;
     private final DateTimeService dateTimeService;
     private final DatatypeFormatter datatypeFormatter;
+    private final FileDownloadServiceInitListener fileDownloads;
 
     public CrmRenderers(UiComponents uiComponents, DialogWindows dialogWindows, Messages messages,
                         DatatypeFormatter datatypeFormatter, DateTimeService dateTimeService,
-                        UiAsyncTasks uiAsyncTasks, MetadataTools metadataTools) {
+                        UiAsyncTasks uiAsyncTasks, MetadataTools metadataTools,
+                        FileDownloadServiceInitListener fileDownloads) {
         this.messages = messages;
         this.uiComponents = uiComponents;
         this.dialogWindows = dialogWindows;
@@ -82,6 +88,7 @@ public class CrmRenderers {
         this.dateTimeService = dateTimeService;
         this.uiAsyncTasks = uiAsyncTasks;
         this.metadataTools = metadataTools;
+        this.fileDownloads = fileDownloads;
     }
 
     public <T> Renderer<T> itemDetailsColumnRenderer(DataGrid<T> grid) {
@@ -349,6 +356,32 @@ public class CrmRenderers {
         });
     }
 
+    public <T> Renderer<T> thumbnail(Function<T, FileRef> imageGetter) {
+        return new ComponentRenderer<>(item -> {
+            FileRef imageRef = imageGetter.apply(item);
+            Image image = new Image();
+            // shown at half size, so it stays sharp on high density screens
+            int size = ThumbnailSize.SMALL.getPixels() / 2;
+            image.setWidth(size, Unit.PIXELS);
+            image.setHeight(size, Unit.PIXELS);
+            image.getStyle().set("object-fit", "contain");
+            if (imageRef != null) {
+                image.setSrc(thumbnailSrc(imageRef, ThumbnailSize.SMALL));
+                image.setAlt(imageRef.getFileName());
+            } else {
+                image.setSrc("images/no_image.svg");
+            }
+            return image;
+        });
+    }
+
+    /**
+     * Returns the URL of the thumbnail of the image, see {@link FileDownloadServiceInitListener}.
+     */
+    public String thumbnailSrc(FileRef imageRef, ThumbnailSize size) {
+        return fileDownloads.getThumbnailUrl(imageRef, size);
+    }
+
     private Span createBadge(String text, String badgeVariant) {
         Span span = new Span(text);
         CrmUiUtils.setBadge(span, badgeVariant);
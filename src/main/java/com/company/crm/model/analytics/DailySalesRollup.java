@@ -0,0 +1,131 @@
+package com.company.crm.model.analytics;
+
+import com.company.crm.app.service.analytics.DailySalesRollupUpdater;
+import com.company.crm.model.base.UuidEntity;
+import com.company.crm.model.datatype.PriceDataType;
+import io.jmix.core.metamodel.annotation.JmixEntity;
+import io.jmix.core.metamodel.annotation.PropertyDatatype;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/// Orders or invoices aggregated by date, client and status.
+///
+/// Maintained by {@link DailySalesRollupUpdater}, never written through JPA
+@JmixEntity
+@Entity
+@Table(name = "DAILY_SALES_ROLLUP", indexes = {
+        @Index(name = "IDX_DAILY_SALES_ROLLUP_BUCKET", columnList = "KIND, CLIENT_ID, SALES_DATE, STATUS"),
+        @Index(name = "IDX_DAILY_SALES_ROLLUP_DATE", columnList = "KIND, SALES_DATE")
+})
+public class DailySalesRollup extends UuidEntity {
+
+    @Column(name = "KIND", nullable = false)
+    private String kind;
+
+    @Column(name = "SALES_DATE")
+    private LocalDate salesDate;
+
+    @Column(name = "CLIENT_ID", nullable = false)
+    private UUID clientId;
+
+    /// id of {@link com.company.crm.model.order.OrderStatus} or {@link com.company.crm.model.invoice.InvoiceStatus}
+    @Column(name = "STATUS")
+    private Integer status;
+
+    @Column(name = "ENTRIES_COUNT", nullable = false)
+    private Long entriesCount;
+
+    /// number of entries with not null total
+    @Column(name = "TOTAL_COUNT", nullable = false)
+    private Long totalCount;
+
+    @PropertyDatatype(PriceDataType.NAME)
+    @Column(name = "TOTAL_SUM", nullable = false)
+    private BigDecimal totalSum;
+
+    @PropertyDatatype(PriceDataType.NAME)
+    @Column(name = "TOTAL_MIN")
+    private BigDecimal totalMin;
+
+    @PropertyDatatype(PriceDataType.NAME)
+    @Column(name = "TOTAL_MAX")
+    private BigDecimal totalMax;
+
+    public DailySalesRollupKind getKind() {
+        return DailySalesRollupKind.fromId(kind);
+    }
+
+    public void setKind(DailySalesRollupKind kind) {
+        this.kind = kind == null ? null : kind.getId();
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public void setSalesDate(LocalDate salesDate) {
+        this.salesDate = salesDate;
+    }
+
+    public UUID getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(UUID clientId) {
+        this.clientId = clientId;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public Long getEntriesCount() {
+        return entriesCount;
+    }
+
+    public void setEntriesCount(Long entriesCount) {
+        this.entriesCount = entriesCount;
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public BigDecimal getTotalSum() {
+        return totalSum;
+    }
+
+    public void setTotalSum(BigDecimal totalSum) {
+        this.totalSum = totalSum;
+    }
+
+    public BigDecimal getTotalMin() {
+        return totalMin;
+    }
+
+    public void setTotalMin(BigDecimal totalMin) {
+        this.totalMin = totalMin;
+    }
+
+    public BigDecimal getTotalMax() {
+        return totalMax;
+    }
+
+    public void setTotalMax(BigDecimal totalMax) {
+        this.totalMax = totalMax;
+    }
+}
@@ -0,0 +1,13 @@
+package com.company.crm.model.analytics;
+
+import com.company.crm.app.util.enums.EnumUtils;
+import com.company.crm.model.base.DefaultStringEnumClass;
+
+public enum DailySalesRollupKind implements DefaultStringEnumClass<DailySalesRollupKind> {
+    ORDER,
+    INVOICE;
+
+    static DailySalesRollupKind fromId(String id) {
+        return EnumUtils.fromId(DailySalesRollupKind.class, id);
+    }
+}
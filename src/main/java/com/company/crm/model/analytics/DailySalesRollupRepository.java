@@ -0,0 +1,9 @@
+package com.company.crm.model.analytics;
+
+import com.company.crm.model.base.UuidEntityRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DailySalesRollupRepository extends UuidEntityRepository<DailySalesRollup> {
+
+}
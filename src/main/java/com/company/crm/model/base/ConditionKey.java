@@ -0,0 +1,81 @@
+package com.company.crm.model.base;
+
+import io.jmix.core.Entity;
+import io.jmix.core.entity.EntityValues;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.JpqlCondition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Builds string keys of {@link Condition} trees, equal for conditions selecting the same rows,
+ * e.g. to detect that filters of a list have changed. Entities are compared by id.
+ */
+public final class ConditionKey {
+
+    public static String of(@Nullable Condition condition) {
+        StringBuilder sb = new StringBuilder();
+        append(sb, condition);
+        return sb.toString();
+    }
+
+    /**
+     * Returns {@code true} if the condition doesn't restrict rows.
+     */
+    public static boolean isEmpty(@Nullable Condition condition) {
+        if (condition instanceof LogicalCondition logical) {
+            return logical.getConditions().stream().allMatch(ConditionKey::isEmpty);
+        }
+        return condition == null;
+    }
+
+    private static void append(StringBuilder sb, @Nullable Condition condition) {
+        switch (condition) {
+            case null -> sb.append("null");
+            case LogicalCondition logical -> {
+                sb.append(logical.getType()).append('(');
+                for (Condition child : logical.getConditions()) {
+                    append(sb, child);
+                    sb.append(',');
+                }
+                sb.append(')');
+            }
+            case PropertyCondition property -> sb.append(property.getProperty())
+                    .append(' ').append(property.getOperation())
+                    .append(' ').append(valueKey(property.getParameterValue()));
+            case JpqlCondition jpql -> sb.append(jpql.getJoin())
+                    .append(' ').append(jpql.getWhere())
+                    .append(' ').append(valueKey(jpql.getParameterValuesMap()));
+            default -> sb.append(condition.getClass().getName()).append('@').append(System.identityHashCode(condition));
+        }
+    }
+
+    @Nullable
+    private static Object valueKey(@Nullable Object value) {
+        if (value instanceof Entity entity) {
+            return EntityValues.getId(entity);
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().map(ConditionKey::valueKey).toList();
+        }
+        if (value instanceof Object[] array) {
+            return valueKey(Arrays.asList(array));
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> result = new TreeMap<>();
+            map.forEach((name, parameter) -> result.put(String.valueOf(name), Objects.toString(valueKey(parameter))));
+            return result;
+        }
+        return value;
+    }
+
+    private ConditionKey() {
+    }
+}
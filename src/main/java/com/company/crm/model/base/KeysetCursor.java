@@ -0,0 +1,36 @@
+package com.company.crm.model.base;
+
+import io.jmix.core.entity.EntityValues;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Position of a row in a sorted list: values of the sort properties and the id as a tiebreaker.
+ *
+ * @param values values of the sort properties in the order of the {@link Sort}, can contain {@code null}
+ * @param id     row id
+ */
+public record KeysetCursor(List<@Nullable Object> values, UUID id) implements Serializable {
+
+    /**
+     * Creates a cursor of the given row, returns {@code null} if some sort property isn't loaded.
+     */
+    @Nullable
+    public static KeysetCursor of(UuidEntity entity, Sort sort) {
+        List<@Nullable Object> values = new ArrayList<>();
+        try {
+            for (Sort.Order order : sort) {
+                values.add(EntityValues.getValueEx(entity, order.getProperty()));
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return new KeysetCursor(Collections.unmodifiableList(values), entity.getId());
+    }
+}
@@ -0,0 +1,191 @@
+package com.company.crm.model.base;
+
+import com.company.crm.app.util.context.AppContext;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
+import io.jmix.core.querycondition.PropertyCondition;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page request that continues from a known row instead of skipping {@link #offset()} rows.
+ * <p>
+ * Rows are ordered by {@link #sort()} and then by id, so the order is unique. Without a cursor the page
+ * is loaded by offset, like {@link OffsetLimitPageRequest}. The offset is kept in both cases, so that
+ * page numbers stay valid for pagination components.
+ *
+ * @param offset zero-based offset of the page
+ * @param limit  the size of the page
+ * @param sort   sort properties without the id
+ * @param cursor row to seek from, {@code null} to load by offset
+ * @param seek   position of the page relative to the cursor
+ */
+public record KeysetPageRequest(long offset, long limit, Sort sort,
+                                @Nullable KeysetCursor cursor, Seek seek) implements Pageable, Serializable {
+
+    /**
+     * {@code true} if the database sorts NULL values as the highest ones (PostgreSQL, Oracle),
+     * {@code false} if as the lowest ones (HSQLDB, MySQL, MS SQL).
+     */
+    public static final String NULLS_HIGHEST_PROPERTY = "crm.pagination.keyset.nulls-highest";
+
+    public enum Seek {
+        /**
+         * Rows following the cursor row.
+         */
+        AFTER,
+        /**
+         * The cursor row and rows following it.
+         */
+        FROM,
+        /**
+         * Rows preceding the cursor row, loaded in reverse order.
+         */
+        BEFORE
+    }
+
+    public KeysetPageRequest {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset index must not be less than zero!");
+        }
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must not be less than one!");
+        }
+    }
+
+    public static KeysetPageRequest ofOffset(long offset, long limit, Sort sort) {
+        return new KeysetPageRequest(offset, limit, sort, null, Seek.AFTER);
+    }
+
+    public boolean isBackward() {
+        return cursor != null && seek == Seek.BEFORE;
+    }
+
+    /**
+     * Returns the sort to load rows with: {@link #sort()} plus the id, reversed for {@link Seek#BEFORE}.
+     */
+    public Sort getLoadSort() {
+        Sort result = sort.and(Sort.by("id"));
+        return isBackward() ? result.reverse() : result;
+    }
+
+    /**
+     * Returns the condition selecting rows after (or before) the cursor in the order of {@link #getLoadSort()}.
+     */
+    @Nullable
+    public Condition getSeekCondition() {
+        if (cursor == null) {
+            return null;
+        }
+
+        boolean nullsHighest = AppContext.getBean(Environment.class)
+                .getProperty(NULLS_HIGHEST_PROPERTY, Boolean.class, false);
+
+        List<Sort.Order> orders = getLoadSort().toList();
+        List<@Nullable Object> values = new ArrayList<>(cursor.values());
+        values.add(cursor.id());
+
+        // (a, b, id) > (x, y, z)  <=>  a > x or (a = x and b > y) or (a = x and b = y and id > z)
+        LogicalCondition result = LogicalCondition.or();
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            boolean nullsFollow = order.isAscending() == nullsHighest;
+
+            Condition follows = i == orders.size() - 1
+                    ? followsId(order, cursor.id())
+                    : follows(order.getProperty(), values.get(i), order.isAscending(), nullsFollow);
+            if (follows == null) {
+                continue;
+            }
+
+            LogicalCondition branch = LogicalCondition.and();
+            for (int j = 0; j < i; j++) {
+                branch.add(equalTo(orders.get(j).getProperty(), values.get(j)));
+            }
+            branch.add(follows);
+            result.add(branch);
+        }
+        return result;
+    }
+
+    @Override
+    public int getPageNumber() {
+        return Math.toIntExact(offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return Math.toIntExact(limit);
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return sort;
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetLimitPageRequest(offset + limit, limit, sort);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetLimitPageRequest(Math.max(0, offset - limit), limit, sort) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetLimitPageRequest(0, limit, sort);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetLimitPageRequest(pageNumber * limit, limit, sort);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+
+    private Condition followsId(Sort.Order order, Object id) {
+        boolean inclusive = seek == Seek.FROM;
+        if (order.isAscending()) {
+            return inclusive ? PropertyCondition.greaterOrEqual("id", id) : PropertyCondition.greater("id", id);
+        }
+        return inclusive ? PropertyCondition.lessOrEqual("id", id) : PropertyCondition.less("id", id);
+    }
+
+    /**
+     * Condition of a property value following the given one in the sort order.
+     *
+     * @param nullsFollow whether NULL values follow all other values in this order
+     */
+    @Nullable
+    private static Condition follows(String property, @Nullable Object value, boolean ascending, boolean nullsFollow) {
+        if (value == null) {
+            return nullsFollow ? null : PropertyCondition.isSet(property, true);
+        }
+
+        Condition condition = ascending
+                ? PropertyCondition.greater(property, value)
+                : PropertyCondition.less(property, value);
+        return nullsFollow ? LogicalCondition.or(condition, PropertyCondition.isSet(property, false)) : condition;
+    }
+
+    private static Condition equalTo(String property, @Nullable Object value) {
+        return value == null ? PropertyCondition.isSet(property, false) : PropertyCondition.equal(property, value);
+    }
+}
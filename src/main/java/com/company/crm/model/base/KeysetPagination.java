@@ -0,0 +1,99 @@
+package com.company.crm.model.base;
+
+import com.company.crm.app.util.context.AppContext;
+import io.jmix.core.Metadata;
+import io.jmix.core.MetadataTools;
+import io.jmix.core.metamodel.model.MetaClass;
+import io.jmix.core.metamodel.model.MetaPropertyPath;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Keyset pagination state of a list, e.g. of a data loader of a list view.
+ * <p>
+ * Remembers the first and the last rows of the last loaded page. When the next, the previous or the same page
+ * is requested with the same conditions, sort and page size, rows are sought from these rows instead of
+ * skipping all rows before the page, so deep pages cost the same as the first one. Other pages, e.g. the last
+ * page of a pagination component, are loaded by offset.
+ *
+ * @see UuidEntityRepository#findAll(Pageable, JmixDataRepositoryContext, KeysetPagination)
+ */
+public class KeysetPagination implements Serializable {
+
+    @Nullable
+    private String listKey;
+    private long pageOffset;
+    @Nullable
+    private KeysetCursor first;
+    @Nullable
+    private KeysetCursor last;
+
+    /**
+     * Forgets the loaded page, the next page is loaded by offset.
+     */
+    public void reset() {
+        listKey = null;
+        first = null;
+        last = null;
+    }
+
+    KeysetPageRequest createPageRequest(Class<?> entityClass, Pageable pageable, JmixDataRepositoryContext context) {
+        Sort sort = Sort.by(pageable.getSort().filter(order -> !"id".equals(order.getProperty())).toList());
+        long offset = pageable.getOffset();
+        long limit = pageable.getPageSize();
+
+        String key = createListKey(context.condition(), sort, limit);
+        if (!key.equals(listKey) || first == null || last == null || !isSeekable(entityClass, sort)) {
+            return KeysetPageRequest.ofOffset(offset, limit, sort);
+        }
+
+        if (offset == pageOffset + limit) {
+            return new KeysetPageRequest(offset, limit, sort, last, KeysetPageRequest.Seek.AFTER);
+        }
+        if (offset == pageOffset - limit) {
+            return new KeysetPageRequest(offset, limit, sort, first, KeysetPageRequest.Seek.BEFORE);
+        }
+        if (offset == pageOffset) {
+            return new KeysetPageRequest(offset, limit, sort, first, KeysetPageRequest.Seek.FROM);
+        }
+        return KeysetPageRequest.ofOffset(offset, limit, sort);
+    }
+
+    void pageLoaded(KeysetPageRequest request, JmixDataRepositoryContext context, List<? extends UuidEntity> entities) {
+        if (entities.isEmpty()) {
+            reset();
+            return;
+        }
+
+        listKey = createListKey(context.condition(), request.sort(), request.limit());
+        pageOffset = request.offset();
+        first = KeysetCursor.of(entities.getFirst(), request.sort());
+        last = KeysetCursor.of(entities.getLast(), request.sort());
+    }
+
+    private static boolean isSeekable(Class<?> entityClass, Sort sort) {
+        MetaClass metaClass = AppContext.getBean(Metadata.class).getClass(entityClass);
+        MetadataTools metadataTools = AppContext.getBean(MetadataTools.class);
+        for (Sort.Order order : sort) {
+            MetaPropertyPath path = metaClass.getPropertyPath(order.getProperty());
+            if (path == null || !metadataTools.isJpa(path)) {
+                return false;
+            }
+            var range = path.getRange();
+            if (!range.isDatatype() && !range.isEnum()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String createListKey(@Nullable Condition condition, Sort sort, long limit) {
+        return ConditionKey.of(condition) + '|' + sort + '|' + limit;
+    }
+}
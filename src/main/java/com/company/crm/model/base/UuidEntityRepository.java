@@ -4,14 +4,20 @@ import io.jmix.core.FetchPlan;
 import io.jmix.core.FluentLoader;
 import io.jmix.core.FluentValueLoader;
 import io.jmix.core.FluentValuesLoader;
+import io.jmix.core.querycondition.Condition;
+import io.jmix.core.querycondition.LogicalCondition;
 import io.jmix.core.repository.JmixDataRepository;
 import io.jmix.core.repository.JmixDataRepositoryContext;
 import io.jmix.dynattr.DynAttrQueryHints;
 import org.jspecify.annotations.Nullable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.NoRepositoryBean;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -52,6 +58,49 @@ public interface UuidEntityRepository<T extends UuidEntity> extends JmixDataRepo
         return findAll(limit, null);
     }
 
+    /**
+     * Loads a page like {@link #findAll(Pageable, JmixDataRepositoryContext)}, but seeks the next, the previous
+     * or the same page from the rows of the page loaded before, see {@link KeysetPagination}.
+     * Doesn't count the total number of rows.
+     */
+    default List<T> findAll(Pageable pageable, JmixDataRepositoryContext context, KeysetPagination pagination) {
+        if (pageable.isUnpaged()) {
+            return findAll(pageable, context).getContent();
+        }
+
+        KeysetPageRequest request = pagination.createPageRequest(getEntityClass(), pageable, context);
+        List<T> entities = findAll(request, context);
+        pagination.pageLoaded(request, context, entities);
+        return entities;
+    }
+
+    default List<T> findAll(KeysetPageRequest request, JmixDataRepositoryContext context) {
+        LogicalCondition condition = LogicalCondition.and();
+        if (context.condition() != null) {
+            condition.add(context.condition());
+        }
+        Condition seekCondition = request.getSeekCondition();
+        if (seekCondition != null) {
+            condition.add(seekCondition);
+        }
+
+        var loader = fluentLoader().condition(condition)
+                .sort(toJmixSort(request.getLoadSort()))
+                .firstResult(request.cursor() == null ? Math.toIntExact(request.offset()) : 0)
+                .maxResults(request.getPageSize())
+                .hints(context.hints());
+        if (context.fetchPlan() != null) {
+            loader.fetchPlan(context.fetchPlan());
+        }
+
+        List<T> entities = loader.list();
+        if (request.isBackward()) {
+            entities = new ArrayList<>(entities);
+            Collections.reverse(entities);
+        }
+        return entities;
+    }
+
     Optional<T> findById(UUID id, JmixDataRepositoryContext context);
 
     default Optional<T> findByIdWithDynamicAttributes(UUID id, @Nullable FetchPlan fetchPlan) {
@@ -79,6 +128,16 @@ public interface UuidEntityRepository<T extends UuidEntity> extends JmixDataRepo
         return getDataManager().loadValue(query, valueClass);
     }
 
+    private static io.jmix.core.Sort toJmixSort(Sort sort) {
+        List<io.jmix.core.Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(order.isAscending()
+                    ? io.jmix.core.Sort.Order.asc(order.getProperty())
+                    : io.jmix.core.Sort.Order.desc(order.getProperty()));
+        }
+        return io.jmix.core.Sort.by(orders);
+    }
+
     default Class<T> getEntityClass() {
         Type[] interfaces = getClass().getInterfaces();
         for (Type t : interfaces) {
@@ -6,6 +6,7 @@ import com.company.crm.model.datatype.PriceDataType;
 import io.jmix.core.DeletePolicy;
 import io.jmix.core.FileRef;
 import io.jmix.core.entity.annotation.OnDeleteInverse;
+import io.jmix.core.entity.annotation.SystemLevel;
 import io.jmix.core.metamodel.annotation.Composition;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
@@ -60,11 +61,23 @@ public class CategoryItem extends FullAuditEntity {
     @Column(name = "PRICE", nullable = false)
     private BigDecimal price;
 
+    @SystemLevel
+    @Column(name = "IMPORT_FINGERPRINT", length = 64)
+    private String importFingerprint;
+
     @Composition
     @OrderBy("createdDate DESC")
     @OneToMany(mappedBy = "categoryItem", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CategoryItemComment> comments;
 
+    public String getImportFingerprint() {
+        return importFingerprint;
+    }
+
+    public void setImportFingerprint(String importFingerprint) {
+        this.importFingerprint = importFingerprint;
+    }
+
     public FileRef getImage() {
         return image;
     }
@@ -1,5 +1,6 @@
 package com.company.crm.model.client;
 
+import com.company.crm.app.service.util.BatchPropertiesResolver;
 import com.company.crm.model.address.Address;
 import com.company.crm.model.base.FullAuditEntity;
 import com.company.crm.model.contact.Contact;
@@ -26,6 +27,7 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -78,8 +80,16 @@ public class Client extends FullAuditEntity {
     @OneToMany(mappedBy = "client", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Contact> contacts;
 
+    /// Payments loaded by {@link BatchPropertiesResolver}
+    @Transient
+    private List<Payment> resolvedPayments;
+
     @DependsOnProperties("invoices")
     public List<Payment> getPayments() {
+        if (resolvedPayments != null) {
+            return resolvedPayments;
+        }
+
         List<Payment> payments = new ArrayList<>();
         if (invoices == null) {
             return payments;
@@ -92,6 +102,10 @@ public class Client extends FullAuditEntity {
         return payments;
     }
 
+    public void setResolvedPayments(List<Payment> resolvedPayments) {
+        this.resolvedPayments = resolvedPayments;
+    }
+
     @InstanceName
     @DependsOnProperties("name")
     public String getInstanceName(Messages messages) {
@@ -104,6 +118,7 @@ public class Client extends FullAuditEntity {
 
     public void setInvoices(List<Invoice> invoices) {
         this.invoices = invoices;
+        this.resolvedPayments = null;
     }
 
     public List<Order> getOrders() {
@@ -1,5 +1,6 @@
 package com.company.crm.model.invoice;
 
+import com.company.crm.app.service.finance.FinanceTotalsUpdater;
 import com.company.crm.model.HasUniqueNumber;
 import com.company.crm.model.base.FullAuditEntity;
 import com.company.crm.model.client.Client;
@@ -12,7 +13,6 @@ import io.jmix.core.entity.annotation.OnDelete;
 import io.jmix.core.metamodel.annotation.DependsOnProperties;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
-import io.jmix.core.metamodel.annotation.JmixProperty;
 import io.jmix.core.metamodel.annotation.PropertyDatatype;
 import io.jmix.core.metamodel.datatype.DatatypeFormatter;
 import jakarta.persistence.Column;
@@ -80,6 +80,11 @@ public class Invoice extends FullAuditEntity implements HasUniqueNumber {
     @Column(name = "STATUS")
     private Integer status;
 
+    /// Maintained by {@link FinanceTotalsUpdater}, never written through JPA
+    @PropertyDatatype(PriceDataType.NAME)
+    @Column(name = "PAID_AMOUNT", insertable = false, updatable = false)
+    private BigDecimal paymentsSum;
+
     @InstanceName
     @DependsOnProperties({"number", "date"})
     public String getInstanceName(DatatypeFormatter datatypeFormatter, Messages messages) {
@@ -90,16 +95,12 @@ public class Invoice extends FullAuditEntity implements HasUniqueNumber {
         }
     }
 
-    @JmixProperty
-    @DependsOnProperties({"payments"})
     public BigDecimal getPaymentsSum() {
-        if (payments == null || payments.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
+        return paymentsSum == null ? BigDecimal.ZERO : paymentsSum;
+    }
 
-        return payments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public void setPaymentsSum(BigDecimal paymentsSum) {
+        this.paymentsSum = paymentsSum;
     }
 
     public List<Payment> getPayments() {
@@ -1,8 +1,9 @@
 package com.company.crm.model.order;
 
-import com.company.crm.app.service.order.OrderService;
+import com.company.crm.app.service.finance.FinanceTotalsUpdater;
 import com.company.crm.app.service.util.UniqueNumbersService;
 import com.company.crm.app.util.context.AppContext;
+import com.company.crm.app.util.price.OrderTotals;
 import com.company.crm.app.util.price.PriceCalculator;
 import com.company.crm.model.HasUniqueNumber;
 import com.company.crm.model.base.FullAuditEntity;
@@ -31,10 +32,12 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.PositiveOrZero;
 import org.apache.commons.lang3.StringUtils;
+import org.jspecify.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -95,6 +98,20 @@ public class Order extends FullAuditEntity implements HasUniqueNumber {
     @Column(name = "STATUS")
     private Integer status;
 
+    /// Maintained by {@link FinanceTotalsUpdater}, never written through JPA
+    @PropertyDatatype(PriceDataType.NAME)
+    @Column(name = "PAID_AMOUNT", insertable = false, updatable = false)
+    private BigDecimal paid;
+
+    /// Maintained by {@link FinanceTotalsUpdater}, never written through JPA
+    @PropertyDatatype(PriceDataType.NAME)
+    @Column(name = "INVOICED_AMOUNT", insertable = false, updatable = false)
+    private BigDecimal invoiced;
+
+    /// Running totals of {@link #orderItems}, see {@link #trackItemTotals()}
+    @Transient
+    private OrderTotals itemTotals;
+
     public List<Invoice> getInvoices() {
         return invoices;
     }
@@ -109,6 +126,36 @@ public class Order extends FullAuditEntity implements HasUniqueNumber {
 
     public void setOrderItems(List<OrderItem> orderItems) {
         this.orderItems = orderItems;
+        this.itemTotals = null;
+    }
+
+    /**
+     * Starts maintaining running totals of the order items: items total, subtotal and VAT are then
+     * read from the returned {@link OrderTotals} instead of being recalculated from all items.
+     * The caller must report every item change to it.
+     */
+    public OrderTotals trackItemTotals() {
+        itemTotals = OrderTotals.of(orderItems);
+        return itemTotals;
+    }
+
+    /**
+     * Returns running totals started by {@link #trackItemTotals()}, if any.
+     */
+    @Nullable
+    public OrderTotals getItemTotals() {
+        return itemTotals;
+    }
+
+    /**
+     * Recalculates running totals from all items.
+     *
+     * @return {@code false} if the running totals differed from the recalculated ones
+     */
+    public boolean verifyItemTotals() {
+        OrderTotals tracked = itemTotals;
+        OrderTotals recalculated = trackItemTotals();
+        return tracked == null || tracked.matches(recalculated);
     }
 
     public OrderStatus getStatus() {
@@ -147,60 +194,54 @@ public class Order extends FullAuditEntity implements HasUniqueNumber {
     @DependsOnProperties({"orderItems"})
     @PropertyDatatype(PriceDataType.NAME)
     public BigDecimal getSubTotal() {
-        return calculateSubtotal(this);
+        OrderTotals totals = getValidItemTotals();
+        return totals != null ? totals.getSubtotal() : calculateSubtotal(this);
     }
 
     @JmixProperty
     @DependsOnProperties({"orderItems"})
     @PropertyDatatype(PriceDataType.NAME)
     public BigDecimal getVat() {
-        return PriceCalculator.calculateVat(this);
+        OrderTotals totals = getValidItemTotals();
+        return totals != null ? totals.getVat() : PriceCalculator.calculateVat(this);
     }
 
     @JmixProperty
     @DependsOnProperties({"orderItems"})
     @PropertyDatatype(PriceDataType.NAME)
     public BigDecimal getItemsTotal() {
-        BigDecimal total = BigDecimal.ZERO;
-
-        if (orderItems == null) {
-            return total;
-        }
-
-        for (OrderItem orderItem : orderItems) {
-            total = total.add(orderItem.getTotal());
-        }
-
-        return total;
+        OrderTotals totals = getValidItemTotals();
+        return totals != null ? totals.getItemsTotal() : PriceCalculator.calculateItemsTotal(this);
     }
 
-    /// @see OrderService#getLeftOverSum
+    /// left over = total - paid, but not less than zero
     @JmixProperty
+    @DependsOnProperties({"total", "paid"})
     @PropertyDatatype(PriceDataType.NAME)
     public BigDecimal getLeftOverSum() {
-        return getOrderService().getLeftOverSum(this);
+        BigDecimal result = getTotal().subtract(getPaid());
+        if (result.compareTo(BigDecimal.ZERO) < 0) {
+            return BigDecimal.ZERO;
+        }
+        return result;
     }
 
-    ///  @see OrderService#getPaid
-    @JmixProperty
-    @PropertyDatatype(PriceDataType.NAME)
+    /// paid = sum of payments of all order invoices
     public BigDecimal getPaid() {
-        return getOrderService().getPaid(this);
+        return paid == null ? BigDecimal.ZERO : paid;
+    }
+
+    public void setPaid(BigDecimal paid) {
+        this.paid = paid;
     }
 
     /// invoiced = sum of {@link Invoice#getSubtotal()}
-    @JmixProperty
-    @DependsOnProperties({"invoices"})
-    @PropertyDatatype(PriceDataType.NAME)
     public BigDecimal getInvoiced() {
-        List<Invoice> invoices = getInvoices();
-        if (invoices == null || invoices.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
+        return invoiced == null ? BigDecimal.ZERO : invoiced;
+    }
 
-        return invoices.stream()
-                .map(Invoice::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public void setInvoiced(BigDecimal invoiced) {
+        this.invoiced = invoiced;
     }
 
     @InstanceName
@@ -259,11 +300,15 @@ public class Order extends FullAuditEntity implements HasUniqueNumber {
         setPurchaseOrder(generateNextPurchaseOrderNumber());
     }
 
-    private static String generateNextPurchaseOrderNumber() {
-        return AppContext.getBean(UniqueNumbersService.class).getNextPurchaseOrderNumber();
+    @Nullable
+    private OrderTotals getValidItemTotals() {
+        OrderTotals totals = itemTotals;
+        int itemsCount = orderItems == null ? 0 : orderItems.size();
+        // an item count mismatch means a change that wasn't reported, items are recalculated then
+        return totals != null && totals.isExact() && totals.size() == itemsCount ? totals : null;
     }
 
-    private OrderService getOrderService() {
-        return AppContext.getBean(OrderService.class);
+    private static String generateNextPurchaseOrderNumber() {
+        return AppContext.getBean(UniqueNumbersService.class).getNextPurchaseOrderNumber();
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.company.crm.model.payment;
 
+import com.company.crm.app.service.util.BatchPropertiesResolver;
 import com.company.crm.model.HasUniqueNumber;
 import com.company.crm.model.base.FullAuditEntity;
 import com.company.crm.model.client.Client;
@@ -21,6 +22,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.PositiveOrZero;
 import org.apache.commons.lang3.StringUtils;
 
@@ -49,22 +51,36 @@ public class Payment extends FullAuditEntity implements HasUniqueNumber {
     @Column(name = "AMOUNT")
     private BigDecimal amount;
 
+    /// Invoice with order and client loaded by {@link BatchPropertiesResolver}
+    @Transient
+    private Invoice resolvedInvoice;
+
     @JmixProperty
     @DependsOnProperties("invoice")
     public Order getOrder() {
-        if (invoice == null) {
+        Invoice source = getSourceInvoice();
+        if (source == null) {
             return null;
         }
-        return invoice.getOrder();
+        return source.getOrder();
     }
 
     @JmixProperty
     @DependsOnProperties("invoice")
     public Client getClient() {
-        if (invoice == null) {
+        Invoice source = getSourceInvoice();
+        if (source == null) {
             return null;
         }
-        return invoice.getClient();
+        return source.getClient();
+    }
+
+    public void setResolvedInvoice(Invoice resolvedInvoice) {
+        this.resolvedInvoice = resolvedInvoice;
+    }
+
+    private Invoice getSourceInvoice() {
+        return resolvedInvoice != null ? resolvedInvoice : invoice;
     }
 
     @InstanceName
@@ -99,6 +115,7 @@ public class Payment extends FullAuditEntity implements HasUniqueNumber {
 
     public void setInvoice(Invoice invoice) {
         this.invoice = invoice;
+        this.resolvedInvoice = null;
     }
 
     public String getNumber() {
@@ -4,6 +4,7 @@ import com.company.crm.model.base.CreateAuditEntity;
 import com.company.crm.model.user.User;
 import io.jmix.core.DeletePolicy;
 import io.jmix.core.entity.annotation.OnDeleteInverse;
+import io.jmix.core.metamodel.annotation.DependsOnProperties;
 import io.jmix.core.metamodel.annotation.InstanceName;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.Column;
@@ -12,23 +13,57 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PrePersist;
+import org.jspecify.annotations.Nullable;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Activity of a user.
+ * <p>
+ * Activities are bucketed by {@link #getCreatedMonth() month}: queries by creation date also filter by the month
+ * to use the month indexes, and old activities are compacted and removed month by month, see
+ * {@link com.company.crm.app.service.user.UserActivityRetention}.
+ * <p>
+ * New activities store an {@link #getAction() action} with parameters, the {@link #getActionDescription() description}
+ * is formatted from them. The description text is stored only by activities created before actions were introduced.
+ */
 @JmixEntity
 @MappedSuperclass
 public abstract class UserActivity extends CreateAuditEntity {
 
+    private static final String PARAMETER_SEPARATOR = "\u001F";
+
     @OnDeleteInverse(DeletePolicy.CASCADE)
     @JoinColumn(name = "USER_ID")
     @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
     @Lob
-    @InstanceName
-    @Column(name = "ACTION_DESCRIPTION", nullable = false)
+    @Column(name = "ACTION_DESCRIPTION")
     private String actionDescription;
 
+    @Column(name = "ACTION_CODE", length = 50)
+    private String action;
+
+    @Column(name = "ACTION_PARAMS", length = 1000)
+    private String actionParams;
+
+    @Column(name = "CREATED_MONTH")
+    private Integer createdMonth;
+
+    /**
+     * Returns the stored description text or formats the description of the action.
+     */
     public String getActionDescription() {
-        return actionDescription;
+        UserActivityAction action = getAction();
+        if (actionDescription != null || action == null) {
+            return actionDescription;
+        }
+        return action.format(getActionParameters());
     }
 
     public void setActionDescription(String actionDescription) {
@@ -43,4 +78,62 @@ public abstract class UserActivity extends CreateAuditEntity {
         this.user = user;
     }
 
-}
\ No newline at end of file
+    @InstanceName
+    @DependsOnProperties({"actionDescription", "action", "actionParams"})
+    public String getInstanceName() {
+        return getActionDescription();
+    }
+
+    @Nullable
+    public UserActivityAction getAction() {
+        return UserActivityAction.fromId(action);
+    }
+
+    public void setAction(@Nullable UserActivityAction action) {
+        this.action = action == null ? null : action.getId();
+    }
+
+    public String getActionParams() {
+        return actionParams;
+    }
+
+    public void setActionParams(String actionParams) {
+        this.actionParams = actionParams;
+    }
+
+    public List<String> getActionParameters() {
+        return actionParams == null ? List.of() : Arrays.asList(actionParams.split(PARAMETER_SEPARATOR, -1));
+    }
+
+    public void describe(UserActivityAction action, String... parameters) {
+        setAction(action);
+        setActionParams(joinParameters(parameters));
+    }
+
+    /**
+     * Year and month of {@link #getCreatedDate()} in UTC as {@code yyyyMM}, see {@link #monthOf(OffsetDateTime)}.
+     */
+    public Integer getCreatedMonth() {
+        return createdMonth;
+    }
+
+    public void setCreatedMonth(Integer createdMonth) {
+        this.createdMonth = createdMonth;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        OffsetDateTime createdDate = getCreatedDate();
+        setCreatedMonth(monthOf(createdDate == null ? OffsetDateTime.now() : createdDate));
+    }
+
+    public static int monthOf(OffsetDateTime dateTime) {
+        OffsetDateTime utc = dateTime.withOffsetSameInstant(ZoneOffset.UTC);
+        return utc.getYear() * 100 + utc.getMonthValue();
+    }
+
+    @Nullable
+    public static String joinParameters(String... parameters) {
+        return parameters.length == 0 ? null : String.join(PARAMETER_SEPARATOR, parameters);
+    }
+}
@@ -0,0 +1,56 @@
+package com.company.crm.model.user.activity;
+
+import com.company.crm.app.util.enums.EnumUtils;
+import io.jmix.core.metamodel.datatype.EnumClass;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Kind of a {@link UserActivity}. Activities store the action and its parameters instead of the description text,
+ * the description is formatted from the {@link #getTemplate() template} when read.
+ */
+public enum UserActivityAction implements EnumClass<String> {
+
+    CLIENT_ADDED("CLIENT_ADDED", "%s client added"),
+    CLIENT_UPDATED("CLIENT_UPDATED", "%s profile updated"),
+    ORDER_CREATED("ORDER_CREATED", "Create order %s"),
+    ORDER_UPDATED("ORDER_UPDATED", "Update order %s"),
+    PROFILE_UPDATED("PROFILE_UPDATED", "Update profile info"),
+    /**
+     * Activities of a user on a client within a month, replaced by a single one on compaction.
+     * The parameter is the number of activities.
+     */
+    CLIENT_SUMMARY("CLIENT_SUMMARY", "%s client activities"),
+    /**
+     * Profile updates of a user within a month, replaced by a single one on compaction.
+     * The parameter is the number of updates.
+     */
+    PROFILE_SUMMARY("PROFILE_SUMMARY", "%s profile updates");
+
+    private final String id;
+    private final String template;
+
+    UserActivityAction(String id, String template) {
+        this.id = id;
+        this.template = template;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public String format(List<String> parameters) {
+        return template.formatted(parameters.toArray());
+    }
+
+    @Nullable
+    public static UserActivityAction fromId(@Nullable String id) {
+        return EnumUtils.fromId(UserActivityAction.class, id);
+    }
+}
@@ -15,7 +15,9 @@ import jakarta.persistence.Table;
 @JmixEntity
 @Table(name = "CLIENT_USER_ACITIVTY", indexes = {
         @Index(name = "IDX_CLIENT_USER_ACITIVTY_UER", columnList = "USER_ID"),
-        @Index(name = "IDX_CLIENT_USER_ACITIVTY_CLIENT", columnList = "CLIENT_ID")
+        @Index(name = "IDX_CLIENT_USER_ACITIVTY_CLIENT", columnList = "CLIENT_ID"),
+        @Index(name = "IDX_CLIENT_USER_ACITIVTY_MONTH", columnList = "CREATED_MONTH, CREATED_DATE"),
+        @Index(name = "IDX_CLIENT_USER_ACITIVTY_USER_MONTH", columnList = "USER_ID, CREATED_MONTH, CREATED_DATE")
 })
 @Entity
 public class ClientUserActivity extends UserActivity {
@@ -21,9 +21,14 @@ public interface ClientUserActivityRepository extends UserActivityRepository<Cli
     @Query("select u from ClientUserActivity u where u.user = ?1 and u.createdDate between ?2 and ?3 order by u.createdDate desc")
     List<ClientUserActivity> findAllByUserAndCreatedDateBetween(User user, OffsetDateTime start, OffsetDateTime end, Pageable pageable);
 
-    @Query("select u from ClientUserActivity u where u.client = ?1 and u.createdDate between ?2 and ?3 order by u.createdDate desc")
-    List<ClientUserActivity> findAllByClientAndCreatedDateBetween(Client client, OffsetDateTime start, OffsetDateTime end, Pageable pageable);
-
-    @Query("select u from ClientUserActivity u where u.client = ?1 and u.user = ?2 and u.createdDate between ?3 and ?4 order by u.createdDate desc")
-    List<ClientUserActivity> findAllByClientAndUserAndCreatedDateBetween(Client client, User user, OffsetDateTime start, OffsetDateTime end, Pageable pageable);
+    @Query("select u from ClientUserActivity u where u.client = ?1 and u.createdMonth between ?2 and ?3 " +
+            "and u.createdDate between ?4 and ?5 order by u.createdDate desc")
+    List<ClientUserActivity> findAllByClientAndCreatedMonthBetweenAndCreatedDateBetween(
+            Client client, int startMonth, int endMonth, OffsetDateTime start, OffsetDateTime end, Pageable pageable);
+
+    @Query("select u from ClientUserActivity u where u.client = ?1 and u.user = ?2 and u.createdMonth between ?3 and ?4 " +
+            "and u.createdDate between ?5 and ?6 order by u.createdDate desc")
+    List<ClientUserActivity> findAllByClientAndUserAndCreatedMonthBetweenAndCreatedDateBetween(
+            Client client, User user, int startMonth, int endMonth,
+            OffsetDateTime start, OffsetDateTime end, Pageable pageable);
 }
\ No newline at end of file
@@ -3,10 +3,14 @@ package com.company.crm.model.user.activity.userprofile;
 import com.company.crm.model.user.activity.UserActivity;
 import io.jmix.core.metamodel.annotation.JmixEntity;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @JmixEntity
-@Table(name = "USER_PROFILE_USER_ACITIVTY")
+@Table(name = "USER_PROFILE_USER_ACITIVTY", indexes = {
+        @Index(name = "IDX_USER_PROFILE_USER_ACITIVTY_MONTH", columnList = "CREATED_MONTH, CREATED_DATE"),
+        @Index(name = "IDX_USER_PROFILE_USER_ACITIVTY_USER_MONTH", columnList = "USER_ID, CREATED_MONTH, CREATED_DATE")
+})
 @Entity
 public class UserProfileUserActivity extends UserActivity {
 }
\ No newline at end of file
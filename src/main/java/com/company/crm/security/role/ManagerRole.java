@@ -1,6 +1,7 @@
 package com.company.crm.security.role;
 
 import com.company.crm.model.address.Address;
+import com.company.crm.model.analytics.DailySalesRollup;
 import com.company.crm.model.catalog.category.Category;
 import com.company.crm.model.catalog.item.CategoryItem;
 import com.company.crm.model.catalog.item.CategoryItemComment;
@@ -98,4 +99,7 @@ public interface ManagerRole extends UiMinimalRole {
 
     @EntityPolicy(entityClass = CrmSettings.class, actions = EntityPolicyAction.READ)
     void crmSettings();
+
+    @EntityPolicy(entityClass = DailySalesRollup.class, actions = EntityPolicyAction.READ)
+    void dailySalesRollup();
 }
\ No newline at end of file
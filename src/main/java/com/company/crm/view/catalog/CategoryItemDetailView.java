@@ -1,18 +1,19 @@
 package com.company.crm.view.catalog;
 
+import com.company.crm.app.listener.FileDownloadServiceInitListener;
+import com.company.crm.app.service.storage.ThumbnailService.ThumbnailSize;
 import com.company.crm.app.util.constant.CrmConstants;
 import com.company.crm.app.util.ui.listener.resize.WidthResizeListener;
+import com.company.crm.app.util.ui.renderer.CrmRenderers;
 import com.company.crm.model.catalog.item.CategoryItem;
 import com.company.crm.model.catalog.item.CategoryItemRepository;
 import com.company.crm.view.main.MainView;
 import com.vaadin.flow.component.AbstractField;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.splitlayout.SplitLayout;
 import com.vaadin.flow.router.Route;
-import com.vaadin.flow.server.streams.DownloadHandler;
-import com.vaadin.flow.server.streams.DownloadResponse;
 import io.jmix.core.FetchPlan;
 import io.jmix.core.FileRef;
-import io.jmix.core.FileStorage;
 import io.jmix.core.SaveContext;
 import io.jmix.flowui.component.image.JmixImage;
 import io.jmix.flowui.component.splitlayout.JmixSplitLayout;
@@ -31,8 +32,6 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
-import static com.vaadin.flow.server.streams.DownloadHandler.fromInputStream;
-
 @Route(value = "products/:id", layout = MainView.class)
 @ViewController(id = CrmConstants.ViewIds.CATEGORY_ITEM_DETAIL)
 @ViewDescriptor(path = "category-item-detail-view.xml")
@@ -40,7 +39,9 @@ import static com.vaadin.flow.server.streams.DownloadHandler.fromInputStream;
 public class CategoryItemDetailView extends StandardDetailView<CategoryItem> implements WidthResizeListener {
 
     @Autowired
-    private FileStorage fileStorage;
+    private CrmRenderers crmRenderers;
+    @Autowired
+    private FileDownloadServiceInitListener fileDownloads;
     @Autowired
     private CategoryItemRepository itemRepository;
 
@@ -64,6 +65,7 @@ public class CategoryItemDetailView extends StandardDetailView<CategoryItem> imp
     private void onInit(InitEvent event) {
         imageUpload.setAcceptedFileTypes("image/*");
         imageUpload.addValueChangeListener(this::updateImagePreview);
+        image.addClickListener(e -> openOriginalImage());
 
     }
 
@@ -79,13 +81,22 @@ public class CategoryItemDetailView extends StandardDetailView<CategoryItem> imp
 
     private void updateImagePreview(AbstractField.ComponentValueChangeEvent<FileStorageUploadField, FileRef> e) {
         Optional.ofNullable(e.getValue()).ifPresentOrElse(
-                value -> image.setSrc(createImageSrc(value)),
+                value -> {
+                    // a new upload isn't referenced by a saved item yet
+                    fileDownloads.grantSessionAccess(value);
+                    image.setSrc(createImageSrc(value));
+                },
                 () -> image.setSrc("images/no_image.svg"));
     }
 
-    private DownloadHandler createImageSrc(FileRef fileRef) {
-        return fromInputStream(downloadEvent ->
-                new DownloadResponse(fileStorage.openStream(fileRef),
-                        fileRef.getFileName(), fileRef.getContentType(), -1));
+    private void openOriginalImage() {
+        FileRef imageRef = imageUpload.getValue();
+        if (imageRef != null) {
+            UI.getCurrent().getPage().open(fileDownloads.getUrl(imageRef), "_blank");
+        }
+    }
+
+    private String createImageSrc(FileRef fileRef) {
+        return crmRenderers.thumbnailSrc(fileRef, ThumbnailSize.LARGE);
     }
 }
\ No newline at end of file
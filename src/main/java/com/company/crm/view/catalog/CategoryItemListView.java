@@ -1,10 +1,13 @@
 package com.company.crm.view.catalog;
 
 import com.company.crm.app.feature.queryparameters.filters.FieldValueQueryParameterBinder;
+import com.company.crm.app.feature.totalcount.TotalCounts;
+import com.company.crm.app.service.catalog.CatalogImportResult;
 import com.company.crm.app.service.catalog.CatalogImportSettings;
 import com.company.crm.app.service.catalog.CatalogService;
 import com.company.crm.app.util.constant.CrmConstants;
 import com.company.crm.app.util.ui.renderer.CrmRenderers;
+import com.company.crm.model.base.KeysetPagination;
 import com.company.crm.model.catalog.category.Category;
 import com.company.crm.model.catalog.category.CategoryRepository;
 import com.company.crm.model.catalog.item.CategoryItem;
@@ -12,11 +15,14 @@ import com.company.crm.model.catalog.item.CategoryItemRepository;
 import com.company.crm.view.main.MainView;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.data.renderer.Renderer;
 import com.vaadin.flow.router.Route;
 import io.jmix.core.querycondition.LogicalCondition;
 import io.jmix.core.repository.JmixDataRepositoryContext;
+import io.jmix.flowui.Notifications;
 import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.component.pagination.SimplePagination;
 import io.jmix.flowui.component.select.JmixSelect;
 import io.jmix.flowui.component.textfield.TypedTextField;
 import io.jmix.flowui.component.upload.FileUploadField;
@@ -26,6 +32,7 @@ import io.jmix.flowui.model.CollectionLoader;
 import io.jmix.flowui.view.DialogMode;
 import io.jmix.flowui.view.Install;
 import io.jmix.flowui.view.LookupComponent;
+import io.jmix.flowui.view.MessageBundle;
 import io.jmix.flowui.view.StandardListView;
 import io.jmix.flowui.view.Subscribe;
 import io.jmix.flowui.view.Supply;
@@ -40,6 +47,7 @@ import java.io.ByteArrayInputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.company.crm.app.util.ui.CrmUiUtils.addRowSelectionInMultiSelectMode;
 import static com.company.crm.app.util.ui.CrmUiUtils.setSearchHintPopover;
@@ -59,9 +67,15 @@ public class CategoryItemListView extends StandardListView<CategoryItem> {
     @Autowired
     private CategoryItemRepository itemRepository;
     @Autowired
+    private TotalCounts totalCounts;
+    @Autowired
     private CategoryRepository categoryRepository;
     @Autowired
     private CatalogService catalogService;
+    @Autowired
+    private Notifications notifications;
+    @ViewComponent
+    private MessageBundle messageBundle;
 
     @ViewComponent
     private TypedTextField<String> items_searchField;
@@ -70,9 +84,14 @@ public class CategoryItemListView extends StandardListView<CategoryItem> {
     @ViewComponent
     private CollectionLoader<CategoryItem> categoryItemsDl;
     @ViewComponent
+    private SimplePagination items_pagination;
+    @ViewComponent
+    private Span totalCountLabel;
+    @ViewComponent
     private FileUploadField updateCatalogField;
 
     private final LogicalCondition filtersCondition = LogicalCondition.and();
+    private final KeysetPagination keysetPagination = new KeysetPagination();
     @ViewComponent
     private DataGrid<CategoryItem> categoryItemsDataGrid;
 
@@ -84,12 +103,14 @@ public class CategoryItemListView extends StandardListView<CategoryItem> {
 
     @Install(to = "categoryItemsDl", target = Target.DATA_LOADER, subject = "loadFromRepositoryDelegate")
     private List<CategoryItem> loadDelegate(Pageable pageable, JmixDataRepositoryContext context) {
-        return itemRepository.findAll(pageable, addCondition(context, filtersCondition)).getContent();
+        return itemRepository.findAll(pageable, addCondition(context, filtersCondition), keysetPagination);
     }
 
     @Install(to = "items_pagination", subject = "totalCountByRepositoryDelegate")
     private Long paginationTotalCountByRepositoryDelegate(final JmixDataRepositoryContext context) {
-        return itemRepository.count(addCondition(context, filtersCondition));
+        JmixDataRepositoryContext filteredContext = addCondition(context, filtersCondition);
+        return totalCounts.countForPagination(CrmConstants.ViewIds.CATEGORY_ITEM_LIST, itemRepository, filteredContext,
+                categoryItemsDl, items_pagination, totalCountLabel);
     }
 
     @Install(to = "categoryItemsDataGrid.removeAction", subject = "delegate")
@@ -97,6 +118,11 @@ public class CategoryItemListView extends StandardListView<CategoryItem> {
         itemRepository.deleteAll(collection);
     }
 
+    @Supply(to = "categoryItemsDataGrid.image", subject = "renderer")
+    private Renderer<CategoryItem> categoryItemsDataGridImageRenderer() {
+        return crmRenderers.thumbnail(CategoryItem::getImage);
+    }
+
     @Supply(to = "categoryItemsDataGrid.name", subject = "renderer")
     private Renderer<CategoryItem> categoryItemsDataGridNameRenderer() {
         return crmRenderers.entityLink(Function.identity());
@@ -118,7 +144,8 @@ public class CategoryItemListView extends StandardListView<CategoryItem> {
         if (content != null) {
             ByteArrayInputStream inputStream = new ByteArrayInputStream(content);
             CatalogImportSettings importSettings = new CatalogImportSettings(inputStream);
-            catalogService.updateCatalog(importSettings);
+            CatalogImportResult result = catalogService.importCatalog(importSettings);
+            showImportResult(result);
             categoryItemsDl.load();
         }
     }
@@ -129,6 +156,28 @@ public class CategoryItemListView extends StandardListView<CategoryItem> {
         categoryItemsDl.load();
     }
 
+    private void showImportResult(CatalogImportResult result) {
+        CatalogImportResult.CategoryChanges categoryChanges = result.categoryChanges();
+        CatalogImportResult.ItemChanges itemChanges = result.itemChanges();
+        String message = messageBundle.formatMessage("catalogImported",
+                categoryChanges.created(), categoryChanges.updated(), categoryChanges.unchanged(),
+                itemChanges.created(), itemChanges.updated(), itemChanges.unchanged(), itemChanges.removed());
+        if (!result.hasErrors()) {
+            notifications.create(message).withType(Notifications.Type.SUCCESS).show();
+            return;
+        }
+
+        String errors = result.errors().stream()
+                .limit(5)
+                .map(CatalogImportResult.RowError::toString)
+                .collect(Collectors.joining("; "));
+        notifications.create(message, messageBundle.formatMessage("catalogImportErrors", result.errorCount(), errors))
+                .withType(Notifications.Type.WARNING)
+                .withCloseable(true)
+                .withDuration(0)
+                .show();
+    }
+
     private void initialize() {
         loadData();
         initializeFilterFields();
@@ -2,6 +2,7 @@ package com.company.crm.view.client;
 
 import com.company.crm.app.feature.queryparameters.tab.TabIndexUrlQueryParameterBinder;
 import com.company.crm.app.service.client.ClientService;
+import com.company.crm.app.service.client.ClientStatsSnapshot;
 import com.company.crm.app.service.client.CompletedOrdersByDateRangeInfo;
 import com.company.crm.app.service.datetime.DateTimeService;
 import com.company.crm.app.ui.component.CrmCard;
@@ -19,7 +20,6 @@ import com.company.crm.model.client.ClientRepository;
 import com.company.crm.model.datatype.PriceDataType;
 import com.company.crm.model.invoice.Invoice;
 import com.company.crm.model.order.Order;
-import com.company.crm.model.order.OrderStatus;
 import com.company.crm.model.payment.Payment;
 import com.company.crm.view.address.AddressFragment;
 import com.company.crm.view.main.MainView;
@@ -175,7 +175,6 @@ public class ClientDetailView extends StandardDetailView<Client> implements Widt
         clientName.setText(getEditedEntity().getInstanceName(messages));
         initializeRecentActivities();
         initializeSummaryBlock();
-        initializeOutstandingBalance();
         initializeAnalyticsBlock();
     }
 
@@ -281,21 +280,9 @@ public class ClientDetailView extends StandardDetailView<Client> implements Widt
         installCardLoader(ordersTotalSumCard);
         installCardLoader(paymentsTotalSumCard);
         installCardLoader(averageBillCard);
-
-        scheduleOrdersTotalSumCalculating(client);
-        schedulePaymentsTotalSumCalculating(client);
-        scheduleAverageBillCalculating(client);
-    }
-
-    private void initializeOutstandingBalance() {
-        Client client = getEditedEntity();
         outstandingBalanceValue.setText("...");
 
-        SupplierConfigurer<BigDecimal> taskConfigurer = uiAsyncTasks
-                .supplierConfigurer(() -> calculateOutstandingBalance(client))
-                .withExceptionHandler(e -> outstandingBalanceValue.setText("-"))
-                .withResultHandler(total -> outstandingBalanceValue.setText(PriceDataType.defaultFormat(total)));
-        asyncTasksRegistry.placeTask("outstandingBalanceTask", taskConfigurer);
+        scheduleStatsCalculating(client);
     }
 
     private void initializeAnalyticsBlock() {
@@ -312,48 +299,27 @@ public class ClientDetailView extends StandardDetailView<Client> implements Widt
         SkeletonStyler.apply(card);
     }
 
-    private void scheduleOrdersTotalSumCalculating(Client client) {
-        SupplierConfigurer<BigDecimal> taskConfigurer = uiAsyncTasks
-                .supplierConfigurer(() -> calculateOrdersTotalSum(client))
-                .withExceptionHandler(e -> SkeletonStyler.remove(ordersTotalSumCard))
-                .withResultHandler(total -> fillSummaryCard(messages.getMessage("ordersTotal"), ordersTotalSumCard, total));
-        asyncTasksRegistry.placeTask("ordersTotalSumTask", taskConfigurer);
-    }
-
-    private void schedulePaymentsTotalSumCalculating(Client client) {
-        SupplierConfigurer<BigDecimal> taskConfigurer = uiAsyncTasks
-                .supplierConfigurer(() -> calculatePaymentsTotalSum(client))
-                .withExceptionHandler(e -> SkeletonStyler.remove(paymentsTotalSumCard))
-                .withResultHandler(total -> fillSummaryCard(messages.getMessage("paymentsTotal"), paymentsTotalSumCard, total));
-        asyncTasksRegistry.placeTask("paymentsTotalSumTask", taskConfigurer);
-    }
-
-    private void scheduleAverageBillCalculating(Client client) {
-        SupplierConfigurer<BigDecimal> taskConfigurer = uiAsyncTasks
-                .supplierConfigurer(() -> calculateAverageBill(client))
-                .withExceptionHandler(e -> SkeletonStyler.remove(averageBillCard))
-                .withResultHandler(average -> fillSummaryCard(messages.getMessage("averageBill"), averageBillCard, average));
-        asyncTasksRegistry.placeTask("averageBillTask", taskConfigurer);
-    }
-
-    private BigDecimal calculateOrdersTotalSum(Client client) {
-        defaultSleepForStatisticsLoading();
-        return clientService.getOrdersTotalSum(OrderStatus.values(), client);
-    }
-
-    private BigDecimal calculatePaymentsTotalSum(Client client) {
-        defaultSleepForStatisticsLoading();
-        return clientService.getPaymentsTotalSum(client);
-    }
-
-    private BigDecimal calculateAverageBill(Client client) {
-        defaultSleepForStatisticsLoading();
-        return clientService.getAverageBill(client);
-    }
-
-    private BigDecimal calculateOutstandingBalance(Client client) {
+    private void scheduleStatsCalculating(Client client) {
+        SupplierConfigurer<ClientStatsSnapshot> taskConfigurer = uiAsyncTasks
+                .supplierConfigurer(() -> calculateStats(client))
+                .withExceptionHandler(e -> {
+                    SkeletonStyler.remove(ordersTotalSumCard);
+                    SkeletonStyler.remove(paymentsTotalSumCard);
+                    SkeletonStyler.remove(averageBillCard);
+                    outstandingBalanceValue.setText("-");
+                })
+                .withResultHandler(stats -> {
+                    fillSummaryCard(messages.getMessage("ordersTotal"), ordersTotalSumCard, stats.ordersTotalSum());
+                    fillSummaryCard(messages.getMessage("paymentsTotal"), paymentsTotalSumCard, stats.paymentsTotalSum());
+                    fillSummaryCard(messages.getMessage("averageBill"), averageBillCard, stats.averageBill());
+                    outstandingBalanceValue.setText(PriceDataType.defaultFormat(stats.outstandingBalance()));
+                });
+        asyncTasksRegistry.placeTask("statsTask", taskConfigurer);
+    }
+
+    private ClientStatsSnapshot calculateStats(Client client) {
         defaultSleepForStatisticsLoading();
-        return clientService.getOutstandingBalance(client);
+        return clientService.getStatsSnapshot(null, client);
     }
 
     private void fillSummaryCard(String title, CrmCard card, BigDecimal value) {
@@ -1,9 +1,9 @@
 package com.company.crm.view.client;
 
 import com.company.crm.app.feature.queryparameters.filters.FieldValueQueryParameterBinder;
+import com.company.crm.app.feature.totalcount.TotalCounts;
 import com.company.crm.app.service.client.ClientService;
-import com.company.crm.app.service.finance.PaymentService;
-import com.company.crm.app.service.order.OrderService;
+import com.company.crm.app.service.client.ClientStatsSnapshot;
 import com.company.crm.app.service.user.UserService;
 import com.company.crm.app.ui.component.CrmCard;
 import com.company.crm.app.ui.component.CrmLoader;
@@ -12,11 +12,11 @@ import com.company.crm.app.util.constant.CrmConstants;
 import com.company.crm.app.util.ui.CrmUiUtils;
 import com.company.crm.app.util.ui.listener.resize.WidthResizeListener;
 import com.company.crm.app.util.ui.renderer.CrmRenderers;
+import com.company.crm.model.base.KeysetPagination;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.client.ClientRepository;
 import com.company.crm.model.client.ClientType;
 import com.company.crm.model.datatype.PriceDataType;
-import com.company.crm.model.order.OrderStatus;
 import com.company.crm.model.user.User;
 import com.company.crm.view.main.MainView;
 import com.company.crm.view.util.SkeletonStyler;
@@ -50,6 +50,7 @@ import io.jmix.flowui.asynctask.UiAsyncTasks.SupplierConfigurer;
 import io.jmix.flowui.component.checkbox.Switch;
 import io.jmix.flowui.component.formlayout.JmixFormLayout;
 import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.component.pagination.SimplePagination;
 import io.jmix.flowui.component.select.JmixSelect;
 import io.jmix.flowui.component.textfield.TypedTextField;
 import io.jmix.flowui.model.CollectionLoader;
@@ -97,18 +98,16 @@ public class ClientListView extends StandardListView<Client> implements WidthRes
     @Autowired
     private UserService userService;
     @Autowired
-    private OrderService orderService;
-    @Autowired
     private CrmRenderers crmRenderers;
     @Autowired
     private ClientService clientService;
     @Autowired
-    private PaymentService paymentService;
-    @Autowired
     private UiAsyncTasks uiAsyncTasks;
     @Autowired
     private ClientRepository clientRepository;
     @Autowired
+    private TotalCounts totalCounts;
+    @Autowired
     private CurrentAuthentication currentAuthentication;
 
     // stats
@@ -136,6 +135,10 @@ public class ClientListView extends StandardListView<Client> implements WidthRes
     @ViewComponent
     private CollectionLoader<Client> clientsDl;
     @ViewComponent
+    private SimplePagination pagination;
+    @ViewComponent
+    private Span totalCountLabel;
+    @ViewComponent
     private DataGrid<Client> clientsDataGrid;
     @ViewComponent
     private MessageBundle messageBundle;
@@ -146,6 +149,7 @@ public class ClientListView extends StandardListView<Client> implements WidthRes
     private final AsyncTasksRegistry asyncTasksRegistry = AsyncTasksRegistry.newInstance();
 
     private final LogicalCondition filtersCondition = LogicalCondition.and();
+    private final KeysetPagination keysetPagination = new KeysetPagination();
 
     @Override
     public void configureUiForWidth(int width) {
@@ -163,7 +167,7 @@ public class ClientListView extends StandardListView<Client> implements WidthRes
 
     @Install(to = "clientsDl", target = Target.DATA_LOADER, subject = "loadFromRepositoryDelegate")
     private List<Client> loadDelegate(Pageable pageable, JmixDataRepositoryContext context) {
-        return clientRepository.findAll(pageable, addCondition(context, filtersCondition)).getContent();
+        return clientRepository.findAll(pageable, addCondition(context, filtersCondition), keysetPagination);
     }
 
     @Install(to = "clientsDataGrid.removeAction", subject = "delegate")
@@ -173,7 +177,9 @@ public class ClientListView extends StandardListView<Client> implements WidthRes
 
     @Install(to = "pagination", subject = "totalCountByRepositoryDelegate")
     private Long paginationTotalCountByRepositoryDelegate(final JmixDataRepositoryContext context) {
-        return clientRepository.count(addCondition(context, filtersCondition));
+        JmixDataRepositoryContext filteredContext = addCondition(context, filtersCondition);
+        return totalCounts.countForPagination(CrmConstants.ViewIds.CLIENT_LIST, clientRepository, filteredContext,
+                clientsDl, pagination, totalCountLabel);
     }
 
     @Subscribe("showOnlyMyClientsCheckBox")
@@ -280,24 +286,10 @@ public class ClientListView extends StandardListView<Client> implements WidthRes
     }
 
     private void calculateCardsValues(Client... selectedClients) {
-        updateOrdersTotalSumCard(selectedClients);
-        updatePaymentsTotalSumCard(selectedClients);
-        updateAverageBillCard(selectedClients);
-    }
-
-    private void updateOrdersTotalSumCard(Client... clients) {
         installCardLoader(ordersTotalSumCard);
-        scheduleOrdersTotalSumCalculating(clients);
-    }
-
-    private void updatePaymentsTotalSumCard(Client... clients) {
         installCardLoader(paymentsTotalSumCard);
-        schedulePaymentsTotalSumCalculating(clients);
-    }
-
-    private void updateAverageBillCard(Client... clients) {
         installCardLoader(averageBillCard);
-        scheduleAverageBillCalculating(clients);
+        scheduleStatsCalculating(selectedClients);
     }
 
     private void installCardLoader(Card card) {
@@ -312,83 +304,31 @@ public class ClientListView extends StandardListView<Client> implements WidthRes
         return clientsDataGrid.getSelectedItems().toArray(new Client[0]);
     }
 
-    private void scheduleOrdersTotalSumCalculating(Client... clients) {
-        SupplierConfigurer<?> task = uiAsyncTasks.supplierConfigurer(() -> calculateOrdersTotalSum(clients))
-                .withExceptionHandler(e -> SkeletonStyler.remove(ordersTotalSumCard))
-                .withResultHandler(ordersTotalSum ->
-                        fillStatCard(messages.getMessage("ordersTotal"), ordersTotalSumCard, ordersTotalSum));
-        asyncTasksRegistry.placeTask("ordersTotalSumTask", task);
+    private void scheduleStatsCalculating(Client... clients) {
+        SupplierConfigurer<ClientStatsSnapshot> task = uiAsyncTasks.supplierConfigurer(() -> calculateStats(clients))
+                .withExceptionHandler(e -> {
+                    SkeletonStyler.remove(ordersTotalSumCard);
+                    SkeletonStyler.remove(paymentsTotalSumCard);
+                    SkeletonStyler.remove(averageBillCard);
+                })
+                .withResultHandler(stats -> {
+                    fillStatCard(messages.getMessage("ordersTotal"), ordersTotalSumCard, stats.ordersTotalSum());
+                    fillStatCard(messages.getMessage("paymentsTotal"), paymentsTotalSumCard, stats.paymentsTotalSum());
+                    fillStatCard(messages.getMessage("averageBill"), averageBillCard, stats.averageBill());
+                });
+        asyncTasksRegistry.placeTask("statsTask", task);
     }
 
-    private void schedulePaymentsTotalSumCalculating(Client... clients) {
-        SupplierConfigurer<BigDecimal> taskConfigurer = uiAsyncTasks.supplierConfigurer(() -> calculatePaymentsTotalSum(clients))
-                .withExceptionHandler(e -> SkeletonStyler.remove(paymentsTotalSumCard))
-                .withResultHandler(paymentsTotalSum ->
-                        fillStatCard(messages.getMessage("paymentsTotal"), paymentsTotalSumCard, paymentsTotalSum));
-        asyncTasksRegistry.placeTask("paymentsTotalSumTask", taskConfigurer);
-    }
-
-    private void scheduleAverageBillCalculating(Client... clients) {
-        SupplierConfigurer<?> task = uiAsyncTasks.supplierConfigurer(() -> calculateAverageBill(clients))
-                .withExceptionHandler(e -> SkeletonStyler.remove(averageBillCard))
-                .withResultHandler(averageBill -> fillStatCard(messages.getMessage("averageBill"), averageBillCard, averageBill));
-        asyncTasksRegistry.placeTask("averageBillTask", task);
-    }
-
-    private BigDecimal calculateOrdersTotalSum(Client[] selectedClients) {
+    private ClientStatsSnapshot calculateStats(Client[] selectedClients) {
         defaultSleepForStatisticsLoading();
-        BigDecimal ordersTotalSum;
         if (selectedClients.length == 0 && !isFilterConditionEmpty()) {
             selectedClients = loadFilteredClients();
             if (selectedClients.length == 0) {
-                return BigDecimal.ZERO;
+                return ClientStatsSnapshot.empty();
             }
         }
 
-        if (selectedClients.length > 0) {
-            ordersTotalSum = clientService.getOrdersTotalSum(OrderStatus.values(), selectedClients);
-        } else {
-            ordersTotalSum = orderService.getOrdersTotalSum();
-        }
-
-        return ordersTotalSum;
-    }
-
-    private BigDecimal calculatePaymentsTotalSum(Client[] selectedClients) {
-        defaultSleepForStatisticsLoading();
-        BigDecimal paymentsTotalSum;
-        if (selectedClients.length == 0 && !isFilterConditionEmpty()) {
-            selectedClients = loadFilteredClients();
-            if (selectedClients.length == 0) {
-                return BigDecimal.ZERO;
-            }
-        }
-
-        if (selectedClients.length > 0) {
-            paymentsTotalSum = clientService.getPaymentsTotalSum(selectedClients);
-        } else {
-            paymentsTotalSum = paymentService.getPaymentsTotalSum();
-        }
-
-        return paymentsTotalSum;
-    }
-
-    private BigDecimal calculateAverageBill(Client[] selectedClients) {
-        defaultSleepForStatisticsLoading();
-        BigDecimal averageBill;
-        if (selectedClients.length == 0 && !isFilterConditionEmpty()) {
-            selectedClients = loadFilteredClients();
-            if (selectedClients.length == 0) {
-                return BigDecimal.ZERO;
-            }
-        }
-
-        if (selectedClients.length > 0) {
-            averageBill = clientService.getAverageBill(selectedClients);
-        } else {
-            averageBill = orderService.getOrdersAverageBill();
-        }
-        return averageBill;
+        return clientService.getStatsSnapshot(null, selectedClients);
     }
 
     private void fillStatCard(String title, CrmCard card, BigDecimal content) {
@@ -4,9 +4,12 @@ import com.company.crm.app.service.datetime.DateTimeService;
 import com.company.crm.app.service.finance.InvoiceService;
 import com.company.crm.app.service.finance.PaymentService;
 import com.company.crm.app.service.order.OrderService;
+import com.company.crm.app.service.order.OrdersPeriodStats;
 import com.company.crm.app.ui.component.CrmCard;
 import com.company.crm.app.ui.component.CrmCard.RangeStatCardInfo;
 import com.company.crm.app.ui.component.RecentActivitiesBlock;
+import com.company.crm.app.ui.live.LiveTopic;
+import com.company.crm.app.ui.live.LiveUpdateBus;
 import com.company.crm.app.util.constant.CrmConstants;
 import com.company.crm.app.util.date.Period;
 import com.company.crm.app.util.ui.chart.ChartsUtils;
@@ -15,9 +18,7 @@ import com.company.crm.app.util.ui.renderer.CrmRenderers;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.datatype.PriceDataType;
 import com.company.crm.model.invoice.Invoice;
-import com.company.crm.model.order.Order;
 import com.company.crm.model.order.OrderStatus;
-import com.company.crm.model.payment.Payment;
 import com.company.crm.view.main.MainView;
 import com.company.crm.view.usertask.UserTaskListView;
 import com.vaadin.flow.component.Component;
@@ -74,7 +75,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -116,6 +116,8 @@ public class HomeView extends StandardView implements WidthResizeListener {
     private DialogWindows dialogWindows;
     @Autowired
     private DateFormatter<LocalDate> localDateFormatter;
+    @Autowired
+    private LiveUpdateBus liveUpdateBus;
 
     @ViewComponent
     private JmixSplitLayout split;
@@ -130,6 +132,9 @@ public class HomeView extends StandardView implements WidthResizeListener {
     @ViewComponent
     private MessageBundle messageBundle;
 
+    private final List<CrmCard> dashboardCards = new ArrayList<>();
+    private RecentActivitiesBlock recentActivitiesBlock;
+
     private volatile int lastWidth = -1;
     private static final int widthBreakpoint = 1000;
 
@@ -162,6 +167,19 @@ public class HomeView extends StandardView implements WidthResizeListener {
     @Subscribe
     private void onInit(final InitEvent event) {
         createComponents();
+        liveUpdateBus.subscribe(this, List.of(LiveTopic.dashboard()), topics -> refreshDashboardCards());
+    }
+
+    /**
+     * Reloads contents of all cards without rebuilding the view.
+     */
+    public void refresh() {
+        refreshDashboardCards();
+        recentActivitiesBlock.refresh();
+    }
+
+    private void refreshDashboardCards() {
+        dashboardCards.forEach(CrmCard::refresh);
     }
 
     private void createComponents() {
@@ -180,11 +198,13 @@ public class HomeView extends StandardView implements WidthResizeListener {
     }
 
     private List<JmixCard> getLeftCards() {
-        return List.of(
+        List<CrmCard> cards = List.of(
                 createTotalOrdersCard(),
                 createPaymentsCard(),
                 createMyTasksCard(),
                 createOverdueInvoicesCard());
+        dashboardCards.addAll(cards);
+        return List.copyOf(cards);
     }
 
     private CrmCard createMyTasksCard() {
@@ -248,7 +268,9 @@ public class HomeView extends StandardView implements WidthResizeListener {
     }
 
     private List<JmixCard> getRightCards() {
-        return List.of(createSalesCard(), createRecentActivitiesCard());
+        CrmCard salesCard = createSalesCard();
+        dashboardCards.add(salesCard);
+        return List.of(salesCard, createRecentActivitiesCard());
     }
 
     private CrmCard createRecentActivitiesCard() {
@@ -277,14 +299,9 @@ public class HomeView extends StandardView implements WidthResizeListener {
         var range = period.getDateRange(dateTimeService);
         var previousRange = period.getPreviousDateRangeFor(range);
 
-        var sum = orderService.getOrders(range).stream()
-                .map(Order::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        var previousSum = orderService.getOrders(previousRange)
-                .stream()
-                .map(Order::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        var stats = orderService.getOrdersStats(range, previousRange);
+        var sum = stats.get(range).totalSum();
+        var previousSum = stats.get(previousRange).totalSum();
 
         return new RangeStatCardInfo(
                 range,
@@ -296,14 +313,9 @@ public class HomeView extends StandardView implements WidthResizeListener {
         var range = period.getDateRange(dateTimeService);
         var previousRange = period.getPreviousDateRangeFor(range);
 
-        var sum = paymentService.loadPayments(range).stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        var previousSum = paymentService.loadPayments(previousRange)
-                .stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        var stats = paymentService.getPaymentsStats(range, previousRange);
+        var sum = stats.get(range).totalSum();
+        var previousSum = stats.get(previousRange).totalSum();
 
         return new RangeStatCardInfo(
                 range,
@@ -372,26 +384,27 @@ public class HomeView extends StandardView implements WidthResizeListener {
         var range = period.getDateRange(dateTimeService);
         var previousRange = period.getPreviousDateRangeFor(range);
 
-        List<Order> orders = orderService.getOrders(range);
-        List<Order> previousOrders = orderService.getOrders(previousRange);
+        var stats = orderService.getOrdersStats(range, previousRange);
+        OrdersPeriodStats orders = stats.get(range);
+        OrdersPeriodStats previousOrders = stats.get(previousRange);
 
         String delta;
-        if (previousOrders.isEmpty()) {
-            delta = orders.isEmpty() ? "0%" : "↑100%";
+        if (previousOrders.count() == 0) {
+            delta = orders.count() == 0 ? "0%" : "↑100%";
         } else {
-            var percentChange = (orders.size() - previousOrders.size()) * 100.0 / previousOrders.size();
+            var percentChange = (orders.count() - previousOrders.count()) * 100.0 / previousOrders.count();
             delta = (percentChange >= 0 ? "↑" : "↓") + String.format("%.2f", Math.abs(percentChange)) + "%";
         }
 
-        var statContent = new RangeStatCardInfo(range, orders.size() + " orders", delta).createDefaultContent();
-        var chartContent = createSalesFunnelChartContent(orders);
+        var statContent = new RangeStatCardInfo(range, orders.count() + " orders", delta).createDefaultContent();
+        var chartContent = createSalesFunnelChartContent(orders.countByStatus());
 
         return new Div(statContent, chartContent);
     }
 
-    private Component createSalesFunnelChartContent(List<Order> orders) {
+    private Component createSalesFunnelChartContent(Map<OrderStatus, Long> countByStatus) {
         Chart chart = uiComponents.create(Chart.class)
-                .withDataSet(createSalesChartDataSet(orders))
+                .withDataSet(createSalesChartDataSet(countByStatus))
                 .withSeries(new PieSeries()
                         .withLabel(new Label().withShow(false))
                         .withLabelLine(new PieSeries.LabelLine().withShow(false))
@@ -427,14 +440,11 @@ public class HomeView extends StandardView implements WidthResizeListener {
         return wrapper;
     }
 
-    private DataSet createSalesChartDataSet(List<Order> orders) {
-        var status2ordersAmount = new HashMap<OrderStatus, Integer>();
-        orders.forEach(order -> status2ordersAmount.merge(order.getStatus(), 1, Integer::sum));
-
+    private DataSet createSalesChartDataSet(Map<OrderStatus, Long> countByStatus) {
         var dataItems = new ArrayList<OrderStatusAmountItem>();
-        for (Map.Entry<OrderStatus, Integer> entry : status2ordersAmount.entrySet()) {
+        for (Map.Entry<OrderStatus, Long> entry : countByStatus.entrySet()) {
             OrderStatusAmountValueDescription valueDescription = new OrderStatusAmountValueDescription(
-                    messages.getMessage(entry.getKey()), entry.getValue());
+                    messages.getMessage(entry.getKey()), entry.getValue().intValue());
             dataItems.add(new OrderStatusAmountItem(valueDescription));
         }
 
@@ -447,6 +457,7 @@ public class HomeView extends StandardView implements WidthResizeListener {
     }
 
     private Component createRecentActivitiesComponent() {
-        return uiComponents.create(RecentActivitiesBlock.class);
+        recentActivitiesBlock = uiComponents.create(RecentActivitiesBlock.class);
+        return recentActivitiesBlock;
     }
 }
\ No newline at end of file
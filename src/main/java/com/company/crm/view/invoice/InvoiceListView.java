@@ -1,12 +1,15 @@
 package com.company.crm.view.invoice;
 
 import com.company.crm.app.feature.queryparameters.filters.FieldValueQueryParameterBinder;
+import com.company.crm.app.feature.totalcount.TotalCount;
+import com.company.crm.app.feature.totalcount.TotalCounts;
 import com.company.crm.app.service.finance.InvoiceService;
 import com.company.crm.app.ui.component.CrmCard;
 import com.company.crm.app.util.constant.CrmConstants;
 import com.company.crm.app.util.report.CrmReportUtils;
 import com.company.crm.app.util.ui.CrmUiUtils;
 import com.company.crm.app.util.ui.renderer.CrmRenderers;
+import com.company.crm.model.base.KeysetPagination;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.contact.Contact;
 import com.company.crm.model.invoice.Invoice;
@@ -37,6 +40,7 @@ import io.jmix.flowui.Notifications;
 import io.jmix.flowui.component.combobox.EntityComboBox;
 import io.jmix.flowui.component.datepicker.TypedDatePicker;
 import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.component.pagination.SimplePagination;
 import io.jmix.flowui.component.select.JmixSelect;
 import io.jmix.flowui.kit.action.ActionPerformedEvent;
 import io.jmix.flowui.model.CollectionContainer;
@@ -89,6 +93,8 @@ public class InvoiceListView extends StandardListView<Invoice> {
     private InvoiceService invoiceService;
     @Autowired
     private InvoiceRepository invoiceRepository;
+    @Autowired
+    private TotalCounts totalCounts;
 
     @ViewComponent
     private CollectionContainer<Order> ordersDc;
@@ -114,9 +120,14 @@ public class InvoiceListView extends StandardListView<Invoice> {
     @ViewComponent
     private CollectionLoader<Invoice> invoicesDl;
     @ViewComponent
+    private SimplePagination invoices_pagination;
+    @ViewComponent
+    private Span totalCountLabel;
+    @ViewComponent
     private DataGrid<Invoice> invoicesDataGrid;
 
     private final LogicalCondition filtersCondition = LogicalCondition.and();
+    private final KeysetPagination keysetPagination = new KeysetPagination();
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
@@ -126,12 +137,14 @@ public class InvoiceListView extends StandardListView<Invoice> {
 
     @Install(to = "invoicesDl", target = Target.DATA_LOADER, subject = "loadFromRepositoryDelegate")
     private List<Invoice> loadDelegate(Pageable pageable, JmixDataRepositoryContext context) {
-        return invoiceRepository.findAll(pageable, addCondition(context, filtersCondition)).getContent();
+        return invoiceRepository.findAll(pageable, addCondition(context, filtersCondition), keysetPagination);
     }
 
     @Install(to = "invoices_pagination", subject = "totalCountByRepositoryDelegate")
     private Long paginationTotalCountByRepositoryDelegate(final JmixDataRepositoryContext context) {
-        return invoiceRepository.count(addCondition(context, filtersCondition));
+        JmixDataRepositoryContext filteredContext = addCondition(context, filtersCondition);
+        return totalCounts.countForPagination(CrmConstants.ViewIds.INVOICE_LIST, invoiceRepository, filteredContext,
+                invoicesDl, invoices_pagination, totalCountLabel);
     }
 
     @Install(to = "invoicesDataGrid.removeAction", subject = "delegate")
@@ -301,13 +314,7 @@ public class InvoiceListView extends StandardListView<Invoice> {
         Span statusLabel = new Span(messages.getMessage(status));
         setBadge(statusLabel, getBadgeVariant(status));
 
-        String countValue;
-        if (count > 1000) {
-            countValue = "1000+";
-        } else {
-            countValue = String.valueOf(count);
-        }
-
+        String countValue = TotalCount.capped(count, 1000).format();
         VerticalLayout block = new VerticalLayout(statusLabel, new H1(countValue));
         block.setSpacing(false);
         block.setPadding(false);
@@ -206,7 +206,7 @@ public class MainView extends StandardMainView {
         }
 
         if (currentView instanceof HomeView homeView) {
-            homeView.getUI().ifPresent(ui -> ui.getPage().reload());
+            homeView.refresh();
         } else {
             viewNavigators.view(this, HomeView.class).navigate();
         }
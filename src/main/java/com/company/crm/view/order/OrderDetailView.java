@@ -3,6 +3,7 @@ package com.company.crm.view.order;
 import com.company.crm.app.service.datetime.DateTimeService;
 import com.company.crm.app.ui.component.OrderStatusPipeline;
 import com.company.crm.app.util.constant.CrmConstants;
+import com.company.crm.app.util.price.OrderTotals;
 import com.company.crm.app.util.ui.CrmUiUtils;
 import com.company.crm.app.util.ui.renderer.CrmRenderers;
 import com.company.crm.model.order.Order;
@@ -37,6 +38,8 @@ import io.jmix.flowui.download.Downloader;
 import io.jmix.flowui.exception.ValidationException;
 import io.jmix.flowui.kit.action.ActionPerformedEvent;
 import io.jmix.flowui.kit.action.ActionVariant;
+import io.jmix.flowui.model.CollectionChangeType;
+import io.jmix.flowui.model.CollectionContainer;
 import io.jmix.flowui.model.InstanceContainer;
 import io.jmix.flowui.view.EditedEntityContainer;
 import io.jmix.flowui.view.Install;
@@ -52,6 +55,8 @@ import io.jmix.flowui.view.ViewDescriptor;
 import io.jmix.gridexportflowui.exporter.ExportMode;
 import io.jmix.gridexportflowui.exporter.excel.ExcelExporter;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.math.BigDecimal;
@@ -74,6 +79,8 @@ import static com.company.crm.model.datatype.PriceDataType.defaultFormat;
 @PrimaryDetailView(Order.class)
 public class OrderDetailView extends StandardDetailView<Order> {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderDetailView.class);
+
     @Autowired
     private Dialogs dialogs;
     @Autowired
@@ -127,6 +134,7 @@ public class OrderDetailView extends StandardDetailView<Order> {
 
     @Subscribe
     private void onBeforeShow(final BeforeShowEvent event) {
+        getEditedEntity().trackItemTotals();
         initFieldsValidation();
         selectStatusInPipeline();
         addStatusPipelineClickListener();
@@ -140,6 +148,38 @@ public class OrderDetailView extends StandardDetailView<Order> {
         updateFooter();
     }
 
+    @Subscribe(id = "orderItemsDc", target = Target.DATA_CONTAINER)
+    private void onOrderItemsDcCollectionChange(final CollectionContainer.CollectionChangeEvent<OrderItem> event) {
+        if (event.getChangeType() == CollectionChangeType.REFRESH) {
+            getEditedEntity().trackItemTotals();
+            return;
+        }
+
+        OrderTotals itemTotals = getItemTotals();
+        if (event.getChangeType() == CollectionChangeType.REMOVE_ITEMS) {
+            event.getChanges().forEach(itemTotals::remove);
+        } else {
+            event.getChanges().forEach(itemTotals::put);
+        }
+        updateTotal();
+    }
+
+    @Subscribe(id = "orderItemsDc", target = Target.DATA_CONTAINER)
+    private void onOrderItemsDcItemPropertyChange(final InstanceContainer.ItemPropertyChangeEvent<OrderItem> event) {
+        getItemTotals().put(event.getItem());
+        updateTotal();
+    }
+
+    @Subscribe
+    private void onBeforeSave(final BeforeSaveEvent event) {
+        Order order = getEditedEntity();
+        if (!order.verifyItemTotals()) {
+            log.warn("Running totals of order {} differ from recalculated ones, using recalculated {}",
+                    order.getNumber(), order.getItemTotals());
+        }
+        order.setTotal(calculateTotal(order));
+    }
+
     @Install(to = "orderDl", target = Target.DATA_LOADER, subject = "loadFromRepositoryDelegate")
     private Optional<Order> loadDelegate(UUID id, FetchPlan fetchPlan) {
         return orderRepository.findById(id, fetchPlan);
@@ -247,6 +287,16 @@ public class OrderDetailView extends StandardDetailView<Order> {
         orderNumberTitle.setText(title);
     }
 
+    private OrderTotals getItemTotals() {
+        Order order = getEditedEntity();
+        OrderTotals itemTotals = order.getItemTotals();
+        return itemTotals != null ? itemTotals : order.trackItemTotals();
+    }
+
+    private void updateTotal() {
+        getEditedEntity().setTotal(calculateTotal(getEditedEntity()));
+    }
+
     private void updateFooter() {
         List<OrderItem> orderItems = getEditedEntity().getOrderItems();
         orderItemsCount.setText((orderItems != null ? orderItems.size() : 0) + " pcs");
@@ -275,7 +325,7 @@ public class OrderDetailView extends StandardDetailView<Order> {
             throw new IllegalStateException("Unknown changes owner for total price calculation");
         }
 
-        order.setTotal(calculateTotal(order));
+        updateTotal();
         updateFooter();
     }
 
@@ -2,10 +2,12 @@ package com.company.crm.view.order;
 
 import com.company.crm.app.feature.queryparameters.SimpleUrlQueryParametersBinder;
 import com.company.crm.app.feature.queryparameters.filters.FieldValueQueryParameterBinder;
+import com.company.crm.app.feature.totalcount.TotalCounts;
 import com.company.crm.app.ui.component.OrderStatusPipeline;
 import com.company.crm.app.ui.component.OrderStatusPipeline.OrderStatusComponent;
 import com.company.crm.app.util.constant.CrmConstants;
 import com.company.crm.app.util.ui.renderer.CrmRenderers;
+import com.company.crm.model.base.KeysetPagination;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.invoice.Invoice;
 import com.company.crm.model.order.Order;
@@ -14,6 +16,7 @@ import com.company.crm.model.order.OrderStatus;
 import com.company.crm.view.invoice.InvoiceDetailView;
 import com.company.crm.view.main.MainView;
 import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.data.renderer.Renderer;
 import com.vaadin.flow.data.renderer.TextRenderer;
 import com.vaadin.flow.router.QueryParameters;
@@ -25,6 +28,7 @@ import io.jmix.flowui.DialogWindows;
 import io.jmix.flowui.component.combobox.EntityComboBox;
 import io.jmix.flowui.component.datepicker.TypedDatePicker;
 import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.component.pagination.SimplePagination;
 import io.jmix.flowui.component.textfield.TypedTextField;
 import io.jmix.flowui.kit.action.ActionPerformedEvent;
 import io.jmix.flowui.model.CollectionContainer;
@@ -76,10 +80,16 @@ public class OrderListView extends StandardListView<Order> {
     private DialogWindows dialogWindows;
     @Autowired
     private OrderRepository orderRepository;
+    @Autowired
+    private TotalCounts totalCounts;
 
     @ViewComponent
     private CollectionLoader<Order> ordersDl;
     @ViewComponent
+    private SimplePagination pagination;
+    @ViewComponent
+    private Span totalCountLabel;
+    @ViewComponent
     private CollectionLoader<Client> clientsDl;
     @ViewComponent
     private CollectionContainer<Client> clientsDc;
@@ -100,6 +110,7 @@ public class OrderListView extends StandardListView<Order> {
     private DataGrid<Order> ordersDataGrid;
 
     private final LogicalCondition filtersCondition = LogicalCondition.and();
+    private final KeysetPagination keysetPagination = new KeysetPagination();
 
     private Optional<OrderStatus> selectedStatus = Optional.empty();
     private SimpleUrlQueryParametersBinder selectedStatusUrlParameterBinder;
@@ -126,7 +137,7 @@ public class OrderListView extends StandardListView<Order> {
 
     @Install(to = "ordersDl", target = Target.DATA_LOADER, subject = "loadFromRepositoryDelegate")
     private List<Order> loadDelegate(Pageable pageable, JmixDataRepositoryContext context) {
-        return orderRepository.findAll(pageable, addCondition(context, filtersCondition)).getContent();
+        return orderRepository.findAll(pageable, addCondition(context, filtersCondition), keysetPagination);
     }
 
     @Subscribe(id = "ordersDl", target = Target.DATA_LOADER)
@@ -136,7 +147,9 @@ public class OrderListView extends StandardListView<Order> {
 
     @Install(to = "pagination", subject = "totalCountByRepositoryDelegate")
     private Long paginationTotalCountByRepositoryDelegate(final JmixDataRepositoryContext context) {
-        return orderRepository.count(addCondition(context, filtersCondition));
+        JmixDataRepositoryContext filteredContext = addCondition(context, filtersCondition);
+        return totalCounts.countForPagination(CrmConstants.ViewIds.ORDER_LIST, orderRepository, filteredContext,
+                ordersDl, pagination, totalCountLabel);
     }
 
     @Install(to = "ordersDataGrid.removeAction", subject = "delegate")
@@ -1,8 +1,10 @@
 package com.company.crm.view.payment;
 
 import com.company.crm.app.feature.queryparameters.filters.FieldValueQueryParameterBinder;
+import com.company.crm.app.feature.totalcount.TotalCounts;
 import com.company.crm.app.util.constant.CrmConstants;
 import com.company.crm.app.util.ui.renderer.CrmRenderers;
+import com.company.crm.model.base.KeysetPagination;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.invoice.Invoice;
 import com.company.crm.model.order.Order;
@@ -11,6 +13,7 @@ import com.company.crm.model.payment.PaymentRepository;
 import com.company.crm.view.main.MainView;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.data.renderer.Renderer;
 import com.vaadin.flow.router.Route;
 import io.jmix.core.querycondition.LogicalCondition;
@@ -19,6 +22,7 @@ import io.jmix.flowui.component.UiComponentUtils;
 import io.jmix.flowui.component.combobox.EntityComboBox;
 import io.jmix.flowui.component.datepicker.TypedDatePicker;
 import io.jmix.flowui.component.grid.DataGrid;
+import io.jmix.flowui.component.pagination.SimplePagination;
 import io.jmix.flowui.data.grid.DataGridItems;
 import io.jmix.flowui.model.CollectionContainer;
 import io.jmix.flowui.model.CollectionLoader;
@@ -56,10 +60,16 @@ public class PaymentListView extends StandardListView<Payment> {
     private CrmRenderers crmRenderers;
     @Autowired
     private PaymentRepository paymentRepository;
+    @Autowired
+    private TotalCounts totalCounts;
 
     @ViewComponent
     private CollectionLoader<Payment> paymentsDl;
     @ViewComponent
+    private SimplePagination payments_pagination;
+    @ViewComponent
+    private Span totalCountLabel;
+    @ViewComponent
     private CollectionContainer<Invoice> invoicesDc;
     @ViewComponent
     private CollectionLoader<Invoice> invoicesDl;
@@ -86,6 +96,7 @@ public class PaymentListView extends StandardListView<Payment> {
     private TypedDatePicker<LocalDate> payments_ToDatePicker;
 
     private final LogicalCondition filtersCondition = LogicalCondition.and();
+    private final KeysetPagination keysetPagination = new KeysetPagination();
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
@@ -100,12 +111,14 @@ public class PaymentListView extends StandardListView<Payment> {
 
     @Install(to = "paymentsDl", target = Target.DATA_LOADER, subject = "loadFromRepositoryDelegate")
     private List<Payment> loadDelegate(Pageable pageable, JmixDataRepositoryContext context) {
-        return paymentRepository.findAll(pageable, addCondition(context, filtersCondition)).getContent();
+        return paymentRepository.findAll(pageable, addCondition(context, filtersCondition), keysetPagination);
     }
 
     @Install(to = "payments_pagination", subject = "totalCountByRepositoryDelegate")
     private Long paginationTotalCountByRepositoryDelegate(final JmixDataRepositoryContext context) {
-        return paymentRepository.count(addCondition(context, filtersCondition));
+        JmixDataRepositoryContext filteredContext = addCondition(context, filtersCondition);
+        return totalCounts.countForPagination(CrmConstants.ViewIds.PAYMENT_LIST, paymentRepository, filteredContext,
+                paymentsDl, payments_pagination, totalCountLabel);
     }
 
     @Install(to = "paymentsDataGrid.removeAction", subject = "delegate")
@@ -2,6 +2,7 @@ package com.company.crm.view.usertask;
 
 import com.company.crm.app.util.constant.CrmConstants;
 import com.company.crm.app.util.ui.renderer.CrmRenderers;
+import com.company.crm.model.base.KeysetPagination;
 import com.company.crm.model.user.User;
 import com.company.crm.model.user.task.UserTask;
 import com.company.crm.model.user.task.UserTaskRepository;
@@ -142,6 +143,8 @@ public class UserTaskListView extends StandardListView<UserTask> {
     @ViewComponent
     private GenericFilter genericFilter;
 
+    private final KeysetPagination keysetPagination = new KeysetPagination();
+
     private boolean modifiedAfterEdit;
 
     @Nullable
@@ -315,7 +318,7 @@ public class UserTaskListView extends StandardListView<UserTask> {
     @Install(to = "userTasksDl", target = Target.DATA_LOADER)
     private List<UserTask> listLoadDelegate(LoadContext<UserTask> context) {
         var repositoryContext = prepareTasksLoaderRepositoryContext(context);
-        return userTaskRepository.findAll(buildPageRequest(context), repositoryContext).getContent();
+        return userTaskRepository.findAll(buildPageRequest(context), repositoryContext, keysetPagination);
     }
 
     @Install(to = "userTasksDataGrid.removeAction", subject = "delegate")
@@ -0,0 +1,114 @@
+package com.company.crm.test.analytics;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.config.SpringProfiles;
+import com.company.crm.app.service.analytics.AnalyticsResultCache;
+import com.company.crm.app.service.order.OrderService;
+import com.company.crm.app.util.constant.CrmConstants;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.order.OrderStatus;
+import io.jmix.core.security.ClientDetails;
+import io.jmix.core.security.SecurityContextHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsResultCacheTest extends AbstractServiceTest<AnalyticsResultCache> {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void get_calculatesResultOncePerArguments() {
+        AtomicInteger calls = new AtomicInteger();
+        List<Class<?>> dependencies = List.of(Order.class);
+
+        service.get("test", dependencies, calls::incrementAndGet, 1, "a");
+        service.get("test", dependencies, calls::incrementAndGet, 1, "a");
+        service.get("test", dependencies, calls::incrementAndGet, 2, "a");
+
+        assertThat(calls).hasValue(2);
+        assertThat(service.getStatistics().hits()).isPositive();
+    }
+
+    @Test
+    void entityChange_invalidatesOnlyDependentResults() {
+        AtomicInteger orderCalls = new AtomicInteger();
+        AtomicInteger invoiceCalls = new AtomicInteger();
+
+        service.get("orders", List.of(Order.class), orderCalls::incrementAndGet);
+        service.get("invoices", List.of(Invoice.class), invoiceCalls::incrementAndGet);
+
+        entities.order(entities.client(), LocalDate.now(), OrderStatus.NEW);
+
+        service.get("orders", List.of(Order.class), orderCalls::incrementAndGet);
+        service.get("invoices", List.of(Invoice.class), invoiceCalls::incrementAndGet);
+
+        assertThat(orderCalls).hasValue(2);
+        assertThat(invoiceCalls).hasValue(1);
+    }
+
+    @Test
+    void cachedServiceResult_followsCommittedChanges() {
+        Client client = entities.client();
+        Order order = entities.order(client, LocalDate.now(), OrderStatus.NEW);
+        order.setTotal(new BigDecimal("10"));
+        saveWithoutReload(order);
+
+        assertThat(orderService.getOrdersTotalSum()).isEqualByComparingTo("10");
+
+        Order another = entities.order(client, LocalDate.now(), OrderStatus.NEW);
+        another.setTotal(new BigDecimal("15"));
+        saveWithoutReload(another);
+
+        assertThat(orderService.getOrdersTotalSum()).isEqualByComparingTo("25");
+    }
+
+    @Test
+    void get_separatesSessionDatabasesInOnlineMode() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(CrmConstants.SpringProfiles.ONLINE);
+        AnalyticsResultCache cache = new AnalyticsResultCache(new SpringProfiles(environment), environment);
+        AtomicInteger calls = new AtomicInteger();
+        List<Class<?>> dependencies = List.of(Order.class);
+
+        Authentication previous = SecurityContextHelper.getAuthentication();
+        try {
+            authenticateInSession("session-1");
+            cache.get("test", dependencies, calls::incrementAndGet);
+            cache.get("test", dependencies, calls::incrementAndGet);
+
+            authenticateInSession("session-2");
+            cache.get("test", dependencies, calls::incrementAndGet);
+            assertThat(calls).hasValue(2);
+
+            cache.invalidateSession("session-2");
+            cache.get("test", dependencies, calls::incrementAndGet);
+            assertThat(calls).hasValue(3);
+
+            authenticateInSession("session-1");
+            cache.get("test", dependencies, calls::incrementAndGet);
+            assertThat(calls).hasValue(3);
+        } finally {
+            SecurityContextHelper.setAuthentication(previous);
+        }
+    }
+
+    private static void authenticateInSession(String sessionId) {
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated("admin", null, List.of());
+        authentication.setDetails(ClientDetails.builder().sessionId(sessionId).build());
+        SecurityContextHelper.setAuthentication(authentication);
+    }
+}
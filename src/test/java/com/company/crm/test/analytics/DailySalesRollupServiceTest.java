@@ -0,0 +1,100 @@
+package com.company.crm.test.analytics;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.service.analytics.DailySalesRollupService;
+import com.company.crm.app.service.analytics.DailySalesRollupUpdater;
+import com.company.crm.app.service.analytics.SalesRollupTotals;
+import com.company.crm.app.util.date.range.LocalDateRange;
+import com.company.crm.model.analytics.DailySalesRollupKind;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.invoice.InvoiceStatus;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.order.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DailySalesRollupServiceTest extends AbstractServiceTest<DailySalesRollupService> {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 10);
+
+    @Autowired
+    private DailySalesRollupUpdater updater;
+
+    @Test
+    void totals_followOrderChanges() {
+        Client client = entities.client();
+
+        Order order1 = entities.order(client, DATE, OrderStatus.DONE);
+        order1.setTotal(new BigDecimal("10"));
+        saveWithoutReload(order1);
+
+        Order order2 = entities.order(client, DATE, OrderStatus.DONE);
+        order2.setTotal(new BigDecimal("30"));
+        saveWithoutReload(order2);
+
+        SalesRollupTotals done = completedOrders(client);
+        assertThat(done.entriesCount()).isEqualTo(2);
+        assertThat(done.totalSum()).isEqualByComparingTo("40");
+        assertThat(done.getAverageTotal()).isEqualByComparingTo("20");
+
+        order1 = dataManager.load(Order.class).id(order1.getId()).one();
+        order1.setStatus(OrderStatus.NEW);
+        saveWithoutReload(order1);
+
+        assertThat(completedOrders(client).totalSum()).isEqualByComparingTo("30");
+        assertThat(service.getTotals(DailySalesRollupKind.ORDER, null, List.of(OrderStatus.NEW), client).totalSum())
+                .isEqualByComparingTo("10");
+
+        dataManager.remove(dataManager.load(Order.class).id(order1.getId()).one());
+
+        assertThat(service.getTotals(DailySalesRollupKind.ORDER, null, List.of(), client).entriesCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void totalsByDate_areFilteredByDateRange() {
+        Client client = entities.client();
+        entities.order(client, DATE, OrderStatus.DONE);
+        entities.order(client, DATE.plusDays(1), OrderStatus.DONE);
+        entities.order(client, DATE.plusDays(1), OrderStatus.DONE);
+        entities.order(client, DATE.plusDays(5), OrderStatus.DONE);
+
+        var totals = service.getTotalsByDate(DailySalesRollupKind.ORDER,
+                LocalDateRange.from(DATE, DATE.plusDays(1)), List.of(OrderStatus.DONE), client);
+
+        assertThat(totals).extracting(SalesRollupTotals::date).containsExactly(DATE, DATE.plusDays(1));
+        assertThat(totals).extracting(SalesRollupTotals::entriesCount).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void rebuild_restoresInvoiceTotals() {
+        Client client = entities.client();
+        Order order = entities.order(client, DATE, OrderStatus.DONE);
+        entities.createAndSaveEntity(Invoice.class, invoice -> {
+            invoice.setClient(client);
+            invoice.setOrder(order);
+            invoice.setDate(DATE);
+            invoice.setStatus(InvoiceStatus.PAID);
+            invoice.setTotal(new BigDecimal("50"));
+        });
+
+        updater.rebuild();
+
+        var totals = service.getTotalsByDateAndStatus(DailySalesRollupKind.INVOICE, null, client);
+        assertThat(totals).hasSize(1);
+        assertThat(totals.getFirst().date()).isEqualTo(DATE);
+        assertThat(totals.getFirst().status()).isEqualTo(InvoiceStatus.PAID.getId());
+        assertThat(totals.getFirst().totalSum()).isEqualByComparingTo("50");
+    }
+
+    private SalesRollupTotals completedOrders(Client client) {
+        return service.getTotals(DailySalesRollupKind.ORDER, null, List.of(OrderStatus.DONE), client);
+    }
+}
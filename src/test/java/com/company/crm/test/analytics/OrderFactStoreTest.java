@@ -0,0 +1,136 @@
+package com.company.crm.test.analytics;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.service.analytics.OrderFactStore;
+import com.company.crm.app.service.analytics.SalesRollupTotals;
+import com.company.crm.app.util.date.range.LocalDateRange;
+import com.company.crm.model.catalog.category.Category;
+import com.company.crm.model.catalog.item.CategoryItem;
+import com.company.crm.model.catalog.item.UomType;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.order.OrderItem;
+import com.company.crm.model.order.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderFactStoreTest extends AbstractServiceTest<OrderFactStore> {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 10);
+
+    @Test
+    void totals_followOrderChanges() {
+        Client client = entities.client();
+        Client otherClient = entities.client();
+
+        Order order1 = entities.order(client, DATE, OrderStatus.DONE);
+        order1.setTotal(new BigDecimal("12.50"));
+        saveWithoutReload(order1);
+
+        Order order2 = entities.order(client, DATE.plusDays(1), OrderStatus.NEW);
+        order2.setTotal(new BigDecimal("7.50"));
+        saveWithoutReload(order2);
+
+        entities.order(otherClient, DATE, OrderStatus.DONE);
+
+        assertThat(service.isAvailable()).isTrue();
+        assertThat(service.getTotals(null, List.of(), client).totalSum()).isEqualByComparingTo("20.00");
+        assertThat(service.getTotals(null, List.of(OrderStatus.DONE), client).entriesCount()).isEqualTo(1);
+
+        order2 = dataManager.load(Order.class).id(order2.getId()).one();
+        order2.setStatus(OrderStatus.DONE);
+        saveWithoutReload(order2);
+
+        assertThat(service.getTotals(null, List.of(OrderStatus.DONE), client).totalSum())
+                .isEqualByComparingTo("20.00");
+
+        dataManager.remove(dataManager.load(Order.class).id(order1.getId()).one());
+
+        assertThat(service.getTotals(null, List.of(), client).entriesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void itemsCount_followsOrderItemChanges() {
+        Client client = entities.client();
+        Category category = entities.category("Facts", "FACTS");
+        CategoryItem categoryItem = entities.categoryItem("Item", "FACTS1", category, BigDecimal.ONE, UomType.PIECES);
+        Order order = entities.order(client, DATE, OrderStatus.NEW);
+        Order otherOrder = entities.order(client, DATE, OrderStatus.DONE);
+
+        OrderItem item = entities.orderItem(order, categoryItem, BigDecimal.ONE);
+        entities.orderItem(order, categoryItem, BigDecimal.TEN);
+
+        assertThat(service.getItemsCount(null, List.of(OrderStatus.NEW), client)).isEqualTo(2);
+
+        item = dataManager.load(OrderItem.class).id(item.getId()).one();
+        item.setOrder(otherOrder);
+        saveWithoutReload(item);
+
+        assertThat(service.getItemsCount(null, List.of(OrderStatus.NEW), client)).isEqualTo(1);
+        assertThat(service.getItemsCount(null, List.of(OrderStatus.DONE), client)).isEqualTo(1);
+
+        dataManager.remove(dataManager.load(OrderItem.class).id(item.getId()).one());
+
+        assertThat(service.getItemsCount(null, List.of(), client)).isEqualTo(1);
+
+        service.rebuild();
+
+        assertThat(service.getItemsCount(null, List.of(), client)).isEqualTo(1);
+    }
+
+    @Test
+    void totalsByDateAndStatus_areGroupedAndSorted() {
+        Client client = entities.client();
+        entities.order(client, DATE.plusDays(2), OrderStatus.NEW);
+        entities.order(client, DATE, OrderStatus.DONE);
+        entities.order(client, DATE, OrderStatus.NEW);
+        entities.order(client, DATE, OrderStatus.NEW);
+        entities.order(client, DATE.plusDays(10), OrderStatus.NEW);
+
+        var totals = service.getTotalsByDateAndStatus(LocalDateRange.from(DATE, DATE.plusDays(5)), client);
+
+        assertThat(totals).extracting(SalesRollupTotals::date)
+                .containsExactly(DATE, DATE, DATE.plusDays(2));
+        assertThat(totals).extracting(SalesRollupTotals::status)
+                .containsExactly(OrderStatus.NEW.getId(), OrderStatus.DONE.getId(), OrderStatus.NEW.getId());
+        assertThat(totals).extracting(SalesRollupTotals::entriesCount)
+                .containsExactly(2L, 1L, 1L);
+    }
+
+    @Test
+    void rebuild_loadsExistingOrders() {
+        Client client = entities.client();
+        Order order = entities.order(client, DATE, OrderStatus.DONE);
+        order.setTotal(new BigDecimal("100"));
+        saveWithoutReload(order);
+
+        service.rebuild();
+
+        var totals = service.getTotalsByDate(null, List.of(OrderStatus.DONE), client);
+        assertThat(totals).hasSize(1);
+        assertThat(totals.getFirst().date()).isEqualTo(DATE);
+        assertThat(totals.getFirst().getAverageTotal()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void remove_compactsRowsOfRemovedOrders() {
+        Client client = entities.client();
+        List<Order> orders = List.of(
+                entities.order(client, DATE, OrderStatus.NEW),
+                entities.order(client, DATE, OrderStatus.NEW),
+                entities.order(client, DATE, OrderStatus.NEW),
+                entities.order(client, DATE, OrderStatus.NEW));
+
+        for (Order order : orders.subList(0, 3)) {
+            dataManager.remove(dataManager.load(Order.class).id(order.getId()).one());
+        }
+
+        assertThat(service.getTotals(null, List.of(), client).entriesCount()).isEqualTo(1);
+        assertThat(service.getRemovedRowCount() * 4).isLessThanOrEqualTo(service.getRowCount());
+    }
+}
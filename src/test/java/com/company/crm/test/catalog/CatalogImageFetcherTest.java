@@ -0,0 +1,94 @@
+package com.company.crm.test.catalog;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.service.catalog.CatalogImageFetcher;
+import com.company.crm.app.service.catalog.CatalogImportSettings.CategoryItemMappingInfo;
+import com.company.crm.app.service.storage.CrmFileStorage;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.jmix.core.FileRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogImageFetcherTest extends AbstractServiceTest<CatalogImageFetcher> {
+
+    @Autowired
+    private CrmFileStorage fileStorage;
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        // unique paths, so images stored by previous runs are not reused
+        baseUrl = "http://localhost:" + server.getAddress().getPort() + "/" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetch_loadsEachImageOnceAndRetriesFailures() throws IOException {
+        String image = baseUrl + "/image.png";
+        String flaky = baseUrl + "/flaky.png";
+        String missing = baseUrl + "/missing.png";
+        var imageDataProvider = CategoryItemMappingInfo.DEFAULT.imageDataProvider();
+
+        Map<String, FileRef> refs = service.fetch(List.of(image, flaky, image, missing, image), imageDataProvider);
+
+        assertThat(refs).containsOnlyKeys(image, flaky);
+        assertThat(requestCount(image)).isEqualTo(1);
+        assertThat(requestCount(flaky)).isEqualTo(2);
+        assertThat(requestCount(missing)).isEqualTo(1);
+        try (InputStream stream = fileStorage.openStream(refs.get(image))) {
+            assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8)).endsWith("/image.png");
+        }
+
+        assertThat(service.fetch(List.of(image), imageDataProvider)).containsKey(image);
+        assertThat(requestCount(image)).isEqualTo(1);
+    }
+
+    private int requestCount(String url) {
+        AtomicInteger count = requests.get(url.substring(url.indexOf('/', "http://".length())));
+        return count == null ? 0 : count.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int count = requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+
+        if (path.endsWith("/missing.png")) {
+            exchange.sendResponseHeaders(404, -1);
+        } else if (path.endsWith("/flaky.png") && count == 1) {
+            exchange.sendResponseHeaders(503, -1);
+        } else {
+            byte[] body = path.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        exchange.close();
+    }
+}
@@ -1,11 +1,13 @@
 package com.company.crm.test.catalog;
 
 import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.service.catalog.CatalogImportResult;
 import com.company.crm.app.service.catalog.CatalogImportSettings;
 import com.company.crm.app.service.catalog.CatalogService;
 import com.company.crm.model.catalog.category.Category;
 import com.company.crm.model.catalog.category.CategoryRepository;
 import com.company.crm.model.catalog.item.CategoryItem;
+import com.company.crm.model.catalog.item.CategoryItemRepository;
 import com.company.crm.model.catalog.item.UomType;
 import com.company.crm.model.order.Order;
 import com.company.crm.model.order.OrderStatus;
@@ -21,7 +23,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -29,6 +33,8 @@ class CatalogServiceTest extends AbstractServiceTest<CatalogService> {
 
     @Autowired
     private CategoryRepository categoryRepository;
+    @Autowired
+    private CategoryItemRepository categoryItemRepository;
 
     @Test
     void updateCatalog_importsCategoriesWithHierarchy() throws IOException {
@@ -126,6 +132,98 @@ class CatalogServiceTest extends AbstractServiceTest<CatalogService> {
         assertThat(catOpt).isPresent();
     }
 
+    @Test
+    void importCatalog_importsChunksAndReportsInvalidRows() throws IOException {
+        Category category = entities.category("Existing", "EXISTING");
+        entities.categoryItem("Old name", "ITEM0", category, BigDecimal.ONE, UomType.PIECES);
+
+        String[][] rows = {
+                {"New name", "ITEM0", "EXISTING", "PIECES", "10"},
+                {"Item 1", "ITEM1", "EXISTING", "BOXES OF SOMETHING", "10"},
+                {"Item 2", "ITEM2", "OTHER", "PIECES", "12,50"},
+                {"Item 3", "", "EXISTING", "PIECES", "10"},
+                {"Item 4", "ITEM4", "EXISTING", "", "not a price"},
+                {"Item 5", "ITEM5", "OTHER", "", ""},
+        };
+
+        CatalogImportResult result = service.importCatalog(new CatalogImportSettings(itemsXlsx(rows)));
+
+        assertThat(result.importedItems()).isEqualTo(3);
+        assertThat(result.errorCount()).isEqualTo(3);
+        assertThat(result.errors())
+                .extracting(CatalogImportResult.RowError::rowNumber)
+                .containsExactly(3, 5, 6);
+
+        assertThat(categoryItemRepository.findByCode("ITEM0").orElseThrow().getName()).isEqualTo("New name");
+        assertThat(categoryItemRepository.findByCode("ITEM2").orElseThrow().getPrice()).isEqualByComparingTo("12.50");
+        assertThat(categoryItemRepository.findByCode("ITEM5")).isPresent();
+        assertThat(categoryItemRepository.findByCode("ITEM1")).isEmpty();
+        assertThat(categoryRepository.findByCode("OTHER")).isPresent();
+    }
+
+    @Test
+    void importCatalog_writesOnlyChangedRows() throws IOException {
+        Category category = entities.category("Category", "CAT");
+        String[][] rows = {
+                {"Item 1", "ITEM1", "CAT", "PIECES", "10"},
+                {"Item 2", "ITEM2", "CAT", "PIECES", "20"},
+                {"Item 3", "ITEM3", "CAT", "PIECES", "30"},
+                {"Item 4", "ITEM4", "CAT", "PIECES", "40"},
+        };
+        CatalogImportResult first = service.importCatalog(new CatalogImportSettings(itemsXlsx(rows)));
+        assertThat(first.itemChanges()).isEqualTo(new CatalogImportResult.ItemChanges(4, 0, 0, 0));
+
+        CategoryItem edited = categoryItemRepository.findByCode("ITEM3").orElseThrow();
+        edited.setName("Edited in the UI");
+        dataManager.save(edited);
+        CategoryItem manual = entities.categoryItem("Manual", "MANUAL", category, BigDecimal.ONE, UomType.PIECES);
+        int item1Version = categoryItemRepository.findByCode("ITEM1").orElseThrow().getVersion();
+
+        String[][] changedRows = {
+                {"Item 1", "ITEM1", "CAT", "PIECES", "10.00"},
+                {"Item 2 renamed", "ITEM2", "CAT", "PIECES", "20"},
+                {"Item 3", "ITEM3", "CAT", "PIECES", "30"},
+                {"Item 5", "ITEM5", "CAT", "PIECES", "50"},
+        };
+        CatalogImportResult second = service.importCatalog(
+                new CatalogImportSettings(itemsXlsx(changedRows)).withRemoveMissingItems(true));
+
+        assertThat(second.itemChanges()).isEqualTo(new CatalogImportResult.ItemChanges(1, 2, 1, 1));
+        assertThat(categoryItemRepository.findByCode("ITEM1").orElseThrow().getVersion()).isEqualTo(item1Version);
+        assertThat(categoryItemRepository.findByCode("ITEM2").orElseThrow().getName()).isEqualTo("Item 2 renamed");
+        assertThat(categoryItemRepository.findByCode("ITEM3").orElseThrow().getName()).isEqualTo("Item 3");
+        assertThat(categoryItemRepository.findByCode("ITEM4")).isEmpty();
+        assertThat(categoryItemRepository.findByCode(manual.getCode())).isPresent();
+    }
+
+    @Test
+    void importCatalog_savesOnlyNewAndChangedCategories() throws IOException {
+        String[][] rows = {
+                {"Root", "ROOT", "", "Root description"},
+                {"Child", "CHILD", "ROOT", ""},
+                {"Other", "OTHER", "", ""},
+        };
+        CatalogImportResult first = service.importCatalog(new CatalogImportSettings(categoriesXlsx(rows)));
+        assertThat(first.categoryChanges()).isEqualTo(new CatalogImportResult.CategoryChanges(3, 0, 0));
+
+        int rootVersion = categoryRepository.findByCode("ROOT").orElseThrow().getVersion();
+        int otherVersion = categoryRepository.findByCode("OTHER").orElseThrow().getVersion();
+
+        String[][] changedRows = {
+                {"Root", "ROOT", "", "Root description"},
+                {"Child", "CHILD", "OTHER", ""},
+                {"Other", "OTHER", "", ""},
+                {"New", "NEW", "MISSING", ""},
+        };
+        CatalogImportResult second = service.importCatalog(new CatalogImportSettings(categoriesXlsx(changedRows)));
+
+        assertThat(second.categoryChanges()).isEqualTo(new CatalogImportResult.CategoryChanges(2, 1, 2));
+        assertThat(categoryRepository.findByCode("ROOT").orElseThrow().getVersion()).isEqualTo(rootVersion);
+        assertThat(categoryRepository.findByCode("OTHER").orElseThrow().getVersion()).isEqualTo(otherVersion);
+        assertThat(categoryRepository.findByCode("CHILD").orElseThrow().getParent().getCode()).isEqualTo("OTHER");
+        assertThat(categoryRepository.findByCode("MISSING")).isPresent();
+    }
+
     @Test
     void generateCatalogXls_exportsExistingData() throws IOException {
         // Create category
@@ -164,6 +262,38 @@ class CatalogServiceTest extends AbstractServiceTest<CatalogService> {
         }
     }
 
+    @Test
+    void writeCatalogXls_exportsAllPages() throws IOException {
+        Category parent = entities.category("Parent", "PARENT");
+        Category child = entities.category("Child", "CHILD");
+        child.setParent(parent);
+        dataManager.save(child);
+
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 7; i++) {
+            codes.add(entities.categoryItem("Item " + i, "ITEM" + i, child, BigDecimal.TEN, UomType.PIECES).getCode());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeCatalogXls(out);
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet catSheet = workbook.getSheet("Categories");
+            assertThat(catSheet.getLastRowNum()).isEqualTo(2);
+
+            Sheet itemSheet = workbook.getSheet("Items");
+            assertThat(itemSheet.getLastRowNum()).isEqualTo(codes.size());
+
+            Set<String> exportedCodes = new HashSet<>();
+            for (int i = 1; i <= itemSheet.getLastRowNum(); i++) {
+                Row row = itemSheet.getRow(i);
+                exportedCodes.add(row.getCell(1).getStringCellValue());
+                assertThat(row.getCell(2).getStringCellValue()).isEqualTo("CHILD");
+            }
+            assertThat(exportedCodes).isEqualTo(codes);
+        }
+    }
+
     @Test
     void getBestOrderedItems_returnsItemsSortedByQuantity() {
         Category cat = entities.category("Cat", "CAT");
@@ -179,4 +309,42 @@ class CatalogServiceTest extends AbstractServiceTest<CatalogService> {
         assertThat(bestItems.get(item2)).isEqualByComparingTo("10");
         assertThat(bestItems.get(item1)).isEqualByComparingTo("5");
     }
+
+    private static ByteArrayInputStream categoriesXlsx(String[][] rows) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet categoriesSheet = workbook.createSheet("Categories");
+            categoriesSheet.createRow(0).createCell(0).setCellValue("Name");
+            for (int i = 0; i < rows.length; i++) {
+                Row row = categoriesSheet.createRow(i + 1);
+                for (int j = 0; j < rows[i].length; j++) {
+                    if (!rows[i][j].isEmpty()) {
+                        row.createCell(j).setCellValue(rows[i][j]);
+                    }
+                }
+            }
+            workbook.createSheet("Items").createRow(0);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return new ByteArrayInputStream(out.toByteArray());
+        }
+    }
+
+    private static ByteArrayInputStream itemsXlsx(String[][] rows) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("Categories").createRow(0);
+            Sheet itemsSheet = workbook.createSheet("Items");
+            itemsSheet.createRow(0).createCell(0).setCellValue("Name");
+            for (int i = 0; i < rows.length; i++) {
+                Row row = itemsSheet.createRow(i + 1);
+                for (int j = 0; j < rows[i].length; j++) {
+                    row.createCell(j).setCellValue(rows[i][j]);
+                }
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return new ByteArrayInputStream(out.toByteArray());
+        }
+    }
 }
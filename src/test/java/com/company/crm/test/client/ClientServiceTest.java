@@ -190,4 +190,46 @@ class ClientServiceTest extends AbstractServiceTest<ClientService> {
         var bestBuyers = service.getBestBuyers(10);
         assertThat(bestBuyers.keySet()).containsExactly(c2, c1);
     }
+
+    @Test
+    void getStatsSnapshot_matchesSeparateAggregates() {
+        Client client = entities.client("Snapshot Client");
+        Client otherClient = entities.client("Other Client");
+
+        Order order1 = entities.order(client, LocalDate.now(), OrderStatus.DONE);
+        order1.setTotal(new BigDecimal("100"));
+        saveWithoutReload(order1);
+
+        Order order2 = entities.order(client, LocalDate.now(), OrderStatus.NEW);
+        order2.setTotal(new BigDecimal("50"));
+        saveWithoutReload(order2);
+
+        Order otherOrder = entities.order(otherClient, LocalDate.now(), OrderStatus.DONE);
+        otherOrder.setTotal(new BigDecimal("1000"));
+        saveWithoutReload(otherOrder);
+
+        Invoice invoice = entities.createAndSaveEntity(Invoice.class, i -> {
+            i.setClient(client);
+            i.setOrder(order1);
+            i.setTotal(new BigDecimal("120"));
+        });
+        entities.payment(invoice, LocalDate.now());
+        entities.payment(invoice, LocalDate.now());
+
+        var snapshot = service.getStatsSnapshot(null, client);
+
+        assertThat(snapshot.ordersTotalSum()).isEqualByComparingTo("150");
+        assertThat(snapshot.averageBill()).isEqualByComparingTo("75");
+        assertThat(snapshot.invoicesTotalSum()).isEqualByComparingTo("120");
+        assertThat(snapshot.paymentsTotalSum()).isEqualByComparingTo("20");
+        assertThat(snapshot.outstandingBalance()).isEqualByComparingTo(service.getOutstandingBalance(client));
+
+        assertThat(service.getStatsSnapshot(null).ordersTotalSum()).isEqualByComparingTo("1150");
+
+        dataManager.remove(dataManager.load(Invoice.class).id(invoice.getId()).one());
+
+        var afterRemoval = service.getStatsSnapshot(null, client);
+        assertThat(afterRemoval.invoicesTotalSum()).isEqualByComparingTo("0");
+        assertThat(afterRemoval.paymentsTotalSum()).isEqualByComparingTo("0");
+    }
 }
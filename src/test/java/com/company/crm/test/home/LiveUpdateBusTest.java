@@ -0,0 +1,92 @@
+package com.company.crm.test.home;
+
+import com.company.crm.app.config.SpringProfiles;
+import com.company.crm.app.service.user.UserActivitiesWrittenEvent;
+import com.company.crm.app.ui.live.LiveTopic;
+import com.company.crm.app.ui.live.LiveUpdateBus;
+import com.company.crm.util.DirectAccessUI;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveUpdateBusTest {
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final LiveUpdateBus bus = new LiveUpdateBus(new SpringProfiles(environment), environment);
+
+    @Test
+    void publish_deliversCoalescedTopicsToAttachedComponents() throws InterruptedException {
+        UUID clientId = UUID.randomUUID();
+        List<Set<LiveTopic>> deliveries = new CopyOnWriteArrayList<>();
+        UI ui = new DirectAccessUI();
+        Div component = new Div();
+        bus.subscribe(component, List.of(LiveTopic.client(clientId), LiveTopic.activities()), deliveries::add);
+        ui.add(component);
+
+        bus.publish("", List.of(LiveTopic.client(clientId)));
+        await(() -> deliveries.size() == 1);
+
+        bus.onUserActivitiesWritten(new UserActivitiesWrittenEvent("", Set.of(clientId), Set.of(UUID.randomUUID())));
+        bus.publish("", List.of(LiveTopic.dashboard()));
+        bus.publish("", List.of(LiveTopic.client(clientId)));
+        await(() -> deliveries.size() == 2);
+
+        assertThat(deliveries).containsExactly(
+                Set.of(LiveTopic.client(clientId)),
+                Set.of(LiveTopic.client(clientId), LiveTopic.activities()));
+    }
+
+    @Test
+    void publish_deliversChangesOfAllComponentsOfUiAtOnce() throws InterruptedException {
+        List<Set<LiveTopic>> dashboardDeliveries = new CopyOnWriteArrayList<>();
+        List<Set<LiveTopic>> activitiesDeliveries = new CopyOnWriteArrayList<>();
+        DirectAccessUI ui = new DirectAccessUI();
+        Div dashboard = new Div();
+        Div activities = new Div();
+        ui.add(dashboard, activities);
+        bus.subscribe(dashboard, List.of(LiveTopic.dashboard()), dashboardDeliveries::add);
+        bus.subscribe(activities, List.of(LiveTopic.activities()), activitiesDeliveries::add);
+
+        bus.publish("", List.of(LiveTopic.dashboard()));
+        await(() -> dashboardDeliveries.size() == 1);
+
+        // the activities component hasn't received anything yet, but the UI was refreshed just now
+        bus.publish("", List.of(LiveTopic.activities()));
+        bus.publish("", List.of(LiveTopic.dashboard()));
+        await(() -> dashboardDeliveries.size() == 2 && activitiesDeliveries.size() == 1);
+
+        assertThat(ui.getAccessCount()).isEqualTo(2);
+    }
+
+    @Test
+    void publish_skipsDetachedComponents() throws InterruptedException {
+        List<Set<LiveTopic>> deliveries = new CopyOnWriteArrayList<>();
+        UI ui = new DirectAccessUI();
+        Div component = new Div();
+        ui.add(component);
+        bus.subscribe(component, List.of(LiveTopic.dashboard()), deliveries::add);
+
+        ui.remove(component);
+        bus.publish("", List.of(LiveTopic.dashboard()));
+        Thread.sleep(200);
+
+        assertThat(deliveries).isEmpty();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,59 @@
+package com.company.crm.test.home;
+
+import com.company.crm.AbstractTest;
+import com.company.crm.app.service.analytics.AnalyticsResultCache;
+import com.company.crm.app.ui.live.LiveTopic;
+import com.company.crm.app.ui.live.LiveUpdateBus;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.order.OrderStatus;
+import com.company.crm.util.DirectAccessUI;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.shared.Registration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LiveUpdatesTest extends AbstractTest {
+
+    @Autowired
+    private LiveUpdateBus liveUpdateBus;
+    @Autowired
+    private AnalyticsResultCache analyticsResultCache;
+
+    @Test
+    void committedChange_reachesDashboardAfterCacheInvalidation() throws InterruptedException {
+        Client client = entities.client();
+        AtomicInteger calculations = new AtomicInteger();
+        List<Integer> deliveredResults = new CopyOnWriteArrayList<>();
+        UI ui = new DirectAccessUI();
+        Div dashboard = new Div();
+        ui.add(dashboard);
+        Registration registration = liveUpdateBus.subscribe(dashboard, List.of(LiveTopic.dashboard()), topics ->
+                deliveredResults.add(analyticsResultCache.get("test", List.of(Order.class),
+                        calculations::incrementAndGet)));
+        try {
+            assertThat(analyticsResultCache.get("test", List.of(Order.class), calculations::incrementAndGet))
+                    .isEqualTo(1);
+
+            entities.order(client, LocalDate.now(), OrderStatus.NEW);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (deliveredResults.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            // the dashboard reloads a value calculated after the commit
+            assertThat(deliveredResults).isNotEmpty();
+            assertThat(deliveredResults.getFirst()).isEqualTo(2);
+        } finally {
+            registration.remove();
+        }
+    }
+}
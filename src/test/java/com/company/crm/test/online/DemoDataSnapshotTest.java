@@ -0,0 +1,71 @@
+package com.company.crm.test.online;
+
+import com.company.crm.app.online.DemoDataSnapshot.TableSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DemoDataSnapshotTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.of(2026, 1, 25, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final LocalDate DUE = LocalDate.of(2026, 1, 31);
+
+    private final TableSnapshot table = new TableSnapshot("ACTIVITY",
+            List.of("ID", "CREATED_DATE", "CREATED_MONTH", "DUE_DATE", "NAME"),
+            new int[]{Types.INTEGER, Types.TIMESTAMP_WITH_TIMEZONE, Types.INTEGER, Types.DATE, Types.VARCHAR},
+            List.<Object[]>of(new Object[]{1, CREATED, 202601, DUE, null}));
+
+    @Test
+    void setParameters_movesDatesAndCreatedMonth() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:snapshot_shift", "SA", "")) {
+            insert(connection, 10);
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select CREATED_DATE, CREATED_MONTH, DUE_DATE, NAME from ACTIVITY")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getObject(1, OffsetDateTime.class)).isAtSameInstantAs(CREATED.plusDays(10));
+                assertThat(rs.getInt(2)).isEqualTo(202602);
+                assertThat(rs.getObject(3, LocalDate.class)).isEqualTo(LocalDate.of(2026, 2, 10));
+                assertThat(rs.getString(4)).isNull();
+            }
+        }
+    }
+
+    @Test
+    void setParameters_keepsRowWithoutShift() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:snapshot_keep", "SA", "")) {
+            insert(connection, 0);
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select CREATED_DATE, CREATED_MONTH, DUE_DATE from ACTIVITY")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getObject(1, OffsetDateTime.class)).isAtSameInstantAs(CREATED);
+                assertThat(rs.getInt(2)).isEqualTo(202601);
+                assertThat(rs.getObject(3, LocalDate.class)).isEqualTo(DUE);
+            }
+        }
+    }
+
+    private void insert(Connection connection, long shiftDays) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table ACTIVITY (ID integer, CREATED_DATE timestamp with time zone, " +
+                    "CREATED_MONTH integer, DUE_DATE date, NAME varchar(10))");
+        }
+        try (PreparedStatement ps = connection.prepareStatement(table.insertSql())) {
+            table.setParameters(ps, table.rows().getFirst(), shiftDays);
+            ps.executeUpdate();
+        }
+    }
+}
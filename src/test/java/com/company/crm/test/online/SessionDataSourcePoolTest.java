@@ -0,0 +1,68 @@
+package com.company.crm.test.online;
+
+import com.company.crm.app.online.SessionDataSourcePool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionDataSourcePoolTest {
+
+    private final List<String> created = new CopyOnWriteArrayList<>();
+    private final List<DataSource> destroyed = new CopyOnWriteArrayList<>();
+    private final SessionDataSourcePool pool = new SessionDataSourcePool(this::create, destroyed::add, 2, 5);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void claim_takesReadyDatabaseAndRefillsPool() throws InterruptedException {
+        pool.start();
+        await(() -> pool.getReadyCount() == 2);
+
+        DataSource claimed = pool.claim();
+
+        assertThat(((DriverManagerDataSource) claimed).getUrl()).isEqualTo("jdbc:test:pool_1");
+        await(() -> pool.getReadyCount() == 2);
+        assertThat(created).containsExactly("pool_1", "pool_2", "pool_3");
+    }
+
+    @Test
+    void claim_createsDatabaseWhenPoolIsEmpty() {
+        DataSource claimed = pool.claim();
+
+        assertThat(((DriverManagerDataSource) claimed).getUrl()).startsWith("jdbc:test:pool_");
+    }
+
+    @Test
+    void shutdown_releasesReadyDatabases() throws InterruptedException {
+        pool.start();
+        await(() -> pool.getReadyCount() == 2);
+
+        pool.shutdown();
+
+        assertThat(destroyed).hasSize(2);
+        assertThat(pool.getReadyCount()).isZero();
+    }
+
+    private DataSource create(String databaseName) {
+        created.add(databaseName);
+        return new DriverManagerDataSource("jdbc:test:" + databaseName);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -51,6 +51,36 @@ class OrderServiceTest extends AbstractServiceTest<OrderService> {
         assertThat(service.getLeftOverSum(order)).isEqualByComparingTo("0");
     }
 
+    @Test
+    void paidAndInvoicedTotals_areMaintainedOnInvoiceAndPaymentChanges() {
+        Client client = entities.client();
+        Order order = entities.order(client, LocalDate.now(), OrderStatus.DONE);
+        order.setTotal(new BigDecimal("100"));
+        saveWithoutReload(order);
+
+        Invoice invoice = createAndSaveEntity(Invoice.class, i -> {
+            i.setClient(client);
+            i.setOrder(order);
+            i.setSubtotal(new BigDecimal("70"));
+        });
+
+        entities.payment(invoice, LocalDate.now());
+        Payment payment = entities.payment(invoice, LocalDate.now());
+
+        Order reloaded = dataManager.load(Order.class).id(order.getId()).one();
+        assertThat(reloaded.getInvoiced()).isEqualByComparingTo("70");
+        assertThat(reloaded.getPaid()).isEqualByComparingTo("20");
+        assertThat(reloaded.getLeftOverSum()).isEqualByComparingTo("80");
+        assertThat(dataManager.load(Invoice.class).id(invoice.getId()).one().getPaymentsSum())
+                .isEqualByComparingTo("20");
+
+        dataManager.remove(dataManager.load(Payment.class).id(payment.getId()).one());
+
+        reloaded = dataManager.load(Order.class).id(order.getId()).one();
+        assertThat(reloaded.getPaid()).isEqualByComparingTo("10");
+        assertThat(reloaded.getLeftOverSum()).isEqualByComparingTo("90");
+    }
+
     @Test
     void ordersAmountByStatus_groupsResults() {
         Client client = entities.client();
@@ -106,4 +136,31 @@ class OrderServiceTest extends AbstractServiceTest<OrderService> {
         var range = LocalDateRange.from(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
         assertThat(service.getOrders(range)).hasSize(2);
     }
+
+    @Test
+    void ordersStats_areAggregatedPerRange() {
+        Client client = entities.client();
+        Order order1 = entities.order(client, LocalDate.of(2026, 1, 5), OrderStatus.NEW);
+        order1.setTotal(new BigDecimal("10"));
+        saveWithoutReload(order1);
+        Order order2 = entities.order(client, LocalDate.of(2026, 1, 20), OrderStatus.DONE);
+        order2.setTotal(new BigDecimal("30"));
+        saveWithoutReload(order2);
+        Order order3 = entities.order(client, LocalDate.of(2025, 12, 31), OrderStatus.DONE);
+        order3.setTotal(new BigDecimal("50"));
+        saveWithoutReload(order3);
+
+        var january = LocalDateRange.from(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+        var december = LocalDateRange.from(LocalDate.of(2025, 12, 1), LocalDate.of(2025, 12, 31));
+
+        var stats = service.getOrdersStats(january, december);
+
+        assertThat(stats.get(january).count()).isEqualTo(2);
+        assertThat(stats.get(january).totalSum()).isEqualByComparingTo("40");
+        assertThat(stats.get(january).countByStatus())
+                .containsEntry(OrderStatus.NEW, 1L)
+                .containsEntry(OrderStatus.DONE, 1L);
+        assertThat(stats.get(december).count()).isEqualTo(1);
+        assertThat(stats.get(december).totalSum()).isEqualByComparingTo("50");
+    }
 }
@@ -0,0 +1,60 @@
+package com.company.crm.test.payment;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.model.base.KeysetPagination;
+import com.company.crm.model.base.OffsetLimitPageRequest;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.order.OrderStatus;
+import com.company.crm.model.payment.Payment;
+import com.company.crm.model.payment.PaymentRepository;
+import io.jmix.core.querycondition.PropertyCondition;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentRepositoryTest extends AbstractServiceTest<PaymentRepository> {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 10);
+    private static final int PAGE_SIZE = 3;
+
+    @Test
+    void keysetPages_matchOffsetPages() {
+        Client client = entities.client();
+        Invoice invoice = entities.invoice(client, entities.order(client, DATE, OrderStatus.DONE));
+        for (int i = 0; i < 11; i++) {
+            // duplicated and missing dates check the id tiebreaker and NULL ordering
+            entities.payment(invoice, i % 4 == 0 ? null : DATE.plusDays(i % 3));
+        }
+        entities.payment(entities.invoice(client, entities.order(client, DATE, OrderStatus.DONE)), DATE);
+
+        var context = new JmixDataRepositoryContext(null, PropertyCondition.equal("invoice", invoice), Map.of());
+        for (Sort sort : List.of(Sort.by(Sort.Direction.DESC, "date"), Sort.by("date", "amount"), Sort.unsorted())) {
+            List<Payment> expected = service.findAll(
+                    new OffsetLimitPageRequest(0, 100, sort.and(Sort.by("id"))), context).getContent();
+            assertThat(expected).hasSize(11);
+
+            KeysetPagination pagination = new KeysetPagination();
+            List<Payment> forward = new ArrayList<>();
+            for (int offset = 0; offset < expected.size(); offset += PAGE_SIZE) {
+                forward.addAll(service.findAll(
+                        new OffsetLimitPageRequest(offset, PAGE_SIZE, sort), context, pagination));
+            }
+            assertThat(forward).containsExactlyElementsOf(expected);
+
+            for (int offset = 9; offset >= 0; offset -= PAGE_SIZE) {
+                List<Payment> page = service.findAll(
+                        new OffsetLimitPageRequest(offset, PAGE_SIZE, sort), context, pagination);
+                assertThat(page).containsExactlyElementsOf(
+                        expected.subList(offset, Math.min(offset + PAGE_SIZE, expected.size())));
+            }
+        }
+    }
+}
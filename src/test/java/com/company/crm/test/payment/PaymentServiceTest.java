@@ -2,6 +2,7 @@ package com.company.crm.test.payment;
 
 import com.company.crm.AbstractServiceTest;
 import com.company.crm.app.service.finance.PaymentService;
+import com.company.crm.app.util.date.range.LocalDateRange;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.invoice.Invoice;
 import com.company.crm.model.order.Order;
@@ -70,6 +71,27 @@ class PaymentServiceTest extends AbstractServiceTest<PaymentService> {
         assertThat(payments.get(1).getAmount()).isEqualByComparingTo("20");
     }
 
+    @Test
+    void paymentsStats_areAggregatedPerRange() {
+        Client client = entities.client();
+        Order order = entities.order(client, LocalDate.now(), OrderStatus.DONE);
+        Invoice invoice = entities.invoice(client, order);
+
+        entities.payment(invoice, LocalDate.of(2026, 1, 5));
+        entities.payment(invoice, LocalDate.of(2026, 1, 20));
+        entities.payment(invoice, LocalDate.of(2026, 2, 1));
+
+        var january = LocalDateRange.from(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+        var march = LocalDateRange.from(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+
+        var stats = service.getPaymentsStats(january, march);
+
+        assertThat(stats.get(january).count()).isEqualTo(2);
+        assertThat(stats.get(january).totalSum()).isEqualByComparingTo("20");
+        assertThat(stats.get(march).count()).isZero();
+        assertThat(stats.get(march).totalSum()).isEqualByComparingTo("0");
+    }
+
     private Payment savePayment(Invoice invoice, BigDecimal amount) {
         Payment payment = dataManager.create(Payment.class);
         payment.setInvoice(invoice);
@@ -0,0 +1,41 @@
+package com.company.crm.test.storage;
+
+import com.company.crm.app.util.http.ByteRange;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteRangeTest {
+
+    @Test
+    void parse_supportsSingleRangeForms() {
+        assertThat(ByteRange.parse("bytes=0-99", 1000)).isEqualTo(new ByteRange(0, 99));
+        assertThat(ByteRange.parse("bytes=900-", 1000)).isEqualTo(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=-100", 1000)).isEqualTo(new ByteRange(900, 999));
+        assertThat(ByteRange.parse("bytes=-5000", 1000)).isEqualTo(new ByteRange(0, 999));
+        assertThat(ByteRange.parse("bytes=990-5000", 1000)).isEqualTo(new ByteRange(990, 999));
+    }
+
+    @Test
+    void parse_ignoresUnsupportedHeaders() {
+        assertThat(ByteRange.parse(null, 1000)).isNull();
+        assertThat(ByteRange.parse("items=0-10", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=0-10,20-30", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=abc-", 1000)).isNull();
+        assertThat(ByteRange.parse("bytes=50-10", 1000)).isNull();
+    }
+
+    @Test
+    void parse_detectsUnsatisfiableRanges() {
+        assertThat(ByteRange.parse("bytes=1000-", 1000)).isEqualTo(ByteRange.UNSATISFIABLE);
+        assertThat(ByteRange.parse("bytes=-0", 1000)).isEqualTo(ByteRange.UNSATISFIABLE);
+        assertThat(ByteRange.parse("bytes=0-", 0)).isEqualTo(ByteRange.UNSATISFIABLE);
+    }
+
+    @Test
+    void toContentRange_formatsHeader() {
+        assertThat(new ByteRange(10, 19).toContentRange(100)).isEqualTo("bytes 10-19/100");
+        assertThat(new ByteRange(10, 19).length()).isEqualTo(10);
+        assertThat(ByteRange.UNSATISFIABLE.toContentRange(100)).isEqualTo("bytes */100");
+    }
+}
@@ -0,0 +1,148 @@
+package com.company.crm.test.storage;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.service.storage.CrmFileStorage;
+import com.company.crm.app.service.storage.CrmFileStorageImpl;
+import com.company.crm.model.catalog.category.Category;
+import com.company.crm.model.catalog.item.CategoryItem;
+import com.company.crm.model.catalog.item.UomType;
+import io.jmix.core.FileRef;
+import io.jmix.core.FileStorageException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CrmFileStorageTest extends AbstractServiceTest<CrmFileStorage> {
+
+    @Autowired
+    private CrmFileStorageImpl fileStorageImpl;
+
+    @Test
+    void save_storesEqualContentOnce() throws IOException {
+        String content = "content " + UUID.randomUUID();
+        FileRef first = saveString("first.txt", content);
+        FileRef second = saveString("second.txt", content);
+        FileRef other = saveString("other.txt", content + " changed");
+
+        assertThat(service.getContentDigest(first))
+                .isNotNull()
+                .isEqualTo(service.getContentDigest(second))
+                .isNotEqualTo(service.getContentDigest(other));
+
+        service.removeFile(first);
+
+        assertThat(service.fileExists(first)).isFalse();
+        assertThat(readString(second)).isEqualTo(content);
+
+        service.removeFile(second);
+
+        assertThat(service.fileExists(second)).isFalse();
+        assertThat(readString(other)).isEqualTo(content + " changed");
+    }
+
+    @Test
+    void save_replacesContentOfExistingReference() throws IOException {
+        FileRef fileRef = saveString("file.txt", "old " + UUID.randomUUID());
+        String content = "new " + UUID.randomUUID();
+
+        service.save(fileRef, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(readString(fileRef)).isEqualTo(content);
+    }
+
+    @Test
+    void transferTo_writesRequestedRange() {
+        FileRef fileRef = saveString("range.txt", "0123456789");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long transferred = service.transferTo(fileRef, 3, 100, Channels.newChannel(out));
+
+        assertThat(service.getSize(fileRef)).isEqualTo(10);
+        assertThat(transferred).isEqualTo(7);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("3456789");
+    }
+
+    @Test
+    void collectGarbage_keepsReferencedFiles() throws IOException {
+        String content = "kept " + UUID.randomUUID();
+        FileRef fileRef = saveString("kept.txt", content);
+
+        fileStorageImpl.collectGarbage();
+
+        assertThat(readString(fileRef)).isEqualTo(content);
+    }
+
+    @Test
+    void replacedImage_isRemovedUnlessReferenced() {
+        FileRef oldImage = saveString("old.png", "old " + UUID.randomUUID());
+        FileRef newImage = saveString("new.png", "new " + UUID.randomUUID());
+        Category category = entities.category("Category", "CAT1");
+        CategoryItem item = entities.categoryItem("Item", "ITEM1", category, BigDecimal.ONE, UomType.PIECES);
+        item.setImage(oldImage);
+        item = dataManager.save(item);
+
+        item.setImage(newImage);
+        item = dataManager.save(item);
+        fileStorageImpl.collectGarbage();
+
+        assertThat(service.fileExists(oldImage)).isFalse();
+        assertThatThrownBy(() -> service.openStream(oldImage)).isInstanceOf(FileStorageException.class);
+        assertThat(service.fileExists(newImage)).isTrue();
+
+        // soft-deleted items can be restored, so their images are kept
+        CategoryItem deleted = entities.categoryItem("Deleted", "ITEM2", category, BigDecimal.ONE, UomType.PIECES);
+        deleted.setImage(newImage);
+        dataManager.remove(dataManager.save(deleted));
+        item.setImage(null);
+        dataManager.save(item);
+        fileStorageImpl.collectGarbage();
+
+        assertThat(service.fileExists(newImage)).isTrue();
+    }
+
+    @Test
+    void save_keepsSharedDataWhenPathIsReplacedConcurrently() throws Exception {
+        String content = "shared " + UUID.randomUUID();
+        FileRef fileRef = saveString("replaced.txt", content);
+        FileRef other = saveString("other.txt", content);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> saves = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                byte[] bytes = ("new " + i).getBytes(StandardCharsets.UTF_8);
+                saves.add(executor.submit(() -> service.save(fileRef, new ByteArrayInputStream(bytes))));
+            }
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        }
+
+        assertThat(readString(other)).isEqualTo(content);
+    }
+
+    private FileRef saveString(String fileName, String content) {
+        return service.saveStream(fileName, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String readString(FileRef fileRef) throws IOException {
+        try (InputStream stream = service.openStream(fileRef)) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.company.crm.test.storage;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.listener.FileDownloadServiceInitListener;
+import com.company.crm.app.service.storage.CrmFileStorage;
+import com.company.crm.model.catalog.category.Category;
+import com.company.crm.model.catalog.item.CategoryItem;
+import com.company.crm.model.catalog.item.UomType;
+import com.vaadin.flow.server.RequestHandler;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinServletResponse;
+import com.vaadin.flow.server.VaadinSession;
+import io.jmix.core.FileRef;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class FileDownloadServiceInitListenerTest extends AbstractServiceTest<FileDownloadServiceInitListener> {
+
+    private static final String CONTENT = "0123456789";
+
+    @Autowired
+    private CrmFileStorage fileStorage;
+
+    @Test
+    void handleRequest_servesReferencedFile() throws IOException {
+        FileRef fileRef = saveReferencedFile();
+
+        MockHttpServletResponse response = get(fileRef.getPath(), request -> {
+        });
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("ETag")).isNotBlank();
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void handleRequest_hidesUnreferencedFile() throws IOException {
+        FileRef fileRef = fileStorage.saveStream("unreferenced.txt", contentStream());
+
+        MockHttpServletResponse response = get(fileRef.getPath(), request -> {
+        });
+
+        assertThat(response.getStatus()).isEqualTo(404);
+        assertThat(response.getContentLength()).isZero();
+    }
+
+    @Test
+    void handleRequest_hidesInternalFiles() throws IOException {
+        FileRef fileRef = saveReferencedFile();
+        String digest = fileStorage.getContentDigest(fileRef);
+        // even a catalog item referring to an internal file doesn't expose it
+        FileRef refFile = new FileRef(fileStorage.getStorageName(), "refs/" + fileRef.getPath(), "file.txt");
+        CategoryItem item = entities.categoryItem("Internal", "ITEM2",
+                entities.category("Internal", "CAT2"), BigDecimal.ONE, UomType.PIECES);
+        item.setImage(refFile);
+        dataManager.save(item);
+
+        assertThat(get(refFile.getPath(), request -> {
+        }).getStatus()).isEqualTo(404);
+        assertThat(get("blobs/" + digest, request -> {
+        }).getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void handleRequest_answersNotModifiedForMatchingETag() throws IOException {
+        FileRef fileRef = saveReferencedFile();
+        String etag = get(fileRef.getPath(), request -> {
+        }).getHeader("ETag");
+
+        MockHttpServletResponse response = get(fileRef.getPath(),
+                request -> request.addHeader("If-None-Match", etag));
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo(etag);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void handleRequest_servesRequestedRange() throws IOException {
+        FileRef fileRef = saveReferencedFile();
+
+        MockHttpServletResponse response = get(fileRef.getPath(),
+                request -> request.addHeader("Range", "bytes=2-4"));
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-4/10");
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("234");
+    }
+
+    private FileRef saveReferencedFile() {
+        FileRef fileRef = fileStorage.saveStream("file.txt", contentStream());
+        Category category = entities.category("Category", "CAT1");
+        CategoryItem item = entities.categoryItem("Item", "ITEM1", category, BigDecimal.ONE, UomType.PIECES);
+        item.setImage(fileRef);
+        dataManager.save(item);
+        return fileRef;
+    }
+
+    private MockHttpServletResponse get(String path, Consumer<MockHttpServletRequest> requestCustomizer)
+            throws IOException {
+        ServiceInitEvent event = new ServiceInitEvent(mock(VaadinService.class));
+        service.serviceInit(event);
+        RequestHandler handler = event.getAddedRequestHandlers().findFirst().orElseThrow();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setPathInfo(FileDownloadServiceInitListener.PATH);
+        request.setUserPrincipal(() -> "admin");
+        request.setParameter("path", path);
+        requestCustomizer.accept(request);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean handled = handler.handleRequest(mock(VaadinSession.class),
+                new VaadinServletRequest(request, null), new VaadinServletResponse(response, null));
+
+        assertThat(handled).isTrue();
+        return response;
+    }
+
+    private static ByteArrayInputStream contentStream() {
+        return new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,72 @@
+package com.company.crm.test.storage;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.service.storage.CrmFileStorage;
+import com.company.crm.app.service.storage.ThumbnailService;
+import com.company.crm.app.service.storage.ThumbnailService.ThumbnailSize;
+import io.jmix.core.FileRef;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailServiceTest extends AbstractServiceTest<ThumbnailService> {
+
+    @Autowired
+    private CrmFileStorage fileStorage;
+
+    @Test
+    void getThumbnail_scalesImageToFitSize() throws IOException {
+        FileRef imageRef = fileStorage.saveStream("wide.png", new ByteArrayInputStream(png(1000, 500)));
+
+        Optional<Path> thumbnail = service.getThumbnail(imageRef, ThumbnailSize.SMALL);
+
+        assertThat(thumbnail).isPresent();
+        BufferedImage image = ImageIO.read(thumbnail.get().toFile());
+        assertThat(image.getWidth()).isEqualTo(64);
+        assertThat(image.getHeight()).isEqualTo(32);
+        assertThat(service.getThumbnail(imageRef, ThumbnailSize.SMALL)).contains(thumbnail.get());
+    }
+
+    @Test
+    void getThumbnail_keepsSmallImagesSize() throws IOException {
+        FileRef imageRef = fileStorage.saveStream("small.png", new ByteArrayInputStream(png(20, 10)));
+
+        Optional<Path> thumbnail = service.getThumbnail(imageRef, ThumbnailSize.LARGE);
+
+        assertThat(thumbnail).isPresent();
+        BufferedImage image = ImageIO.read(thumbnail.get().toFile());
+        assertThat(image.getWidth()).isEqualTo(20);
+        assertThat(image.getHeight()).isEqualTo(10);
+    }
+
+    @Test
+    void getThumbnail_returnsEmptyForNonImages() {
+        FileRef fileRef = fileStorage.saveStream("notes.txt",
+                new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(service.getThumbnail(fileRef, ThumbnailSize.SMALL)).isEmpty();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -1,27 +1,35 @@
 package com.company.crm.test.user;
 
 import com.company.crm.AbstractTest;
+import com.company.crm.app.service.user.UserActivityRecorder;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.user.User;
 import com.company.crm.model.user.activity.client.ClientUserActivity;
 import com.company.crm.security.role.ManagerRole;
 import com.company.crm.util.TestUsers;
+import io.jmix.core.SaveContext;
 import io.jmix.core.security.SystemAuthenticator;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class UserActivityRecorderTest extends AbstractTest {
 
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
     @Autowired
     private TestUsers testUsers;
 
     @Autowired
     private SystemAuthenticator systemAuthenticator;
 
+    @Autowired
+    private UserActivityRecorder recorder;
+
     @Test
     void creatingClientByUser_createsActivity() {
         User user = testUsers.ensureUser("activity-recorder-user");
@@ -32,6 +40,7 @@ class UserActivityRecorderTest extends AbstractTest {
         client.setAddress(entities.address());
 
         systemAuthenticator.runWithUser(user.getUsername(), () -> dataManager.save(client));
+        assertThat(recorder.flush(FLUSH_TIMEOUT)).isTrue();
 
         List<ClientUserActivity> activities = dataManager.load(ClientUserActivity.class)
                 .query("e.client = ?1", client)
@@ -41,4 +50,32 @@ class UserActivityRecorderTest extends AbstractTest {
         assertThat(activities.getFirst().getUser()).isEqualTo(user);
         assertThat(activities.getFirst().getActionDescription()).contains("client added");
     }
+
+    @Test
+    void savingManyClients_writesActivityOfEachClient() {
+        User user = testUsers.ensureUser("activity-recorder-bulk-user");
+        testUsers.assignRole(user.getUsername(), ManagerRole.CODE);
+
+        SaveContext saveContext = new SaveContext();
+        for (int i = 0; i < 30; i++) {
+            Client client = dataManager.create(Client.class);
+            client.setName("Bulk Client " + i);
+            client.setAddress(entities.address());
+            saveContext.saving(client);
+        }
+
+        systemAuthenticator.runWithUser(user.getUsername(), () -> dataManager.save(saveContext));
+        assertThat(recorder.flush(FLUSH_TIMEOUT)).isTrue();
+
+        List<ClientUserActivity> activities = dataManager.load(ClientUserActivity.class)
+                .query("e.user = ?1", user)
+                .list();
+
+        assertThat(activities).hasSize(30);
+        assertThat(activities).allSatisfy(activity -> {
+            assertThat(activity.getActionDescription()).startsWith("Bulk Client").endsWith("client added");
+            assertThat(activity.getCreatedBy()).isEqualTo(user.getUsername());
+            assertThat(activity.getCreatedDate()).isNotNull();
+        });
+    }
 }
@@ -0,0 +1,112 @@
+package com.company.crm.test.user;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.service.user.UserActivityRetention;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.user.User;
+import com.company.crm.model.user.activity.UserActivity;
+import com.company.crm.model.user.activity.UserActivityAction;
+import com.company.crm.model.user.activity.client.ClientUserActivity;
+import com.company.crm.model.user.activity.userprofile.UserProfileUserActivity;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserActivityRetentionTest extends AbstractServiceTest<UserActivityRetention> {
+
+    private static final OffsetDateTime JANUARY = OffsetDateTime.of(2020, 1, 10, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime FEBRUARY = JANUARY.plusMonths(1);
+    private static final OffsetDateTime MARCH = JANUARY.plusMonths(2);
+
+    @Test
+    void compactBefore_replacesActivitiesOfMonthWithSummary() {
+        User user = entities.user("retention-user");
+        Client client = entities.client("Retention Client");
+
+        saveClientActivity(user, client, UserActivityAction.ORDER_CREATED, JANUARY);
+        saveClientActivity(user, client, UserActivityAction.ORDER_UPDATED, JANUARY.plusDays(1));
+        saveClientActivity(user, client, UserActivityAction.ORDER_UPDATED, JANUARY.plusDays(2));
+        saveClientActivity(user, client, UserActivityAction.ORDER_UPDATED, FEBRUARY);
+        saveClientActivity(user, client, UserActivityAction.ORDER_UPDATED, FEBRUARY.plusDays(1));
+        saveProfileActivity(user, JANUARY);
+        saveProfileActivity(user, JANUARY.plusDays(1));
+
+        int compacted = service.compactBefore(UserActivity.monthOf(FEBRUARY));
+
+        assertThat(compacted).isEqualTo(2);
+        List<ClientUserActivity> clientActivities = loadClientActivities(client);
+        assertThat(clientActivities).hasSize(3);
+        ClientUserActivity summary = clientActivities.getFirst();
+        assertThat(summary.getAction()).isEqualTo(UserActivityAction.CLIENT_SUMMARY);
+        assertThat(summary.getActionDescription()).isEqualTo("3 client activities");
+        assertThat(summary.getCreatedDate()).isAtSameInstantAs(JANUARY.plusDays(2));
+        assertThat(summary.getUser()).isEqualTo(user);
+
+        assertThat(dataManager.load(UserProfileUserActivity.class).all().list())
+                .extracting(UserActivity::getActionDescription)
+                .containsExactly("2 profile updates");
+    }
+
+    @Test
+    void compactBefore_addsUpExistingSummaries() {
+        User user = entities.user("retention-summary-user");
+        Client client = entities.client("Retention Summary Client");
+
+        saveClientActivity(user, client, UserActivityAction.ORDER_CREATED, JANUARY);
+        saveClientActivity(user, client, UserActivityAction.ORDER_UPDATED, JANUARY.plusDays(1));
+        service.compactBefore(UserActivity.monthOf(FEBRUARY));
+
+        saveClientActivity(user, client, UserActivityAction.ORDER_UPDATED, JANUARY.plusDays(3));
+        service.compactBefore(UserActivity.monthOf(FEBRUARY));
+
+        assertThat(loadClientActivities(client))
+                .extracting(UserActivity::getActionDescription)
+                .containsExactly("3 client activities");
+    }
+
+    @Test
+    void removeBefore_removesActivitiesOfOlderMonths() {
+        User user = entities.user("retention-remove-user");
+        Client client = entities.client("Retention Remove Client");
+
+        saveClientActivity(user, client, UserActivityAction.ORDER_CREATED, JANUARY);
+        saveClientActivity(user, client, UserActivityAction.ORDER_UPDATED, FEBRUARY);
+        saveClientActivity(user, client, UserActivityAction.ORDER_UPDATED, MARCH);
+        saveProfileActivity(user, JANUARY);
+
+        int removed = service.removeBefore(UserActivity.monthOf(MARCH));
+
+        assertThat(removed).isEqualTo(3);
+        assertThat(loadClientActivities(client))
+                .extracting(UserActivity::getCreatedMonth)
+                .containsExactly(UserActivity.monthOf(MARCH));
+        assertThat(dataManager.load(UserProfileUserActivity.class).all().list()).isEmpty();
+    }
+
+    private List<ClientUserActivity> loadClientActivities(Client client) {
+        return dataManager.load(ClientUserActivity.class)
+                .query("e.client = ?1 order by e.createdDate", client)
+                .list();
+    }
+
+    private void saveClientActivity(User user, Client client, UserActivityAction action, OffsetDateTime createdDate) {
+        ClientUserActivity activity = dataManager.create(ClientUserActivity.class);
+        activity.setClient(client);
+        activity.setUser(user);
+        activity.describe(action, "A-1");
+        activity.setCreatedDate(createdDate);
+        saveWithoutReload(activity);
+    }
+
+    private void saveProfileActivity(User user, OffsetDateTime createdDate) {
+        UserProfileUserActivity activity = dataManager.create(UserProfileUserActivity.class);
+        activity.setUser(user);
+        activity.describe(UserActivityAction.PROFILE_UPDATED);
+        activity.setCreatedDate(createdDate);
+        saveWithoutReload(activity);
+    }
+}
@@ -2,6 +2,7 @@ package com.company.crm.test.user;
 
 import com.company.crm.AbstractServiceTest;
 import com.company.crm.app.service.user.UserActivityService;
+import com.company.crm.app.util.date.range.OffsetDateTimeRange;
 import com.company.crm.model.client.Client;
 import com.company.crm.model.user.User;
 import com.company.crm.model.user.activity.UserActivity;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -41,6 +43,40 @@ class UserActivityServiceTest extends AbstractServiceTest<UserActivityService> {
                 .containsExactly("Profile activity", "Client activity");
     }
 
+    @Test
+    void loadActivities_mergesRepositoriesWithOffsetAndCursor() {
+        User user = entities.user("feed-user");
+        User otherUser = entities.user("feed-other-user");
+        Client client = entities.client("Feed Client");
+        OffsetDateTime start = OffsetDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        for (int i = 0; i < 6; i++) {
+            OffsetDateTime createdDate = start.plusMinutes(i);
+            if (i % 3 == 0) {
+                saveProfileActivity(user, "Activity " + i, createdDate);
+            } else {
+                saveClientActivity(user, client, "Activity " + i, createdDate);
+            }
+        }
+        saveClientActivity(otherUser, client, "Other activity", start.plusMinutes(10));
+
+        var range = OffsetDateTimeRange.from(start, start.plusMinutes(5));
+
+        assertThat(service.loadActivities(range, 1, 3))
+                .extracting(UserActivity::getActionDescription)
+                .containsExactly("Activity 4", "Activity 3", "Activity 2");
+
+        var firstPage = service.loadActivities(user, range, null, 4);
+        assertThat(firstPage)
+                .extracting(UserActivity::getActionDescription)
+                .containsExactly("Activity 5", "Activity 4", "Activity 3", "Activity 2");
+
+        var nextPage = service.loadActivities(user, range, service.getCursor(firstPage.getLast()), 4);
+        assertThat(nextPage)
+                .extracting(UserActivity::getActionDescription)
+                .containsExactly("Activity 1", "Activity 0");
+    }
+
     @Test
     void loadClientActivities_filtersByClientAndUser() {
         User user = entities.user("client-activity-user");
@@ -67,4 +103,21 @@ class UserActivityServiceTest extends AbstractServiceTest<UserActivityService> {
                 .extracting(ClientUserActivity::getActionDescription)
                 .containsExactly("Client activity 1");
     }
+
+    private void saveClientActivity(User user, Client client, String description, OffsetDateTime createdDate) {
+        ClientUserActivity activity = dataManager.create(ClientUserActivity.class);
+        activity.setClient(client);
+        activity.setUser(user);
+        activity.setActionDescription(description);
+        activity.setCreatedDate(createdDate);
+        saveWithoutReload(activity);
+    }
+
+    private void saveProfileActivity(User user, String description, OffsetDateTime createdDate) {
+        UserProfileUserActivity activity = dataManager.create(UserProfileUserActivity.class);
+        activity.setUser(user);
+        activity.setActionDescription(description);
+        activity.setCreatedDate(createdDate);
+        saveWithoutReload(activity);
+    }
 }
@@ -0,0 +1,64 @@
+package com.company.crm.test.util;
+
+import com.company.crm.AbstractServiceTest;
+import com.company.crm.app.service.util.BatchPropertiesResolver;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.order.OrderStatus;
+import com.company.crm.model.payment.Payment;
+import io.jmix.core.FetchPlan;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchPropertiesResolverTest extends AbstractServiceTest<BatchPropertiesResolver> {
+
+    @Test
+    void resolve_fillsClientPaymentsForWholeCollection() {
+        Client client1 = entities.client();
+        Client client2 = entities.client();
+        Client client3 = entities.client();
+
+        Invoice invoice1 = entities.invoice(client1, entities.order(client1, LocalDate.now(), OrderStatus.DONE));
+        Invoice invoice2 = entities.invoice(client2, entities.order(client2, LocalDate.now(), OrderStatus.DONE));
+        entities.payment(invoice1, LocalDate.now());
+        entities.payment(invoice1, LocalDate.now());
+        entities.payment(invoice2, LocalDate.now());
+
+        List<Client> clients = dataManager.load(Client.class)
+                .ids(client1.getId(), client2.getId(), client3.getId())
+                .fetchPlan(FetchPlan.BASE)
+                .list();
+
+        service.resolve(clients);
+
+        assertThat(clients).allSatisfy(client -> {
+            int expected = client.equals(client1) ? 2 : client.equals(client2) ? 1 : 0;
+            assertThat(client.getPayments()).hasSize(expected);
+        });
+    }
+
+    @Test
+    void resolve_fillsPaymentOrderAndClient() {
+        Client client = entities.client();
+        Order order = entities.order(client, LocalDate.now(), OrderStatus.DONE);
+        Invoice invoice = entities.invoice(client, order);
+        Payment payment = entities.payment(invoice, LocalDate.now());
+
+        List<Payment> payments = dataManager.load(Payment.class)
+                .ids(payment.getId())
+                .fetchPlan(p -> p.addFetchPlan(FetchPlan.BASE).add("invoice", FetchPlan.INSTANCE_NAME))
+                .list();
+
+        service.resolve(payments);
+
+        Payment loaded = payments.getFirst();
+        assertThat(loaded.getOrder()).isEqualTo(order);
+        assertThat(loaded.getClient()).isEqualTo(client);
+        assertThat(loaded.getOrder().getClient()).isEqualTo(client);
+    }
+}
@@ -0,0 +1,94 @@
+package com.company.crm.test.util;
+
+import com.company.crm.app.util.price.OrderTotals;
+import com.company.crm.app.util.price.PriceCalculator;
+import com.company.crm.model.order.Order;
+import com.company.crm.model.order.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderTotalsTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void runningTotals_matchFullRecalculation() {
+        List<OrderItem> items = new ArrayList<>();
+        Order order = new Order();
+        order.setOrderItems(items);
+        OrderTotals totals = order.trackItemTotals();
+
+        for (int i = 0; i < 10_000; i++) {
+            int action = items.isEmpty() ? 0 : random.nextInt(3);
+            if (action == 0) {
+                OrderItem item = randomItem();
+                items.add(item);
+                totals.put(item);
+            } else if (action == 1) {
+                OrderItem item = items.get(random.nextInt(items.size()));
+                item.setQuantity(randomMoney(100));
+                item.setDiscount(randomMoney(10));
+                totals.put(item);
+            } else {
+                totals.remove(items.remove(random.nextInt(items.size())));
+            }
+
+            assertThat(totals.getItemsTotal()).isEqualByComparingTo(PriceCalculator.calculateItemsTotal(order));
+            assertThat(totals.getSubtotal()).isEqualByComparingTo(PriceCalculator.calculateSubtotal(order));
+            assertThat(totals.getVat()).isEqualByComparingTo(PriceCalculator.calculateVat(order));
+        }
+
+        assertThat(order.verifyItemTotals()).isTrue();
+    }
+
+    @Test
+    void unreportedChanges_areDetected() {
+        OrderItem item = randomItem();
+        Order order = new Order();
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        order.trackItemTotals();
+
+        item.setQuantity(item.getQuantity().add(BigDecimal.ONE));
+
+        assertThat(order.verifyItemTotals()).isFalse();
+        assertThat(order.getItemsTotal()).isEqualByComparingTo(PriceCalculator.calculateItemsTotal(order));
+
+        order.getOrderItems().add(randomItem());
+
+        assertThat(order.getItemsTotal()).isEqualByComparingTo(PriceCalculator.calculateItemsTotal(order));
+    }
+
+    @Test
+    void inexactPrices_fallBackToCalculator() {
+        OrderItem item = randomItem();
+        item.setGrossPrice(new BigDecimal("10.005"));
+
+        OrderTotals totals = OrderTotals.of(List.of(item, randomItem()));
+        assertThat(totals.isExact()).isFalse();
+
+        totals.remove(item);
+        assertThat(totals.isExact()).isTrue();
+    }
+
+    private OrderItem randomItem() {
+        OrderItem item = new OrderItem();
+        item.setId(UUID.randomUUID());
+        BigDecimal netPrice = randomMoney(1_000);
+        item.setNetPrice(netPrice);
+        item.setGrossPrice(netPrice.add(randomMoney(100)));
+        item.setQuantity(randomMoney(100));
+        item.setDiscount(randomMoney(10));
+        return item;
+    }
+
+    private BigDecimal randomMoney(int maxUnits) {
+        return BigDecimal.valueOf(random.nextLong(maxUnits * 100L), 2);
+    }
+}
@@ -0,0 +1,61 @@
+package com.company.crm.test.util;
+
+import com.company.crm.app.util.price.Cents;
+import com.company.crm.app.util.price.PriceCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceCalculatorTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void centsCalculations_matchBigDecimalRounding() {
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal price = randomMoney(1_000_000);
+            BigDecimal quantity = randomMoney(10_000);
+            BigDecimal discount = randomMoney(1_000);
+            BigDecimal percent = randomMoney(100).abs();
+
+            assertThat(Cents.toDecimal(PriceCalculator.calculateNetPrice(Cents.of(price), Cents.of(quantity))))
+                    .isEqualTo(price.signum() <= 0 || quantity.signum() <= 0
+                            ? new BigDecimal("0.00")
+                            : price.multiply(quantity).setScale(2, RoundingMode.HALF_UP));
+
+            assertThat(Cents.toDecimal(PriceCalculator.calculateTotal(
+                    Cents.of(price), Cents.of(quantity), Cents.of(discount))))
+                    .isEqualTo(price.multiply(quantity).subtract(discount).setScale(2, RoundingMode.HALF_UP));
+
+            assertThat(Cents.toDecimal(PriceCalculator.calculateDiscountedTotal(
+                    Cents.of(price), 0, Cents.of(percent))))
+                    .isEqualTo(price.subtract(price.multiply(percent)
+                            .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP)).setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Test
+    void divideHalfUp_roundsTiesAwayFromZero() {
+        assertThat(Cents.divideHalfUp(5, 10)).isEqualTo(1);
+        assertThat(Cents.divideHalfUp(-5, 10)).isEqualTo(-1);
+        assertThat(Cents.divideHalfUp(4, 10)).isZero();
+        assertThat(Cents.divideHalfUp(-4, 10)).isZero();
+    }
+
+    @Test
+    void of_rejectsValuesThatCantBeRepresentedExactly() {
+        assertThat(Cents.of(new BigDecimal("12.3"))).isEqualTo(1230);
+        assertThat(Cents.of(null)).isZero();
+        assertThatThrownBy(() -> Cents.of(new BigDecimal("0.001"))).isInstanceOf(ArithmeticException.class);
+    }
+
+    private BigDecimal randomMoney(int maxUnits) {
+        long cents = random.nextLong(-maxUnits * 10L, maxUnits * 100L);
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,88 @@
+package com.company.crm.test.util;
+
+import com.company.crm.AbstractTest;
+import com.company.crm.app.feature.totalcount.CappedTotalCountStrategy;
+import com.company.crm.app.feature.totalcount.EstimatedTotalCountStrategy;
+import com.company.crm.app.feature.totalcount.TotalCount;
+import com.company.crm.model.client.Client;
+import com.company.crm.model.invoice.Invoice;
+import com.company.crm.model.order.OrderStatus;
+import com.company.crm.model.payment.PaymentRepository;
+import io.jmix.core.querycondition.PropertyCondition;
+import io.jmix.core.repository.JmixDataRepositoryContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TotalCountStrategiesTest extends AbstractTest {
+
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 10);
+
+    @Autowired
+    private CappedTotalCountStrategy cappedStrategy;
+    @Autowired
+    private EstimatedTotalCountStrategy estimatedStrategy;
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void cappedCount_stopsAtCap() {
+        Invoice invoice = createInvoice();
+        for (int i = 0; i < 5; i++) {
+            entities.payment(invoice, DATE);
+        }
+
+        var context = contextOf(invoice);
+        assertThat(cappedStrategy.count(paymentRepository, context, 3))
+                .isEqualTo(new TotalCount(3, TotalCount.Accuracy.AT_LEAST));
+        assertThat(cappedStrategy.count(paymentRepository, context, 3).format()).isEqualTo("3+");
+        assertThat(cappedStrategy.count(paymentRepository, context, 5)).isEqualTo(TotalCount.exact(5));
+    }
+
+    @Test
+    void estimatedCount_followsCommittedChanges() {
+        Invoice invoice = createInvoice();
+        entities.payment(invoice, DATE);
+        entities.payment(invoice, DATE);
+
+        var allPayments = new JmixDataRepositoryContext(null, null, Map.of());
+        assertThat(estimatedStrategy.count(paymentRepository, allPayments).value()).isEqualTo(2);
+        assertThat(estimatedStrategy.count(paymentRepository, contextOf(invoice)).value()).isEqualTo(2);
+
+        entities.payment(invoice, DATE);
+        dataManager.remove(entities.payment(invoice, DATE));
+        entities.payment(invoice, DATE);
+
+        assertThat(estimatedStrategy.count(paymentRepository, allPayments))
+                .isEqualTo(TotalCount.estimated(4));
+        // filtered counts are reused until they expire
+        assertThat(estimatedStrategy.count(paymentRepository, contextOf(invoice)).value()).isEqualTo(2);
+    }
+
+    @Test
+    void paginationCount_keepsNextPageOfInexactCounts() {
+        TotalCount capped = TotalCount.capped(20_000, 10_000);
+        assertThat(capped.toPaginationCount(0, 50, 50)).isEqualTo(10_001);
+        assertThat(capped.toPaginationCount(10_000, 50, 50)).isEqualTo(10_051);
+        assertThat(capped.toPaginationCount(10_050, 50, 20)).isEqualTo(10_070);
+
+        TotalCount estimated = TotalCount.estimated(100);
+        assertThat(estimated.toPaginationCount(0, 50, 50)).isEqualTo(100);
+        assertThat(estimated.toPaginationCount(100, 50, 50)).isEqualTo(151);
+
+        assertThat(TotalCount.exact(100).toPaginationCount(100, 50, 0)).isEqualTo(100);
+    }
+
+    private Invoice createInvoice() {
+        Client client = entities.client();
+        return entities.invoice(client, entities.order(client, DATE, OrderStatus.DONE));
+    }
+
+    private static JmixDataRepositoryContext contextOf(Invoice invoice) {
+        return new JmixDataRepositoryContext(null, PropertyCondition.equal("invoice", invoice), Map.of());
+    }
+}
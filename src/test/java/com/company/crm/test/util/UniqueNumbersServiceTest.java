@@ -2,11 +2,23 @@ package com.company.crm.test.util;
 
 import com.company.crm.AbstractServiceTest;
 import com.company.crm.app.service.util.UniqueNumbersService;
+import com.company.crm.model.client.Client;
 import com.company.crm.model.invoice.Invoice;
 import com.company.crm.model.order.Order;
+import com.company.crm.model.order.OrderStatus;
 import com.company.crm.model.payment.Payment;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static com.company.crm.app.service.util.UniqueNumbersService.INVOICE_NUMBER_PREFIX;
 import static com.company.crm.app.service.util.UniqueNumbersService.ORDER_NUMBER_PREFIX;
 import static com.company.crm.app.service.util.UniqueNumbersService.PAYMENT_NUMBER_PREFIX;
@@ -41,6 +53,58 @@ class UniqueNumbersServiceTest extends AbstractServiceTest<UniqueNumbersService>
         assertThat(poNumber).startsWith(UniqueNumbersService.PURCHASE_ORDER_NUMBER_PREFIX);
     }
 
+    @Test
+    void nextNumber_isUniqueAcrossBlocksAndThreads() throws Exception {
+        List<String> numbers = runConcurrently(16, () -> {
+            List<String> threadNumbers = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                threadNumbers.add(service.getNextInvoiceNumber());
+            }
+            return threadNumbers;
+        });
+
+        assertThat(numbers).hasSize(16 * 50).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void orderNumbers_areUniqueUnderConcurrentInserts() throws Exception {
+        Client client = entities.client();
+
+        List<String> numbers = runConcurrently(8, () -> {
+            List<String> threadNumbers = new ArrayList<>();
+            systemAuthenticator.runWithSystem(() -> {
+                for (int i = 0; i < 10; i++) {
+                    Order order = entities.order(client, LocalDate.now(), OrderStatus.NEW);
+                    threadNumbers.add(order.getNumber());
+                    threadNumbers.add(order.getPurchaseOrder());
+                }
+            });
+            return threadNumbers;
+        });
+
+        Set<String> storedNumbers = new HashSet<>();
+        dataManager.load(Order.class).all().list().forEach(order -> {
+            storedNumbers.add(order.getNumber());
+            storedNumbers.add(order.getPurchaseOrder());
+        });
+        assertThat(numbers).hasSize(8 * 10 * 2).doesNotHaveDuplicates();
+        assertThat(storedNumbers).containsExactlyInAnyOrderElementsOf(numbers);
+    }
+
+    private static List<String> runConcurrently(int threads, Callable<List<String>> task) throws Exception {
+        List<String> result = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<List<String>> future : futures) {
+                result.addAll(future.get());
+            }
+        }
+        return result;
+    }
+
     private long extractNumber(String value) {
         return Long.parseLong(value.substring(value.indexOf('-') + 1));
     }
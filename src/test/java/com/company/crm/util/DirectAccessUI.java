@@ -0,0 +1,30 @@
+package com.company.crm.util;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Command;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * UI without a session, running commands in the calling thread.
+ */
+public class DirectAccessUI extends UI {
+
+    private final AtomicInteger accessCount = new AtomicInteger();
+
+    @Override
+    public Future<Void> access(Command command) {
+        accessCount.incrementAndGet();
+        command.execute();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Returns the number of {@link #access(Command)} calls.
+     */
+    public int getAccessCount() {
+        return accessCount.get();
+    }
+}
@@ -1,6 +1,10 @@
 package com.company.crm.util.extenstion;
 
 import ch.qos.logback.classic.Level;
+import com.company.crm.app.feature.totalcount.EstimatedTotalCountStrategy;
+import com.company.crm.app.service.analytics.AnalyticsResultCache;
+import com.company.crm.app.service.analytics.OrderFactStore;
+import com.company.crm.app.service.user.UserActivityRecorder;
 import com.company.crm.app.util.log.LoggerUtils;
 import com.company.crm.model.base.UuidEntity;
 import com.company.crm.model.catalog.category.Category;
@@ -26,6 +30,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.jdbc.JdbcTestUtils;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.List;
 import javax.sql.DataSource;
 
@@ -51,6 +56,8 @@ public class DataCleaner implements AfterAllCallback, AfterEachCallback {
     );
     private static final Logger log = LoggerFactory.getLogger(DataCleaner.class);
 
+    private static final Duration ACTIVITY_FLUSH_TIMEOUT = Duration.ofSeconds(30);
+
     @Override
     public void afterAll(ExtensionContext context) {
         cleanData(context);
@@ -75,10 +82,17 @@ public class DataCleaner implements AfterAllCallback, AfterEachCallback {
 
     private void cleanData(ExtensionContext context) {
         log.info("Removing test data...");
+        ExtensionUtils.getBean(context, UserActivityRecorder.class).flush(ACTIVITY_FLUSH_TIMEOUT);
         var dataSource = ExtensionUtils.getBean(context, DataSource.class);
         String[] tablesToClean = getTablesToClean(context);
         LoggerUtils.runWithLevel(JdbcTestUtils.class, Level.WARN, () ->
                 deleteFromTables(new JdbcTemplate(dataSource), tablesToClean));
+        var orderFactStore = ExtensionUtils.getBean(context, OrderFactStore.class);
+        if (orderFactStore.isEnabled()) {
+            orderFactStore.rebuild();
+        }
+        ExtensionUtils.getBean(context, AnalyticsResultCache.class).invalidateAll();
+        ExtensionUtils.getBean(context, EstimatedTotalCountStrategy.class).reset();
         log.info("Test data has been removed");
     }
 